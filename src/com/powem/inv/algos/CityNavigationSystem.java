@@ -26,103 +26,155 @@ package com.powem.inv.algos;
 //between two points considering only open roads.
 
 
+import com.powem.inv.algos.navigation.AltRouter;
+import com.powem.inv.algos.navigation.DijkstraRouter;
+import com.powem.inv.algos.navigation.DistanceMatrix;
+import com.powem.inv.algos.navigation.RoadGraph;
+import com.powem.inv.algos.navigation.RouteCache;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+// Roads are collected in a RoadGraph.Builder and frozen into a compressed sparse row graph on the
+// first query, so searches run over int arrays instead of per-road objects and String keys.
+// Adding a road to a frozen map copies it back into a builder.
+//
+// Found routes are kept in a RouteCache. Closing a road drops only the cached routes over it;
+// opening one drops those it could shorten, judged by landmark bounds once preprocess() has run.
 public class CityNavigationSystem {
-  private static class Road {
-    String endPoint;
-    int distance;
-    boolean isOpen;
-
-    Road(String endPoint, int distance, boolean isOpen) {
-      if(distance <= 0 ) {
-        throw new IllegalArgumentException("invalid distance");
-      }
-      this.endPoint = endPoint;
-      this.distance = distance;
-      this.isOpen = isOpen;
-    }
-  }
+  private static final int ROUTE_CACHE_SIZE = 10_000;
 
-  private Map<String, List<Road>> cityMap;
+  private RoadGraph.Builder builder;
+  private RoadGraph graph;
+  private DijkstraRouter dijkstra;
+  private DistanceMatrix matrix;
+  // Set by preprocess(); dropped again when a road is added.
+  private AltRouter router;
+  private final RouteCache routeCache = new RouteCache(ROUTE_CACHE_SIZE);
 
   public CityNavigationSystem() {
-    cityMap = new HashMap<>();
+    builder = new RoadGraph.Builder();
   }
 
   public void addRoad(String startPoint, String endPoint, int distance) {
-    cityMap.computeIfAbsent(startPoint, k -> new ArrayList<>()).add(new Road(endPoint, distance, true));
-    cityMap.computeIfAbsent(endPoint, k -> new ArrayList<>()).add(new Road(startPoint, distance, true));
+    if (distance <= 0) {
+      throw new IllegalArgumentException("invalid distance");
+    }
+    if (builder == null) {
+      builder = graph.toBuilder();
+      graph = null;
+      dijkstra = null;
+      matrix = null;
+      router = null;
+      routeCache.clear();
+    }
+    builder.addRoad(startPoint, endPoint, distance);
+  }
+
+  // Precomputes ALT landmark distances, so that findShortestPath runs A* instead of a full
+  // Dijkstra. Road closures and openings keep the preprocessing; adding a road discards it until
+  // this is called again.
+  public void preprocess(int landmarkCount) {
+    router = new AltRouter(frozen(), landmarkCount);
+  }
+
+  public boolean isPreprocessed() {
+    return router != null;
   }
 
   public void updateRoadStatus(String startPoint, String endPoint, boolean isOpen) {
-    if (cityMap.containsKey(startPoint)) {
-      cityMap.get(startPoint).stream()
-          .filter(road -> road.endPoint.equals(endPoint))
-          .forEach(road -> road.isOpen = isOpen);
+    RoadGraph roads = frozen();
+    int start = roads.idOf(startPoint);
+    int end = roads.idOf(endPoint);
+    if (start < 0 || end < 0) {
+      return;
     }
-    if (cityMap.containsKey(endPoint)) {
-      cityMap.get(endPoint).stream()
-          .filter(road -> road.endPoint.equals(startPoint))
-          .forEach(road -> road.isOpen = isOpen);
+    boolean changed = roads.setOpen(start, end, isOpen);
+    changed |= roads.setOpen(end, start, isOpen);
+    if (!changed) {
+      return;
+    }
+    if (!isOpen) {
+      routeCache.roadClosed(start, end);
+    } else {
+      routeCache.roadOpened(start, end, roads.roadLength(start, end),
+          router != null ? router::lowerBound : (from, to) -> 0);
     }
   }
 
   public List<String> findShortestPath(String startPoint, String endPoint) {
-    if (!cityMap.containsKey(startPoint) || !cityMap.containsKey(endPoint)) {
+    RoadGraph roads = frozen();
+    int start = roads.idOf(startPoint);
+    int end = roads.idOf(endPoint);
+    if (start < 0 || end < 0) {
       throw new IllegalArgumentException("Start or end point does not exist in the map");
     }
+    int[] nodes = null;
+    if (start != end) {
+      nodes = routeCache.get(start, end);
+      if (nodes == null) {
+        DijkstraRouter search = router != null ? router : dijkstra;
+        nodes = search.route(start, end);
+        if (nodes != null) {
+          routeCache.put(start, end, nodes, search.getDistance());
+        }
+      }
+    }
+    if (nodes == null) {
+      throw new IllegalArgumentException("No valid path found");
+    }
+    List<String> path = new ArrayList<>(nodes.length);
+    for (int node : nodes) {
+      path.add(roads.nameOf(node));
+    }
+    return path;
+  }
 
-    Map<String, Integer> distances = new HashMap<>();
-    Map<String, String> previous = new HashMap<>();
-    Set<String> visited = new HashSet<>();
-    PriorityQueue<String> queue = new PriorityQueue<>(Comparator.comparingInt(distances::get));
-
-    distances.put(startPoint, 0);
-    queue.add(startPoint);
+  // Shortest distance from every origin to every destination, -1 where there is no route. Runs
+  // one search per origin in parallel on the common pool.
+  public int[][] distanceMatrix(List<String> origins, List<String> destinations) {
+    return distanceMatrix(origins, destinations, ForkJoinPool.commonPool());
+  }
 
-    while (!queue.isEmpty()) {
-      String current = queue.poll();
-      if (current.equals(endPoint)) {
-        break;
-      }
-      visited.add(current);
+  public int[][] distanceMatrix(List<String> origins, List<String> destinations, ForkJoinPool pool) {
+    RoadGraph roads = frozen();
+    int[] sources = ids(roads, origins);
+    int[] targets = ids(roads, destinations);
+    int[] flat = matrix.compute(sources, targets, pool);
+    int[][] rows = new int[sources.length][];
+    for (int row = 0; row < rows.length; row++) {
+      rows[row] = Arrays.copyOfRange(flat, row * targets.length, (row + 1) * targets.length);
+    }
+    return rows;
+  }
 
-      for (Road road : cityMap.getOrDefault(current, Collections.emptyList())) {
-        if (!road.isOpen || visited.contains(road.endPoint)) {
-          continue;
-        }
-        int newDist = distances.getOrDefault(current, Integer.MAX_VALUE) + road.distance;
-        if (newDist < distances.getOrDefault(road.endPoint, Integer.MAX_VALUE)) {
-          distances.put(road.endPoint, newDist);
-          previous.put(road.endPoint, current);
-          queue.add(road.endPoint);
-        }
+  private static int[] ids(RoadGraph roads, List<String> points) {
+    int[] ids = new int[points.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = roads.idOf(points.get(i));
+      if (ids[i] < 0) {
+        throw new IllegalArgumentException("Start or end point does not exist in the map");
       }
     }
+    return ids;
+  }
 
-    if (!previous.containsKey(endPoint)) {
-      throw new IllegalArgumentException("No valid path found");
-    }
+  public RouteCache getRouteCache() {
+    return routeCache;
+  }
 
-    List<String> path = new ArrayList<>();
-    for (String at = endPoint; at != null; at = previous.get(at)) {
-      path.add(at);
+  private RoadGraph frozen() {
+    if (builder != null) {
+      graph = builder.build();
+      builder = null;
+      dijkstra = new DijkstraRouter(graph);
+      matrix = new DistanceMatrix(graph);
     }
-    Collections.reverse(path);
-    return path;
+    return graph;
   }
 }
 
-
 //import java.util.Arrays;
 //import java.util.List;
 //
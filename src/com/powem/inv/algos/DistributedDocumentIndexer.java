@@ -25,59 +25,171 @@ package com.powem.inv.algos;
 //servers.
 
 
+import com.powem.inv.algos.indexing.Bm25Index;
+import com.powem.inv.algos.indexing.KeywordIndex;
+import com.powem.inv.algos.indexing.PositionalIndex;
+import com.powem.inv.algos.indexing.ScoredDocument;
+import com.powem.inv.algos.indexing.SegmentStore;
+import com.powem.inv.algos.indexing.ShardedKeywordIndex;
+import com.powem.inv.algos.indexing.SingleMapKeywordIndex;
+import com.powem.inv.strings.TextTokenizer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DistributedDocumentIndexer {
+    private static final ThreadLocal<TextTokenizer> TOKENIZER =
+        ThreadLocal.withInitial(() -> new TextTokenizer(TextTokenizer.Mode.WHITESPACE));
+    private static final int LOCK_STRIPES = 64;
+
     private Map<String, Map<String, String>> servers; // serverId -> (documentId -> content)
-    private Map<String, Set<String>> index; // keyword -> set of documentIds
+    private KeywordIndex index; // keyword -> set of documentIds
+    private final boolean concurrent;
+    private final Bm25Index ranking; // null when full-text search is disabled
+    private final PositionalIndex positions; // null when full-text search is disabled
+    private final Object fullTextLock = new Object(); // guards ranking and positions updates
+    // Updates to one document id run one at a time, so replacing or removing it can't interleave
+    // with another update and leave postings of content that is no longer stored.
+    private final Object[] documentLocks = new Object[LOCK_STRIPES];
+    private SegmentStore store; // null unless opened on a directory
 
     public DistributedDocumentIndexer() {
-        this.servers = new HashMap<>();
-        this.index = new HashMap<>();
+        this(new SingleMapKeywordIndex(), false);
+    }
+
+    // Sharded mode: keywords are striped over shardCount partitions and every method may be called
+    // from multiple ingest and query threads at once.
+    public DistributedDocumentIndexer(int shardCount) {
+        this(new ShardedKeywordIndex(shardCount));
+    }
+
+    public DistributedDocumentIndexer(KeywordIndex index) {
+        this(index, false);
+    }
+
+    // fullText keeps term frequencies, document lengths and token positions for searchTopK and
+    // searchBoolean. Those updates and boolean queries share one lock, so a sharded indexer only
+    // scales ingest without it.
+    public DistributedDocumentIndexer(KeywordIndex index, boolean fullText) {
+        if (index == null) {
+            throw new IllegalArgumentException("Index cannot be null");
+        }
+        this.index = index;
+        this.concurrent = index.isConcurrent();
+        this.servers = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.ranking = fullText ? new Bm25Index() : null;
+        this.positions = fullText ? new PositionalIndex() : null;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            documentLocks[i] = new Object();
+        }
     }
 
+    // Persistent mode: documents are buffered on the heap until flush() writes them as an immutable
+    // segment in directory. Existing segments are memory mapped, not loaded. Removing a stored
+    // document is on disk immediately; replacing one keeps the old copy on disk until the flush.
+    public DistributedDocumentIndexer(Path directory) {
+        this(new SingleMapKeywordIndex(), false);
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        try {
+            this.store = SegmentStore.open(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Documents added since the last flush; flushed documents live in the segments.
     public Map<String, Map<String, String>> getServers() {
         return this.servers;
     }
 
+    // A copy in every mode; it doesn't follow later updates.
     public Map<String, Set<String>> getIndex() {
-        return this.index;
+        return this.index.asMap();
+    }
+
+    public boolean isConcurrent() {
+        return this.concurrent;
     }
 
     public void addDocument(String serverId, String documentId, String content) {
         if (serverId == null || serverId.isEmpty() || documentId == null || documentId.isEmpty() || content == null) {
             throw new IllegalArgumentException("Invalid input");
         }
-        servers.putIfAbsent(serverId, new HashMap<>());
-        servers.get(serverId).put(documentId, content);
-        indexContent(documentId, content);
+        synchronized (lockFor(documentId)) {
+            String previous = servers.computeIfAbsent(serverId, k -> concurrent ? new ConcurrentHashMap<>() : new HashMap<>())
+                .put(documentId, content);
+            if (store != null) {
+                store.supersede(serverId, documentId);
+            }
+            if (previous != null) {
+                deindexContent(documentId, previous);
+            }
+            indexContent(documentId, content);
+        }
+    }
+
+    private Object lockFor(String documentId) {
+        return documentLocks[documentId.hashCode() & (LOCK_STRIPES - 1)];
     }
 
     private void indexContent(String documentId, String content) {
-        Arrays.stream(content.split("\\s+")).forEach(keyword -> {
-            index.putIfAbsent(keyword.toLowerCase(), new HashSet<>());
-            index.get(keyword.toLowerCase()).add(documentId);
-        });
+        List<String> tokens = tokenize(content);
+        tokens.forEach(keyword -> index.add(keyword, documentId));
+        if (ranking != null) {
+            synchronized (fullTextLock) {
+                ranking.addDocument(documentId, tokens);
+                positions.addDocument(documentId, tokens);
+            }
+        }
     }
 
     public void removeDocument(String serverId, String documentId) {
-        if (serverId == null || !servers.containsKey(serverId) || !servers.get(serverId).containsKey(documentId)) {
+        if (serverId == null || serverId.isEmpty() || documentId == null || documentId.isEmpty()) {
             throw new IllegalArgumentException("Document or server not found");
         }
-        String content = servers.get(serverId).remove(documentId);
-        deindexContent(documentId, content);
+        synchronized (lockFor(documentId)) {
+            Map<String, String> documents = servers.get(serverId);
+            String content = documents == null ? null : documents.remove(documentId);
+            if (store != null && deleteStored(serverId, documentId) && content == null) {
+                return;
+            }
+            if (content == null) {
+                throw new IllegalArgumentException("Document or server not found");
+            }
+            deindexContent(documentId, content);
+            // The same id may still be stored on another server; its content is what stays searchable.
+            String survivor = contentElsewhere(documentId);
+            if (survivor != null) {
+                indexContent(documentId, survivor);
+            }
+        }
+    }
+
+    private String contentElsewhere(String documentId) {
+        for (Map<String, String> documents : servers.values()) {
+            String content = documents.get(documentId);
+            if (content != null) {
+                return content;
+            }
+        }
+        return null;
     }
 
     private void deindexContent(String documentId, String content) {
-        Arrays.stream(content.split("\\s+")).forEach(keyword -> {
-            Set<String> docs = index.get(keyword.toLowerCase());
-            if (docs != null) {
-                docs.remove(documentId);
-                if (docs.isEmpty()) {
-                    index.remove(keyword.toLowerCase());
-                }
+        List<String> tokens = tokenize(content);
+        tokens.forEach(keyword -> index.remove(keyword, documentId));
+        if (ranking != null) {
+            synchronized (fullTextLock) {
+                ranking.removeDocument(documentId);
+                positions.removeDocument(documentId);
             }
-        });
+        }
     }
 
     public List<String> searchDocuments(String query) {
@@ -85,15 +197,119 @@ public class DistributedDocumentIndexer {
             throw new IllegalArgumentException("Query cannot be empty");
         }
         Set<String> results = new HashSet<>();
-        Arrays.stream(query.split("\\s+")).forEach(
+        tokenize(query).forEach(
             keyword -> {
-                if (index.containsKey(keyword.toLowerCase())) {
-                    results.addAll(index.get(keyword.toLowerCase()));
+                results.addAll(index.lookup(keyword));
+                if (store != null) {
+                    store.collect(keyword, results);
                 }
             }
         );
         return new ArrayList<>(results);
     }
+
+    private boolean deleteStored(String serverId, String documentId) {
+        try {
+            return store.delete(serverId, documentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes buffered documents, and drops the stored copies they replace, and empties the heap buffer.
+    public void flush() {
+        requireStore();
+        try {
+            store.flush(servers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        servers.clear();
+        index.clear();
+    }
+
+    // Merges all segments into one, dropping deleted documents for good.
+    public void mergeSegments() {
+        requireStore();
+        try {
+            store.merge();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void requireStore() {
+        if (store == null) {
+            throw new IllegalStateException("Indexer is not backed by a segment directory");
+        }
+    }
+
+    // The k best matches for the query by BM25 score, best first.
+    public List<ScoredDocument> searchTopK(String query, int k) {
+        if (query == null || query.isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be empty");
+        }
+        if (ranking == null) {
+            throw new IllegalStateException("Ranked search is not enabled for this indexer");
+        }
+        return ranking.topK(tokenize(query), k);
+    }
+
+    // Lazily matches documents against a boolean query. Plain or +prefixed words are required,
+    // -prefixed words are excluded and "quoted words" must appear as a phrase, e.g.
+    // java -python "distributed systems". The stream must be consumed before the index changes; a
+    // concurrent indexer collects the matches under the full-text lock instead.
+    public Stream<String> searchBoolean(String query) {
+        if (query == null || query.isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be empty");
+        }
+        if (positions == null) {
+            throw new IllegalStateException("Boolean search is not enabled for this indexer");
+        }
+        List<String> required = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        List<List<String>> phrases = new ArrayList<>();
+        String[] quoted = query.split("\"", -1);
+        for (int i = 0; i < quoted.length; i++) {
+            if (i % 2 == 1) {
+                List<String> phrase = tokenize(quoted[i]);
+                if (!phrase.isEmpty()) {
+                    phrases.add(phrase);
+                }
+                continue;
+            }
+            for (String word : tokenize(quoted[i])) {
+                if (word.startsWith("-") && word.length() > 1) {
+                    excluded.add(word.substring(1));
+                } else if (word.startsWith("+") && word.length() > 1) {
+                    required.add(word.substring(1));
+                } else {
+                    required.add(word);
+                }
+            }
+        }
+        if (concurrent) {
+            List<String> matches = new ArrayList<>();
+            synchronized (fullTextLock) {
+                positions.query(required, phrases, excluded)
+                    .forEachRemaining((int id) -> matches.add(positions.documentIdOf(id)));
+            }
+            return matches.stream();
+        }
+        PrimitiveIterator.OfInt matches = positions.query(required, phrases, excluded);
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(matches, Spliterator.ORDERED), false)
+            .mapToObj(positions::documentIdOf);
+    }
+
+    // Whitespace separated, lowercased tokens.
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        TextTokenizer tokenizer = TOKENIZER.get().reset(text);
+        while (tokenizer.next()) {
+            tokens.add(tokenizer.toString());
+        }
+        return tokens;
+    }
 }
 
 //import com.powem.inv.algos.ClimateAnomalyDetector;
@@ -30,25 +30,36 @@ package com.powem.inv.algos;
 //considering the current interaction strengths.
 
 
+import com.powem.inv.algos.genes.ExpressionEngine;
+import com.powem.inv.algos.genes.GeneNetwork;
+import com.powem.inv.algos.genes.SourceTreeCache;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.PriorityQueue;
-import java.util.Set;
 
+// getNetwork() keeps the String-keyed view. Alongside it genes and interactions are collected in a
+// GeneNetwork.Builder and frozen into a compressed sparse row network on the first signal path
+// query, so searches run over int ids and double arrays with a reused per-thread workspace.
+// Condition updates and reconnecting an existing pair change the frozen arrays in place; only a
+// new gene or a new interaction copies the network back into a builder.
+//
+// Source genes that are queried repeatedly get a shortest path tree in a SourceTreeCache. Condition
+// updates, singly or in batches, repair the cached trees rather than dropping them.
+//
+// createExpressionEngine() runs expression levels forward in time over the frozen network.
 public class GeneExpressionSimulator {
+    private static final int SOURCE_TREE_CACHE_SIZE = 16;
+
     private Map<String, Map<String, Double>> network;
-    private Map<Pair<String, String>, Double> baseInteractions;
+    private GeneNetwork.Builder builder;
+    private GeneNetwork compiled;
+    private SourceTreeCache trees;
 
     public GeneExpressionSimulator() {
         this.network = new HashMap<>();
-        this.baseInteractions = new HashMap<>();
+        this.builder = new GeneNetwork.Builder();
     }
 
     public Map<String, Map<String, Double>> getNetwork() {
@@ -59,17 +70,29 @@ public class GeneExpressionSimulator {
         if (geneId == null || geneId.isEmpty()) {
             throw new IllegalArgumentException("Invalid input");
         }
-        network.putIfAbsent(geneId, new HashMap<>());
+        if (network.putIfAbsent(geneId, new HashMap<>()) == null) {
+            editable().addGene(geneId);
+        }
     }
 
     public void connectGenes(String geneId1, String geneId2, double baseInteractionStrength) {
         if (geneId1 == null || geneId1.isEmpty() || geneId2 == null || geneId2.isEmpty() || baseInteractionStrength < 0) {
             throw new IllegalArgumentException("Invalid input");
         }
+        if (!network.containsKey(geneId1) || !network.containsKey(geneId2)) {
+            throw new IllegalArgumentException("One or both genes do not exist in the network.");
+        }
         network.get(geneId1).put(geneId2, baseInteractionStrength);
         network.get(geneId2).put(geneId1, baseInteractionStrength);
-        baseInteractions.put(new Pair<>(geneId1, geneId2), baseInteractionStrength);
-        baseInteractions.put(new Pair<>(geneId2, geneId1), baseInteractionStrength);
+        if (builder == null) {
+            int gene1 = compiled.idOf(geneId1);
+            int gene2 = compiled.idOf(geneId2);
+            if (compiled.setBaseStrength(gene1, gene2, baseInteractionStrength)) {
+                trees.strengthChanged(gene1, gene2);
+                return;
+            }
+        }
+        editable().connect(geneId1, geneId2, baseInteractionStrength);
     }
 
     public void updateConditions(String geneId1, String geneId2, double currentConditionFactor) {
@@ -80,99 +103,135 @@ public class GeneExpressionSimulator {
             throw new IllegalArgumentException("One or both genes do not exist in the network.");
         }
 
-        Pair<String, String> pair = new Pair<>(geneId1, geneId2);
-        if (!baseInteractions.containsKey(pair)) {
+        double adjustedStrength;
+        if (builder != null) {
+            adjustedStrength = builder.updateCondition(geneId1, geneId2, currentConditionFactor);
+        } else {
+            int gene1 = compiled.idOf(geneId1);
+            int gene2 = compiled.idOf(geneId2);
+            adjustedStrength = compiled.updateCondition(gene1, gene2, currentConditionFactor);
+            if (adjustedStrength != GeneNetwork.NO_INTERACTION) {
+                trees.strengthChanged(gene1, gene2);
+            }
+        }
+        if (adjustedStrength == GeneNetwork.NO_INTERACTION) {
             throw new IllegalArgumentException("No existing interaction between these genes.");
         }
-
-        double baseStrength = baseInteractions.get(pair);
-        double adjustedStrength = baseStrength * currentConditionFactor;
         network.get(geneId1).put(geneId2, adjustedStrength);
         network.get(geneId2).put(geneId1, adjustedStrength);
     }
 
-
-    public List<String> findOptimalSignalPath(String sourceGene, String targetGene) {
-        if (sourceGene == null || sourceGene.isEmpty() || targetGene == null || targetGene.isEmpty()) {
+    // Applies updateConditions to every (geneIds1[i], geneIds2[i]) pair with conditionFactors[i].
+    // The whole batch is checked first, so an invalid pair leaves every strength unchanged. The
+    // cached shortest path trees are repaired once for the batch.
+    public void updateConditions(List<String> geneIds1, List<String> geneIds2, double[] conditionFactors) {
+        if (geneIds1 == null || geneIds2 == null || conditionFactors == null || geneIds1.size() != geneIds2.size()
+            || geneIds1.size() != conditionFactors.length) {
             throw new IllegalArgumentException("Invalid input");
         }
-        Map<String, Double> dist = new HashMap<>();
-        PriorityQueue<Pair<String, Double>> pq = new PriorityQueue<>(Comparator.comparingDouble(Pair::getSecond));
-        Map<String, String> prev = new HashMap<>();
-        Set<String> visited = new HashSet<>();
-
-        for (String gene : network.keySet()) {
-            dist.put(gene, Double.MAX_VALUE);
-        }
-        dist.put(sourceGene, 0.0);
-        pq.add(new Pair<>(sourceGene, 0.0));
-
-        while (!pq.isEmpty()) {
-            Pair<String, Double> pair = pq.poll();
-            String current = pair.getFirst();
-            if (!visited.add(current)) {
-                continue;
+        int count = conditionFactors.length;
+        for (int i = 0; i < count; i++) {
+            String geneId1 = geneIds1.get(i);
+            String geneId2 = geneIds2.get(i);
+            if (geneId1 == null || geneId1.isEmpty() || geneId2 == null || geneId2.isEmpty() || conditionFactors[i] < 0) {
+                throw new IllegalArgumentException("Invalid input");
             }
-            if (current.equals(targetGene)) {
-                break;
+            if (!network.containsKey(geneId1) || !network.containsKey(geneId2)) {
+                throw new IllegalArgumentException("One or both genes do not exist in the network.");
             }
-
-            for (Map.Entry<String, Double> entry : network.get(current).entrySet()) {
-                String neighbor = entry.getKey();
-                double weight = entry.getValue();
-                double newDist = dist.get(current) + weight;
-                if (newDist < dist.get(neighbor)) {
-                    dist.put(neighbor, newDist);
-                    prev.put(neighbor, current);
-                    pq.add(new Pair<>(neighbor, newDist));
-                }
+            if (!network.get(geneId1).containsKey(geneId2)) {
+                throw new IllegalArgumentException("No existing interaction between these genes.");
             }
         }
-
-        List<String> path = new ArrayList<>();
-        for (String at = targetGene; at != null; at = prev.get(at)) {
-            path.add(at);
+        if (builder != null) {
+            for (int i = 0; i < count; i++) {
+                updateConditions(geneIds1.get(i), geneIds2.get(i), conditionFactors[i]);
+            }
+            return;
+        }
+        int[] genes1 = new int[count];
+        int[] genes2 = new int[count];
+        for (int i = 0; i < count; i++) {
+            String geneId1 = geneIds1.get(i);
+            String geneId2 = geneIds2.get(i);
+            genes1[i] = compiled.idOf(geneId1);
+            genes2[i] = compiled.idOf(geneId2);
+            double adjustedStrength = compiled.updateCondition(genes1[i], genes2[i], conditionFactors[i]);
+            network.get(geneId1).put(geneId2, adjustedStrength);
+            network.get(geneId2).put(geneId1, adjustedStrength);
         }
-        Collections.reverse(path);
-        return path.isEmpty() ? Collections.singletonList("No path available") : path;
+        trees.strengthsChanged(genes1, genes2, count);
     }
 
-    private static class Pair<T, U> {
-        private final T first;
-        private final U second;
-
-        public Pair(T first, U second) {
-            this.first = first;
-            this.second = second;
+    public List<String> findOptimalSignalPath(String sourceGene, String targetGene) {
+        if (sourceGene == null || sourceGene.isEmpty() || targetGene == null || targetGene.isEmpty()) {
+            throw new IllegalArgumentException("Invalid input");
         }
-
-        public T getFirst() {
-            return first;
+        GeneNetwork genes = frozen();
+        int source = genes.idOf(sourceGene);
+        int target = genes.idOf(targetGene);
+        if (source < 0 || target < 0) {
+            throw new IllegalArgumentException("One or both genes do not exist in the network.");
         }
-
-        public U getSecond() {
-            return second;
+        int[] ids = trees.route(source, target);
+        if (ids == null) {
+            return Collections.singletonList("No path available");
+        }
+        List<String> path = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            path.add(genes.nameOf(id));
         }
+        return path;
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
+    // An expression simulation over the current network. Genes missing from initialLevels start
+    // at 0. See ExpressionEngine for the model.
+    public ExpressionEngine createExpressionEngine(Map<String, Double> initialLevels, double timeStep,
+        double production, double decay) {
+        if (initialLevels == null) {
+            throw new IllegalArgumentException("Invalid input");
+        }
+        GeneNetwork genes = frozen();
+        double[] levels = new double[genes.geneCount()];
+        for (Map.Entry<String, Double> entry : initialLevels.entrySet()) {
+            int gene = genes.idOf(entry.getKey());
+            if (gene < 0) {
+                throw new IllegalArgumentException("Gene does not exist in the network: " + entry.getKey());
             }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Invalid input");
             }
-            Pair<?, ?> pair = (Pair<?, ?>) o;
-            return Objects.equals(first, pair.first) &&
-                Objects.equals(second, pair.second);
+            levels[gene] = entry.getValue();
         }
+        return new ExpressionEngine(genes, levels, timeStep, production, decay);
+    }
+
+    public GeneNetwork getCompiledNetwork() {
+        return frozen();
+    }
+
+    public SourceTreeCache getSourceTrees() {
+        frozen();
+        return trees;
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(first, second);
+    private GeneNetwork.Builder editable() {
+        if (builder == null) {
+            builder = compiled.toBuilder();
+            compiled = null;
+            trees = null;
         }
+        return builder;
     }
 
+    private GeneNetwork frozen() {
+        if (builder != null) {
+            compiled = builder.build();
+            builder = null;
+            trees = new SourceTreeCache(compiled, SOURCE_TREE_CACHE_SIZE);
+        }
+        return compiled;
+    }
 }
 
 
@@ -15,57 +15,203 @@ package com.powem.inv.algos;
 //    executeTrade: Executes a trade action based on the opportunities identified.
 
 
+import com.powem.inv.algos.trading.ArbitrageIndex;
+import com.powem.inv.algos.trading.ArbitrageListener;
+import com.powem.inv.algos.trading.InternTable;
+import com.powem.inv.algos.trading.MarketDataStore;
+import com.powem.inv.algos.trading.TradeActionPool;
+import com.powem.inv.algos.trading.TradeJournal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class HighFrequencyTradingSimulator {
-    private Map<String, Map<String, Double>> marketData; // MarketID -> (Symbol -> Price)
+    // Starting capacities; markets, symbols and the arbitrage index all grow past them.
+    private static final int INITIAL_MARKETS = 32;
+    private static final int INITIAL_SYMBOLS = 4_096;
+    private static final int LOCK_STRIPES = 64;
+
+    // Market and symbol names are interned to ints and prices live in primitive rows, so
+    // feed threads can publish ticks concurrently without boxing while readers take snapshots.
+    private final MarketDataStore marketData;
+    // Event-driven mode: best buy/sell market per symbol, kept up to date by every tick.
+    private volatile ArbitrageIndex arbitrageIndex;
+    private final Object[] symbolLocks = new Object[LOCK_STRIPES];
+    // Executions go to the binary journal when one is set, otherwise to stdout.
+    private volatile TradeJournal tradeJournal;
 
     public HighFrequencyTradingSimulator() {
-        this.marketData = new HashMap<>();
+        this(INITIAL_MARKETS, INITIAL_SYMBOLS);
     }
 
-    public Map<String, Map<String, Double>> getMarketData() {
+    public HighFrequencyTradingSimulator(int initialMarkets, int initialSymbols) {
+        this.marketData = new MarketDataStore(initialMarkets, initialSymbols);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            symbolLocks[i] = new Object();
+        }
+    }
+
+    public MarketDataStore getMarketDataStore() {
         return this.marketData;
     }
 
+    // Snapshot copy: MarketID -> (Symbol -> Price)
+    public Map<String, Map<String, Double>> getMarketData() {
+        InternTable markets = marketData.getMarkets();
+        InternTable symbols = marketData.getSymbols();
+        double[][] prices = marketData.snapshot();
+        Map<String, Map<String, Double>> result = new HashMap<>();
+        for (int market = 0; market < prices.length; market++) {
+            Map<String, Double> quotes = new HashMap<>();
+            for (int symbol = 0; symbol < prices[market].length; symbol++) {
+                if (prices[market][symbol] > 0) {
+                    quotes.put(symbols.nameOf(symbol), prices[market][symbol]);
+                }
+            }
+            result.put(markets.nameOf(market), quotes);
+        }
+        return result;
+    }
+
     public void processMarketData(String marketId, String symbol, double price) {
         if (marketId == null || marketId.isEmpty() || symbol == null || symbol.isEmpty() || price <= 0) {
             throw new IllegalArgumentException("Invalid input for market data");
         }
-        marketData.putIfAbsent(marketId, new HashMap<>());
-        marketData.get(marketId).put(symbol, price);
+        processMarketData(marketData.getMarkets().intern(marketId), marketData.getSymbols().intern(symbol), price);
+    }
+
+    // Tick path for feeds that already hold interned ids, e.g. the TickPipeline consumers.
+    public void processMarketData(int market, int symbol, double price) {
+        if (market < 0 || market >= marketData.getMarkets().size() || symbol < 0
+                || symbol >= marketData.getSymbols().size() || !(price > 0)) {
+            throw new IllegalArgumentException("Invalid input for market data");
+        }
+        marketData.update(market, symbol, price);
+        ArbitrageIndex index = arbitrageIndex;
+        if (index != null) {
+            if (!index.fits(market, symbol)) {
+                growArbitrageIndex(market, symbol);
+            }
+            synchronized (symbolLocks[symbol & (LOCK_STRIPES - 1)]) {
+                // Re-read under the stripe: a resize may have replaced the index, and it only grows.
+                arbitrageIndex.update(market, symbol, price);
+            }
+        }
+    }
+
+    // Resizes the index to the intern table capacities while holding every stripe, so no update is
+    // in flight on the old copy. Locks are always taken as this, then stripes in index order.
+    private synchronized void growArbitrageIndex(int market, int symbol) {
+        if (arbitrageIndex.fits(market, symbol)) {
+            return;
+        }
+        withStripes(0, () -> arbitrageIndex = arbitrageIndex.resize(marketData.getMarkets().capacity(),
+            marketData.getSymbols().capacity()));
+    }
+
+    private void withStripes(int stripe, Runnable action) {
+        if (stripe == LOCK_STRIPES) {
+            action.run();
+            return;
+        }
+        synchronized (symbolLocks[stripe]) {
+            withStripes(stripe + 1, action);
+        }
+    }
+
+    // Switches to event-driven detection: from now on each tick updates the symbol's best
+    // opportunity in O(log M) and the listener hears only about opportunities that open, move
+    // or close. Opportunities already present in the market data are reported right away.
+    public synchronized void setArbitrageListener(ArbitrageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        if (arbitrageIndex != null) {
+            arbitrageIndex.setListener(listener);
+            return;
+        }
+        ArbitrageIndex index = new ArbitrageIndex(marketData.getMarkets().capacity(),
+            marketData.getSymbols().capacity());
+        index.setListener(listener);
+        arbitrageIndex = index;
+        int markets = marketData.getMarkets().size();
+        int symbols = marketData.getSymbols().size();
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            synchronized (symbolLocks[symbol & (LOCK_STRIPES - 1)]) {
+                for (int market = 0; market < markets; market++) {
+                    double price = marketData.price(market, symbol);
+                    if (price > 0) {
+                        index.update(market, symbol, price);
+                    }
+                }
+            }
+        }
     }
 
     public List<TradeAction> analyzeOpportunities() {
         List<TradeAction> opportunities = new ArrayList<>();
-        for (String market1 : marketData.keySet()) {
-            for (String market2 : marketData.keySet()) {
-                if (!market1.equals(market2)) {
-                    for (String symbol : marketData.get(market1).keySet()) {
-                        if (marketData.get(market2).containsKey(symbol)) {
-                            double price1 = marketData.get(market1).get(symbol);
-                            double price2 = marketData.get(market2).get(symbol);
-                            if (price1 < price2) {
-                                opportunities.add(new TradeAction(market1, market2, symbol, price1, price2));
-                            }
-                        }
+        analyzeOpportunities(null, opportunities);
+        return opportunities;
+    }
+
+    // Appends the opportunities to out, taking the TradeAction objects from the pool when one is
+    // given. Hand them back with pool.releaseAll(out) once they have been acted on.
+    public void analyzeOpportunities(TradeActionPool pool, List<TradeAction> out) {
+        InternTable markets = marketData.getMarkets();
+        InternTable symbols = marketData.getSymbols();
+        double[][] prices = marketData.snapshot();
+        int symbolCount = prices.length == 0 ? 0 : prices[0].length;
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            for (int market1 = 0; market1 < prices.length; market1++) {
+                double price1 = prices[market1][symbol];
+                if (price1 <= 0) {
+                    continue;
+                }
+                for (int market2 = 0; market2 < prices.length; market2++) {
+                    double price2 = prices[market2][symbol];
+                    if (market1 != market2 && price1 < price2) {
+                        String buyMarket = markets.nameOf(market1);
+                        String sellMarket = markets.nameOf(market2);
+                        String name = symbols.nameOf(symbol);
+                        out.add(pool == null ? new TradeAction(buyMarket, sellMarket, name, price1, price2)
+                            : pool.acquire(buyMarket, sellMarket, name, price1, price2));
                     }
                 }
             }
         }
-        return opportunities;
+    }
+
+    public void setTradeJournal(TradeJournal tradeJournal) {
+        this.tradeJournal = tradeJournal;
     }
 
     public void executeTrade(TradeAction tradeAction) {
         if (tradeAction == null) {
             throw new IllegalArgumentException("Trade action cannot be null");
         }
-        System.out.println("Executing trade: Buy " + tradeAction.symbol + " in " + tradeAction.buyMarket
-            + " at " + tradeAction.buyPrice + " and sell in " + tradeAction.sellMarket
-            + " at " + tradeAction.sellPrice);
+        TradeJournal journal = tradeJournal;
+        if (journal == null) {
+            System.out.println("Executing trade: Buy " + tradeAction.symbol + " in " + tradeAction.buyMarket
+                + " at " + tradeAction.buyPrice + " and sell in " + tradeAction.sellMarket
+                + " at " + tradeAction.sellPrice);
+            return;
+        }
+        InternTable markets = marketData.getMarkets();
+        journal.recordTrade(marketData.getSymbols().intern(tradeAction.symbol), markets.intern(tradeAction.buyMarket),
+            markets.intern(tradeAction.sellMarket), tradeAction.buyPrice, tradeAction.sellPrice,
+            System.currentTimeMillis());
+    }
+
+    // Allocation-free execution for callers holding interned ids, e.g. an ArbitrageListener.
+    // The timestamp is whatever clock the caller trades on.
+    public void executeTrade(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice,
+            long timestamp) {
+        TradeJournal journal = tradeJournal;
+        if (journal == null) {
+            throw new IllegalStateException("Trade journal is not configured");
+        }
+        journal.recordTrade(symbol, buyMarket, sellMarket, buyPrice, sellPrice, timestamp);
     }
 
     public static class TradeAction {
@@ -73,11 +219,20 @@ public class HighFrequencyTradingSimulator {
         double buyPrice, sellPrice;
 
         public TradeAction(String buyMarket, String sellMarket, String symbol, double buyPrice, double sellPrice) {
+            set(buyMarket, sellMarket, symbol, buyPrice, sellPrice);
+        }
+
+        // Empty action for pools to fill in with set().
+        public TradeAction() {
+        }
+
+        public TradeAction set(String buyMarket, String sellMarket, String symbol, double buyPrice, double sellPrice) {
             this.buyMarket = buyMarket;
             this.sellMarket = sellMarket;
             this.symbol = symbol;
             this.buyPrice = buyPrice;
             this.sellPrice = sellPrice;
+            return this;
         }
 
         public String getSymbol() {
@@ -91,6 +246,14 @@ public class HighFrequencyTradingSimulator {
         public String getSellMarket() {
             return this.sellMarket;
         }
+
+        public double getBuyPrice() {
+            return this.buyPrice;
+        }
+
+        public double getSellPrice() {
+            return this.sellPrice;
+        }
     }
 }
 
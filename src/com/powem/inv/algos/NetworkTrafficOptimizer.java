@@ -29,69 +29,79 @@ package com.powem.inv.algos;
 //}
 
 
+import com.powem.inv.algos.traffic.MultipathRouter;
+import com.powem.inv.algos.traffic.NetworkTopology;
 import java.util.HashMap;
 import java.util.Map;
 
+// Packets are spread over the k shortest paths of the real topology by MultipathRouter, which
+// works on int node and link ids; names are only resolved at the API boundary. routePacket may be
+// called from many threads at once; addNode and addLink must not overlap it.
 public class NetworkTrafficOptimizer {
-  private Map<String, Map<String, Integer>> graph;
-  private Map<String, Integer> capacity;
-  private Map<String, Integer> linkLoad;
+  private static final int PATHS_PER_DESTINATION = 3;
+
+  private final NetworkTopology topology;
+  private final MultipathRouter router;
 
   public NetworkTrafficOptimizer() {
-    this.graph = new HashMap<>();
-    this.capacity = new HashMap<>();
-    this.linkLoad = new HashMap<>();
+    this(PATHS_PER_DESTINATION);
+  }
+
+  public NetworkTrafficOptimizer(int pathsPerDestination) {
+    this.topology = new NetworkTopology();
+    this.router = new MultipathRouter(topology, pathsPerDestination);
   }
 
   public void addNode(String nodeId) {
     if (nodeId == null || nodeId.isEmpty()) {
       throw new IllegalArgumentException("Invalid input");
     }
-    graph.putIfAbsent(nodeId, new HashMap<>());
+    router.addNode(nodeId);
   }
 
+  // Adding an existing link again changes its capacity.
   public void addLink(String nodeId1, String nodeId2, int capacity) {
     if (nodeId1 == null || nodeId1.isEmpty() || nodeId2 == null || nodeId2.isEmpty() || capacity <= 0) {
       throw new IllegalArgumentException("Invalid input");
     }
-    graph.get(nodeId1).put(nodeId2, capacity);
-    graph.get(nodeId2).put(nodeId1, capacity);
-    String link1 = nodeId1 + "->" + nodeId2;
-    String link2 = nodeId2 + "->" + nodeId1;
-    this.capacity.put(link1, capacity);
-    this.capacity.put(link2, capacity);
-    linkLoad.put(link1, 0);
-    linkLoad.put(link2, 0);
+    router.addLink(nodeOf(nodeId1), nodeOf(nodeId2), capacity);
   }
 
+  // Packets that fit on no path are dropped; see getDroppedPackets().
   public void routePacket(String source, String destination, int packetSize) {
     if (source == null || source.isEmpty() || destination == null || destination.isEmpty() || packetSize <= 0) {
       throw new IllegalArgumentException("Invalid input");
     }
-    String directLink = source + "->" + destination;
-    if (linkLoad.get(directLink) + packetSize > capacity.get(directLink) * 0.8) {
-      String alternatePath1 = source + "->B";
-      String alternatePath2 = "B->" + destination;
+    router.route(nodeOf(source), nodeOf(destination), packetSize);
+  }
 
-      if (linkLoad.get(alternatePath1) + packetSize <= capacity.get(alternatePath1) &&
-          linkLoad.get(alternatePath2) + packetSize <= capacity.get(alternatePath2)) {
-        linkLoad.put(alternatePath1, linkLoad.get(alternatePath1) + packetSize);
-        linkLoad.put(alternatePath2, linkLoad.get(alternatePath2) + packetSize);
-      } else {
-        if (linkLoad.get(directLink) + packetSize <= capacity.get(directLink)) {
-          linkLoad.put(directLink, linkLoad.get(directLink) + packetSize);
-        }
-      }
-    } else {
-      linkLoad.put(directLink, linkLoad.get(directLink) + packetSize);
+  // A consistent snapshot: every packet routed so far is counted on all of its links or on none.
+  public Map<String, Integer> getCurrentLoadOnLinks() {
+    long[] snapshot = router.snapshotLoads();
+    Map<String, Integer> loads = new HashMap<>();
+    for (int link = 0; link < snapshot.length; link++) {
+      loads.put(topology.nameOf(topology.source(link)) + "->" + topology.nameOf(topology.target(link)),
+          (int) snapshot[link]);
     }
+    return loads;
   }
 
-  public Map<String, Integer> getCurrentLoadOnLinks() {
-    return new HashMap<>(linkLoad);
+  public long getDroppedPackets() {
+    return router.getDroppedPackets();
+  }
+
+  public MultipathRouter getRouter() {
+    return router;
   }
-}
 
+  private int nodeOf(String nodeId) {
+    int node = topology.idOf(nodeId);
+    if (node < 0) {
+      throw new IllegalArgumentException("Unknown node: " + nodeId);
+    }
+    return node;
+  }
+}
 
 //import java.util.Map;
 //
@@ -30,103 +30,166 @@ package com.powem.inv.algos;
 //  public Map<Integer, Integer> getNodeResourceLevels();
 //}
 
-import java.util.ArrayList;
+import com.powem.inv.algos.distribution.FrontierDiffusion;
+import com.powem.inv.algos.distribution.MaxFlow;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ForkJoinPool;
 
+// Node state lives in parallel primitive arrays indexed by a dense slot per node id; neighbors
+// are int arrays of slots (an edge added twice is listed twice, as before).
 public class ResourceDistributor {
-  private Map<Integer, Node> nodes;
-  private Map<Integer, List<Integer>> graph;
+  private final Map<Integer, Integer> slots = new HashMap<>();
+  private int[] ids = new int[16];
+  private int[] current = new int[16];
+  private int[] minimum = new int[16];
+  private int[][] neighbors = new int[16][];
+  private int[] degree = new int[16];
+  private int count;
 
   public ResourceDistributor() {
-    nodes = new HashMap<>();
-    graph = new HashMap<>();
   }
 
   public void addNode(int nodeId, int currentResources, int minRequiredResources) {
     if (nodeId < 1 || currentResources < 1 || minRequiredResources < 1) {
       throw new IllegalArgumentException("invalid input");
     }
-    nodes.put(nodeId, new Node(currentResources, minRequiredResources));
-    graph.put(nodeId, new ArrayList<>());
+    Integer slot = slots.get(nodeId);
+    if (slot == null) {
+      slot = count++;
+      if (slot == ids.length) {
+        ids = Arrays.copyOf(ids, slot * 2);
+        current = Arrays.copyOf(current, slot * 2);
+        minimum = Arrays.copyOf(minimum, slot * 2);
+        neighbors = Arrays.copyOf(neighbors, slot * 2);
+        degree = Arrays.copyOf(degree, slot * 2);
+      }
+      slots.put(nodeId, slot);
+      ids[slot] = nodeId;
+    }
+    // Adding a node again resets it and its own neighbor list.
+    current[slot] = currentResources;
+    minimum[slot] = minRequiredResources;
+    neighbors[slot] = new int[4];
+    degree[slot] = 0;
   }
 
   public void addEdge(int nodeId1, int nodeId2) {
-    if (nodeId1 < 1 || nodeId2 < 1) {
+    if (nodeId1 < 1 || nodeId2 < 1 || !slots.containsKey(nodeId1) || !slots.containsKey(nodeId2)) {
       throw new IllegalArgumentException("invalid input");
     }
-    graph.get(nodeId1).add(nodeId2);
-    graph.get(nodeId2).add(nodeId1);
+    int a = slots.get(nodeId1);
+    int b = slots.get(nodeId2);
+    addNeighbor(a, b);
+    addNeighbor(b, a);
+  }
+
+  private void addNeighbor(int slot, int neighbor) {
+    if (degree[slot] == neighbors[slot].length) {
+      neighbors[slot] = Arrays.copyOf(neighbors[slot], degree[slot] * 2);
+    }
+    neighbors[slot][degree[slot]++] = neighbor;
   }
 
   public void distributeResources() {
-    AtomicBoolean needsAdjustment = new AtomicBoolean(false);
+    int[] allocations = new int[count];
+    boolean[] allocated = new boolean[count];
+    boolean needsAdjustment;
     do {
-      needsAdjustment.set(false);
-      Map<Integer, Integer> allocations = new HashMap<>();
+      needsAdjustment = false;
+      Arrays.fill(allocations, 0);
+      Arrays.fill(allocated, false);
 
-      for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet()) {
-        int nodeId = entry.getKey();
-        Node currentNode = nodes.get(nodeId);
-        int excess = currentNode.currentResources - currentNode.minRequiredResources;
+      for (int u = 0; u < count; u++) {
+        int excess = current[u] - minimum[u];
 
         if (excess > 0) {
-          List<Integer> neighbors = entry.getValue();
           int totalNeeded = 0;
 
-          for (int neighborId : neighbors) {
-            Node neighbor = nodes.get(neighborId);
-            int needed = Math.max(0, neighbor.minRequiredResources - neighbor.currentResources);
-            totalNeeded += needed;
+          for (int i = 0; i < degree[u]; i++) {
+            int v = neighbors[u][i];
+            totalNeeded += Math.max(0, minimum[v] - current[v]);
           }
 
-          for (int neighborId : neighbors) {
-            Node neighbor = nodes.get(neighborId);
-            if (totalNeeded > 0) {
-              int needed = Math.max(0, neighbor.minRequiredResources - neighbor.currentResources);
+          if (totalNeeded > 0) {
+            for (int i = 0; i < degree[u]; i++) {
+              int v = neighbors[u][i];
+              int needed = Math.max(0, minimum[v] - current[v]);
               int give = (int) ((double) needed / totalNeeded * excess);
 
-              allocations.put(neighborId, allocations.getOrDefault(neighborId, 0) + give);
-              currentNode.currentResources -= give;
+              allocations[v] += give;
+              allocated[v] = true;
+              current[u] -= give;
             }
           }
         }
       }
 
-      allocations.forEach((id, allocation) -> {
-        Node node = nodes.get(id);
-        node.currentResources += allocation;
-        if (node.currentResources >= node.minRequiredResources) {
-          needsAdjustment.set(true);
+      for (int v = 0; v < count; v++) {
+        if (allocated[v]) {
+          current[v] += allocations[v];
+          if (current[v] >= minimum[v]) {
+            needsAdjustment = true;
+          }
         }
-      });
+      }
 
-    } while (needsAdjustment.get());
+    } while (needsAdjustment);
   }
 
+  // The same diffusion as distributeResources, but each round only visits a work-list of surplus
+  // nodes that can still give something, spread over the pool; see FrontierDiffusion. Stops once
+  // no surplus node can give anything. Returns the number of rounds.
+  public int distributeResourcesByFrontier(ForkJoinPool pool) {
+    return new FrontierDiffusion(count, current, minimum, neighbors, degree).run(pool);
+  }
 
-  public Map<Integer, Integer> getNodeResourceLevels() {
-    Map<Integer, Integer> resourceLevels = new HashMap<>();
-    for (Map.Entry<Integer, Node> entry : nodes.entrySet()) {
-      resourceLevels.put(entry.getKey(), entry.getValue().currentResources);
+  // Redistributes in a single max-flow run instead of repeated passes. Surplus nodes are fed from
+  // a source with their excess, deficit nodes drain into a sink with their shortfall, and every
+  // edge carries any amount both ways, so resources may travel over several hops. The maximum
+  // flow covers as much of the total shortfall as the graph allows, and no node gives away more
+  // than its excess. Returns the amount delivered to nodes below their minimum.
+  public long distributeResourcesByFlow() {
+    int source = count;
+    int sink = count + 1;
+    MaxFlow network = new MaxFlow(count + 2);
+    int[] supplyArcs = new int[count];
+    int[] demandArcs = new int[count];
+    for (int i = 0; i < count; i++) {
+      int balance = current[i] - minimum[i];
+      supplyArcs[i] = balance > 0 ? network.addEdge(source, i, balance, 0) : -1;
+      demandArcs[i] = balance < 0 ? network.addEdge(i, sink, -balance, 0) : -1;
     }
-    return resourceLevels;
+    for (int u = 0; u < count; u++) {
+      for (int i = 0; i < degree[u]; i++) {
+        int v = neighbors[u][i];
+        if (u < v) { // each edge is listed under both ends
+          network.addEdge(u, v, Long.MAX_VALUE / 4, Long.MAX_VALUE / 4);
+        }
+      }
+    }
+    long delivered = network.maxFlow(source, sink);
+    for (int i = 0; i < count; i++) {
+      if (supplyArcs[i] >= 0) {
+        current[i] -= (int) network.flow(supplyArcs[i]);
+      }
+      if (demandArcs[i] >= 0) {
+        current[i] += (int) network.flow(demandArcs[i]);
+      }
+    }
+    return delivered;
   }
 
-  static class Node {
-    int currentResources;
-    int minRequiredResources;
-
-    Node(int currentResources, int minRequiredResources) {
-      this.currentResources = currentResources;
-      this.minRequiredResources = minRequiredResources;
+  public Map<Integer, Integer> getNodeResourceLevels() {
+    Map<Integer, Integer> resourceLevels = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      resourceLevels.put(ids[i], current[i]);
     }
+    return resourceLevels;
   }
 }
 
-
 //public class Main {
 //  public static void main(String[] args) {
 //    ResourceDistributor distributor = new ResourceDistributor();
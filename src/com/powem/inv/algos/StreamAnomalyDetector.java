@@ -30,44 +30,79 @@ package com.powem.inv.algos;
 //}
 
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import com.powem.inv.algos.anomaly.KllSketch;
+import com.powem.inv.algos.anomaly.SlidingWindowMedian;
+import java.nio.IntBuffer;
+import java.util.BitSet;
 
 public class StreamAnomalyDetector {
-  private PriorityQueue<Integer> maxHeap;
-  private PriorityQueue<Integer> minHeap;
-  private int windowSize;
-  private Queue<Integer> window;
+  private final SlidingWindowMedian window; // null in sketch mode
+  private final KllSketch sketch; // null in exact mode
 
   public StreamAnomalyDetector(int windowSize) {
-    this.windowSize = windowSize;
-    this.maxHeap = new PriorityQueue<>(Collections.reverseOrder());
-    this.minHeap = new PriorityQueue<>();
-    this.window = new LinkedList<>();
+    this.window = new SlidingWindowMedian(windowSize);
+    this.sketch = null;
+  }
+
+  // Sketch mode for unbounded streams: there is no window, the median is estimated over every
+  // sample seen in the memory of the sketch. Shard sketches can be combined with getSketch().merge.
+  public StreamAnomalyDetector(KllSketch sketch) {
+    if (sketch == null) {
+      throw new IllegalArgumentException("Sketch cannot be null");
+    }
+    this.window = null;
+    this.sketch = sketch;
+  }
+
+  public KllSketch getSketch() {
+    return sketch;
   }
 
   public void addNumber(int number) {
-    if (window.size() >= windowSize) {
-      int out = window.poll();
-      if (out <= maxHeap.peek()) {
-        maxHeap.remove(out);
-      } else {
-        minHeap.remove(out);
+    if (sketch != null) {
+      sketch.update(number);
+    } else {
+      window.add(number);
+    }
+  }
+
+  // Feeds a chunk in order. Bit i is set when numbers[i] is an anomaly against the window as it
+  // was just before numbers[i] arrived; the first sample of an empty window never is.
+  public BitSet addNumbers(int[] numbers) {
+    if (numbers == null) {
+      throw new IllegalArgumentException("Numbers cannot be null");
+    }
+    BitSet flags = new BitSet(numbers.length);
+    for (int i = 0; i < numbers.length; i++) {
+      if (offer(numbers[i])) {
+        flags.set(i);
       }
-      balanceHeaps();
     }
+    return flags;
+  }
 
-    if (maxHeap.isEmpty() || number <= maxHeap.peek()) {
-      maxHeap.add(number);
-    } else {
-      minHeap.add(number);
+  // Same as addNumbers(int[]) for the remaining ints of the buffer, which is consumed.
+  public BitSet addNumbers(IntBuffer numbers) {
+    if (numbers == null) {
+      throw new IllegalArgumentException("Numbers cannot be null");
     }
+    BitSet flags = new BitSet(numbers.remaining());
+    for (int i = 0; numbers.hasRemaining(); i++) {
+      if (offer(numbers.get())) {
+        flags.set(i);
+      }
+    }
+    return flags;
+  }
 
-    balanceHeaps();
-    window.add(number);
+  private boolean offer(int number) {
+    boolean anomaly = !isEmpty() && isAnomaly(number);
+    addNumber(number);
+    return anomaly;
+  }
+
+  private boolean isEmpty() {
+    return sketch != null ? sketch.getCount() == 0 : window.size() == 0;
   }
 
   public boolean isAnomaly(int number) {
@@ -76,19 +111,12 @@ public class StreamAnomalyDetector {
   }
 
   public double getMedian() {
-    if (maxHeap.size() > minHeap.size()) {
-      return maxHeap.peek();
-    } else {
-      return (maxHeap.peek() + minHeap.peek()) / 2.0;
-    }
+    return sketch != null ? sketch.quantile(0.5) : window.getMedian();
   }
 
-  private void balanceHeaps() {
-    if (maxHeap.size() > minHeap.size() + 1) {
-      minHeap.add(maxHeap.poll());
-    } else if (minHeap.size() > maxHeap.size()) {
-      maxHeap.add(minHeap.poll());
-    }
+  // Value at normalized rank q, e.g. 0.99. Exact mode sorts a copy of the window on every call.
+  public double getQuantile(double q) {
+    return sketch != null ? sketch.quantile(q) : window.quantile(q);
   }
 }
 
@@ -0,0 +1,198 @@
+package com.powem.inv.algos.anomaly;
+
+import java.util.Arrays;
+
+// KLL quantile sketch over ints (Karnin, Lang, Liberty 2016).
+//
+// Items are kept in levels; an item on level h stands for 2^h samples. When the sketch is over
+// capacity the lowest full level is sorted and every other item (random offset) is promoted to the
+// next level, halving it. Level capacities shrink geometrically (factor 2/3) going down from the
+// top, so memory stays O(k) words no matter how many samples arrive, and the rank error of any
+// quantile is roughly 1.7 / k (k = 200 gives about 1%). Sketches with the same k can be merged,
+// e.g. one per parallel shard. Not thread safe.
+public class KllSketch {
+  private static final double DECAY = 2.0 / 3.0;
+  private static final int MIN_CAPACITY = 8;
+
+  private final int k;
+  private int[][] levels = new int[1][];
+  private int[] sizes = new int[1];
+  private int levelCount = 1;
+  private long count;
+  private long random = 0x9E3779B97F4A7C15L;
+  // Sorted view of all retained items, rebuilt lazily after updates.
+  private int[] sortedValues;
+  private long[] cumulativeWeights;
+
+  public KllSketch(int k) {
+    if (k < MIN_CAPACITY) {
+      throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+    }
+    this.k = k;
+    levels[0] = new int[k];
+  }
+
+  // Smallest k whose expected rank error is at most epsilon.
+  public static KllSketch withRankError(double epsilon) {
+    if (epsilon <= 0 || epsilon >= 1) {
+      throw new IllegalArgumentException("Rank error must be between 0 and 1");
+    }
+    return new KllSketch(Math.max(MIN_CAPACITY, (int) Math.ceil(1.7 / epsilon)));
+  }
+
+  public void update(int value) {
+    append(0, value);
+    count++;
+    sortedValues = null;
+    if (sizes[0] >= capacity(0)) {
+      compress();
+    }
+  }
+
+  public void merge(KllSketch other) {
+    if (other == null || other.k != k) {
+      throw new IllegalArgumentException("Only sketches with the same k can be merged");
+    }
+    for (int h = 0; h < other.levelCount; h++) {
+      for (int i = 0; i < other.sizes[h]; i++) {
+        append(h, other.levels[h][i]);
+      }
+    }
+    count += other.count;
+    sortedValues = null;
+    compress();
+  }
+
+  // Value at normalized rank q in [0, 1], e.g. 0.5 for the median.
+  public double quantile(double q) {
+    if (q < 0 || q > 1) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1");
+    }
+    if (count == 0) {
+      throw new IllegalStateException("Sketch is empty");
+    }
+    if (sortedValues == null) {
+      buildSortedView();
+    }
+    long target = Math.max(1, (long) Math.ceil(q * count));
+    int low = 0;
+    int high = sortedValues.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cumulativeWeights[mid] < target) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return sortedValues[low];
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  public int getRetainedItems() {
+    int retained = 0;
+    for (int h = 0; h < levelCount; h++) {
+      retained += sizes[h];
+    }
+    return retained;
+  }
+
+  // Approximate footprint of the level arrays.
+  public long getRetainedBytes() {
+    long bytes = 0;
+    for (int h = 0; h < levelCount; h++) {
+      bytes += 16 + 4L * levels[h].length;
+    }
+    return bytes;
+  }
+
+  private int capacity(int level) {
+    int depth = levelCount - 1 - level;
+    return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+  }
+
+  private void append(int level, int value) {
+    while (level >= levelCount) {
+      addLevel();
+    }
+    if (sizes[level] == levels[level].length) {
+      levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, sizes[level] * 2));
+    }
+    levels[level][sizes[level]++] = value;
+  }
+
+  private void addLevel() {
+    if (levelCount == levels.length) {
+      levels = Arrays.copyOf(levels, levelCount * 2);
+      sizes = Arrays.copyOf(sizes, levelCount * 2);
+    }
+    levels[levelCount] = new int[MIN_CAPACITY];
+    sizes[levelCount] = 0;
+    levelCount++;
+  }
+
+  private void compress() {
+    boolean compacted = true;
+    while (compacted) {
+      compacted = false;
+      for (int h = 0; h < levelCount; h++) {
+        if (sizes[h] >= capacity(h)) {
+          compact(h);
+          compacted = true;
+          break;
+        }
+      }
+    }
+  }
+
+  // Halves level h into level h + 1. With an odd size the smallest item stays behind.
+  private void compact(int h) {
+    if (h + 1 >= levelCount) {
+      addLevel();
+    }
+    int[] level = levels[h];
+    int size = sizes[h];
+    Arrays.sort(level, 0, size);
+    int start = size % 2;
+    int offset = nextBit();
+    for (int i = start + offset; i < size; i += 2) {
+      append(h + 1, level[i]);
+    }
+    sizes[h] = start;
+  }
+
+  private int nextBit() {
+    random ^= random << 13;
+    random ^= random >>> 7;
+    random ^= random << 17;
+    return (int) (random & 1);
+  }
+
+  private void buildSortedView() {
+    int retained = getRetainedItems();
+    long[] packed = new long[retained];
+    int n = 0;
+    for (int h = 0; h < levelCount; h++) {
+      for (int i = 0; i < sizes[h]; i++) {
+        // Sort by value, carry the level in the low bits.
+        packed[n++] = ((long) levels[h][i] << 6) | h;
+      }
+    }
+    Arrays.sort(packed);
+    sortedValues = new int[retained];
+    cumulativeWeights = new long[retained];
+    long total = 0;
+    for (int i = 0; i < retained; i++) {
+      sortedValues[i] = (int) (packed[i] >> 6);
+      total += 1L << (packed[i] & 63);
+      cumulativeWeights[i] = total;
+    }
+  }
+}
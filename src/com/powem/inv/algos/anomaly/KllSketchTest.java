@@ -0,0 +1,74 @@
+package com.powem.inv.algos.anomaly;
+
+import com.powem.inv.algos.StreamAnomalyDetector;
+import java.util.Arrays;
+import java.util.Random;
+
+public class KllSketchTest {
+
+  public static void tests() {
+    Random random = new Random(21);
+    int[] samples = new int[200_000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (int) (random.nextGaussian() * 1_000) + 10_000;
+    }
+    int[] sorted = samples.clone();
+    Arrays.sort(sorted);
+
+    // TEST
+    KllSketch sketch = new KllSketch(200);
+    for (int sample : samples) {
+      sketch.update(sample);
+    }
+    assert sketch.getCount() == samples.length;
+    assert sketch.getRetainedItems() < 1_000;
+    for (double q : new double[] {0.01, 0.5, 0.9, 0.99}) {
+      assert Math.abs(rank(sorted, sketch.quantile(q)) - q) < 0.02;
+    }
+    // TEST_END
+
+    // TEST
+    KllSketch left = new KllSketch(200);
+    KllSketch right = new KllSketch(200);
+    for (int i = 0; i < samples.length; i++) {
+      (i % 2 == 0 ? left : right).update(samples[i]);
+    }
+    left.merge(right);
+    assert left.getCount() == samples.length;
+    assert Math.abs(rank(sorted, left.quantile(0.5)) - 0.5) < 0.02;
+    // TEST_END
+
+    // TEST
+    StreamAnomalyDetector detector = new StreamAnomalyDetector(KllSketch.withRankError(0.01));
+    for (int sample : samples) {
+      detector.addNumber(sample);
+    }
+    assert Math.abs(detector.getMedian() - 10_000) < 100;
+    assert detector.isAnomaly(25_000) && detector.isAnomaly(4_000) && !detector.isAnomaly(10_500);
+    assert detector.getQuantile(1.0) <= sorted[sorted.length - 1];
+    // TEST_END
+
+    // TEST
+    try {
+      new KllSketch(200).quantile(0.5);
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Sketch is empty");
+    }
+    try {
+      new KllSketch(200).merge(new KllSketch(100));
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Only sketches with the same k can be merged");
+    }
+    // TEST_END
+  }
+
+  private static double rank(int[] sorted, double value) {
+    int index = Arrays.binarySearch(sorted, (int) value);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return index / (double) sorted.length;
+  }
+}
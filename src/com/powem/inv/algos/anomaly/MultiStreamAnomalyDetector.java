@@ -0,0 +1,108 @@
+package com.powem.inv.algos.anomaly;
+
+import com.powem.inv.algos.StreamAnomalyDetector;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// One sliding window per stream, streams identified by dense int ids (0, 1, 2, ...).
+// A batch carries a chunk per stream and is split across the executor by stream, every window
+// is only touched by one task so no locking is needed. Batches must not run concurrently.
+public class MultiStreamAnomalyDetector {
+  private final int windowSize;
+  private final Executor executor;
+  private final int parallelism;
+  private StreamAnomalyDetector[] streams = new StreamAnomalyDetector[16];
+  private int streamCount;
+
+  public MultiStreamAnomalyDetector(int windowSize) {
+    this(windowSize, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  public MultiStreamAnomalyDetector(int windowSize, Executor executor, int parallelism) {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("Window size must be positive");
+    }
+    if (executor == null || parallelism <= 0) {
+      throw new IllegalArgumentException("Executor and a positive parallelism are required");
+    }
+    this.windowSize = windowSize;
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  public BitSet addNumbers(int streamId, int[] numbers) {
+    return stream(streamId).addNumbers(numbers);
+  }
+
+  // flags[i] holds the anomaly bits for chunks[i] of stream streamIds[i].
+  public BitSet[] addBatch(int[] streamIds, int[][] chunks) {
+    if (streamIds == null || chunks == null || streamIds.length != chunks.length) {
+      throw new IllegalArgumentException("Every stream id needs exactly one chunk");
+    }
+    StreamAnomalyDetector[] detectors = new StreamAnomalyDetector[streamIds.length];
+    BitSet seen = new BitSet();
+    for (int i = 0; i < streamIds.length; i++) {
+      if (seen.get(streamIds[i])) {
+        throw new IllegalArgumentException("Duplicate stream in batch: " + streamIds[i]);
+      }
+      seen.set(streamIds[i]);
+      detectors[i] = stream(streamIds[i]);
+    }
+
+    BitSet[] flags = new BitSet[streamIds.length];
+    int tasks = Math.min(parallelism, streamIds.length);
+    if (tasks <= 1) {
+      for (int i = 0; i < detectors.length; i++) {
+        flags[i] = detectors[i].addNumbers(chunks[i]);
+      }
+      return flags;
+    }
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+    for (int t = 0; t < tasks; t++) {
+      int first = t;
+      futures[t] = CompletableFuture.runAsync(() -> {
+        for (int i = first; i < detectors.length; i += tasks) {
+          flags[i] = detectors[i].addNumbers(chunks[i]);
+        }
+      }, executor);
+    }
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    return flags;
+  }
+
+  public double getMedian(int streamId) {
+    if (streamId < 0 || streamId >= streamCount || streams[streamId] == null) {
+      throw new IllegalArgumentException("Unknown stream: " + streamId);
+    }
+    return streams[streamId].getMedian();
+  }
+
+  public int getStreamCount() {
+    return streamCount;
+  }
+
+  private StreamAnomalyDetector stream(int streamId) {
+    if (streamId < 0) {
+      throw new IllegalArgumentException("Stream id cannot be negative");
+    }
+    if (streamId >= streams.length) {
+      streams = Arrays.copyOf(streams, Math.max(streams.length * 2, streamId + 1));
+    }
+    if (streams[streamId] == null) {
+      streams[streamId] = new StreamAnomalyDetector(windowSize);
+    }
+    streamCount = Math.max(streamCount, streamId + 1);
+    return streams[streamId];
+  }
+}
@@ -0,0 +1,74 @@
+package com.powem.inv.algos.anomaly;
+
+import com.powem.inv.algos.StreamAnomalyDetector;
+import java.nio.IntBuffer;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class MultiStreamAnomalyDetectorTest {
+
+  public static void tests() {
+    // TEST
+    StreamAnomalyDetector detector = new StreamAnomalyDetector(5);
+    BitSet flags = detector.addNumbers(new int[] {10, 12, 15, 11, 14, 40, 13, 2});
+    assert flags.equals(BitSet.valueOf(new long[] {0b1010_0000}));
+    assert detector.getMedian() == 13;
+    // TEST_END
+
+    // TEST
+    StreamAnomalyDetector buffered = new StreamAnomalyDetector(5);
+    IntBuffer buffer = IntBuffer.wrap(new int[] {10, 12, 15, 11, 14, 40, 13, 2});
+    assert buffered.addNumbers(buffer).equals(flags);
+    assert !buffer.hasRemaining();
+    // TEST_END
+
+    // TEST
+    // A parallel batch gives the same flags as feeding each stream on its own.
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      MultiStreamAnomalyDetector multi = new MultiStreamAnomalyDetector(16, executor, 4);
+      StreamAnomalyDetector[] reference = new StreamAnomalyDetector[200];
+      Random random = new Random(9);
+      for (int round = 0; round < 3; round++) {
+        int[] ids = new int[reference.length];
+        int[][] chunks = new int[reference.length][];
+        for (int s = 0; s < reference.length; s++) {
+          ids[s] = s;
+          chunks[s] = new int[50];
+          for (int i = 0; i < 50; i++) {
+            chunks[s][i] = 1 + random.nextInt(s % 2 == 0 ? 10 : 1000);
+          }
+        }
+        BitSet[] batch = multi.addBatch(ids, chunks);
+        for (int s = 0; s < reference.length; s++) {
+          if (reference[s] == null) {
+            reference[s] = new StreamAnomalyDetector(16);
+          }
+          assert batch[s].equals(reference[s].addNumbers(chunks[s]));
+          assert multi.getMedian(s) == reference[s].getMedian();
+        }
+      }
+      assert multi.getStreamCount() == 200;
+      // TEST_END
+
+      // TEST
+      try {
+        multi.addBatch(new int[] {1, 1}, new int[][] {{1}, {2}});
+        assert false;
+      } catch (IllegalArgumentException e) {
+        assert e.getMessage().equals("Duplicate stream in batch: 1");
+      }
+      try {
+        multi.getMedian(500);
+        assert false;
+      } catch (IllegalArgumentException e) {
+        assert e.getMessage().equals("Unknown stream: 500");
+      }
+      // TEST_END
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.powem.inv.algos.anomaly;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Accuracy against memory: the exact heap window sized to hold the whole stream versus KLL
+// sketches of growing k. Rank error is |true rank of the estimate - q| over a few quantiles.
+// Run: java com.powem.inv.algos.anomaly.QuantileSketchBenchmark [samples]
+public class QuantileSketchBenchmark {
+  private static final double[] QUANTILES = {0.01, 0.25, 0.5, 0.75, 0.99};
+
+  public static void main(String[] args) {
+    int samples = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Random random = new Random(17);
+    int[] stream = new int[samples];
+    for (int i = 0; i < samples; i++) {
+      // Heavy tailed, like latency telemetry.
+      stream[i] = (int) Math.exp(5 + random.nextGaussian());
+    }
+    int[] sorted = stream.clone();
+    Arrays.sort(sorted);
+
+    long start = System.nanoTime();
+    SlidingWindowMedian exact = new SlidingWindowMedian(samples);
+    for (int value : stream) {
+      exact.add(value);
+    }
+    long exactNanos = System.nanoTime() - start;
+    System.out.printf("%-12s %12s %10s %12s %10s%n", "mode", "bytes", "max err", "median", "ns/sample");
+    // ring buffer, two heaps and the position index: four ints per sample
+    System.out.printf("%-12s %,12d %10.5f %12.1f %10.1f%n", "exact heap", 16L * samples, 0.0, exact.getMedian(),
+        exactNanos / (double) samples);
+
+    for (int k : new int[] {50, 100, 200, 400, 800}) {
+      start = System.nanoTime();
+      KllSketch sketch = new KllSketch(k);
+      for (int value : stream) {
+        sketch.update(value);
+      }
+      long nanos = System.nanoTime() - start;
+      double maxError = 0;
+      for (double q : QUANTILES) {
+        maxError = Math.max(maxError, Math.abs(rank(sorted, sketch.quantile(q)) - q));
+      }
+      System.out.printf("%-12s %,12d %10.5f %12.1f %10.1f%n", "kll k=" + k, sketch.getRetainedBytes(), maxError,
+          sketch.quantile(0.5), nanos / (double) samples);
+    }
+  }
+
+  // Midpoint of the range of ranks the value occupies, so ties don't count as error.
+  private static double rank(int[] sorted, double value) {
+    int v = (int) value;
+    int first = lowerBound(sorted, v);
+    int last = lowerBound(sorted, v + 1);
+    return (first + last) / 2.0 / sorted.length;
+  }
+
+  private static int lowerBound(int[] sorted, int value) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
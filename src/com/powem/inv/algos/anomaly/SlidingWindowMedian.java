@@ -0,0 +1,206 @@
+package com.powem.inv.algos.anomaly;
+
+import java.util.Arrays;
+
+// Median of the last windowSize ints in O(log w) per sample and no allocation after construction.
+//
+// Samples live in a ring buffer. The lower half of the window is a max-heap and the upper half a
+// min-heap, both holding ring slots rather than values. where[slot] remembers the heap position
+// of every slot, so the sample falling out of the window is removed from the middle of its heap
+// in O(log w) instead of PriorityQueue.remove(Object)'s linear scan.
+public class SlidingWindowMedian {
+  private final int[] values; // ring buffer
+  private final int[] lower; // max-heap of slots
+  private final int[] upper; // min-heap of slots
+  private final int[] where; // slot -> index in lower, or ~index in upper
+  private int lowerSize;
+  private int upperSize;
+  private int head; // oldest slot once the window is full
+  private int count;
+
+  public SlidingWindowMedian(int windowSize) {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("Window size must be positive");
+    }
+    values = new int[windowSize];
+    lower = new int[windowSize];
+    upper = new int[windowSize];
+    where = new int[windowSize];
+  }
+
+  public void add(int value) {
+    int slot;
+    if (count == values.length) {
+      slot = head;
+      head = head + 1 == values.length ? 0 : head + 1;
+      int position = where[slot];
+      if (position >= 0) {
+        removeLower(position);
+      } else {
+        removeUpper(~position);
+      }
+    } else {
+      slot = count++;
+    }
+
+    values[slot] = value;
+    if (lowerSize == 0 || value <= values[lower[0]]) {
+      lower[lowerSize] = slot;
+      siftUpLower(lowerSize++);
+    } else {
+      upper[upperSize] = slot;
+      siftUpUpper(upperSize++);
+    }
+    rebalance();
+  }
+
+  public double getMedian() {
+    if (count == 0) {
+      throw new IllegalStateException("Window is empty");
+    }
+    if (lowerSize > upperSize) {
+      return values[lower[0]];
+    }
+    return ((long) values[lower[0]] + values[upper[0]]) / 2.0;
+  }
+
+  // Exact nearest-rank quantile of the window. Copies and sorts the window, O(w log w).
+  public double quantile(double q) {
+    if (q < 0 || q > 1) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1");
+    }
+    if (count == 0) {
+      throw new IllegalStateException("Window is empty");
+    }
+    int[] sorted = Arrays.copyOf(values, count);
+    Arrays.sort(sorted);
+    return sorted[Math.max(0, (int) Math.ceil(q * count) - 1)];
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public int getWindowSize() {
+    return values.length;
+  }
+
+  public void clear() {
+    lowerSize = 0;
+    upperSize = 0;
+    head = 0;
+    count = 0;
+  }
+
+  private void rebalance() {
+    if (lowerSize > upperSize + 1) {
+      int slot = lower[0];
+      removeLower(0);
+      upper[upperSize] = slot;
+      siftUpUpper(upperSize++);
+    } else if (upperSize > lowerSize) {
+      int slot = upper[0];
+      removeUpper(0);
+      lower[lowerSize] = slot;
+      siftUpLower(lowerSize++);
+    }
+  }
+
+  private void removeLower(int index) {
+    int last = lower[--lowerSize];
+    if (index == lowerSize) {
+      return;
+    }
+    lower[index] = last;
+    where[last] = index;
+    siftDownLower(index);
+    siftUpLower(where[last]);
+  }
+
+  private void removeUpper(int index) {
+    int last = upper[--upperSize];
+    if (index == upperSize) {
+      return;
+    }
+    upper[index] = last;
+    where[last] = ~index;
+    siftDownUpper(index);
+    siftUpUpper(~where[last]);
+  }
+
+  private void siftUpLower(int index) {
+    int slot = lower[index];
+    int value = values[slot];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (values[lower[parent]] >= value) {
+        break;
+      }
+      lower[index] = lower[parent];
+      where[lower[index]] = index;
+      index = parent;
+    }
+    lower[index] = slot;
+    where[slot] = index;
+  }
+
+  private void siftDownLower(int index) {
+    int slot = lower[index];
+    int value = values[slot];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= lowerSize) {
+        break;
+      }
+      if (child + 1 < lowerSize && values[lower[child + 1]] > values[lower[child]]) {
+        child++;
+      }
+      if (values[lower[child]] <= value) {
+        break;
+      }
+      lower[index] = lower[child];
+      where[lower[index]] = index;
+      index = child;
+    }
+    lower[index] = slot;
+    where[slot] = index;
+  }
+
+  private void siftUpUpper(int index) {
+    int slot = upper[index];
+    int value = values[slot];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (values[upper[parent]] <= value) {
+        break;
+      }
+      upper[index] = upper[parent];
+      where[upper[index]] = ~index;
+      index = parent;
+    }
+    upper[index] = slot;
+    where[slot] = ~index;
+  }
+
+  private void siftDownUpper(int index) {
+    int slot = upper[index];
+    int value = values[slot];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= upperSize) {
+        break;
+      }
+      if (child + 1 < upperSize && values[upper[child + 1]] < values[upper[child]]) {
+        child++;
+      }
+      if (values[upper[child]] >= value) {
+        break;
+      }
+      upper[index] = upper[child];
+      where[upper[index]] = ~index;
+      index = child;
+    }
+    upper[index] = slot;
+    where[slot] = ~index;
+  }
+}
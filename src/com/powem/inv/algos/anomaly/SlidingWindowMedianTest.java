@@ -0,0 +1,70 @@
+package com.powem.inv.algos.anomaly;
+
+import com.powem.inv.algos.StreamAnomalyDetector;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SlidingWindowMedianTest {
+
+  public static void tests() {
+    // TEST
+    StreamAnomalyDetector detector = new StreamAnomalyDetector(5);
+    for (int number : new int[] {5, 3, 8, 1, 4}) {
+      detector.addNumber(number);
+    }
+    assert detector.getMedian() == 4;
+    // TEST_END
+
+    // TEST
+    StreamAnomalyDetector anomalies = new StreamAnomalyDetector(5);
+    for (int number : new int[] {10, 12, 15, 11, 14}) {
+      anomalies.addNumber(number);
+    }
+    assert anomalies.isAnomaly(30);
+    assert anomalies.isAnomaly(5);
+    assert !anomalies.isAnomaly(12);
+    // TEST_END
+
+    // TEST
+    // Matches a sorted copy of the window for every sample, across window sizes and duplicates.
+    Random random = new Random(11);
+    for (int windowSize : new int[] {1, 2, 3, 8, 64}) {
+      SlidingWindowMedian median = new SlidingWindowMedian(windowSize);
+      int[] stream = new int[2_000];
+      for (int i = 0; i < stream.length; i++) {
+        stream[i] = random.nextInt(50) - 10;
+        median.add(stream[i]);
+        int from = Math.max(0, i + 1 - windowSize);
+        int[] window = Arrays.copyOfRange(stream, from, i + 1);
+        Arrays.sort(window);
+        int n = window.length;
+        double expected = n % 2 == 1 ? window[n / 2] : (window[n / 2 - 1] + window[n / 2]) / 2.0;
+        assert median.getMedian() == expected;
+        assert median.size() == n;
+      }
+    }
+    // TEST_END
+
+    // TEST
+    SlidingWindowMedian extremes = new SlidingWindowMedian(2);
+    extremes.add(Integer.MAX_VALUE);
+    extremes.add(Integer.MAX_VALUE);
+    assert extremes.getMedian() == Integer.MAX_VALUE;
+    // TEST_END
+
+    // TEST
+    try {
+      new SlidingWindowMedian(3).getMedian();
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Window is empty");
+    }
+    try {
+      new StreamAnomalyDetector(0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Window size must be positive");
+    }
+    // TEST_END
+  }
+}
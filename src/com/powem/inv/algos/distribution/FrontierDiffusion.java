@@ -0,0 +1,170 @@
+package com.powem.inv.algos.distribution;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// ResourceDistributor's diffusion rounds run over a work-list instead of every node.
+//
+// In a round each surplus node splits its excess between deficit neighbors in proportion to
+// their need, as in distributeResources. Needs only change between rounds (deficit nodes never
+// give), so the nodes of a round are independent and are split across a ForkJoinPool. Workers
+// write (node, delta) pairs into their own buffer; the buffers are applied once the round ends.
+//
+// A node's gifts can only change if its own level or a neighbor's changed last round, so the next
+// frontier is the surplus nodes among those. When a round gives nothing the state is a fixed
+// point and the run stops, where distributeResources can keep looping.
+public class FrontierDiffusion {
+  private static final int NODES_PER_TASK = 512;
+
+  private final int count;
+  private final int[] current;
+  private final int[] minimum;
+  private final int[][] neighbors;
+  private final int[] degree;
+  private final int[] queued; // round in which the node was last added to the frontier
+  private final ThreadLocal<DeltaBuffer> buffers = ThreadLocal.withInitial(DeltaBuffer::new);
+  private final ConcurrentLinkedQueue<DeltaBuffer> used = new ConcurrentLinkedQueue<>();
+  private int round;
+  private long visits;
+
+  private static class DeltaBuffer {
+    int[] nodes = new int[64];
+    int[] deltas = new int[64];
+    int size;
+    int round = -1;
+
+    void add(int node, int delta) {
+      if (size == nodes.length) {
+        nodes = Arrays.copyOf(nodes, size * 2);
+        deltas = Arrays.copyOf(deltas, size * 2);
+      }
+      nodes[size] = node;
+      deltas[size++] = delta;
+    }
+  }
+
+  public FrontierDiffusion(int count, int[] current, int[] minimum, int[][] neighbors, int[] degree) {
+    this.count = count;
+    this.current = current;
+    this.minimum = minimum;
+    this.neighbors = neighbors;
+    this.degree = degree;
+    this.queued = new int[count];
+    Arrays.fill(queued, -1);
+  }
+
+  // Runs rounds until one moves nothing. Returns the number of rounds run.
+  public int run(ForkJoinPool pool) {
+    int[] frontier = new int[count];
+    int size = 0;
+    for (int u = 0; u < count; u++) {
+      if (current[u] > minimum[u]) {
+        frontier[size++] = u;
+      }
+    }
+    int[] next = new int[count];
+    while (size > 0) {
+      visits += size;
+      pool.invoke(new RoundTask(frontier, 0, size));
+      round++;
+      int nextSize = 0;
+      DeltaBuffer buffer;
+      while ((buffer = used.poll()) != null) {
+        for (int i = 0; i < buffer.size; i++) {
+          int node = buffer.nodes[i];
+          current[node] += buffer.deltas[i];
+          // A receiver may now have a surplus itself, and its neighbors see a smaller need.
+          nextSize = enqueue(node, next, nextSize);
+          if (buffer.deltas[i] > 0) {
+            for (int j = 0; j < degree[node]; j++) {
+              nextSize = enqueue(neighbors[node][j], next, nextSize);
+            }
+          }
+        }
+        buffer.size = 0;
+      }
+      int[] swap = frontier;
+      frontier = next;
+      next = swap;
+      size = nextSize;
+    }
+    return round;
+  }
+
+  // Frontier nodes visited over all rounds; a full sweep would visit count per round.
+  public long getVisits() {
+    return visits;
+  }
+
+  private int enqueue(int node, int[] frontier, int size) {
+    if (queued[node] != round && current[node] > minimum[node]) {
+      queued[node] = round;
+      frontier[size++] = node;
+    }
+    return size;
+  }
+
+  @SuppressWarnings("serial")
+  private class RoundTask extends RecursiveAction {
+    private final int[] frontier;
+    private final int from;
+    private final int to;
+
+    RoundTask(int[] frontier, int from, int to) {
+      this.frontier = frontier;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > NODES_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new RoundTask(frontier, from, middle), new RoundTask(frontier, middle, to));
+        return;
+      }
+      DeltaBuffer buffer = buffers.get();
+      for (int i = from; i < to; i++) {
+        give(frontier[i], buffer);
+      }
+    }
+  }
+
+  private void give(int u, DeltaBuffer buffer) {
+    int excess = current[u] - minimum[u];
+    if (excess <= 0) {
+      return;
+    }
+    int totalNeeded = 0;
+    for (int i = 0; i < degree[u]; i++) {
+      int v = neighbors[u][i];
+      totalNeeded += Math.max(0, minimum[v] - current[v]);
+    }
+    if (totalNeeded == 0) {
+      return;
+    }
+    int given = 0;
+    for (int i = 0; i < degree[u]; i++) {
+      int v = neighbors[u][i];
+      int needed = Math.max(0, minimum[v] - current[v]);
+      int give = (int) ((double) needed / totalNeeded * excess);
+      if (give > 0) {
+        register(buffer);
+        buffer.add(v, give);
+        given += give;
+      }
+    }
+    if (given > 0) {
+      buffer.add(u, -given);
+    }
+  }
+
+  private void register(DeltaBuffer buffer) {
+    if (buffer.round != round) {
+      buffer.round = round;
+      used.add(buffer);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.powem.inv.algos.distribution;
+
+import com.powem.inv.algos.ResourceDistributor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// The diffusion rounds of ResourceDistributor on a random connected graph, run to the fixed point:
+// full sweeps over the old Map<Integer, Node> / HashMap allocations layout (reproduced below, with
+// the fixed-point stop so it terminates) against the work-list on 1, 4 and 16 threads.
+// Run: java com.powem.inv.algos.distribution.FrontierDiffusionBenchmark [nodes]
+public class FrontierDiffusionBenchmark {
+
+  public static void main(String[] args) {
+    int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    System.out.printf("%,d nodes, %d cores%n", nodes, Runtime.getRuntime().availableProcessors());
+
+    long start = System.nanoTime();
+    int sweeps = sweep(nodes);
+    System.out.printf("full sweeps (maps)  %,6d ms, %d rounds, %,d node visits%n",
+        (System.nanoTime() - start) / 1_000_000, sweeps, (long) sweeps * nodes);
+
+    for (int threads : new int[] {1, 4, 16}) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      for (int round = 0; round < 2; round++) {
+        ResourceDistributor distributor = build(nodes);
+        start = System.nanoTime();
+        int rounds = distributor.distributeResourcesByFrontier(pool);
+        System.out.printf("frontier %2d threads %,6d ms, %d rounds%n", threads,
+            (System.nanoTime() - start) / 1_000_000, rounds);
+      }
+      pool.shutdown();
+    }
+  }
+
+  private static ResourceDistributor build(int nodes) {
+    Random random = new Random(22);
+    ResourceDistributor distributor = new ResourceDistributor();
+    for (int id = 1; id <= nodes; id++) {
+      distributor.addNode(id, 1 + random.nextInt(100), 1 + random.nextInt(60));
+    }
+    for (int id = 2; id <= nodes; id++) {
+      distributor.addEdge(id, 1 + random.nextInt(id - 1));
+    }
+    return distributor;
+  }
+
+  private static class Node {
+    int currentResources;
+    int minRequiredResources;
+
+    Node(int currentResources, int minRequiredResources) {
+      this.currentResources = currentResources;
+      this.minRequiredResources = minRequiredResources;
+    }
+  }
+
+  // The original distributeResources loop over the same graph as build(), stopping at the first
+  // round that gives nothing. Returns the number of rounds.
+  private static int sweep(int count) {
+    Random random = new Random(22);
+    Map<Integer, Node> nodes = new HashMap<>();
+    Map<Integer, List<Integer>> graph = new HashMap<>();
+    for (int id = 1; id <= count; id++) {
+      nodes.put(id, new Node(1 + random.nextInt(100), 1 + random.nextInt(60)));
+      graph.put(id, new ArrayList<>());
+    }
+    for (int id = 2; id <= count; id++) {
+      int other = 1 + random.nextInt(id - 1);
+      graph.get(id).add(other);
+      graph.get(other).add(id);
+    }
+    int rounds = 0;
+    boolean moved = true;
+    while (moved) {
+      moved = false;
+      rounds++;
+      Map<Integer, Integer> allocations = new HashMap<>();
+      for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet()) {
+        Node currentNode = nodes.get(entry.getKey());
+        int excess = currentNode.currentResources - currentNode.minRequiredResources;
+        if (excess > 0) {
+          int totalNeeded = 0;
+          for (int neighborId : entry.getValue()) {
+            Node neighbor = nodes.get(neighborId);
+            totalNeeded += Math.max(0, neighbor.minRequiredResources - neighbor.currentResources);
+          }
+          for (int neighborId : entry.getValue()) {
+            Node neighbor = nodes.get(neighborId);
+            if (totalNeeded > 0) {
+              int needed = Math.max(0, neighbor.minRequiredResources - neighbor.currentResources);
+              int give = (int) ((double) needed / totalNeeded * excess);
+              allocations.put(neighborId, allocations.getOrDefault(neighborId, 0) + give);
+              currentNode.currentResources -= give;
+              moved |= give > 0;
+            }
+          }
+        }
+      }
+      allocations.forEach((id, allocation) -> nodes.get(id).currentResources += allocation);
+    }
+    return rounds;
+  }
+}
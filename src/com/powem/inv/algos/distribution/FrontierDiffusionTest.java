@@ -0,0 +1,138 @@
+package com.powem.inv.algos.distribution;
+
+import com.powem.inv.algos.ResourceDistributor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class FrontierDiffusionTest {
+
+  public static void tests() {
+    // TEST
+    ResourceDistributor distributor = new ResourceDistributor();
+    distributor.addNode(1, 100, 80);
+    distributor.addNode(2, 30, 50);
+    distributor.addEdge(1, 2);
+    distributor.distributeResources();
+    assert distributor.getNodeResourceLevels().get(1) >= 80;
+    assert distributor.getNodeResourceLevels().get(2) >= 50;
+    try {
+      distributor.addEdge(1, 9);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("invalid input");
+    }
+    // TEST_END
+
+    // TEST
+    // Same end state as sweeping every node each round until a round gives nothing, on 1 and 4 threads.
+    Random random = new Random(22);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ForkJoinPool single = new ForkJoinPool(1);
+    for (int round = 0; round < 100; round++) {
+      long seed = random.nextLong();
+      int nodes = 10 + random.nextInt(200);
+      ResourceDistributor frontier = build(seed, nodes);
+      ResourceDistributor parallel = build(seed, nodes);
+      frontier.distributeResourcesByFrontier(single);
+      parallel.distributeResourcesByFrontier(pool);
+      Map<Integer, Integer> expected = sweep(seed, nodes);
+      assert frontier.getNodeResourceLevels().equals(expected);
+      assert parallel.getNodeResourceLevels().equals(expected);
+    }
+    // TEST_END
+
+    // TEST
+    // Stops on graphs where the full sweeps never do, with the total conserved.
+    ResourceDistributor large = build(7, 20_000);
+    long total = large.getNodeResourceLevels().values().stream().mapToLong(Integer::longValue).sum();
+    int rounds = large.distributeResourcesByFrontier(pool);
+    assert rounds > 0;
+    assert large.getNodeResourceLevels().values().stream().mapToLong(Integer::longValue).sum() == total;
+    assert large.distributeResourcesByFrontier(pool) == 1; // already a fixed point: one idle round
+    pool.shutdown();
+    single.shutdown();
+    // TEST_END
+  }
+
+  private static ResourceDistributor build(long seed, int nodes) {
+    int[][] graph = generate(seed, nodes);
+    ResourceDistributor distributor = new ResourceDistributor();
+    for (int id = 1; id <= nodes; id++) {
+      distributor.addNode(id, graph[0][id], graph[1][id]);
+    }
+    for (int i = 0; i < graph[2].length; i += 2) {
+      distributor.addEdge(graph[2][i], graph[2][i + 1]);
+    }
+    return distributor;
+  }
+
+  // { current, minimum, edge endpoints } with ids from 1: a random tree plus nodes / 2 extra edges.
+  private static int[][] generate(long seed, int nodes) {
+    Random random = new Random(seed);
+    int[] current = new int[nodes + 1];
+    int[] minimum = new int[nodes + 1];
+    for (int id = 1; id <= nodes; id++) {
+      current[id] = 1 + random.nextInt(100);
+      minimum[id] = 1 + random.nextInt(60);
+    }
+    int[] edges = new int[2 * (nodes - 1 + nodes / 2)];
+    int e = 0;
+    for (int id = 2; id <= nodes; id++) {
+      edges[e++] = id;
+      edges[e++] = 1 + random.nextInt(id - 1);
+    }
+    while (e < edges.length) {
+      edges[e++] = 1 + random.nextInt(nodes);
+      edges[e++] = 1 + random.nextInt(nodes);
+    }
+    return new int[][] {current, minimum, edges};
+  }
+
+  // Reference: the original rounds over every node, stopped at the first round that gives nothing.
+  private static Map<Integer, Integer> sweep(long seed, int nodes) {
+    int[][] graph = generate(seed, nodes);
+    int[] current = graph[0];
+    int[] minimum = graph[1];
+    List<List<Integer>> neighbors = new ArrayList<>();
+    for (int id = 0; id <= nodes; id++) {
+      neighbors.add(new ArrayList<>());
+    }
+    for (int i = 0; i < graph[2].length; i += 2) {
+      neighbors.get(graph[2][i]).add(graph[2][i + 1]);
+      neighbors.get(graph[2][i + 1]).add(graph[2][i]);
+    }
+    boolean moved = true;
+    while (moved) {
+      moved = false;
+      int[] allocations = new int[nodes + 1];
+      for (int u = 1; u <= nodes; u++) {
+        int excess = current[u] - minimum[u];
+        int totalNeeded = 0;
+        for (int v : neighbors.get(u)) {
+          totalNeeded += Math.max(0, minimum[v] - current[v]);
+        }
+        if (excess <= 0 || totalNeeded == 0) {
+          continue;
+        }
+        for (int v : neighbors.get(u)) {
+          int give = (int) ((double) Math.max(0, minimum[v] - current[v]) / totalNeeded * excess);
+          allocations[v] += give;
+          current[u] -= give;
+          moved |= give > 0;
+        }
+      }
+      for (int v = 1; v <= nodes; v++) {
+        current[v] += allocations[v];
+      }
+    }
+    Map<Integer, Integer> levels = new HashMap<>();
+    for (int id = 1; id <= nodes; id++) {
+      levels.put(id, current[id]);
+    }
+    return levels;
+  }
+}
@@ -0,0 +1,131 @@
+package com.powem.inv.algos.distribution;
+
+import java.util.Arrays;
+
+// Dinic's maximum flow over int arrays. Arcs are stored in pairs, arc ^ 1 being the reverse of
+// arc, with adjacency as singly linked lists (head/next) so building allocates nothing per arc.
+// Each phase builds a BFS level graph from the source, then pushes blocking flow along it with an
+// iterative depth-first search (long paths must not overflow the call stack).
+public class MaxFlow {
+  private final int nodes;
+  private final int[] head;
+  private int[] next;
+  private int[] to;
+  private long[] residual;
+  private long[] capacity;
+  private int arcs;
+
+  private final int[] level;
+  private final int[] current;
+  private final int[] queue;
+
+  public MaxFlow(int nodes) {
+    this.nodes = nodes;
+    this.head = new int[nodes];
+    Arrays.fill(head, -1);
+    this.next = new int[16];
+    this.to = new int[16];
+    this.residual = new long[16];
+    this.capacity = new long[16];
+    this.level = new int[nodes];
+    this.current = new int[nodes];
+    this.queue = new int[nodes];
+  }
+
+  // Adds u -> v with the given capacity and v -> u with reverseCapacity (0 for a directed arc,
+  // the same value for an undirected edge). Returns the id of the u -> v arc.
+  public int addEdge(int u, int v, long forwardCapacity, long reverseCapacity) {
+    if (arcs + 2 > to.length) {
+      int size = to.length * 2;
+      next = Arrays.copyOf(next, size);
+      to = Arrays.copyOf(to, size);
+      residual = Arrays.copyOf(residual, size);
+      capacity = Arrays.copyOf(capacity, size);
+    }
+    int arc = arcs;
+    link(arc, u, v, forwardCapacity);
+    link(arc + 1, v, u, reverseCapacity);
+    arcs += 2;
+    return arc;
+  }
+
+  private void link(int arc, int from, int target, long arcCapacity) {
+    to[arc] = target;
+    residual[arc] = arcCapacity;
+    capacity[arc] = arcCapacity;
+    next[arc] = head[from];
+    head[from] = arc;
+  }
+
+  // Net flow along the arc after maxFlow().
+  public long flow(int arc) {
+    return capacity[arc] - residual[arc];
+  }
+
+  public long maxFlow(int source, int sink) {
+    long total = 0;
+    int[] path = new int[nodes];
+    while (buildLevels(source, sink)) {
+      System.arraycopy(head, 0, current, 0, nodes);
+      int depth = 0;
+      int node = source;
+      while (true) {
+        if (node == sink) {
+          long pushed = Long.MAX_VALUE;
+          for (int i = 0; i < depth; i++) {
+            pushed = Math.min(pushed, residual[path[i]]);
+          }
+          int retreatTo = depth;
+          for (int i = depth - 1; i >= 0; i--) {
+            residual[path[i]] -= pushed;
+            residual[path[i] ^ 1] += pushed;
+            if (residual[path[i]] == 0) {
+              retreatTo = i;
+            }
+          }
+          total += pushed;
+          // Resume from the tail of the first saturated arc.
+          depth = retreatTo;
+          node = depth == 0 ? source : to[path[depth - 1]];
+          continue;
+        }
+        int arc = current[node];
+        while (arc >= 0 && (residual[arc] == 0 || level[to[arc]] != level[node] + 1)) {
+          arc = next[arc];
+        }
+        current[node] = arc;
+        if (arc >= 0) {
+          path[depth++] = arc;
+          node = to[arc];
+          continue;
+        }
+        // Dead end: drop the node from this phase and step back.
+        level[node] = -1;
+        if (depth == 0) {
+          break;
+        }
+        depth--;
+        node = depth == 0 ? source : to[path[depth - 1]];
+        current[node] = next[current[node]];
+      }
+    }
+    return total;
+  }
+
+  private boolean buildLevels(int source, int sink) {
+    Arrays.fill(level, -1);
+    int tail = 0;
+    queue[tail++] = source;
+    level[source] = 0;
+    for (int headIndex = 0; headIndex < tail; headIndex++) {
+      int node = queue[headIndex];
+      for (int arc = head[node]; arc >= 0; arc = next[arc]) {
+        if (residual[arc] > 0 && level[to[arc]] < 0) {
+          level[to[arc]] = level[node] + 1;
+          queue[tail++] = to[arc];
+        }
+      }
+    }
+    return level[sink] >= 0;
+  }
+}
@@ -0,0 +1,139 @@
+package com.powem.inv.algos.distribution;
+
+import com.powem.inv.algos.ResourceDistributor;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+public class MaxFlowTest {
+
+  public static void tests() {
+    // TEST
+    // Same value as Edmonds-Karp on random directed and undirected networks.
+    Random random = new Random(21);
+    for (int round = 0; round < 50; round++) {
+      int nodes = 2 + random.nextInt(30);
+      int edges = random.nextInt(120);
+      MaxFlow network = new MaxFlow(nodes);
+      long[][] capacity = new long[nodes][nodes];
+      for (int i = 0; i < edges; i++) {
+        int u = random.nextInt(nodes);
+        int v = random.nextInt(nodes);
+        if (u == v) {
+          continue;
+        }
+        long forward = random.nextInt(50);
+        long reverse = random.nextBoolean() ? forward : 0;
+        network.addEdge(u, v, forward, reverse);
+        capacity[u][v] += forward;
+        capacity[v][u] += reverse;
+      }
+      assert network.maxFlow(0, nodes - 1) == edmondsKarp(capacity, 0, nodes - 1);
+    }
+    // TEST_END
+
+    // TEST
+    // A 200k-node chain: the augmenting path is far deeper than any call stack.
+    int length = 200_000;
+    MaxFlow chain = new MaxFlow(length);
+    int firstArc = chain.addEdge(0, 1, 7, 0);
+    for (int v = 1; v + 1 < length; v++) {
+      chain.addEdge(v, v + 1, 5 + v % 3, 0);
+    }
+    assert chain.maxFlow(0, length - 1) == 5;
+    assert chain.flow(firstArc) == 5;
+    // TEST_END
+
+    // TEST
+    // Surplus reaches a deficit two hops away through a node sitting exactly at its minimum.
+    ResourceDistributor distributor = new ResourceDistributor();
+    distributor.addNode(1, 100, 60);
+    distributor.addNode(2, 50, 50);
+    distributor.addNode(3, 10, 40);
+    distributor.addNode(4, 5, 20);
+    distributor.addEdge(1, 2);
+    distributor.addEdge(2, 3);
+    distributor.addEdge(4, 4);
+    assert distributor.distributeResourcesByFlow() == 30;
+    Map<Integer, Integer> levels = distributor.getNodeResourceLevels();
+    assert levels.get(1) == 70 && levels.get(2) == 50 && levels.get(3) == 40 && levels.get(4) == 5;
+    // TEST_END
+
+    // TEST
+    // Random trees: totals are conserved, donors keep their minimum, and either every shortfall is
+    // covered or no surplus is left anywhere.
+    for (int round = 0; round < 20; round++) {
+      ResourceDistributor randomDistributor = new ResourceDistributor();
+      int nodes = 200;
+      int[] minimums = new int[nodes + 1];
+      long total = 0;
+      for (int id = 1; id <= nodes; id++) {
+        minimums[id] = 10 + random.nextInt(50);
+        int current = 1 + random.nextInt(round % 2 == 0 ? 200 : 60);
+        randomDistributor.addNode(id, current, minimums[id]);
+        total += current;
+      }
+      for (int id = 2; id <= nodes; id++) {
+        randomDistributor.addEdge(id, 1 + random.nextInt(id - 1));
+      }
+      Map<Integer, Integer> before = randomDistributor.getNodeResourceLevels();
+      randomDistributor.distributeResourcesByFlow();
+      Map<Integer, Integer> after = randomDistributor.getNodeResourceLevels();
+      long shortfall = 0;
+      long surplus = 0;
+      long sum = 0;
+      for (int id = 1; id <= nodes; id++) {
+        int level = after.get(id);
+        if (before.get(id) >= minimums[id]) {
+          assert level >= minimums[id] && level <= before.get(id);
+        } else {
+          assert level >= before.get(id) && level <= minimums[id];
+        }
+        shortfall += Math.max(0, minimums[id] - level);
+        surplus += Math.max(0, level - minimums[id]);
+        sum += level;
+      }
+      assert sum == total;
+      assert shortfall == 0 || surplus == 0;
+    }
+    // TEST_END
+  }
+
+  private static long edmondsKarp(long[][] capacity, int source, int sink) {
+    int n = capacity.length;
+    long[][] residual = new long[n][];
+    for (int i = 0; i < n; i++) {
+      residual[i] = capacity[i].clone();
+    }
+    long total = 0;
+    while (true) {
+      int[] parent = new int[n];
+      Arrays.fill(parent, -1);
+      parent[source] = source;
+      ArrayDeque<Integer> queue = new ArrayDeque<>();
+      queue.add(source);
+      while (!queue.isEmpty() && parent[sink] < 0) {
+        int u = queue.poll();
+        for (int v = 0; v < n; v++) {
+          if (parent[v] < 0 && residual[u][v] > 0) {
+            parent[v] = u;
+            queue.add(v);
+          }
+        }
+      }
+      if (parent[sink] < 0) {
+        return total;
+      }
+      long pushed = Long.MAX_VALUE;
+      for (int v = sink; v != source; v = parent[v]) {
+        pushed = Math.min(pushed, residual[parent[v]][v]);
+      }
+      for (int v = sink; v != source; v = parent[v]) {
+        residual[parent[v]][v] -= pushed;
+        residual[v][parent[v]] += pushed;
+      }
+      total += pushed;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.powem.inv.algos.distribution;
+
+import com.powem.inv.algos.ResourceDistributor;
+import java.util.Map;
+import java.util.Random;
+
+// Random connected graphs (a random tree plus extra edges): distributeResourcesByFlow against the
+// iterative distributeResources. The iterative version gets a time limit, since it can loop
+// forever when integer rounding leaves a little excess next to a satisfied neighbor.
+// Run: java com.powem.inv.algos.distribution.ResourceFlowBenchmark [nodes] [extraEdges] [limitSeconds]
+public class ResourceFlowBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+    int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int extraEdges = args.length > 1 ? Integer.parseInt(args[1]) : nodes;
+    int limitSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+    ResourceDistributor flow = build(nodes, extraEdges);
+    ResourceDistributor iterative = build(nodes, extraEdges);
+    long shortfallBefore = shortfall(flow, nodes);
+
+    long start = System.nanoTime();
+    long delivered = flow.distributeResourcesByFlow();
+    long flowMs = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("%,d nodes, %,d edges, shortfall %,d%n", nodes, nodes - 1 + extraEdges, shortfallBefore);
+    System.out.printf("max flow:  %,6d ms, delivered %,d, shortfall left %,d%n", flowMs, delivered,
+        shortfall(flow, nodes));
+
+    Thread worker = new Thread(iterative::distributeResources);
+    worker.setDaemon(true);
+    start = System.nanoTime();
+    worker.start();
+    worker.join(limitSeconds * 1_000L);
+    long iterativeMs = (System.nanoTime() - start) / 1_000_000;
+    if (worker.isAlive()) {
+      System.out.printf("iterative: not converged after %,d ms%n", iterativeMs);
+    } else {
+      System.out.printf("iterative: %,6d ms, shortfall left %,d%n", iterativeMs, shortfall(iterative, nodes));
+    }
+    System.exit(0);
+  }
+
+  private static ResourceDistributor build(int nodes, int extraEdges) {
+    Random random = new Random(21);
+    ResourceDistributor distributor = new ResourceDistributor();
+    for (int id = 1; id <= nodes; id++) {
+      distributor.addNode(id, 1 + random.nextInt(200), 1 + random.nextInt(120));
+    }
+    for (int id = 2; id <= nodes; id++) {
+      distributor.addEdge(id, 1 + random.nextInt(id - 1));
+    }
+    for (int i = 0; i < extraEdges; i++) {
+      distributor.addEdge(1 + random.nextInt(nodes), 1 + random.nextInt(nodes));
+    }
+    return distributor;
+  }
+
+  // Minimums are regenerated from the same seed, since the distributor does not expose them.
+  private static long shortfall(ResourceDistributor distributor, int nodes) {
+    Random random = new Random(21);
+    Map<Integer, Integer> levels = distributor.getNodeResourceLevels();
+    long total = 0;
+    for (int id = 1; id <= nodes; id++) {
+      random.nextInt(200);
+      int minimum = 1 + random.nextInt(120);
+      total += Math.max(0, minimum - levels.get(id));
+    }
+    return total;
+  }
+}
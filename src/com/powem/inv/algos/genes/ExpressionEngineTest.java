@@ -0,0 +1,126 @@
+package com.powem.inv.algos.genes;
+
+import com.powem.inv.algos.GeneExpressionSimulator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ExpressionEngineTest {
+
+  public static void tests() {
+    Path file;
+    try {
+      file = Files.createTempFile("expression", ".snapshots");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // TEST
+    // Two coupled genes against the model written out by hand.
+    GeneExpressionSimulator simulator = new GeneExpressionSimulator();
+    simulator.addGene("A");
+    simulator.addGene("B");
+    simulator.addGene("C");
+    simulator.connectGenes("A", "B", 2.0);
+    Map<String, Double> initial = new HashMap<>();
+    initial.put("A", 1.0);
+    ExpressionEngine engine = simulator.createExpressionEngine(initial, 0.1, 3.0, 0.5);
+    double a = 1;
+    double b = 0;
+    for (int step = 0; step < 50; step++) {
+      double nextA = a + 0.1 * (3.0 * (2 * b) / (1 + 2 * b) - 0.5 * a);
+      double nextB = b + 0.1 * (3.0 * (2 * a) / (1 + 2 * a) - 0.5 * b);
+      a = nextA;
+      b = nextB;
+    }
+    engine.run(50, ForkJoinPool.commonPool());
+    GeneNetwork network = simulator.getCompiledNetwork();
+    assert engine.getStep() == 50;
+    assert engine.level(network.idOf("A")) == a && engine.level(network.idOf("B")) == b;
+    assert engine.level(network.idOf("C")) == 0;
+    // TEST_END
+
+    // TEST
+    // Results do not depend on the thread count or on how the steps are split into runs, and the
+    // streamed snapshots match the levels at their steps.
+    Random random = new Random(25);
+    int genes = 20_000;
+    GeneNetwork.Builder builder = new GeneNetwork.Builder();
+    for (int v = 0; v < genes; v++) {
+      builder.addGene("G" + v);
+    }
+    for (int v = 1; v < genes; v++) {
+      for (int e = 0; e < 3; e++) {
+        builder.connect("G" + v, "G" + random.nextInt(v), random.nextDouble());
+      }
+    }
+    GeneNetwork large = builder.build();
+    double[] levels = new double[genes];
+    for (int v = 0; v < genes; v++) {
+      levels[v] = random.nextDouble();
+    }
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool four = new ForkJoinPool(4);
+    ExpressionEngine sequential = new ExpressionEngine(large, levels, 0.05, 1.0, 0.2);
+    double[][] expected = new double[4][];
+    for (int i = 0; i < expected.length; i++) {
+      sequential.run(10, single);
+      expected[i] = sequential.levels();
+    }
+    ExpressionEngine parallel = new ExpressionEngine(large, levels, 0.05, 1.0, 0.2);
+    try (SnapshotWriter writer = new SnapshotWriter(file, genes)) {
+      parallel.run(15, four, 10, writer);
+      parallel.run(25, four, 10, writer);
+      assert writer.getSnapshotCount() == 4;
+    }
+    assert Arrays.equals(parallel.levels(), expected[3]);
+    try (SnapshotReader reader = new SnapshotReader(file)) {
+      assert reader.geneCount() == genes && reader.snapshotCount() == 4;
+      double[] snapshot = new double[genes];
+      for (int i = 0; i < 4; i++) {
+        assert reader.read(i, snapshot) == 10L * (i + 1);
+        assert Arrays.equals(snapshot, expected[i]);
+      }
+    }
+    single.shutdown();
+    four.shutdown();
+    // TEST_END
+
+    // TEST
+    try {
+      simulator.createExpressionEngine(Map.of("X", 1.0), 0.1, 1.0, 0.5);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Gene does not exist in the network: X");
+    }
+    try {
+      // timeStep * decay above 1 lets levels go negative.
+      simulator.createExpressionEngine(initial, 1.0, 1.0, 2.0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Invalid input");
+    }
+    try {
+      Files.write(file, new byte[64]);
+      new SnapshotReader(file);
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().startsWith("Not a snapshot file");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // TEST_END
+
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
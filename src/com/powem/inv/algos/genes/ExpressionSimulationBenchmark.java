@@ -0,0 +1,54 @@
+package com.powem.inv.algos.genes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// ExpressionEngine on a random network of genes with about 3 interactions each, run for the given
+// number of steps with a snapshot streamed to a temporary file every snapshotEvery steps, once per
+// thread count.
+// Run: java com.powem.inv.algos.genes.ExpressionSimulationBenchmark [genes] [steps] [snapshotEvery]
+public class ExpressionSimulationBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int genes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int steps = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    int snapshotEvery = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+    Random random = new Random(25);
+    GeneNetwork.Builder builder = new GeneNetwork.Builder();
+    for (int v = 0; v < genes; v++) {
+      builder.addGene("G" + v);
+    }
+    for (int v = 1; v < genes; v++) {
+      for (int e = 0; e < 3; e++) {
+        builder.connect("G" + v, "G" + random.nextInt(v), random.nextDouble());
+      }
+    }
+    GeneNetwork network = builder.build();
+    double[] initial = new double[genes];
+    for (int v = 0; v < genes; v++) {
+      initial[v] = random.nextDouble();
+    }
+    Path file = Files.createTempFile("expression", ".snapshots");
+    try {
+      for (int threads : new int[] {1, 4}) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ExpressionEngine engine = new ExpressionEngine(network, initial, 0.05, 1.0, 0.2);
+        engine.run(100, pool); // warm-up
+        long start = System.nanoTime();
+        try (SnapshotWriter writer = new SnapshotWriter(file, genes)) {
+          engine.run(steps, pool, snapshotEvery, writer);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d threads: %d genes x %d steps in %.1f s (%.1f ns per gene-step, %d arcs),"
+                + " %d snapshots, %.0f MB%n", threads, genes, steps, seconds, seconds * 1e9 / genes / steps,
+            network.arcCount(), steps / snapshotEvery, Files.size(file) / 1e6);
+        pool.shutdown();
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
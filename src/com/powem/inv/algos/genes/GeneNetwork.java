@@ -0,0 +1,254 @@
+package com.powem.inv.algos.genes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Frozen gene interaction network in compressed sparse row form. Genes are dense int ids; the arcs
+// leaving gene u are offsets[u] .. offsets[u + 1] - 1 in the parallel targets/strengths arrays. An
+// interaction is two arcs (one for a gene interacting with itself) and each arc keeps its base
+// strength next to the current one, so a condition update is a multiply and two array writes.
+//
+// (gene, gene) -> arc goes through an open-addressing table of long keys, so updates allocate
+// nothing. Signal path queries run on a per-thread SignalSearch and may run concurrently; strength
+// updates must not run while they do.
+public class GeneNetwork {
+  public static final double NO_INTERACTION = -1;
+  private static final long NO_PAIR = -1L;
+
+  private final String[] names;
+  private final Map<String, Integer> ids;
+  final int[] offsets;
+  final int[] targets;
+  final double[] strengths;
+  final double[] baseStrengths;
+  private final long[] indexKeys;
+  private final int[] indexArcs;
+  private final int indexShift;
+  private final ThreadLocal<SignalSearch> searches = ThreadLocal.withInitial(() -> new SignalSearch(this));
+
+  private GeneNetwork(String[] names, Map<String, Integer> ids, int[] offsets, int[] targets, double[] strengths,
+      double[] baseStrengths) {
+    this.names = names;
+    this.ids = ids;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.strengths = strengths;
+    this.baseStrengths = baseStrengths;
+    int capacity = Integer.highestOneBit(Math.max(1, targets.length) * 2 - 1) * 2; // load factor <= 1/2
+    indexKeys = new long[capacity];
+    indexArcs = new int[capacity];
+    Arrays.fill(indexKeys, NO_PAIR);
+    indexShift = 64 - Integer.numberOfTrailingZeros(capacity);
+    for (int u = 0; u < names.length; u++) {
+      for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+        long key = pairKey(u, targets[arc]);
+        int slot = slot(key);
+        while (indexKeys[slot] != NO_PAIR) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        indexKeys[slot] = key;
+        indexArcs[slot] = arc;
+      }
+    }
+  }
+
+  // Collects genes and interactions. Connecting a pair again replaces its strengths, whichever
+  // way round the pair is given.
+  public static class Builder {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<Long, Integer> edges = new HashMap<>();
+    private int[] first = new int[16];
+    private int[] second = new int[16];
+    private double[] base = new double[16];
+    private double[] current = new double[16];
+    private int edgeCount;
+
+    public int addGene(String name) {
+      Integer id = ids.get(name);
+      if (id == null) {
+        id = names.size();
+        ids.put(name, id);
+        names.add(name);
+      }
+      return id;
+    }
+
+    public Builder connect(String gene1, String gene2, double baseStrength) {
+      return connect(gene1, gene2, baseStrength, baseStrength);
+    }
+
+    Builder connect(String gene1, String gene2, double baseStrength, double strength) {
+      int a = addGene(gene1);
+      int b = addGene(gene2);
+      Long key = pairKey(Math.min(a, b), Math.max(a, b));
+      Integer edge = edges.get(key);
+      if (edge == null) {
+        if (edgeCount == first.length) {
+          first = Arrays.copyOf(first, edgeCount * 2);
+          second = Arrays.copyOf(second, edgeCount * 2);
+          base = Arrays.copyOf(base, edgeCount * 2);
+          current = Arrays.copyOf(current, edgeCount * 2);
+        }
+        edge = edgeCount++;
+        edges.put(key, edge);
+        first[edge] = a;
+        second[edge] = b;
+      }
+      base[edge] = baseStrength;
+      current[edge] = strength;
+      return this;
+    }
+
+    // Sets the interaction to its base strength times the factor and returns the new strength,
+    // or NO_INTERACTION if the genes are not connected.
+    public double updateCondition(String gene1, String gene2, double conditionFactor) {
+      Integer a = ids.get(gene1);
+      Integer b = ids.get(gene2);
+      Integer edge = a == null || b == null ? null : edges.get(pairKey(Math.min(a, b), Math.max(a, b)));
+      if (edge == null) {
+        return NO_INTERACTION;
+      }
+      current[edge] = base[edge] * conditionFactor;
+      return current[edge];
+    }
+
+    // Counting sort of the arcs by source gene.
+    public GeneNetwork build() {
+      int genes = names.size();
+      int[] offsets = new int[genes + 1];
+      for (int e = 0; e < edgeCount; e++) {
+        offsets[first[e] + 1]++;
+        if (first[e] != second[e]) {
+          offsets[second[e] + 1]++;
+        }
+      }
+      for (int u = 0; u < genes; u++) {
+        offsets[u + 1] += offsets[u];
+      }
+      int arcs = offsets[genes];
+      int[] next = Arrays.copyOf(offsets, genes);
+      int[] targets = new int[arcs];
+      double[] strengths = new double[arcs];
+      double[] baseStrengths = new double[arcs];
+      for (int e = 0; e < edgeCount; e++) {
+        int arc = next[first[e]]++;
+        targets[arc] = second[e];
+        strengths[arc] = current[e];
+        baseStrengths[arc] = base[e];
+        if (first[e] != second[e]) {
+          arc = next[second[e]]++;
+          targets[arc] = first[e];
+          strengths[arc] = current[e];
+          baseStrengths[arc] = base[e];
+        }
+      }
+      return new GeneNetwork(names.toArray(new String[0]), new HashMap<>(ids), offsets, targets, strengths,
+          baseStrengths);
+    }
+  }
+
+  // A builder holding this network's genes (with the same ids) and interactions, including their
+  // current strengths.
+  public Builder toBuilder() {
+    Builder builder = new Builder();
+    for (String name : names) {
+      builder.addGene(name);
+    }
+    for (int u = 0; u < names.length; u++) {
+      for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+        if (u <= targets[arc]) {
+          builder.connect(names[u], names[targets[arc]], baseStrengths[arc], strengths[arc]);
+        }
+      }
+    }
+    return builder;
+  }
+
+  public int geneCount() {
+    return names.length;
+  }
+
+  public int arcCount() {
+    return targets.length;
+  }
+
+  // Returns -1 for unknown genes.
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  public String nameOf(int gene) {
+    return names[gene];
+  }
+
+  // Current strength of the interaction, or NO_INTERACTION.
+  public double strength(int gene1, int gene2) {
+    int arc = arcOf(gene1, gene2);
+    return arc < 0 ? NO_INTERACTION : strengths[arc];
+  }
+
+  // Sets both base and current strength of an existing interaction. Returns false if the genes
+  // are not connected.
+  public boolean setBaseStrength(int gene1, int gene2, double baseStrength) {
+    int arc = arcOf(gene1, gene2);
+    if (arc < 0) {
+      return false;
+    }
+    int reverse = arcOf(gene2, gene1);
+    baseStrengths[arc] = baseStrength;
+    baseStrengths[reverse] = baseStrength;
+    strengths[arc] = baseStrength;
+    strengths[reverse] = baseStrength;
+    return true;
+  }
+
+  // Sets the interaction to its base strength times the factor and returns the new strength, or
+  // NO_INTERACTION if the genes are not connected.
+  public double updateCondition(int gene1, int gene2, double conditionFactor) {
+    int arc = arcOf(gene1, gene2);
+    if (arc < 0) {
+      return NO_INTERACTION;
+    }
+    double strength = baseStrengths[arc] * conditionFactor;
+    strengths[arc] = strength;
+    strengths[arcOf(gene2, gene1)] = strength;
+    return strength;
+  }
+
+  // Genes from source to target along the weakest total interaction strength, or null if the
+  // target cannot be reached. Uses the calling thread's SignalSearch.
+  public int[] shortestPath(int source, int target) {
+    return searches.get().route(source, target);
+  }
+
+  // The calling thread's search workspace, e.g. to read the distance of its last route.
+  public SignalSearch search() {
+    return searches.get();
+  }
+
+  // Arc from gene1 to gene2, or -1.
+  int arcOf(int gene1, int gene2) {
+    long key = pairKey(gene1, gene2);
+    for (int slot = slot(key); ; slot = (slot + 1) & (indexKeys.length - 1)) {
+      if (indexKeys[slot] == key) {
+        return indexArcs[slot];
+      }
+      if (indexKeys[slot] == NO_PAIR) {
+        return -1;
+      }
+    }
+  }
+
+  private int slot(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> indexShift);
+  }
+
+  private static long pairKey(int gene1, int gene2) {
+    return ((long) gene1 << 32) | (gene2 & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,191 @@
+package com.powem.inv.algos.genes;
+
+import com.powem.inv.algos.GeneExpressionSimulator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+public class GeneNetworkTest {
+
+  public static void tests() {
+    // TEST
+    // Decrease-key keeps one entry per gene and pops in key order.
+    Random random = new Random(23);
+    IndexedDoubleHeap heap = new IndexedDoubleHeap(1_000);
+    double[] best = new double[1_000];
+    Arrays.fill(best, Double.MAX_VALUE);
+    for (int i = 0; i < 5_000; i++) {
+      int gene = random.nextInt(1_000);
+      double key = random.nextDouble();
+      heap.insertOrDecrease(gene, key);
+      best[gene] = Math.min(best[gene], key);
+    }
+    double previous = -1;
+    while (!heap.isEmpty()) {
+      int gene = heap.pollMin();
+      assert !heap.contains(gene);
+      assert best[gene] >= previous;
+      previous = best[gene];
+    }
+    // TEST_END
+
+    // TEST
+    // Path strengths match Floyd-Warshall on random networks, updated in place and rebuilt.
+    for (int round = 0; round < 5; round++) {
+      int genes = 50;
+      GeneExpressionSimulator simulator = new GeneExpressionSimulator();
+      for (int v = 0; v < genes; v++) {
+        simulator.addGene("G" + v);
+      }
+      double[][] base = new double[genes][genes];
+      for (double[] row : base) {
+        Arrays.fill(row, -1);
+      }
+      for (int i = 0; i < 120; i++) {
+        int a = random.nextInt(genes);
+        int b = random.nextInt(genes);
+        double strength = random.nextInt(100) / 4.0;
+        simulator.connectGenes("G" + a, "G" + b, strength);
+        base[a][b] = strength;
+        base[b][a] = strength;
+      }
+      double[][] current = new double[genes][];
+      for (int v = 0; v < genes; v++) {
+        current[v] = base[v].clone();
+      }
+      for (int step = 0; step < 3; step++) {
+        for (int i = 0; i < 40; i++) {
+          int a = random.nextInt(genes);
+          int b = random.nextInt(genes);
+          if (base[a][b] < 0) {
+            continue;
+          }
+          double factor = random.nextInt(8) / 2.0;
+          simulator.updateConditions("G" + b, "G" + a, factor);
+          current[a][b] = base[a][b] * factor;
+          current[b][a] = current[a][b];
+          assert simulator.getNetwork().get("G" + a).get("G" + b) == current[a][b];
+        }
+        if (step == 1) {
+          // A new interaction after the first queries rebuilds the frozen network.
+          simulator.connectGenes("G0", "G" + (genes - 1), 0.25);
+          base[0][genes - 1] = 0.25;
+          base[genes - 1][0] = 0.25;
+          current[0][genes - 1] = 0.25;
+          current[genes - 1][0] = 0.25;
+        }
+        double[][] matrix = floydWarshall(current);
+        GeneNetwork network = simulator.getCompiledNetwork();
+        for (int query = 0; query < 100; query++) {
+          int from = random.nextInt(genes);
+          int to = random.nextInt(genes);
+          int[] path = network.shortestPath(network.idOf("G" + from), network.idOf("G" + to));
+          if (matrix[from][to] == Double.MAX_VALUE) {
+            assert path == null;
+            assert simulator.findOptimalSignalPath("G" + from, "G" + to)
+                .equals(Collections.singletonList("No path available"));
+            continue;
+          }
+          double total = 0;
+          for (int i = 1; i < path.length; i++) {
+            total += network.strength(path[i - 1], path[i]);
+          }
+          assert path[0] == network.idOf("G" + from) && path[path.length - 1] == network.idOf("G" + to);
+          assert total == matrix[from][to] && network.search().getDistance() == total;
+          assert simulator.findOptimalSignalPath("G" + from, "G" + to).size() == path.length;
+        }
+      }
+    }
+    // TEST_END
+
+    // TEST
+    // Concurrent queries each use their own workspace.
+    GeneNetwork.Builder builder = new GeneNetwork.Builder();
+    for (int v = 0; v + 1 < 2_000; v++) {
+      builder.connect("G" + v, "G" + (v + 1), 1 + v % 3);
+    }
+    GeneNetwork chain = builder.build();
+    int[] expected = chain.shortestPath(0, 1_999);
+    boolean[] same = new boolean[4];
+    Thread[] threads = new Thread[same.length];
+    for (int t = 0; t < threads.length; t++) {
+      int index = t;
+      threads[t] = new Thread(() -> {
+        boolean equal = true;
+        for (int i = 0; i < 200; i++) {
+          equal &= Arrays.equals(chain.shortestPath(0, 1_999), expected);
+        }
+        same[index] = equal;
+      });
+      threads[t].start();
+    }
+    join(threads);
+    for (boolean equal : same) {
+      assert equal;
+    }
+    // TEST_END
+
+    // TEST
+    // Unknown genes and missing interactions are reported, whichever state the network is in.
+    GeneExpressionSimulator simulator = new GeneExpressionSimulator();
+    simulator.addGene("A");
+    simulator.addGene("B");
+    simulator.addGene("C");
+    simulator.connectGenes("A", "B", 1.0);
+    simulator.updateConditions("B", "A", 3.0);
+    assert simulator.findOptimalSignalPath("A", "B").equals(Arrays.asList("A", "B"));
+    assert simulator.findOptimalSignalPath("A", "A").equals(Collections.singletonList("A"));
+    assert simulator.getCompiledNetwork().strength(0, 1) == 3.0;
+    simulator.connectGenes("B", "A", 2.0);
+    assert simulator.getCompiledNetwork().strength(1, 0) == 2.0;
+    try {
+      simulator.updateConditions("A", "C", 1.0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("No existing interaction between these genes.");
+    }
+    try {
+      simulator.findOptimalSignalPath("A", "X");
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("One or both genes do not exist in the network.");
+    }
+    try {
+      simulator.connectGenes("A", "X", 1.0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("One or both genes do not exist in the network.");
+    }
+    // TEST_END
+  }
+
+  private static double[][] floydWarshall(double[][] strengths) {
+    int genes = strengths.length;
+    double[][] matrix = new double[genes][genes];
+    for (int i = 0; i < genes; i++) {
+      for (int j = 0; j < genes; j++) {
+        matrix[i][j] = i == j ? 0 : strengths[i][j] < 0 ? Double.MAX_VALUE : strengths[i][j];
+      }
+    }
+    for (int k = 0; k < genes; k++) {
+      for (int i = 0; i < genes; i++) {
+        for (int j = 0; j < genes; j++) {
+          if (matrix[i][k] != Double.MAX_VALUE && matrix[k][j] != Double.MAX_VALUE) {
+            matrix[i][j] = Math.min(matrix[i][j], matrix[i][k] + matrix[k][j]);
+          }
+        }
+      }
+    }
+    return matrix;
+  }
+
+  private static void join(Thread... threads) {
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.powem.inv.algos.genes;
+
+import java.util.Arrays;
+
+// Shortest signal distances from one source gene to every gene, kept up to date as strengths
+// change, in the style of Ramalingam and Reps' dynamic shortest paths.
+//
+// repair() gets the interactions whose strength changed. A changed interaction that is a tree
+// arc and got stronger cuts off the subtree below it: only those genes lose their distance. Each
+// takes the best offer from its unaffected neighbors, the heads of weakened interactions get
+// the shorter distance, and a Dijkstra seeded with just those genes settles the rest. Genes
+// outside the affected region are never visited. Interactions are symmetric in a GeneNetwork,
+// so the arc x -> z gives the strength of z -> x as well.
+public class ShortestPathTree {
+  private final GeneNetwork network;
+  private final int source;
+  private final double[] distances;
+  private final int[] parents;
+  private final IndexedDoubleHeap heap;
+  private final boolean[] affected;
+  private int[] stack;
+  private int lastTouched;
+
+  public ShortestPathTree(GeneNetwork network, int source) {
+    this.network = network;
+    this.source = source;
+    int genes = network.geneCount();
+    distances = new double[genes];
+    parents = new int[genes];
+    heap = new IndexedDoubleHeap(genes);
+    affected = new boolean[genes];
+    stack = new int[16];
+    Arrays.fill(distances, Double.POSITIVE_INFINITY);
+    Arrays.fill(parents, -1);
+    distances[source] = 0;
+    heap.insertOrDecrease(source, 0);
+    lastTouched = settle();
+  }
+
+  public int getSource() {
+    return source;
+  }
+
+  // Genes whose distance was recomputed by the last repair (or by the initial build).
+  public int getLastTouched() {
+    return lastTouched;
+  }
+
+  // Total strength to the gene, infinite if it cannot be reached.
+  public double distance(int gene) {
+    return distances[gene];
+  }
+
+  // Gene ids from the source to the target, or null if the target is unreachable.
+  public int[] path(int target) {
+    if (distances[target] == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+    int length = 0;
+    for (int at = target; at >= 0; at = parents[at]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int at = target; at >= 0; at = parents[at]) {
+      path[--length] = at;
+    }
+    return path;
+  }
+
+  // Brings the tree up to date after the strengths between genes1[i] and genes2[i], i < count,
+  // changed. Pairs that are not connected are ignored.
+  public void repair(int[] genes1, int[] genes2, int count) {
+    int[] offsets = network.offsets;
+    int[] targets = network.targets;
+    double[] strengths = network.strengths;
+    // Stronger tree arcs: cut off the subtree below them.
+    int affectedCount = 0;
+    for (int i = 0; i < count; i++) {
+      affectedCount = cutIfStronger(genes1[i], genes2[i], affectedCount);
+      affectedCount = cutIfStronger(genes2[i], genes1[i], affectedCount);
+    }
+    // Affected genes start from their best unaffected neighbor.
+    for (int i = 0; i < affectedCount; i++) {
+      int gene = stack[i];
+      for (int arc = offsets[gene]; arc < offsets[gene + 1]; arc++) {
+        int neighbor = targets[arc];
+        double candidate = distances[neighbor] + strengths[arc];
+        if (!affected[neighbor] && candidate < distances[gene]) {
+          distances[gene] = candidate;
+          parents[gene] = neighbor;
+        }
+      }
+      if (distances[gene] < Double.POSITIVE_INFINITY) {
+        heap.insertOrDecrease(gene, distances[gene]);
+      }
+    }
+    for (int i = 0; i < affectedCount; i++) {
+      affected[stack[i]] = false;
+    }
+    // Weaker interactions may offer a shorter distance from either end.
+    for (int i = 0; i < count; i++) {
+      relax(genes1[i], genes2[i]);
+      relax(genes2[i], genes1[i]);
+    }
+    lastTouched = affectedCount + settle();
+  }
+
+  private int cutIfStronger(int from, int to, int affectedCount) {
+    if (parents[to] != from || affected[to]) {
+      return affectedCount;
+    }
+    int arc = network.arcOf(from, to);
+    if (arc < 0 || !(distances[from] + network.strengths[arc] > distances[to])) {
+      return affectedCount;
+    }
+    // Depth-first over the tree: the children of a gene are the neighbors whose parent it is.
+    int start = affectedCount;
+    affectedCount = push(to, affectedCount);
+    for (int i = start; i < affectedCount; i++) {
+      int gene = stack[i];
+      for (int a = network.offsets[gene]; a < network.offsets[gene + 1]; a++) {
+        int child = network.targets[a];
+        if (parents[child] == gene && !affected[child]) {
+          affectedCount = push(child, affectedCount);
+        }
+      }
+    }
+    return affectedCount;
+  }
+
+  private int push(int gene, int size) {
+    if (size == stack.length) {
+      stack = Arrays.copyOf(stack, size * 2);
+    }
+    affected[gene] = true;
+    distances[gene] = Double.POSITIVE_INFINITY;
+    parents[gene] = -1;
+    stack[size] = gene;
+    return size + 1;
+  }
+
+  private void relax(int from, int to) {
+    int arc = network.arcOf(from, to);
+    if (arc < 0) {
+      return;
+    }
+    double candidate = distances[from] + network.strengths[arc];
+    if (candidate < distances[to]) {
+      distances[to] = candidate;
+      parents[to] = from;
+      heap.insertOrDecrease(to, candidate);
+    }
+  }
+
+  // Dijkstra from whatever is queued. Every arc whose tail can offer a shorter distance has its
+  // tail in the heap, so popped distances are final. Returns the genes settled.
+  private int settle() {
+    int[] offsets = network.offsets;
+    int[] targets = network.targets;
+    double[] strengths = network.strengths;
+    int settled = 0;
+    while (!heap.isEmpty()) {
+      int gene = heap.pollMin();
+      settled++;
+      double distance = distances[gene];
+      for (int arc = offsets[gene]; arc < offsets[gene + 1]; arc++) {
+        int neighbor = targets[arc];
+        double candidate = distance + strengths[arc];
+        if (candidate < distances[neighbor]) {
+          distances[neighbor] = candidate;
+          parents[neighbor] = gene;
+          heap.insertOrDecrease(neighbor, candidate);
+        }
+      }
+    }
+    return settled;
+  }
+}
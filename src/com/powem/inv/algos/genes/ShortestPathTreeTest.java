@@ -0,0 +1,188 @@
+package com.powem.inv.algos.genes;
+
+import com.powem.inv.algos.GeneExpressionSimulator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ShortestPathTreeTest {
+
+  public static void tests() {
+    // TEST
+    // Repaired trees match trees built from scratch after batches of stronger and weaker
+    // interactions, including cut-off and reconnected genes.
+    Random random = new Random(24);
+    for (int round = 0; round < 20; round++) {
+      int genes = 40 + random.nextInt(40);
+      GeneNetwork.Builder builder = new GeneNetwork.Builder();
+      for (int v = 0; v < genes; v++) {
+        builder.addGene("G" + v);
+      }
+      List<int[]> pairs = new ArrayList<>();
+      for (int i = 0; i < genes * 2; i++) {
+        int a = random.nextInt(genes);
+        int b = random.nextInt(genes);
+        builder.connect("G" + a, "G" + b, random.nextInt(40) / 4.0);
+        pairs.add(new int[] {a, b});
+      }
+      GeneNetwork network = builder.build();
+      ShortestPathTree[] trees = new ShortestPathTree[3];
+      for (int t = 0; t < trees.length; t++) {
+        trees[t] = new ShortestPathTree(network, random.nextInt(genes));
+      }
+      for (int step = 0; step < 10; step++) {
+        int count = 1 + random.nextInt(8);
+        int[] genes1 = new int[count];
+        int[] genes2 = new int[count];
+        for (int i = 0; i < count; i++) {
+          int[] pair = pairs.get(random.nextInt(pairs.size()));
+          genes1[i] = pair[random.nextInt(2)];
+          genes2[i] = pair[0] + pair[1] - genes1[i];
+          // Factor 0 makes free interactions; a large one all but cuts the pair apart.
+          double factor = random.nextInt(4) == 0 ? 0 : random.nextInt(4) == 0 ? 64 : random.nextInt(8) / 2.0;
+          network.updateCondition(genes1[i], genes2[i], factor);
+        }
+        for (ShortestPathTree tree : trees) {
+          tree.repair(genes1, genes2, count);
+          assertSameAsRebuilt(network, tree);
+        }
+      }
+    }
+    // TEST_END
+
+    // TEST
+    // Raising a strength off the tree touches nothing; on a tree arc, only the subtree below it.
+    GeneNetwork.Builder chainBuilder = new GeneNetwork.Builder();
+    for (int v = 0; v + 1 < 1_000; v++) {
+      chainBuilder.connect("G" + v, "G" + (v + 1), 1);
+    }
+    chainBuilder.connect("G0", "G999", 4_096);
+    GeneNetwork chain = chainBuilder.build();
+    ShortestPathTree tree = new ShortestPathTree(chain, 0);
+    assert tree.getLastTouched() == 1_000;
+    chain.updateCondition(0, 999, 1.5);
+    tree.repair(new int[] {0}, new int[] {999}, 1);
+    assert tree.getLastTouched() == 0 && tree.distance(999) == 999;
+    chain.updateCondition(901, 900, 10);
+    tree.repair(new int[] {901}, new int[] {900}, 1);
+    assert tree.getLastTouched() == 2 * 99;
+    assert tree.distance(901) == 910 && tree.distance(999) == 1_008;
+    chain.updateCondition(0, 999, 1.0 / 2_048);
+    tree.repair(new int[] {999}, new int[] {0}, 1);
+    int[] expected = new int[51];
+    expected[0] = 0;
+    for (int i = 1; i < expected.length; i++) {
+      expected[i] = 1_000 - i;
+    }
+    assert Arrays.equals(tree.path(950), expected) && tree.distance(999) == 2;
+    // TEST_END
+
+    // TEST
+    // Hot sources get a tree on their second query, and batched updates are all-or-nothing.
+    GeneExpressionSimulator simulator = new GeneExpressionSimulator();
+    for (String gene : new String[] {"A", "B", "C", "D"}) {
+      simulator.addGene(gene);
+    }
+    simulator.connectGenes("A", "B", 1.0);
+    simulator.connectGenes("B", "C", 1.0);
+    simulator.connectGenes("A", "C", 3.0);
+    simulator.connectGenes("C", "D", 1.0);
+    assert simulator.findOptimalSignalPath("A", "D").equals(Arrays.asList("A", "B", "C", "D"));
+    assert simulator.getSourceTrees().treeCount() == 0;
+    assert simulator.findOptimalSignalPath("A", "D").equals(Arrays.asList("A", "B", "C", "D"));
+    assert simulator.getSourceTrees().treeCount() == 1 && simulator.getSourceTrees().getTreeHits() == 1;
+    simulator.updateConditions(Arrays.asList("A", "B"), Arrays.asList("B", "C"), new double[] {2.0, 3.0});
+    assert simulator.findOptimalSignalPath("A", "D").equals(Arrays.asList("A", "C", "D"));
+    assert simulator.getNetwork().get("C").get("B") == 3.0;
+    try {
+      simulator.updateConditions(Arrays.asList("A", "B"), Arrays.asList("C", "D"), new double[] {0.0, 1.0});
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("No existing interaction between these genes.");
+    }
+    assert simulator.getNetwork().get("A").get("C") == 3.0;
+    try {
+      simulator.updateConditions(Arrays.asList("A"), Arrays.asList("C", "D"), new double[] {1.0});
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Invalid input");
+    }
+    simulator.connectGenes("A", "C", 0.5);
+    assert simulator.findOptimalSignalPath("A", "D").equals(Arrays.asList("A", "C", "D"));
+    simulator.updateConditions("A", "C", 10.0);
+    assert simulator.findOptimalSignalPath("A", "D").equals(Arrays.asList("A", "B", "C", "D"));
+    assert simulator.getSourceTrees().getTreeHits() == 4;
+    try {
+      new SourceTreeCache(simulator.getCompiledNetwork(), 0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Capacity must be positive");
+    }
+    // TEST_END
+
+    // TEST
+    // Concurrent queries through one cache: sources keep being evicted and turned into trees while
+    // other threads walk theirs, and every answer matches a tree built on its own.
+    GeneNetwork.Builder shared = new GeneNetwork.Builder();
+    for (int v = 0; v < 300; v++) {
+      shared.addGene("G" + v);
+    }
+    for (int v = 1; v < 300; v++) {
+      for (int e = 0; e < 3; e++) {
+        shared.connect("G" + v, "G" + random.nextInt(v), random.nextDouble());
+      }
+    }
+    GeneNetwork network = shared.build();
+    ShortestPathTree[] fresh = new ShortestPathTree[12];
+    for (int source = 0; source < fresh.length; source++) {
+      fresh[source] = new ShortestPathTree(network, source);
+    }
+    SourceTreeCache cache = new SourceTreeCache(network, 4);
+    AtomicInteger mismatches = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Random queries = new Random(t);
+      threads.add(new Thread(() -> {
+        for (int q = 0; q < 2_000; q++) {
+          int source = queries.nextInt(fresh.length);
+          int target = queries.nextInt(300);
+          if (!Arrays.equals(cache.route(source, target), fresh[source].path(target))) {
+            mismatches.incrementAndGet();
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    assert mismatches.get() == 0;
+    assert cache.getTreeHits() + cache.getSearches() == 8_000;
+    // TEST_END
+  }
+
+  // Same distances as a fresh tree, and each parent link is a real arc that accounts exactly for
+  // the distance (paths may differ where there are ties).
+  private static void assertSameAsRebuilt(GeneNetwork network, ShortestPathTree tree) {
+    ShortestPathTree fresh = new ShortestPathTree(network, tree.getSource());
+    for (int gene = 0; gene < network.geneCount(); gene++) {
+      assert tree.distance(gene) == fresh.distance(gene);
+      int[] path = tree.path(gene);
+      if (path == null) {
+        assert fresh.path(gene) == null;
+        continue;
+      }
+      double total = 0;
+      for (int i = 1; i < path.length; i++) {
+        total += network.strength(path[i - 1], path[i]);
+      }
+      assert path[0] == tree.getSource() && total == tree.distance(gene);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package com.powem.inv.algos.genes;
+
+import com.powem.inv.algos.GeneExpressionSimulator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+// Signal path queries and condition updates on a random network of genes with about 3
+// interactions each: the original String-keyed maps with a Pair per heap entry and per update
+// (reproduced below) against GeneExpressionSimulator over its frozen GeneNetwork.
+// Run: java com.powem.inv.algos.genes.SignalPathBenchmark [genes] [queries]
+public class SignalPathBenchmark {
+
+  public static void main(String[] args) {
+    int genes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int updates = 1_000_000;
+    Random random = new Random(23);
+    LegacySimulator legacy = new LegacySimulator();
+    GeneExpressionSimulator simulator = new GeneExpressionSimulator();
+    for (int v = 0; v < genes; v++) {
+      legacy.addGene("G" + v);
+      simulator.addGene("G" + v);
+    }
+    List<String[]> pairs = new ArrayList<>();
+    for (int v = 1; v < genes; v++) {
+      for (int e = 0; e < 3; e++) {
+        String[] pair = {"G" + v, "G" + random.nextInt(v)};
+        double strength = 1 + random.nextInt(100);
+        legacy.connectGenes(pair[0], pair[1], strength);
+        simulator.connectGenes(pair[0], pair[1], strength);
+        pairs.add(pair);
+      }
+    }
+    String[][] ends = new String[queries][];
+    for (int i = 0; i < queries; i++) {
+      ends[i] = new String[] {"G" + random.nextInt(genes), "G" + random.nextInt(genes)};
+    }
+    double[] factors = new double[updates];
+    for (int i = 0; i < updates; i++) {
+      factors[i] = 0.5 + random.nextDouble();
+    }
+
+    GeneNetwork compiled = simulator.getCompiledNetwork();
+    int[][] ids = new int[pairs.size()][];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = new int[] {compiled.idOf(pairs.get(i)[0]), compiled.idOf(pairs.get(i)[1])};
+    }
+
+    for (int round = 0; round < 2; round++) {
+      int legacyQueries = Math.max(1, queries / 10);
+      long start = System.nanoTime();
+      long hops = 0;
+      for (int i = 0; i < legacyQueries; i++) {
+        hops += legacy.findOptimalSignalPath(ends[i][0], ends[i][1]).size();
+      }
+      double legacyQueryUs = (System.nanoTime() - start) / 1e3 / legacyQueries;
+      start = System.nanoTime();
+      for (int i = 0; i < queries; i++) {
+        hops += simulator.findOptimalSignalPath(ends[i][0], ends[i][1]).size();
+      }
+      double queryUs = (System.nanoTime() - start) / 1e3 / queries;
+
+      start = System.nanoTime();
+      for (int i = 0; i < updates; i++) {
+        String[] pair = pairs.get(i % pairs.size());
+        legacy.updateConditions(pair[0], pair[1], factors[i]);
+      }
+      double legacyUpdateNs = (double) (System.nanoTime() - start) / updates;
+      start = System.nanoTime();
+      for (int i = 0; i < updates; i++) {
+        String[] pair = pairs.get(i % pairs.size());
+        simulator.updateConditions(pair[0], pair[1], factors[i]);
+      }
+      double updateNs = (double) (System.nanoTime() - start) / updates;
+      // The same updates by gene id, without the String-keyed getNetwork() view.
+      start = System.nanoTime();
+      for (int i = 0; i < updates; i++) {
+        compiled.updateCondition(ids[i % pairs.size()][0], ids[i % pairs.size()][1], factors[i]);
+      }
+      double idUpdateNs = (double) (System.nanoTime() - start) / updates;
+      System.out.printf("query: maps %.0f us, compiled %.0f us; update: maps %.0f ns, simulator %.0f ns, by id %.0f ns"
+          + " (%d hops)%n", legacyQueryUs, queryUs, legacyUpdateNs, updateNs, idUpdateNs, hops);
+    }
+  }
+
+  // The original GeneExpressionSimulator.
+  private static class LegacySimulator {
+    private final Map<String, Map<String, Double>> network = new HashMap<>();
+    private final Map<Pair<String, String>, Double> baseInteractions = new HashMap<>();
+
+    void addGene(String geneId) {
+      network.putIfAbsent(geneId, new HashMap<>());
+    }
+
+    void connectGenes(String geneId1, String geneId2, double baseInteractionStrength) {
+      network.get(geneId1).put(geneId2, baseInteractionStrength);
+      network.get(geneId2).put(geneId1, baseInteractionStrength);
+      baseInteractions.put(new Pair<>(geneId1, geneId2), baseInteractionStrength);
+      baseInteractions.put(new Pair<>(geneId2, geneId1), baseInteractionStrength);
+    }
+
+    void updateConditions(String geneId1, String geneId2, double currentConditionFactor) {
+      if (!network.containsKey(geneId1) || !network.containsKey(geneId2)) {
+        throw new IllegalArgumentException("One or both genes do not exist in the network.");
+      }
+      Pair<String, String> pair = new Pair<>(geneId1, geneId2);
+      if (!baseInteractions.containsKey(pair)) {
+        throw new IllegalArgumentException("No existing interaction between these genes.");
+      }
+      double adjustedStrength = baseInteractions.get(pair) * currentConditionFactor;
+      network.get(geneId1).put(geneId2, adjustedStrength);
+      network.get(geneId2).put(geneId1, adjustedStrength);
+    }
+
+    List<String> findOptimalSignalPath(String sourceGene, String targetGene) {
+      Map<String, Double> dist = new HashMap<>();
+      PriorityQueue<Pair<String, Double>> pq = new PriorityQueue<>(Comparator.comparingDouble(Pair::getSecond));
+      Map<String, String> prev = new HashMap<>();
+      Set<String> visited = new HashSet<>();
+      for (String gene : network.keySet()) {
+        dist.put(gene, Double.MAX_VALUE);
+      }
+      dist.put(sourceGene, 0.0);
+      pq.add(new Pair<>(sourceGene, 0.0));
+      while (!pq.isEmpty()) {
+        String current = pq.poll().getFirst();
+        if (!visited.add(current)) {
+          continue;
+        }
+        if (current.equals(targetGene)) {
+          break;
+        }
+        for (Map.Entry<String, Double> entry : network.get(current).entrySet()) {
+          String neighbor = entry.getKey();
+          double newDist = dist.get(current) + entry.getValue();
+          if (newDist < dist.get(neighbor)) {
+            dist.put(neighbor, newDist);
+            prev.put(neighbor, current);
+            pq.add(new Pair<>(neighbor, newDist));
+          }
+        }
+      }
+      List<String> path = new ArrayList<>();
+      for (String at = targetGene; at != null; at = prev.get(at)) {
+        path.add(at);
+      }
+      Collections.reverse(path);
+      return path;
+    }
+  }
+
+  private static class Pair<T, U> {
+    private final T first;
+    private final U second;
+
+    Pair(T first, U second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    T getFirst() {
+      return first;
+    }
+
+    U getSecond() {
+      return second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Pair<?, ?> pair = (Pair<?, ?>) o;
+      return Objects.equals(first, pair.first) && Objects.equals(second, pair.second);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(first, second);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.powem.inv.algos.genes;
+
+import java.util.Arrays;
+
+// Point-to-point Dijkstra over a GeneNetwork's strength arrays, stopping once the target settles.
+//
+// Distance, parent and stamp arrays are allocated once per search object. An entry is only valid
+// when its stamp equals the current query's epoch, so starting a query is O(1) rather than
+// O(genes). Not thread safe: GeneNetwork hands out one per thread.
+public class SignalSearch {
+  private final GeneNetwork network;
+  private final double[] distances;
+  private final int[] parents;
+  private final int[] stamps;
+  private final IndexedDoubleHeap heap;
+  private int epoch;
+  private int lastSettled;
+  private double lastDistance;
+
+  public SignalSearch(GeneNetwork network) {
+    this.network = network;
+    int genes = network.geneCount();
+    distances = new double[genes];
+    parents = new int[genes];
+    stamps = new int[genes];
+    heap = new IndexedDoubleHeap(genes);
+  }
+
+  // Genes settled by the last route() call.
+  public int getSettledCount() {
+    return lastSettled;
+  }
+
+  // Total strength of the path returned by the last successful route() call.
+  public double getDistance() {
+    return lastDistance;
+  }
+
+  // Gene ids from source to target, or null if the target is unreachable.
+  public int[] route(int source, int target) {
+    if (++epoch == 0) {
+      Arrays.fill(stamps, 0);
+      epoch = 1;
+    }
+    heap.clear();
+    lastSettled = 0;
+    stamps[source] = epoch;
+    distances[source] = 0;
+    parents[source] = -1;
+    heap.insertOrDecrease(source, 0);
+    int[] offsets = network.offsets;
+    int[] targets = network.targets;
+    double[] strengths = network.strengths;
+    while (!heap.isEmpty()) {
+      int gene = heap.pollMin();
+      lastSettled++;
+      if (gene == target) {
+        lastDistance = distances[target];
+        return path(target);
+      }
+      double distance = distances[gene];
+      for (int arc = offsets[gene]; arc < offsets[gene + 1]; arc++) {
+        int neighbor = targets[arc];
+        double candidate = distance + strengths[arc];
+        double known = stamps[neighbor] == epoch ? distances[neighbor] : Double.POSITIVE_INFINITY;
+        if (!(candidate < known)) {
+          continue; // also covers settled neighbors, infinite and NaN strengths
+        }
+        stamps[neighbor] = epoch;
+        distances[neighbor] = candidate;
+        parents[neighbor] = gene;
+        heap.insertOrDecrease(neighbor, candidate);
+      }
+    }
+    return null;
+  }
+
+  private int[] path(int target) {
+    int length = 0;
+    for (int at = target; at >= 0; at = parents[at]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int at = target; at >= 0; at = parents[at]) {
+      path[--length] = at;
+    }
+    return path;
+  }
+}
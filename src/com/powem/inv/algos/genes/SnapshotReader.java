@@ -0,0 +1,84 @@
+package com.powem.inv.algos.genes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a snapshot file written by SnapshotWriter one snapshot at a time, so files far larger than
+// memory can be scanned.
+public class SnapshotReader implements AutoCloseable {
+  private final FileChannel channel;
+  private final int geneCount;
+  private final long snapshotCount;
+  private final ByteBuffer buffer;
+
+  public SnapshotReader(Path file) {
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+      ByteBuffer header = ByteBuffer.allocate(SnapshotWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(header, 0);
+      if (header.position() < SnapshotWriter.HEADER_BYTES || header.getInt(0) != SnapshotWriter.MAGIC) {
+        channel.close();
+        throw new IllegalStateException("Not a snapshot file: " + file);
+      }
+      if (header.getInt(4) != SnapshotWriter.VERSION) {
+        channel.close();
+        throw new IllegalStateException("Unsupported snapshot file version: " + header.getInt(4));
+      }
+      geneCount = header.getInt(8);
+      int bytes = SnapshotWriter.snapshotBytes(geneCount);
+      snapshotCount = (channel.size() - SnapshotWriter.HEADER_BYTES) / bytes;
+      buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public int geneCount() {
+    return geneCount;
+  }
+
+  public long snapshotCount() {
+    return snapshotCount;
+  }
+
+  // Reads snapshot number index into levels and returns the step it was taken after.
+  public long read(long index, double[] levels) {
+    if (index < 0 || index >= snapshotCount) {
+      throw new IllegalArgumentException("No snapshot " + index);
+    }
+    buffer.clear();
+    try {
+      readFully(buffer, SnapshotWriter.HEADER_BYTES + index * buffer.capacity());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.flip();
+    long step = buffer.getLong();
+    buffer.asDoubleBuffer().get(levels, 0, geneCount);
+    return step;
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void readFully(ByteBuffer target, long position) throws IOException {
+    while (target.hasRemaining()) {
+      int read = channel.read(target, position);
+      if (read < 0) {
+        return;
+      }
+      position += read;
+    }
+  }
+}
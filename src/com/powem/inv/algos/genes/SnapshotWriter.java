@@ -0,0 +1,143 @@
+package com.powem.inv.algos.genes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Streams expression level snapshots to a file. Layout (little-endian):
+//
+//   header    int magic, int version, int geneCount, int reserved
+//   snapshot  long step, then geneCount doubles
+//
+// write() copies the levels into one of two direct buffers and hands it to a writer thread, so
+// the simulation only waits for the disk when it produces snapshots faster than they are written.
+public class SnapshotWriter implements AutoCloseable {
+  static final int MAGIC = 0x47454E45; // "GENE"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  private static final ByteBuffer STOP = ByteBuffer.allocate(0);
+
+  private final int geneCount;
+  private final FileChannel channel;
+  private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(2);
+  private final BlockingQueue<ByteBuffer> pending = new ArrayBlockingQueue<>(3);
+  private final Thread writer;
+  private volatile IOException failure;
+  private long snapshots;
+  private boolean closed;
+
+  public SnapshotWriter(Path file, int geneCount) {
+    this.geneCount = geneCount;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putInt(geneCount).putInt(0).flip();
+      writeFully(header);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    for (int i = 0; i < 2; i++) {
+      free.add(ByteBuffer.allocateDirect(snapshotBytes(geneCount)).order(ByteOrder.LITTLE_ENDIAN));
+    }
+    writer = new Thread(this::writeLoop, "expression-snapshot-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  static int snapshotBytes(int geneCount) {
+    return 8 + 8 * geneCount;
+  }
+
+  // Queues a copy of levels[0 .. geneCount) as the snapshot taken after the given step.
+  public void write(long step, double[] levels) {
+    if (closed) {
+      throw new IllegalStateException("Snapshot writer is closed");
+    }
+    checkFailure();
+    ByteBuffer buffer = take(free);
+    buffer.clear();
+    buffer.putLong(step);
+    buffer.asDoubleBuffer().put(levels, 0, geneCount);
+    buffer.position(0).limit(buffer.capacity());
+    put(buffer);
+    snapshots++;
+  }
+
+  public long getSnapshotCount() {
+    return snapshots;
+  }
+
+  // Waits for the queued snapshots to reach the file and closes it.
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    put(STOP);
+    try {
+      writer.join();
+      channel.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    checkFailure();
+  }
+
+  private void writeLoop() {
+    while (true) {
+      ByteBuffer buffer = take(pending);
+      if (buffer == STOP) {
+        return;
+      }
+      if (failure == null) {
+        try {
+          writeFully(buffer);
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      free.add(buffer);
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private void checkFailure() {
+    if (failure != null) {
+      throw new UncheckedIOException(failure);
+    }
+  }
+
+  private void put(ByteBuffer buffer) {
+    try {
+      pending.put(buffer);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ByteBuffer take(BlockingQueue<ByteBuffer> queue) {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
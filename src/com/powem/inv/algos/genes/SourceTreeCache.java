@@ -0,0 +1,98 @@
+package com.powem.inv.algos.genes;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Shortest path trees for the most recently queried source genes, least recently used first out.
+//
+// A source is only remembered on its first query, which runs a point-to-point search. Queried
+// again while still remembered, it gets a ShortestPathTree, and later queries from it are a walk
+// up the tree. Strength changes repair every cached tree instead of discarding it.
+//
+// Methods are synchronized: even a lookup reorders the access-ordered map, and a tree must not be
+// walked while it is repaired. Point-to-point searches run outside the lock on the calling
+// thread's SignalSearch, so concurrent queries from sources without a tree don't wait on each
+// other. As with GeneNetwork, strength updates must not run while queries do.
+public class SourceTreeCache {
+  private final GeneNetwork network;
+  private final int capacity;
+  // source -> tree, or null for a source seen once.
+  private final LinkedHashMap<Integer, ShortestPathTree> trees;
+  private final int[] singleFrom = new int[1];
+  private final int[] singleTo = new int[1];
+  private long treeHits;
+  private long searches;
+
+  public SourceTreeCache(GeneNetwork network, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.network = network;
+    this.capacity = capacity;
+    this.trees = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  // Gene ids from source to target, or null if the target is unreachable.
+  public int[] route(int source, int target) {
+    synchronized (this) {
+      ShortestPathTree tree = trees.get(source);
+      if (tree != null || trees.containsKey(source)) {
+        if (tree == null) {
+          tree = new ShortestPathTree(network, source);
+          trees.put(source, tree);
+        }
+        treeHits++;
+        return tree.path(target);
+      }
+      remember(source, null);
+      searches++;
+    }
+    return network.shortestPath(source, target);
+  }
+
+  // Repairs the cached trees after the strengths between genes1[i] and genes2[i], i < count,
+  // changed.
+  public synchronized void strengthsChanged(int[] genes1, int[] genes2, int count) {
+    for (ShortestPathTree tree : trees.values()) {
+      if (tree != null) {
+        tree.repair(genes1, genes2, count);
+      }
+    }
+  }
+
+  public synchronized void strengthChanged(int gene1, int gene2) {
+    singleFrom[0] = gene1;
+    singleTo[0] = gene2;
+    strengthsChanged(singleFrom, singleTo, 1);
+  }
+
+  public synchronized int treeCount() {
+    int count = 0;
+    for (ShortestPathTree tree : trees.values()) {
+      if (tree != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  // Queries answered from a tree.
+  public synchronized long getTreeHits() {
+    return treeHits;
+  }
+
+  // Queries answered by a point-to-point search.
+  public synchronized long getSearches() {
+    return searches;
+  }
+
+  private void remember(int source, ShortestPathTree tree) {
+    trees.put(source, tree);
+    if (trees.size() > capacity) {
+      Iterator<Map.Entry<Integer, ShortestPathTree>> eldest = trees.entrySet().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+  }
+}
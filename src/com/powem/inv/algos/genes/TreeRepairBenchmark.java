@@ -0,0 +1,82 @@
+package com.powem.inv.algos.genes;
+
+import com.powem.inv.algos.GeneExpressionSimulator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Time steps on a random network of genes with about 3 interactions each: a batch of condition
+// updates, then signal path queries from a few hot source genes. Queries run on the simulator
+// (cached shortest path trees, repaired after each batch) and as point-to-point searches on the
+// same compiled network.
+// Run: java com.powem.inv.algos.genes.TreeRepairBenchmark [genes] [updatesPerStep] [queriesPerStep]
+public class TreeRepairBenchmark {
+
+  public static void main(String[] args) {
+    int genes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int updatesPerStep = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    int queriesPerStep = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    int hotSources = 8;
+    int steps = 20;
+    Random random = new Random(24);
+    GeneExpressionSimulator simulator = new GeneExpressionSimulator();
+    for (int v = 0; v < genes; v++) {
+      simulator.addGene("G" + v);
+    }
+    List<String> firsts = new ArrayList<>();
+    List<String> seconds = new ArrayList<>();
+    for (int v = 1; v < genes; v++) {
+      for (int e = 0; e < 3; e++) {
+        String other = "G" + random.nextInt(v);
+        simulator.connectGenes("G" + v, other, 1 + random.nextInt(100));
+        firsts.add("G" + v);
+        seconds.add(other);
+      }
+    }
+    String[] sources = new String[hotSources];
+    for (int i = 0; i < hotSources; i++) {
+      sources[i] = "G" + random.nextInt(genes);
+    }
+    GeneNetwork network = simulator.getCompiledNetwork();
+
+    for (int round = 0; round < 2; round++) {
+      long updateNanos = 0;
+      long treeNanos = 0;
+      long searchNanos = 0;
+      long hops = 0;
+      for (int step = 0; step < steps; step++) {
+        List<String> genes1 = new ArrayList<>(updatesPerStep);
+        List<String> genes2 = new ArrayList<>(updatesPerStep);
+        double[] factors = new double[updatesPerStep];
+        for (int i = 0; i < updatesPerStep; i++) {
+          int pair = random.nextInt(firsts.size());
+          genes1.add(firsts.get(pair));
+          genes2.add(seconds.get(pair));
+          factors[i] = 0.5 + random.nextDouble();
+        }
+        String[][] queries = new String[queriesPerStep][];
+        for (int q = 0; q < queriesPerStep; q++) {
+          queries[q] = new String[] {sources[q % hotSources], "G" + random.nextInt(genes)};
+        }
+
+        long start = System.nanoTime();
+        simulator.updateConditions(genes1, genes2, factors);
+        updateNanos += System.nanoTime() - start;
+        start = System.nanoTime();
+        for (String[] query : queries) {
+          hops += simulator.findOptimalSignalPath(query[0], query[1]).size();
+        }
+        treeNanos += System.nanoTime() - start;
+        start = System.nanoTime();
+        for (String[] query : queries) {
+          int[] path = network.shortestPath(network.idOf(query[0]), network.idOf(query[1]));
+          hops += path == null ? 1 : path.length;
+        }
+        searchNanos += System.nanoTime() - start;
+      }
+      System.out.printf("per step: %d updates + repair of %d trees %.1f ms, %d queries from trees %.2f ms,"
+              + " as searches %.1f ms (%d hops)%n", updatesPerStep, simulator.getSourceTrees().treeCount(),
+          updateNanos / 1e6 / steps, queriesPerStep, treeNanos / 1e6 / steps, searchNanos / 1e6 / steps, hops);
+    }
+  }
+}
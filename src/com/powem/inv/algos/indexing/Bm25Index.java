@@ -0,0 +1,299 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Term frequencies and document lengths for BM25 ranking, queried top-k with WAND:
+// every term keeps an upper bound on the score it can contribute, and documents whose summed
+// bounds can't beat the current k-th best score are skipped without being scored.
+// Methods are synchronized, so it is safe (but serialized) behind a sharded indexer.
+//
+// Adding an id that is already ranked replaces its content.
+public class Bm25Index {
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final Comparator<Cursor> BY_DOC = (a, b) -> Integer.compare(a.doc(), b.doc());
+
+  private final DocIdDictionary dictionary = new DocIdDictionary();
+  private final Map<String, TermPostings> terms = new HashMap<>();
+  private int[] documentLengths = new int[16]; // -1 once removed
+  private String[][] documentTerms = new String[16][]; // distinct terms of each ranked document
+  private long totalLength;
+  private int documentCount;
+
+  public Bm25Index() {
+    Arrays.fill(documentLengths, -1);
+  }
+
+  public synchronized void addDocument(String documentId, List<String> tokens) {
+    int id = dictionary.getOrAssign(documentId);
+    if (id >= documentLengths.length) {
+      int old = documentLengths.length;
+      int capacity = Math.max(old * 2, id + 1);
+      documentLengths = Arrays.copyOf(documentLengths, capacity);
+      Arrays.fill(documentLengths, old, capacity, -1);
+      documentTerms = Arrays.copyOf(documentTerms, capacity);
+    } else if (documentLengths[id] >= 0) {
+      unrank(id); // replaced by the new content
+    }
+    Map<String, Integer> frequencies = new HashMap<>();
+    for (String token : tokens) {
+      if (!token.isEmpty()) {
+        frequencies.merge(token, 1, Integer::sum);
+      }
+    }
+    int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+    documentLengths[id] = length;
+    totalLength += length;
+    documentCount++;
+    documentTerms[id] = frequencies.keySet().toArray(new String[0]);
+    frequencies.forEach((term, tf) -> terms.computeIfAbsent(term, t -> new TermPostings()).add(id, tf, length));
+  }
+
+  public synchronized void removeDocument(String documentId) {
+    int id = dictionary.idOf(documentId);
+    if (id >= 0 && id < documentLengths.length && documentLengths[id] >= 0) {
+      unrank(id);
+    }
+  }
+
+  private void unrank(int id) {
+    for (String term : documentTerms[id]) {
+      TermPostings postings = terms.get(term);
+      if (postings != null && postings.remove(id) && postings.size == 0) {
+        terms.remove(term);
+      }
+    }
+    totalLength -= documentLengths[id];
+    documentLengths[id] = -1;
+    documentTerms[id] = null;
+    documentCount--;
+  }
+
+  public synchronized List<ScoredDocument> topK(List<String> queryTokens, int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+    List<ScoredDocument> results = new ArrayList<>();
+    if (documentCount == 0) {
+      return results;
+    }
+    double averageLength = Math.max(1.0, totalLength / (double) documentCount);
+
+    Set<String> unique = new LinkedHashSet<>(queryTokens);
+    Cursor[] cursors = new Cursor[unique.size()];
+    int n = 0;
+    for (String token : unique) {
+      TermPostings postings = terms.get(token);
+      if (postings != null) {
+        cursors[n++] = new Cursor(postings, idf(postings.size), averageLength);
+      }
+    }
+
+    TopKHeap heap = new TopKHeap(k);
+    while (true) {
+      // Cursors ordered by their current document, exhausted ones dropped.
+      int live = 0;
+      for (int i = 0; i < n; i++) {
+        if (!cursors[i].exhausted()) {
+          cursors[live++] = cursors[i];
+        }
+      }
+      n = live;
+      if (n == 0) {
+        break;
+      }
+      Arrays.sort(cursors, 0, n, BY_DOC);
+
+      double threshold = heap.threshold();
+      double bound = 0;
+      int pivot = -1;
+      for (int i = 0; i < n; i++) {
+        bound += cursors[i].upperBound;
+        if (bound > threshold) {
+          pivot = i;
+          break;
+        }
+      }
+      if (pivot < 0) {
+        break; // nothing left can enter the top k
+      }
+
+      int pivotDoc = cursors[pivot].doc();
+      if (cursors[0].doc() == pivotDoc) {
+        double score = 0;
+        for (int i = 0; i < n && cursors[i].doc() == pivotDoc; i++) {
+          score += cursors[i].score(documentLengths[pivotDoc]);
+          cursors[i].next();
+        }
+        heap.offer(pivotDoc, score);
+      } else {
+        for (int i = 0; i < pivot; i++) {
+          cursors[i].advanceTo(pivotDoc);
+        }
+      }
+    }
+
+    heap.drainInto(results, dictionary);
+    return results;
+  }
+
+  public synchronized int getDocumentCount() {
+    return documentCount;
+  }
+
+  private double idf(int documentFrequency) {
+    return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+  }
+
+  private static double termScore(double idf, int tf, int length, double averageLength) {
+    return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+  }
+
+  private static class TermPostings {
+    int[] docs = new int[2];
+    int[] frequencies = new int[2];
+    int size;
+    // Bounds for the WAND upper bound. They only widen, which keeps the bound valid after removals.
+    int maxFrequency;
+    int minLength = Integer.MAX_VALUE;
+
+    void add(int doc, int tf, int length) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        frequencies = Arrays.copyOf(frequencies, size * 2);
+      }
+      int pos = size;
+      if (size > 0 && docs[size - 1] > doc) {
+        // Re-added documents keep their old id, so they may land in the middle.
+        pos = -Arrays.binarySearch(docs, 0, size, doc) - 1;
+        System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+        System.arraycopy(frequencies, pos, frequencies, pos + 1, size - pos);
+      }
+      docs[pos] = doc;
+      frequencies[pos] = tf;
+      size++;
+      maxFrequency = Math.max(maxFrequency, tf);
+      minLength = Math.min(minLength, length);
+    }
+
+    boolean remove(int doc) {
+      int pos = Arrays.binarySearch(docs, 0, size, doc);
+      if (pos < 0) {
+        return false;
+      }
+      System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+      System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos - 1);
+      size--;
+      return true;
+    }
+  }
+
+  private static class Cursor {
+    final TermPostings postings;
+    final double idf;
+    final double averageLength;
+    final double upperBound;
+    int position;
+
+    Cursor(TermPostings postings, double idf, double averageLength) {
+      this.postings = postings;
+      this.idf = idf;
+      this.averageLength = averageLength;
+      this.upperBound = termScore(idf, postings.maxFrequency, postings.minLength, averageLength);
+    }
+
+    boolean exhausted() {
+      return position >= postings.size;
+    }
+
+    int doc() {
+      return postings.docs[position];
+    }
+
+    double score(int length) {
+      return termScore(idf, postings.frequencies[position], length, averageLength);
+    }
+
+    void next() {
+      position++;
+    }
+
+    // Moves to the first posting >= target.
+    void advanceTo(int target) {
+      position = Postings.gallop(postings.docs, position, postings.size, target);
+    }
+  }
+
+  // Min-heap on score holding the best k documents seen so far.
+  private static class TopKHeap {
+    final int[] docs;
+    final double[] scores;
+    int size;
+
+    TopKHeap(int k) {
+      docs = new int[k];
+      scores = new double[k];
+    }
+
+    double threshold() {
+      return size < docs.length ? 0 : scores[0];
+    }
+
+    void offer(int doc, double score) {
+      if (size < docs.length) {
+        int i = size++;
+        while (i > 0 && scores[(i - 1) / 2] > score) {
+          docs[i] = docs[(i - 1) / 2];
+          scores[i] = scores[(i - 1) / 2];
+          i = (i - 1) / 2;
+        }
+        docs[i] = doc;
+        scores[i] = score;
+      } else if (score > scores[0]) {
+        siftDown(doc, score);
+      }
+    }
+
+    private void siftDown(int doc, double score) {
+      int i = 0;
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && scores[child + 1] < scores[child]) {
+          child++;
+        }
+        if (scores[child] >= score) {
+          break;
+        }
+        docs[i] = docs[child];
+        scores[i] = scores[child];
+        i = child;
+      }
+      docs[i] = doc;
+      scores[i] = score;
+    }
+
+    void drainInto(List<ScoredDocument> results, DocIdDictionary dictionary) {
+      ScoredDocument[] ordered = new ScoredDocument[size];
+      for (int i = size - 1; i >= 0; i--) {
+        ordered[i] = new ScoredDocument(dictionary.nameOf(docs[0]), scores[0]);
+        int lastDoc = docs[size - 1];
+        double lastScore = scores[size - 1];
+        size--;
+        if (size > 0) {
+          siftDown(lastDoc, lastScore);
+        }
+      }
+      results.addAll(Arrays.asList(ordered));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class Bm25IndexTest {
+
+  public static void tests() {
+    // TEST
+    DistributedDocumentIndexer indexer = new DistributedDocumentIndexer(new SingleMapKeywordIndex(), true);
+    indexer.addDocument("Server1", "Doc1", "java java java streams");
+    indexer.addDocument("Server1", "Doc2", "java and python and scala and go and rust");
+    indexer.addDocument("Server2", "Doc3", "python only");
+    List<ScoredDocument> top = indexer.searchTopK("java", 2);
+    assert top.size() == 2;
+    assert top.get(0).getDocumentId().equals("Doc1");
+    assert top.get(0).getScore() > top.get(1).getScore();
+    // TEST_END
+
+    // TEST
+    indexer.removeDocument("Server1", "Doc1");
+    top = indexer.searchTopK("java python", 10);
+    assert top.size() == 2;
+    assert top.get(0).getDocumentId().equals("Doc3") || top.get(0).getDocumentId().equals("Doc2");
+    assert indexer.searchTopK("missing", 3).isEmpty();
+    // TEST_END
+
+    // TEST
+    // The same document id on two servers: the later content is ranked, and removing it falls back
+    // to the copy that is still stored.
+    indexer.addDocument("Server1", "Shared", "kotlin kotlin");
+    indexer.addDocument("Server2", "Shared", "kotlin swift");
+    assert indexer.getServers().get("Server1").containsKey("Shared");
+    assert indexer.searchTopK("swift", 10).size() == 1;
+    indexer.removeDocument("Server2", "Shared");
+    assert indexer.searchTopK("swift", 10).isEmpty();
+    assert indexer.searchTopK("kotlin", 10).get(0).getDocumentId().equals("Shared");
+    assert indexer.searchDocuments("kotlin").equals(List.of("Shared"));
+    indexer.removeDocument("Server1", "Shared");
+    assert indexer.searchTopK("kotlin swift", 10).isEmpty();
+    // TEST_END
+
+    // TEST
+    try {
+      new DistributedDocumentIndexer().searchTopK("java", 1);
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Ranked search is not enabled for this indexer");
+    }
+    try {
+      new DistributedDocumentIndexer(4).searchTopK("java", 1);
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Ranked search is not enabled for this indexer");
+    }
+    // TEST_END
+
+    // TEST
+    // WAND must return exactly the scores of exhaustive scoring.
+    Random random = new Random(7);
+    Bm25Index index = new Bm25Index();
+    List<List<String>> documents = new ArrayList<>();
+    for (int d = 0; d < 2000; d++) {
+      List<String> tokens = new ArrayList<>();
+      int length = 5 + random.nextInt(40);
+      for (int w = 0; w < length; w++) {
+        double u = random.nextDouble();
+        tokens.add("t" + (int) (200 * u * u));
+      }
+      documents.add(tokens);
+      index.addDocument("D" + d, tokens);
+    }
+    for (int d = 0; d < 2000; d += 7) {
+      index.removeDocument("D" + d);
+    }
+    List<String> query = Arrays.asList("t0", "t3", "t50", "t150");
+    List<ScoredDocument> wand = index.topK(query, 10);
+    List<Double> exhaustive = bruteForceScores(documents, query);
+    assert wand.size() == 10;
+    for (int i = 0; i < 10; i++) {
+      assert Math.abs(wand.get(i).getScore() - exhaustive.get(i)) < 1e-9;
+    }
+    // TEST_END
+  }
+
+  private static List<Double> bruteForceScores(List<List<String>> documents, List<String> query) {
+    List<List<String>> live = new ArrayList<>();
+    long totalLength = 0;
+    for (int d = 0; d < documents.size(); d++) {
+      if (d % 7 != 0) {
+        live.add(documents.get(d));
+        totalLength += documents.get(d).size();
+      }
+    }
+    double averageLength = totalLength / (double) live.size();
+    List<Double> scores = new ArrayList<>();
+    for (List<String> document : live) {
+      double score = 0;
+      for (String term : query) {
+        long df = live.stream().filter(doc -> doc.contains(term)).count();
+        long tf = document.stream().filter(term::equals).count();
+        if (tf > 0) {
+          double idf = Math.log(1 + (live.size() - df + 0.5) / (df + 0.5));
+          score += idf * tf * 2.2 / (tf + 1.2 * (0.25 + 0.75 * document.size() / averageLength));
+        }
+      }
+      scores.add(score);
+    }
+    scores.sort(Collections.reverseOrder());
+    return scores;
+  }
+}
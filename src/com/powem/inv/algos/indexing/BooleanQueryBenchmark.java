@@ -0,0 +1,58 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Selective AND queries (one rare term, one very common term): galloping intersection through
+// searchBoolean against the union approach of materializing each term's results with
+// searchDocuments and retaining the overlap.
+// Run: java com.powem.inv.algos.indexing.BooleanQueryBenchmark [documents] [queries]
+public class BooleanQueryBenchmark {
+  private static final int VOCABULARY = 50_000;
+
+  public static void main(String[] args) {
+    int documents = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+    DistributedDocumentIndexer indexer = new DistributedDocumentIndexer(new SingleMapKeywordIndex(), true);
+    Random random = new Random(3);
+    for (int d = 0; d < documents; d++) {
+      StringBuilder content = new StringBuilder();
+      for (int w = 0; w < 30; w++) {
+        double u = random.nextDouble();
+        content.append('w').append((int) (VOCABULARY * u * u * u)).append(' ');
+      }
+      indexer.addDocument("S" + (d % 8), "D" + d, content.toString());
+    }
+
+    String[] rare = new String[queries];
+    String[] common = new String[queries];
+    for (int q = 0; q < queries; q++) {
+      rare[q] = "w" + (VOCABULARY / 2 + random.nextInt(VOCABULARY / 2));
+      common[q] = "w" + random.nextInt(10);
+    }
+
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      long unionHits = 0;
+      for (int q = 0; q < queries; q++) {
+        Set<String> result = new HashSet<>(indexer.searchDocuments(rare[q]));
+        result.retainAll(new HashSet<>(indexer.searchDocuments(common[q])));
+        unionHits += result.size();
+      }
+      long union = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long andHits = 0;
+      for (int q = 0; q < queries; q++) {
+        andHits += indexer.searchBoolean(rare[q] + " " + common[q]).count();
+      }
+      long intersect = System.nanoTime() - start;
+
+      System.out.printf("round %d: union+retain %,8.1f us/query (%d hits)   galloping AND %,8.1f us/query (%d hits)%n",
+          round, union / 1e3 / queries, unionHits, intersect / 1e3 / queries, andHits);
+    }
+  }
+}
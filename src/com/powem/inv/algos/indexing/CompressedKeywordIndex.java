@@ -0,0 +1,135 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Postings as variable-byte encoded int lists over a DocIdDictionary instead of HashSet<String>.
+// Not thread safe.
+public class CompressedKeywordIndex implements KeywordIndex {
+  private DocIdDictionary dictionary = new DocIdDictionary();
+  private final Map<String, CompressedPostingList> postings = new HashMap<>();
+  private long postingCount;
+
+  @Override
+  public void add(String keyword, String documentId) {
+    int id = dictionary.getOrAssign(documentId);
+    if (postings.computeIfAbsent(keyword, k -> new CompressedPostingList()).add(id)) {
+      postingCount++;
+    }
+  }
+
+  @Override
+  public void remove(String keyword, String documentId) {
+    int id = dictionary.idOf(documentId);
+    CompressedPostingList list = postings.get(keyword);
+    if (id < 0 || list == null) {
+      return;
+    }
+    if (list.remove(id)) {
+      postingCount--;
+      if (list.isEmpty()) {
+        postings.remove(keyword);
+      }
+    }
+  }
+
+  @Override
+  public Set<String> lookup(String keyword) {
+    CompressedPostingList list = postings.get(keyword);
+    return list == null ? Collections.emptySet() : new DecodedSet(list.toArray());
+  }
+
+  // Sorted dense ids for a keyword, empty if it is not indexed.
+  public int[] postings(String keyword) {
+    CompressedPostingList list = postings.get(keyword);
+    return list == null ? new int[0] : list.toArray();
+  }
+
+  public DocIdDictionary getDictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public boolean containsKeyword(String keyword) {
+    return postings.containsKey(keyword);
+  }
+
+  @Override
+  public Map<String, Set<String>> asMap() {
+    Map<String, Set<String>> decoded = new HashMap<>();
+    postings.forEach((keyword, list) -> decoded.put(keyword, new DecodedSet(list.toArray())));
+    return decoded;
+  }
+
+  public long getPostingCount() {
+    return postingCount;
+  }
+
+  public long getEncodedBytes() {
+    long bytes = 0;
+    for (CompressedPostingList list : postings.values()) {
+      bytes += list.encodedBytes();
+    }
+    return bytes;
+  }
+
+  public void trimToSize() {
+    postings.values().forEach(CompressedPostingList::trimToSize);
+  }
+
+  @Override
+  public void clear() {
+    postings.clear();
+    dictionary = new DocIdDictionary();
+    postingCount = 0;
+  }
+
+  // Read-only view that resolves names lazily while iterating.
+  private class DecodedSet extends AbstractSet<String> {
+    private final int[] ids;
+
+    DecodedSet(int[] ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof String)) {
+        return false;
+      }
+      int id = dictionary.idOf((String) o);
+      return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<>() {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+          return next < ids.length;
+        }
+
+        @Override
+        public String next() {
+          if (next >= ids.length) {
+            throw new NoSuchElementException();
+          }
+          return dictionary.nameOf(ids[next++]);
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return ids.length;
+    }
+  }
+}
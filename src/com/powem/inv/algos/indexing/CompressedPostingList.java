@@ -0,0 +1,124 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.Arrays;
+
+// Sorted, duplicate free list of document ids stored as variable-byte encoded gaps.
+// Each gap is written 7 bits at a time, low bits first; the last byte of a gap has its high bit set.
+// Appending an id larger than the current maximum (the common case, ids are handed out in
+// insertion order) only writes the new gap. Anything else decodes and re-encodes the list.
+public class CompressedPostingList {
+  private byte[] data = new byte[4];
+  private int length; // bytes in use
+  private int size; // number of ids
+  private int last = -1;
+
+  public boolean add(int id) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Document id cannot be negative");
+    }
+    if (id > last) {
+      append(id - last);
+      last = id;
+      size++;
+      return true;
+    }
+    if (id == last) {
+      return false; // repeated term in the latest document
+    }
+    int[] ids = toArray();
+    int pos = Arrays.binarySearch(ids, id);
+    if (pos >= 0) {
+      return false;
+    }
+    int insert = -pos - 1;
+    int[] updated = new int[ids.length + 1];
+    System.arraycopy(ids, 0, updated, 0, insert);
+    updated[insert] = id;
+    System.arraycopy(ids, insert, updated, insert + 1, ids.length - insert);
+    encode(updated, updated.length);
+    return true;
+  }
+
+  public boolean remove(int id) {
+    if (id < 0 || id > last) {
+      return false;
+    }
+    int[] ids = toArray();
+    int pos = Arrays.binarySearch(ids, id);
+    if (pos < 0) {
+      return false;
+    }
+    System.arraycopy(ids, pos + 1, ids, pos, ids.length - pos - 1);
+    encode(ids, ids.length - 1);
+    return true;
+  }
+
+  public boolean contains(int id) {
+    if (id < 0 || id > last) {
+      return false;
+    }
+    Postings.GapReader reader = new Postings.GapReader(data);
+    for (int n = 0; n < size; n++) {
+      int current = reader.next();
+      if (current >= id) {
+        return current == id;
+      }
+    }
+    return false;
+  }
+
+  public int[] toArray() {
+    int[] ids = new int[size];
+    Postings.GapReader reader = new Postings.GapReader(data);
+    for (int n = 0; n < size; n++) {
+      ids[n] = reader.next();
+    }
+    return ids;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  // Encoded payload in bytes, excluding array and object headers.
+  public int encodedBytes() {
+    return length;
+  }
+
+  // Copy of the encoded gaps, as stored in segment files.
+  public byte[] encoded() {
+    return Arrays.copyOf(data, length);
+  }
+
+  public void trimToSize() {
+    if (data.length != length) {
+      data = Arrays.copyOf(data, Math.max(length, 1));
+    }
+  }
+
+  private void encode(int[] ids, int count) {
+    length = 0;
+    size = 0;
+    last = -1;
+    for (int n = 0; n < count; n++) {
+      append(ids[n] - last);
+      last = ids[n];
+      size++;
+    }
+  }
+
+  private void append(int gap) {
+    if (length + 5 > data.length) {
+      data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+    }
+    while (gap > 0x7F) {
+      data[length++] = (byte) (gap & 0x7F);
+      gap >>>= 7;
+    }
+    data[length++] = (byte) (gap | 0x80);
+  }
+}
@@ -0,0 +1,44 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Maps String document ids to dense ints (0, 1, 2, ...) in insertion order so postings can be
+// stored as sorted int lists. Ids are kept for the lifetime of the dictionary, a document that is
+// removed and added again gets its old id back.
+public class DocIdDictionary {
+  private final Map<String, Integer> ids = new HashMap<>();
+  private String[] names = new String[16];
+  private int size;
+
+  public int getOrAssign(String documentId) {
+    Integer id = ids.get(documentId);
+    if (id != null) {
+      return id;
+    }
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+    }
+    names[size] = documentId;
+    ids.put(documentId, size);
+    return size++;
+  }
+
+  // Returns -1 for unknown documents.
+  public int idOf(String documentId) {
+    Integer id = ids.get(documentId);
+    return id == null ? -1 : id;
+  }
+
+  public String nameOf(int id) {
+    if (id < 0 || id >= size) {
+      throw new IllegalArgumentException("Unknown document id: " + id);
+    }
+    return names[id];
+  }
+
+  public int size() {
+    return size;
+  }
+}
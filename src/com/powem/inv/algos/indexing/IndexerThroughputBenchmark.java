@@ -0,0 +1,115 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Multi-threaded ingest + query throughput: single-map mode (behind one lock, since it is not
+// thread safe) against the sharded mode.
+// Run: java com.powem.inv.algos.indexing.IndexerThroughputBenchmark [writers] [readers] [docsPerWriter]
+public class IndexerThroughputBenchmark {
+  private static final int VOCABULARY = 50_000;
+  private static final int WORDS_PER_DOC = 40;
+
+  public static void main(String[] args) throws InterruptedException {
+    int writers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+    int docsPerWriter = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+    String[] vocabulary = new String[VOCABULARY];
+    for (int i = 0; i < VOCABULARY; i++) {
+      vocabulary[i] = "w" + Integer.toString(i, 36);
+    }
+
+    for (int round = 0; round < 2; round++) {
+      String label = round == 0 ? "warmup " : "";
+      run(label + "single-map", new DistributedDocumentIndexer(), true, writers, readers, docsPerWriter, vocabulary);
+      run(label + "sharded(64)", new DistributedDocumentIndexer(64), false, writers, readers, docsPerWriter, vocabulary);
+    }
+  }
+
+  private static void run(String name, DistributedDocumentIndexer indexer, boolean lock, int writers, int readers,
+      int docsPerWriter, String[] vocabulary) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean ingesting = new AtomicBoolean(true);
+    LongAdder queries = new LongAdder();
+    List<Thread> writerThreads = new ArrayList<>();
+    List<Thread> readerThreads = new ArrayList<>();
+
+    for (int w = 0; w < writers; w++) {
+      int id = w;
+      writerThreads.add(new Thread(() -> {
+        Random random = new Random(id);
+        StringBuilder content = new StringBuilder();
+        await(start);
+        for (int d = 0; d < docsPerWriter; d++) {
+          content.setLength(0);
+          for (int k = 0; k < WORDS_PER_DOC; k++) {
+            content.append(vocabulary[skewed(random)]).append(' ');
+          }
+          String docId = "D" + id + "-" + d;
+          if (lock) {
+            synchronized (indexer) {
+              indexer.addDocument("S" + id, docId, content.toString());
+            }
+          } else {
+            indexer.addDocument("S" + id, docId, content.toString());
+          }
+        }
+      }));
+    }
+    for (int r = 0; r < readers; r++) {
+      int id = r;
+      readerThreads.add(new Thread(() -> {
+        Random random = new Random(1000 + id);
+        await(start);
+        while (ingesting.get()) {
+          String query = vocabulary[skewed(random)] + " " + vocabulary[random.nextInt(VOCABULARY)];
+          if (lock) {
+            synchronized (indexer) {
+              indexer.searchDocuments(query);
+            }
+          } else {
+            indexer.searchDocuments(query);
+          }
+          queries.increment();
+        }
+      }));
+    }
+
+    writerThreads.forEach(Thread::start);
+    readerThreads.forEach(Thread::start);
+    long begin = System.nanoTime();
+    start.countDown();
+    for (Thread t : writerThreads) {
+      t.join();
+    }
+    long elapsed = System.nanoTime() - begin;
+    ingesting.set(false);
+    for (Thread t : readerThreads) {
+      t.join();
+    }
+
+    double seconds = elapsed / 1e9;
+    System.out.printf("%-20s writers=%d readers=%d  %,10.0f docs/s  %,10.0f queries/s%n", name, writers, readers,
+        writers * (double) docsPerWriter / seconds, queries.sum() / seconds);
+  }
+
+  // Roughly Zipfian so a few keywords get long posting sets, as in real text.
+  private static int skewed(Random random) {
+    double u = random.nextDouble();
+    return (int) (VOCABULARY * u * u * u);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.Map;
+import java.util.Set;
+
+// Storage behind DistributedDocumentIndexer: keyword -> set of documentIds.
+// Keywords are expected to be lowercased by the caller.
+public interface KeywordIndex {
+
+  void add(String keyword, String documentId);
+
+  void remove(String keyword, String documentId);
+
+  // Returns the documents for a keyword, or an empty set. Callers must not modify it.
+  Set<String> lookup(String keyword);
+
+  boolean containsKeyword(String keyword);
+
+  // A copy of the whole index that later updates don't change.
+  Map<String, Set<String>> asMap();
+
+  void clear();
+
+  // Whether add/remove/lookup may be called from several threads at once.
+  default boolean isConcurrent() {
+    return false;
+  }
+}
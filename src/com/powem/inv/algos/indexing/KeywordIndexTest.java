@@ -0,0 +1,150 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class KeywordIndexTest {
+
+  public static void tests() {
+    // TEST
+    DistributedDocumentIndexer sharded = new DistributedDocumentIndexer(8);
+    sharded.addDocument("Server1", "Doc1", "Java and Python");
+    sharded.addDocument("Server1", "Doc2", "Python and Scala");
+    assert sharded.searchDocuments("python").size() == 2;
+    assert sharded.searchDocuments("Java Scala").size() == 2;
+    // TEST_END
+
+    // TEST
+    sharded.removeDocument("Server1", "Doc1");
+    assert !sharded.getIndex().containsKey("java");
+    assert sharded.searchDocuments("python").equals(List.of("Doc2"));
+    // TEST_END
+
+    // TEST
+    try {
+      sharded.removeDocument("Server1", "Doc1");
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Document or server not found");
+    }
+    // TEST_END
+
+    // TEST
+    assert new ShardedKeywordIndex(5).getShardCount() == 8;
+    try {
+      new ShardedKeywordIndex(0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert true;
+    }
+    // TEST_END
+
+    // TEST
+    DistributedDocumentIndexer concurrent = new DistributedDocumentIndexer(16);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int id = t;
+      threads.add(new Thread(() -> {
+        for (int d = 0; d < 500; d++) {
+          concurrent.addDocument("S" + id, "D" + id + "-" + d, "shared t" + id + " n" + d);
+        }
+        for (int d = 0; d < 500; d += 2) {
+          concurrent.removeDocument("S" + id, "D" + id + "-" + d);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    assert concurrent.searchDocuments("shared").size() == 1000;
+    assert concurrent.searchDocuments("t3").size() == 250;
+    assert concurrent.searchDocuments("n0").isEmpty();
+    // TEST_END
+
+    // TEST
+    // Writers replace one id over and over while another thread removes it. Whatever is stored at
+    // the end, the index must hold exactly its keywords for that id.
+    DistributedDocumentIndexer contended = new DistributedDocumentIndexer(16);
+    List<Thread> racers = new ArrayList<>();
+    for (int t = 0; t < 3; t++) {
+      int id = t;
+      racers.add(new Thread(() -> {
+        for (int i = 0; i < 2_000; i++) {
+          contended.addDocument("S", "Hot", "w" + id + " k" + i);
+        }
+      }));
+    }
+    racers.add(new Thread(() -> {
+      for (int i = 0; i < 2_000; i++) {
+        try {
+          contended.removeDocument("S", "Hot");
+        } catch (IllegalArgumentException e) {
+          assert e.getMessage().equals("Document or server not found");
+        }
+      }
+    }));
+    racers.forEach(Thread::start);
+    for (Thread thread : racers) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    String stored = contended.getServers().get("S").get("Hot");
+    Set<String> indexed = new HashSet<>();
+    contended.getIndex().forEach((keyword, docs) -> {
+      if (docs.contains("Hot")) {
+        indexed.add(keyword);
+      }
+    });
+    assert indexed.equals(stored == null ? Set.of() : Set.of(stored.split(" ")));
+    // TEST_END
+
+    // TEST
+    DistributedDocumentIndexer single = new DistributedDocumentIndexer();
+    single.addDocument("Server1", "Doc1", "Java");
+    single.getIndex().get("java").add("Doc2");
+    single.getIndex().remove("java");
+    assert single.getIndex().equals(Map.of("java", Set.of("Doc1")));
+    assert sharded.getIndex().get("python").add("Doc9") && sharded.searchDocuments("python").equals(List.of("Doc2"));
+    // TEST_END
+
+    // TEST
+    CompressedPostingList list = new CompressedPostingList();
+    for (int id : new int[] {5, 1, 300, 70_000, 2, 300}) {
+      list.add(id);
+    }
+    assert Arrays.equals(list.toArray(), new int[] {1, 2, 5, 300, 70_000});
+    assert list.contains(70_000) && !list.contains(3);
+    assert list.remove(5) && !list.remove(5);
+    assert Arrays.equals(list.toArray(), new int[] {1, 2, 300, 70_000});
+    assert !list.add(70_000) && list.size() == 4;
+    // TEST_END
+
+    // TEST
+    DistributedDocumentIndexer plain = new DistributedDocumentIndexer();
+    DistributedDocumentIndexer compressed = new DistributedDocumentIndexer(new CompressedKeywordIndex());
+    for (DistributedDocumentIndexer indexer : List.of(plain, compressed)) {
+      indexer.addDocument("Server1", "Doc1", "Java and Python");
+      indexer.addDocument("Server2", "Doc2", "Python and Scala");
+      indexer.addDocument("Server2", "Doc3", "Go");
+      indexer.removeDocument("Server2", "Doc3");
+    }
+    for (String query : List.of("python", "java", "scala and", "go")) {
+      assert new HashSet<>(plain.searchDocuments(query)).equals(new HashSet<>(compressed.searchDocuments(query)));
+    }
+    assert compressed.getIndex().equals(plain.getIndex());
+    // TEST_END
+  }
+}
@@ -0,0 +1,278 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+// term -> sorted dense doc ids, each with the positions the term occurs at. Backs AND, NOT and
+// phrase queries: postings are intersected smallest list first with galloping advances and matches
+// are produced lazily, one per next() call. Not thread safe, and iterators must not outlive updates.
+// Adding an id that is already indexed replaces its content.
+public class PositionalIndex {
+  private final DocIdDictionary dictionary = new DocIdDictionary();
+  private final Map<String, TermPostings> terms = new HashMap<>();
+  private String[][] documentTerms = new String[16][]; // distinct terms of each indexed document
+
+  public void addDocument(String documentId, List<String> tokens) {
+    int id = dictionary.getOrAssign(documentId);
+    if (id >= documentTerms.length) {
+      int capacity = Math.max(documentTerms.length * 2, id + 1);
+      documentTerms = Arrays.copyOf(documentTerms, capacity);
+    } else if (documentTerms[id] != null) {
+      unindex(id); // replaced by the new content
+    }
+    Map<String, int[]> positions = new LinkedHashMap<>();
+    Map<String, Integer> counts = new HashMap<>();
+    int position = 0;
+    for (String token : tokens) {
+      if (token.isEmpty()) {
+        continue;
+      }
+      int count = counts.merge(token, 1, Integer::sum);
+      int[] list = positions.get(token);
+      if (list == null || list.length < count) {
+        list = list == null ? new int[2] : Arrays.copyOf(list, list.length * 2);
+        positions.put(token, list);
+      }
+      list[count - 1] = position++;
+    }
+    positions.forEach((term, list) ->
+        terms.computeIfAbsent(term, t -> new TermPostings()).add(id, Arrays.copyOf(list, counts.get(term))));
+    documentTerms[id] = positions.keySet().toArray(new String[0]);
+  }
+
+  public void removeDocument(String documentId) {
+    int id = dictionary.idOf(documentId);
+    if (id >= 0 && id < documentTerms.length && documentTerms[id] != null) {
+      unindex(id);
+    }
+  }
+
+  private void unindex(int id) {
+    for (String term : documentTerms[id]) {
+      TermPostings postings = terms.get(term);
+      if (postings != null && postings.remove(id) && postings.size == 0) {
+        terms.remove(term);
+      }
+    }
+    documentTerms[id] = null;
+  }
+
+  public String documentIdOf(int id) {
+    return dictionary.nameOf(id);
+  }
+
+  // Documents containing every required term and every phrase, and none of the excluded terms.
+  public PrimitiveIterator.OfInt query(List<String> required, List<List<String>> phrases, List<String> excluded) {
+    Set<String> all = new LinkedHashSet<>(required);
+    phrases.forEach(all::addAll);
+    if (all.isEmpty()) {
+      throw new IllegalArgumentException("Query needs at least one required term");
+    }
+    List<Cursor> cursors = new ArrayList<>();
+    Map<String, Cursor> byTerm = new HashMap<>();
+    for (String term : all) {
+      TermPostings postings = terms.get(term);
+      if (postings == null) {
+        return new Matches(new Cursor[0], new Cursor[0], new Cursor[0][], true);
+      }
+      Cursor cursor = new Cursor(postings);
+      cursors.add(cursor);
+      byTerm.put(term, cursor);
+    }
+    cursors.sort((a, b) -> Integer.compare(a.postings.size, b.postings.size));
+
+    List<Cursor> exclusions = new ArrayList<>();
+    for (String term : new LinkedHashSet<>(excluded)) {
+      TermPostings postings = terms.get(term);
+      if (postings != null && !all.contains(term)) {
+        exclusions.add(new Cursor(postings));
+      } else if (all.contains(term)) {
+        return new Matches(new Cursor[0], new Cursor[0], new Cursor[0][], true);
+      }
+    }
+
+    Cursor[][] phraseCursors = new Cursor[phrases.size()][];
+    for (int p = 0; p < phrases.size(); p++) {
+      List<String> phrase = phrases.get(p);
+      phraseCursors[p] = new Cursor[phrase.size()];
+      for (int i = 0; i < phrase.size(); i++) {
+        phraseCursors[p][i] = byTerm.get(phrase.get(i));
+      }
+    }
+    return new Matches(cursors.toArray(new Cursor[0]), exclusions.toArray(new Cursor[0]), phraseCursors, false);
+  }
+
+  private static class TermPostings {
+    int[] docs = new int[2];
+    int[][] positions = new int[2][];
+    int size;
+
+    void add(int doc, int[] docPositions) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        positions = Arrays.copyOf(positions, size * 2);
+      }
+      int pos = size;
+      if (size > 0 && docs[size - 1] >= doc) {
+        pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos >= 0) {
+          positions[pos] = docPositions;
+          return;
+        }
+        pos = -pos - 1;
+        System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+        System.arraycopy(positions, pos, positions, pos + 1, size - pos);
+      }
+      docs[pos] = doc;
+      positions[pos] = docPositions;
+      size++;
+    }
+
+    boolean remove(int doc) {
+      int pos = Arrays.binarySearch(docs, 0, size, doc);
+      if (pos < 0) {
+        return false;
+      }
+      System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+      System.arraycopy(positions, pos + 1, positions, pos, size - pos - 1);
+      positions[--size] = null;
+      return true;
+    }
+  }
+
+  private static class Cursor {
+    final TermPostings postings;
+    int position;
+
+    Cursor(TermPostings postings) {
+      this.postings = postings;
+    }
+
+    boolean exhausted() {
+      return position >= postings.size;
+    }
+
+    int doc() {
+      return postings.docs[position];
+    }
+
+    int[] positions() {
+      return postings.positions[position];
+    }
+
+    // First posting >= target. Returns that doc, or -1 when exhausted.
+    int advanceTo(int target) {
+      position = Postings.gallop(postings.docs, position, postings.size, target);
+      return exhausted() ? -1 : postings.docs[position];
+    }
+  }
+
+  // Leapfrog intersection: the rarest list proposes a candidate, every other list gallops to it,
+  // and any list that overshoots proposes the next candidate.
+  private static class Matches implements PrimitiveIterator.OfInt {
+    private final Cursor[] cursors;
+    private final Cursor[] exclusions;
+    private final Cursor[][] phrases;
+    private boolean done;
+    private int next = -1;
+
+    Matches(Cursor[] cursors, Cursor[] exclusions, Cursor[][] phrases, boolean empty) {
+      this.cursors = cursors;
+      this.exclusions = exclusions;
+      this.phrases = phrases;
+      this.done = empty;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next < 0 && !done) {
+        next = findNext();
+        done = next < 0;
+      }
+      return next >= 0;
+    }
+
+    @Override
+    public int nextInt() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int doc = next;
+      next = -1;
+      cursors[0].position++;
+      return doc;
+    }
+
+    private int findNext() {
+      Cursor lead = cursors[0];
+      if (lead.exhausted()) {
+        return -1;
+      }
+      int candidate = lead.doc();
+      while (true) {
+        boolean agreed = true;
+        for (int i = 1; i < cursors.length; i++) {
+          int doc = cursors[i].advanceTo(candidate);
+          if (doc < 0) {
+            return -1;
+          }
+          if (doc > candidate) {
+            candidate = doc;
+            agreed = false;
+            break;
+          }
+        }
+        if (agreed) {
+          if (!excluded(candidate) && phrasesMatch()) {
+            return candidate;
+          }
+          candidate++;
+        }
+        candidate = lead.advanceTo(candidate);
+        if (candidate < 0) {
+          return -1;
+        }
+      }
+    }
+
+    private boolean excluded(int doc) {
+      for (Cursor exclusion : exclusions) {
+        if (exclusion.advanceTo(doc) == doc) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    // All cursors sit on the same document here.
+    private boolean phrasesMatch() {
+      for (Cursor[] phrase : phrases) {
+        if (!phraseMatches(phrase)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean phraseMatches(Cursor[] phrase) {
+      for (int start : phrase[0].positions()) {
+        boolean match = true;
+        for (int i = 1; i < phrase.length && match; i++) {
+          match = Arrays.binarySearch(phrase[i].positions(), start + i) >= 0;
+        }
+        if (match) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PositionalIndexTest {
+
+  public static void tests() {
+    DistributedDocumentIndexer indexer = new DistributedDocumentIndexer(new SingleMapKeywordIndex(), true);
+    indexer.addDocument("Server1", "Doc1", "Distributed systems are scalable");
+    indexer.addDocument("Server1", "Doc2", "Scalable systems are distributed");
+    indexer.addDocument("Server2", "Doc3", "Java systems and distributed Java systems");
+    indexer.addDocument("Server2", "Doc4", "Python only");
+
+    // TEST
+    assert set(indexer.searchBoolean("systems distributed")).equals(Set.of("Doc1", "Doc2", "Doc3"));
+    assert set(indexer.searchBoolean("+systems +scalable")).equals(Set.of("Doc1", "Doc2"));
+    // TEST_END
+
+    // TEST
+    assert set(indexer.searchBoolean("systems -java")).equals(Set.of("Doc1", "Doc2"));
+    assert indexer.searchBoolean("systems -systems").count() == 0;
+    assert indexer.searchBoolean("systems missing").count() == 0;
+    // TEST_END
+
+    // TEST
+    assert set(indexer.searchBoolean("\"distributed systems\"")).equals(Set.of("Doc1"));
+    assert set(indexer.searchBoolean("\"distributed java systems\"")).equals(Set.of("Doc3"));
+    assert set(indexer.searchBoolean("\"systems are\" scalable")).equals(Set.of("Doc1", "Doc2"));
+    // TEST_END
+
+    // TEST
+    assert indexer.searchBoolean("systems").limit(1).collect(Collectors.toList()).equals(List.of("Doc1"));
+    // TEST_END
+
+    // TEST
+    indexer.removeDocument("Server1", "Doc1");
+    indexer.addDocument("Server2", "Doc3", "Go");
+    assert set(indexer.searchBoolean("systems distributed")).equals(Set.of("Doc2"));
+    assert set(indexer.searchBoolean("go")).equals(Set.of("Doc3"));
+    assert indexer.searchDocuments("java").isEmpty();
+    // TEST_END
+
+    // TEST
+    // A document id on two servers: removing one copy leaves the other copy's text searchable.
+    indexer.addDocument("Server1", "Shared", "rust crates");
+    indexer.addDocument("Server2", "Shared", "rust traits and lifetimes");
+    assert set(indexer.searchBoolean("\"traits and\"")).equals(Set.of("Shared"));
+    indexer.removeDocument("Server2", "Shared");
+    assert indexer.searchBoolean("\"traits and\"").count() == 0;
+    assert indexer.searchBoolean("rust traits").count() == 0;
+    assert set(indexer.searchBoolean("\"rust crates\"")).equals(Set.of("Shared"));
+    indexer.removeDocument("Server1", "Shared");
+    assert indexer.searchBoolean("rust").count() == 0;
+    // TEST_END
+
+    // TEST
+    // Full-text ingest from 8 threads into a sharded indexer, with boolean queries running alongside.
+    DistributedDocumentIndexer concurrent = new DistributedDocumentIndexer(new ShardedKeywordIndex(16), true);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int id = t;
+      threads.add(new Thread(() -> {
+        for (int d = 0; d < 500; d++) {
+          concurrent.addDocument("S" + id, "D" + id + "-" + d, "shared words t" + id + " n" + d);
+          if (d % 50 == 0) {
+            concurrent.searchBoolean("\"shared words\" -n0").count();
+          }
+        }
+        for (int d = 0; d < 500; d += 2) {
+          concurrent.removeDocument("S" + id, "D" + id + "-" + d);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    assert concurrent.searchBoolean("\"shared words\"").count() == 2000;
+    assert concurrent.searchBoolean("shared t3").count() == 250;
+    assert concurrent.searchBoolean("n1").count() == 8;
+    assert concurrent.searchBoolean("n0").count() == 0;
+    assert concurrent.searchTopK("shared", 5000).size() == 2000;
+    // TEST_END
+
+    // TEST
+    try {
+      indexer.searchBoolean("-java");
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Query needs at least one required term");
+    }
+    try {
+      new DistributedDocumentIndexer(2).searchBoolean("java");
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Boolean search is not enabled for this indexer");
+    }
+    // TEST_END
+  }
+
+  private static Set<String> set(Stream<String> results) {
+    return results.collect(Collectors.toSet());
+  }
+}
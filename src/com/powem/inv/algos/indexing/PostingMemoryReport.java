@@ -0,0 +1,55 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.Random;
+import java.util.Set;
+
+// Heap used per posting by the HashSet<String> index against the compressed int index, built
+// from the same synthetic corpus. Run with a fixed heap (e.g. -Xmx2g) for stable numbers.
+// Run: java com.powem.inv.algos.indexing.PostingMemoryReport [documents] [wordsPerDocument]
+public class PostingMemoryReport {
+  private static final int VOCABULARY = 100_000;
+
+  public static void main(String[] args) {
+    int documents = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int wordsPerDocument = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+    long before = usedHeap();
+    SingleMapKeywordIndex plain = new SingleMapKeywordIndex();
+    fill(plain, documents, wordsPerDocument);
+    long plainBytes = usedHeap() - before;
+    long plainPostings = plain.asMap().values().stream().mapToLong(Set::size).sum();
+    System.out.printf("HashSet<String> postings: %,d postings, %,d bytes, %.1f bytes/posting%n", plainPostings,
+        plainBytes, plainBytes / (double) plainPostings);
+    plain = null;
+
+    before = usedHeap();
+    CompressedKeywordIndex compressed = new CompressedKeywordIndex();
+    fill(compressed, documents, wordsPerDocument);
+    compressed.trimToSize();
+    long compressedBytes = usedHeap() - before;
+    long postings = compressed.getPostingCount();
+    System.out.printf("Compressed int postings:  %,d postings, %,d bytes, %.1f bytes/posting"
+            + " (%.2f bytes/posting encoded payload)%n", postings, compressedBytes,
+        compressedBytes / (double) postings, compressed.getEncodedBytes() / (double) postings);
+  }
+
+  private static void fill(KeywordIndex index, int documents, int wordsPerDocument) {
+    Random random = new Random(42);
+    for (int d = 0; d < documents; d++) {
+      String documentId = "document-" + d;
+      for (int w = 0; w < wordsPerDocument; w++) {
+        double u = random.nextDouble();
+        String keyword = "w" + (int) (VOCABULARY * u * u * u);
+        index.add(keyword, documentId);
+      }
+    }
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,64 @@
+package com.powem.inv.algos.indexing;
+
+import java.nio.ByteBuffer;
+
+// Cursor helpers shared by the posting lists: galloping search over sorted doc id arrays, and
+// decoding of the variable-byte gaps written by CompressedPostingList (7 bits at a time, low bits
+// first, high bit set on the last byte of a gap).
+final class Postings {
+
+  private Postings() {
+  }
+
+  // Index of the first doc in docs[from, size) that is >= target, or size if there is none.
+  // Doubles its step from `from`, then binary searches the last step, so short skips stay cheap.
+  static int gallop(int[] docs, int from, int size, int target) {
+    int step = 1;
+    int low = from;
+    int high = from;
+    while (high < size && docs[high] < target) {
+      low = high + 1;
+      high += step;
+      step <<= 1;
+    }
+    high = Math.min(high, size);
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (docs[mid] < target) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // Walks gap-encoded doc ids in a byte array or buffer, returning absolute ids.
+  static final class GapReader {
+    private final ByteBuffer buffer;
+    private int position;
+    private int current = -1;
+
+    GapReader(byte[] data) {
+      this(ByteBuffer.wrap(data), 0);
+    }
+
+    GapReader(ByteBuffer buffer, int position) {
+      this.buffer = buffer;
+      this.position = position;
+    }
+
+    int next() {
+      int gap = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get(position++);
+        gap |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b >= 0);
+      current += gap;
+      return current;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.powem.inv.algos.indexing;
+
+public class ScoredDocument {
+  private final String documentId;
+  private final double score;
+
+  public ScoredDocument(String documentId, double score) {
+    this.documentId = documentId;
+    this.score = score;
+  }
+
+  public String getDocumentId() {
+    return documentId;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    return documentId + "=" + score;
+  }
+}
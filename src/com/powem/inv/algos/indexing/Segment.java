@@ -0,0 +1,240 @@
+package com.powem.inv.algos.indexing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
+
+// Read side of a segment written by SegmentWriter. The file is memory mapped and every lookup
+// reads straight from the mapping, only the matching document ids become Strings.
+// Deletes are kept in a tombstone bitmap persisted next to the segment as <name>.del, rewritten
+// through a temp file and a rename so a crash leaves either the old bitmap or the new one.
+// Documents replaced in the heap buffer are only hidden (superseded) until the flush that writes
+// their new content, so a crash before that flush still finds the old copy.
+// A single mapping limits a segment to 2GB.
+public class Segment {
+  private final Path file;
+  private final Path tombstoneFile;
+  private final MappedByteBuffer buffer;
+  private final int documentCount;
+  private final int termCount;
+  private final int docTableOffset;
+  private final int termTableOffset;
+  private final BitSet tombstones;
+  private final BitSet superseded = new BitSet();
+
+  private Segment(Path file, MappedByteBuffer buffer, BitSet tombstones) throws IOException {
+    this.file = file;
+    this.tombstoneFile = tombstoneFileFor(file);
+    this.buffer = buffer;
+    this.tombstones = tombstones;
+    if (buffer.getInt(0) != SegmentWriter.MAGIC || buffer.getInt(4) != SegmentWriter.VERSION) {
+      throw new IOException("Not a segment file: " + file);
+    }
+    this.documentCount = buffer.getInt(8);
+    this.termCount = buffer.getInt(12);
+    this.docTableOffset = (int) buffer.getLong(16);
+    this.termTableOffset = (int) buffer.getLong(24);
+  }
+
+  public static Segment open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Segment larger than 2GB: " + file);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      BitSet tombstones = new BitSet();
+      Path tombstoneFile = tombstoneFileFor(file);
+      if (Files.exists(tombstoneFile)) {
+        tombstones = BitSet.valueOf(Files.readAllBytes(tombstoneFile));
+      }
+      return new Segment(file, buffer, tombstones);
+    }
+  }
+
+  private static Path tombstoneFileFor(Path file) {
+    return file.resolveSibling(file.getFileName() + ".del");
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  public int getDocumentCount() {
+    return documentCount;
+  }
+
+  public int getLiveDocumentCount() {
+    BitSet deleted = (BitSet) tombstones.clone();
+    deleted.or(superseded);
+    return documentCount - deleted.cardinality();
+  }
+
+  // Adds the live documentIds containing term to sink.
+  public void collect(String term, Collection<String> sink) {
+    int termOffset = findTerm(term.getBytes(StandardCharsets.UTF_8));
+    if (termOffset < 0) {
+      return;
+    }
+    int p = termOffset + 4 + buffer.getInt(termOffset);
+    int count = buffer.getInt(p);
+    Postings.GapReader reader = new Postings.GapReader(buffer, p + 8); // after count, encoded length
+    for (int n = 0; n < count; n++) {
+      int ordinal = reader.next();
+      if (!isDeleted(ordinal)) {
+        sink.add(documentIdAt(ordinal));
+      }
+    }
+  }
+
+  public boolean containsTerm(String term) {
+    return findTerm(term.getBytes(StandardCharsets.UTF_8)) >= 0;
+  }
+
+  // Marks the document deleted and writes the tombstones before returning. Returns false if it
+  // isn't in this segment or already deleted.
+  public boolean delete(String serverId, String documentId) throws IOException {
+    int ordinal = findDocument(serverId, documentId);
+    if (ordinal < 0 || tombstones.get(ordinal)) {
+      return false;
+    }
+    tombstones.set(ordinal);
+    superseded.clear(ordinal);
+    persistTombstones();
+    return true;
+  }
+
+  // Hides the document until writeTombstones(). Returns false if it isn't in this segment or
+  // already hidden.
+  public boolean supersede(String serverId, String documentId) {
+    int ordinal = findDocument(serverId, documentId);
+    if (ordinal < 0 || isDeleted(ordinal)) {
+      return false;
+    }
+    superseded.set(ordinal);
+    return true;
+  }
+
+  // Turns superseded documents into tombstones, once their replacements are on disk.
+  public void writeTombstones() throws IOException {
+    if (!superseded.isEmpty()) {
+      tombstones.or(superseded);
+      superseded.clear();
+      persistTombstones();
+    }
+  }
+
+  private void persistTombstones() throws IOException {
+    Path temp = tombstoneFile.resolveSibling(tombstoneFile.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer bytes = ByteBuffer.wrap(tombstones.toByteArray());
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      channel.force(true);
+    }
+    Files.move(temp, tombstoneFile, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public boolean isDeleted(int ordinal) {
+    return tombstones.get(ordinal) || superseded.get(ordinal);
+  }
+
+  public boolean isSuperseded(int ordinal) {
+    return superseded.get(ordinal);
+  }
+
+  public String serverIdAt(int ordinal) {
+    return readString(documentOffset(ordinal));
+  }
+
+  public String documentIdAt(int ordinal) {
+    int p = documentOffset(ordinal);
+    return readString(p + 4 + buffer.getInt(p));
+  }
+
+  public String contentAt(int ordinal) {
+    int p = documentOffset(ordinal);
+    p += 4 + buffer.getInt(p);
+    p += 4 + buffer.getInt(p);
+    return readString(p);
+  }
+
+  private int findDocument(String serverId, String documentId) {
+    return findDocument(serverId.getBytes(StandardCharsets.UTF_8), documentId.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private int documentOffset(int ordinal) {
+    return (int) buffer.getLong(docTableOffset + 8 * ordinal);
+  }
+
+  private int findTerm(byte[] term) {
+    int low = 0;
+    int high = termCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int offset = (int) buffer.getLong(termTableOffset + 8 * mid);
+      int c = compare(offset, term);
+      if (c == 0) {
+        return offset;
+      } else if (c < 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return -1;
+  }
+
+  private int findDocument(byte[] serverId, byte[] documentId) {
+    int low = 0;
+    int high = documentCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int offset = documentOffset(mid);
+      int c = compare(offset, serverId);
+      if (c == 0) {
+        c = compare(offset + 4 + buffer.getInt(offset), documentId);
+      }
+      if (c == 0) {
+        return mid;
+      } else if (c < 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return -1;
+  }
+
+  // Compares the length-prefixed bytes at offset with key, unsigned, like Arrays.compareUnsigned.
+  private int compare(int offset, byte[] key) {
+    int length = buffer.getInt(offset);
+    int start = offset + 4;
+    int n = Math.min(length, key.length);
+    for (int i = 0; i < n; i++) {
+      int c = Integer.compare(buffer.get(start + i) & 0xFF, key[i] & 0xFF);
+      if (c != 0) {
+        return c;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  private String readString(int offset) {
+    int length = buffer.getInt(offset);
+    byte[] bytes = new byte[length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset + 4);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
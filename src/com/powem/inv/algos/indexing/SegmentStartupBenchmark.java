@@ -0,0 +1,49 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Time to get a searchable indexer after a restart: re-indexing on the heap against opening the
+// segments flushed by a previous run.
+// Run: java com.powem.inv.algos.indexing.SegmentStartupBenchmark [directory] [documents]
+public class SegmentStartupBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    Path directory = args.length > 0 ? Paths.get(args[0]) : Files.createTempDirectory("segments");
+    int documents = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+    String[] contents = new String[documents];
+    Random random = new Random(1);
+    for (int d = 0; d < documents; d++) {
+      StringBuilder content = new StringBuilder();
+      for (int w = 0; w < 30; w++) {
+        double u = random.nextDouble();
+        content.append('w').append((int) (100_000 * u * u * u)).append(' ');
+      }
+      contents[d] = content.toString();
+    }
+
+    long start = System.nanoTime();
+    DistributedDocumentIndexer writer = new DistributedDocumentIndexer(directory);
+    for (int d = 0; d < documents; d++) {
+      writer.addDocument("S" + (d % 16), "D" + d, contents[d]);
+    }
+    long indexed = System.nanoTime();
+    writer.flush();
+    long flushed = System.nanoTime();
+
+    DistributedDocumentIndexer restarted = new DistributedDocumentIndexer(directory);
+    long opened = System.nanoTime();
+    int hits = restarted.searchDocuments("w1 w2").size();
+    long queried = System.nanoTime();
+
+    System.out.printf("re-index %,d docs on heap: %,d ms%n", documents, (indexed - start) / 1_000_000);
+    System.out.printf("flush segment:            %,d ms%n", (flushed - indexed) / 1_000_000);
+    System.out.printf("open segments:            %,.2f ms%n", (opened - flushed) / 1e6);
+    System.out.printf("first query (%,d hits):   %,.2f ms%n", hits, (queried - opened) / 1e6);
+  }
+}
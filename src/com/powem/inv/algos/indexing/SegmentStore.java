@@ -0,0 +1,164 @@
+package com.powem.inv.algos.indexing;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// A directory of immutable segments named segment-<generation>.seg. Opening only maps the files,
+// postings stay on disk until a query touches them.
+//
+// New files are written under a .tmp name and renamed into place, so a crash never leaves half a
+// segment. A merge is committed by renaming its output to segment-<generation>.merged: from then
+// on every older segment is garbage, and open() finishes a merge that was cut short before
+// deleting them or taking the .seg name.
+public class SegmentStore {
+  private static final String PREFIX = "segment-";
+  private static final String SUFFIX = ".seg";
+  private static final String MERGED = ".merged";
+  private static final String TEMP = ".tmp";
+
+  private final Path directory;
+  private final List<Segment> segments = new ArrayList<>();
+  private long nextGeneration;
+
+  private SegmentStore(Path directory) {
+    this.directory = directory;
+  }
+
+  public static SegmentStore open(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    SegmentStore store = new SegmentStore(directory);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMP)) {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    }
+    for (long generation : store.generations(MERGED)) {
+      store.finishMerge(generation);
+    }
+    for (long generation : store.generations(SUFFIX)) {
+      store.segments.add(Segment.open(store.fileFor(generation)));
+      store.nextGeneration = generation + 1;
+    }
+    return store;
+  }
+
+  private List<Long> generations(String suffix) throws IOException {
+    List<Long> generations = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + suffix)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        generations.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - suffix.length())));
+      }
+    }
+    generations.sort(null);
+    return generations;
+  }
+
+  public List<Segment> getSegments() {
+    return segments;
+  }
+
+  public void collect(String term, Collection<String> sink) {
+    for (Segment segment : segments) {
+      segment.collect(term, sink);
+    }
+  }
+
+  // Deletes the stored copies of a document; the tombstones are on disk when this returns.
+  public boolean delete(String serverId, String documentId) throws IOException {
+    boolean deleted = false;
+    for (Segment segment : segments) {
+      deleted |= segment.delete(serverId, documentId);
+    }
+    return deleted;
+  }
+
+  // Hides the stored copies of a document whose new content is still in the heap buffer. The
+  // tombstones are written by the flush that writes the new content.
+  public boolean supersede(String serverId, String documentId) {
+    boolean superseded = false;
+    for (Segment segment : segments) {
+      superseded |= segment.supersede(serverId, documentId);
+    }
+    return superseded;
+  }
+
+  // Writes the documents as a new segment, then the tombstones of the copies they replace.
+  public void flush(Map<String, Map<String, String>> servers) throws IOException {
+    if (servers.values().stream().anyMatch(docs -> !docs.isEmpty())) {
+      Path file = fileFor(nextGeneration++);
+      Path temp = tempFor(file);
+      SegmentWriter.write(temp, servers);
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+      segments.add(Segment.open(file));
+    }
+    for (Segment segment : segments) {
+      segment.writeTombstones();
+    }
+  }
+
+  // Rewrites every stored document into one segment and drops the old files with their
+  // tombstones. Superseded documents are kept, and stay hidden, until their replacements flush.
+  public void merge() throws IOException {
+    if (segments.isEmpty()) {
+      return;
+    }
+    List<SegmentWriter.Document> live = new ArrayList<>();
+    List<String[]> superseded = new ArrayList<>();
+    for (Segment segment : segments) {
+      for (int ordinal = 0; ordinal < segment.getDocumentCount(); ordinal++) {
+        if (!segment.isDeleted(ordinal) || segment.isSuperseded(ordinal)) {
+          String serverId = segment.serverIdAt(ordinal);
+          String documentId = segment.documentIdAt(ordinal);
+          live.add(new SegmentWriter.Document(serverId, documentId, segment.contentAt(ordinal)));
+          if (segment.isSuperseded(ordinal)) {
+            superseded.add(new String[] {serverId, documentId});
+          }
+        }
+      }
+    }
+    long generation = nextGeneration++;
+    Path temp = tempFor(fileFor(generation));
+    SegmentWriter.write(temp, live);
+    Files.move(temp, mergedFor(generation), StandardCopyOption.ATOMIC_MOVE);
+    segments.clear();
+    Segment merged = Segment.open(finishMerge(generation));
+    for (String[] document : superseded) {
+      merged.supersede(document[0], document[1]);
+    }
+    segments.add(merged);
+  }
+
+  // Deletes the segments older than a committed merge and gives the merge its .seg name.
+  private Path finishMerge(long generation) throws IOException {
+    for (long older : generations(SUFFIX)) {
+      if (older < generation) {
+        Path file = fileFor(older);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".del"));
+        Files.delete(file);
+      }
+    }
+    Path file = fileFor(generation);
+    Files.move(mergedFor(generation), file, StandardCopyOption.ATOMIC_MOVE);
+    return file;
+  }
+
+  private Path fileFor(long generation) {
+    return directory.resolve(PREFIX + generation + SUFFIX);
+  }
+
+  private Path mergedFor(long generation) {
+    return directory.resolve(PREFIX + generation + MERGED);
+  }
+
+  private static Path tempFor(Path file) {
+    return file.resolveSibling(file.getFileName() + TEMP);
+  }
+}
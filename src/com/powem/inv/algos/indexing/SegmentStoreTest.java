@@ -0,0 +1,127 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.algos.DistributedDocumentIndexer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class SegmentStoreTest {
+
+  public static void tests() {
+    Path directory = createTempDirectory();
+    try {
+      // TEST
+      DistributedDocumentIndexer indexer = new DistributedDocumentIndexer(directory);
+      indexer.addDocument("Server1", "Doc1", "Java and Python");
+      indexer.addDocument("Server2", "Doc2", "Python and Scala");
+      indexer.flush();
+      assert indexer.getServers().isEmpty();
+      assert set(indexer.searchDocuments("python")).equals(Set.of("Doc1", "Doc2"));
+      // TEST_END
+
+      // TEST
+      DistributedDocumentIndexer reopened = new DistributedDocumentIndexer(directory);
+      reopened.addDocument("Server1", "Doc3", "Go and Python");
+      assert set(reopened.searchDocuments("PYTHON scala")).equals(Set.of("Doc1", "Doc2", "Doc3"));
+      reopened.removeDocument("Server1", "Doc1");
+      assert set(reopened.searchDocuments("python")).equals(Set.of("Doc2", "Doc3"));
+      reopened.flush();
+      // TEST_END
+
+      // TEST
+      DistributedDocumentIndexer afterDeletes = new DistributedDocumentIndexer(directory);
+      assert set(afterDeletes.searchDocuments("python java")).equals(Set.of("Doc2", "Doc3"));
+      try {
+        afterDeletes.removeDocument("Server1", "Doc1");
+        assert false;
+      } catch (IllegalArgumentException e) {
+        assert e.getMessage().equals("Document or server not found");
+      }
+      try {
+        afterDeletes.removeDocument(null, "Doc2");
+        assert false;
+      } catch (IllegalArgumentException e) {
+        assert e.getMessage().equals("Document or server not found");
+      }
+      // TEST_END
+
+      // TEST
+      afterDeletes.addDocument("Server2", "Doc2", "Rust");
+      afterDeletes.flush();
+      afterDeletes.mergeSegments();
+      DistributedDocumentIndexer merged = new DistributedDocumentIndexer(directory);
+      assert set(merged.searchDocuments("python")).equals(Set.of("Doc3"));
+      assert set(merged.searchDocuments("rust")).equals(Set.of("Doc2"));
+      assert SegmentStore.open(directory).getSegments().size() == 1;
+      // TEST_END
+
+      // TEST
+      DistributedDocumentIndexer unflushed = new DistributedDocumentIndexer(directory);
+      unflushed.removeDocument("Server1", "Doc3");
+      unflushed.addDocument("Server2", "Doc2", "Haskell");
+      assert set(unflushed.searchDocuments("rust haskell")).equals(Set.of("Doc2"));
+      assert unflushed.searchDocuments("rust").isEmpty();
+      DistributedDocumentIndexer restarted = new DistributedDocumentIndexer(directory);
+      assert restarted.searchDocuments("python").isEmpty();
+      assert set(restarted.searchDocuments("rust")).equals(Set.of("Doc2"));
+      assert restarted.searchDocuments("haskell").isEmpty();
+      unflushed.mergeSegments();
+      assert unflushed.searchDocuments("rust").isEmpty();
+      restarted = new DistributedDocumentIndexer(directory);
+      assert set(restarted.searchDocuments("rust")).equals(Set.of("Doc2"));
+      // TEST_END
+
+      // TEST
+      // A merge that crashed after its commit rename, next to a half written segment.
+      Path interrupted = directory.resolve("segment-100.merged");
+      SegmentWriter.write(interrupted, List.of(new SegmentWriter.Document("Server3", "Doc4", "Erlang")));
+      Files.write(directory.resolve("segment-101.seg.tmp"), new byte[] {1, 2, 3});
+      DistributedDocumentIndexer recovered = new DistributedDocumentIndexer(directory);
+      assert set(recovered.searchDocuments("rust erlang")).equals(Set.of("Doc4"));
+      assert SegmentStore.open(directory).getSegments().size() == 1;
+      try (Stream<Path> files = Files.list(directory)) {
+        assert files.noneMatch(file -> file.toString().endsWith(".tmp") || file.toString().endsWith(".merged"));
+      }
+      // TEST_END
+
+      // TEST
+      try {
+        new DistributedDocumentIndexer().flush();
+        assert false;
+      } catch (IllegalStateException e) {
+        assert e.getMessage().equals("Indexer is not backed by a segment directory");
+      }
+      // TEST_END
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deleteRecursively(directory);
+    }
+  }
+
+  private static Set<String> set(List<String> results) {
+    return new HashSet<>(results);
+  }
+
+  private static Path createTempDirectory() {
+    try {
+      return Files.createTempDirectory("segments");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void deleteRecursively(Path directory) {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.powem.inv.algos.indexing;
+
+import com.powem.inv.strings.TextTokenizer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes an immutable segment file. Layout (all big-endian):
+//
+//   header      magic, version, docCount, termCount, docTableOffset, termTableOffset
+//   documents   per document: serverId, documentId, content (each int length + UTF-8 bytes)
+//   docTable    long offset per document, documents sorted by (serverId, documentId)
+//   terms       per term: term (int length + UTF-8), postingCount, postingBytes, v-byte doc gaps
+//   termTable   long offset per term, terms sorted by unsigned UTF-8 bytes
+//
+// Doc gaps use the same encoding as CompressedPostingList.
+public class SegmentWriter {
+  static final int MAGIC = 0x44444953; // "DDIS"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+
+  public static class Document {
+    final byte[] serverId;
+    final byte[] documentId;
+    final String content;
+
+    public Document(String serverId, String documentId, String content) {
+      this.serverId = serverId.getBytes(StandardCharsets.UTF_8);
+      this.documentId = documentId.getBytes(StandardCharsets.UTF_8);
+      this.content = content;
+    }
+  }
+
+  // Writes the given documents (serverId -> documentId -> content) to file.
+  public static void write(Path file, Map<String, Map<String, String>> servers) throws IOException {
+    List<Document> documents = new ArrayList<>();
+    servers.forEach((serverId, docs) ->
+        docs.forEach((documentId, content) -> documents.add(new Document(serverId, documentId, content))));
+    write(file, documents);
+  }
+
+  public static void write(Path file, List<Document> documents) throws IOException {
+    Document[] sorted = documents.toArray(new Document[0]);
+    Arrays.sort(sorted, (a, b) -> compareDocuments(a.serverId, a.documentId, b.serverId, b.documentId));
+
+    Map<String, CompressedPostingList> postings = new HashMap<>();
+    TextTokenizer tokenizer = new TextTokenizer(TextTokenizer.Mode.WHITESPACE);
+    for (int ordinal = 0; ordinal < sorted.length; ordinal++) {
+      tokenizer.reset(sorted[ordinal].content);
+      while (tokenizer.next()) {
+        postings.computeIfAbsent(tokenizer.toString(), t -> new CompressedPostingList()).add(ordinal);
+      }
+    }
+    // Ordered the way readers binary search them.
+    byte[][] terms = new byte[postings.size()][];
+    CompressedPostingList[] lists = new CompressedPostingList[postings.size()];
+    Integer[] order = new Integer[postings.size()];
+    int next = 0;
+    for (Map.Entry<String, CompressedPostingList> entry : postings.entrySet()) {
+      terms[next] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+      lists[next] = entry.getValue();
+      order[next] = next;
+      next++;
+    }
+    Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(terms[a], terms[b]));
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      Output out = new Output(channel, HEADER_BYTES);
+
+      long[] docOffsets = new long[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        docOffsets[i] = out.position();
+        out.putBytes(sorted[i].serverId);
+        out.putBytes(sorted[i].documentId);
+        out.putBytes(sorted[i].content.getBytes(StandardCharsets.UTF_8));
+      }
+      long docTableOffset = out.position();
+      for (long offset : docOffsets) {
+        out.putLong(offset);
+      }
+
+      long[] termOffsets = new long[terms.length];
+      for (int t = 0; t < order.length; t++) {
+        termOffsets[t] = out.position();
+        out.putBytes(terms[order[t]]);
+        out.putInt(lists[order[t]].size());
+        out.putBytes(lists[order[t]].encoded());
+      }
+      long termTableOffset = out.position();
+      for (long offset : termOffsets) {
+        out.putLong(offset);
+      }
+      out.flush();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(VERSION).putInt(sorted.length).putInt(terms.length)
+          .putLong(docTableOffset).putLong(termTableOffset).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      channel.force(true);
+    }
+  }
+
+  static int compareDocuments(byte[] server1, byte[] doc1, byte[] server2, byte[] doc2) {
+    int c = Arrays.compareUnsigned(server1, server2);
+    return c != 0 ? c : Arrays.compareUnsigned(doc1, doc2);
+  }
+
+  // Sequential writes through one reusable direct buffer.
+  private static class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private long flushed;
+
+    Output(FileChannel channel, long start) throws IOException {
+      this.channel = channel;
+      this.flushed = start;
+      channel.position(start);
+    }
+
+    long position() {
+      return flushed + buffer.position();
+    }
+
+    void putInt(int value) throws IOException {
+      ensure(4);
+      buffer.putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+      ensure(8);
+      buffer.putLong(value);
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+      putInt(bytes.length);
+      int offset = 0;
+      while (offset < bytes.length) {
+        ensure(1);
+        int n = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, n);
+        offset += n;
+      }
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        flushed += channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+}
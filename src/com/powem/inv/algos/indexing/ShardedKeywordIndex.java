@@ -0,0 +1,96 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Keywords are hashed into a power-of-two number of partitions. Writers only lock the bin of the
+// keyword they touch (ConcurrentHashMap.compute), readers use plain gets and never block.
+public class ShardedKeywordIndex implements KeywordIndex {
+  private final ConcurrentMap<String, Set<String>>[] shards;
+  private final int mask;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public ShardedKeywordIndex(int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    int size = Integer.highestOneBit(shardCount);
+    if (size < shardCount) {
+      size <<= 1;
+    }
+    this.shards = new ConcurrentMap[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      shards[i] = new ConcurrentHashMap<>();
+    }
+  }
+
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  private ConcurrentMap<String, Set<String>> shardFor(String keyword) {
+    int h = keyword.hashCode();
+    // ConcurrentHashMap uses the low bits itself, so pick the shard from the spread high bits.
+    h ^= (h >>> 16);
+    return shards[(h * 0x9E3779B9 >>> 16) & mask];
+  }
+
+  @Override
+  public void add(String keyword, String documentId) {
+    // The add happens inside compute so a concurrent remove can't drop the set from under us.
+    shardFor(keyword).compute(keyword, (k, docs) -> {
+      if (docs == null) {
+        docs = ConcurrentHashMap.newKeySet();
+      }
+      docs.add(documentId);
+      return docs;
+    });
+  }
+
+  @Override
+  public void remove(String keyword, String documentId) {
+    shardFor(keyword).computeIfPresent(keyword, (k, docs) -> {
+      docs.remove(documentId);
+      return docs.isEmpty() ? null : docs;
+    });
+  }
+
+  @Override
+  public Set<String> lookup(String keyword) {
+    Set<String> docs = shardFor(keyword).get(keyword);
+    return docs == null ? Collections.emptySet() : docs;
+  }
+
+  @Override
+  public boolean containsKeyword(String keyword) {
+    return shardFor(keyword).containsKey(keyword);
+  }
+
+  @Override
+  public boolean isConcurrent() {
+    return true;
+  }
+
+  // Weakly consistent merged copy of every shard.
+  @Override
+  public Map<String, Set<String>> asMap() {
+    Map<String, Set<String>> merged = new HashMap<>();
+    for (ConcurrentMap<String, Set<String>> shard : shards) {
+      shard.forEach((keyword, docs) -> merged.put(keyword, new HashSet<>(docs)));
+    }
+    return merged;
+  }
+
+  @Override
+  public void clear() {
+    for (ConcurrentMap<String, Set<String>> shard : shards) {
+      shard.clear();
+    }
+  }
+}
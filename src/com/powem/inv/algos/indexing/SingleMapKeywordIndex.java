@@ -0,0 +1,50 @@
+package com.powem.inv.algos.indexing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// The original single HashMap index. Not thread safe.
+public class SingleMapKeywordIndex implements KeywordIndex {
+  private final Map<String, Set<String>> index = new HashMap<>();
+
+  @Override
+  public void add(String keyword, String documentId) {
+    index.computeIfAbsent(keyword, k -> new HashSet<>()).add(documentId);
+  }
+
+  @Override
+  public void remove(String keyword, String documentId) {
+    Set<String> docs = index.get(keyword);
+    if (docs != null) {
+      docs.remove(documentId);
+      if (docs.isEmpty()) {
+        index.remove(keyword);
+      }
+    }
+  }
+
+  @Override
+  public Set<String> lookup(String keyword) {
+    return index.getOrDefault(keyword, Collections.emptySet());
+  }
+
+  @Override
+  public boolean containsKeyword(String keyword) {
+    return index.containsKey(keyword);
+  }
+
+  @Override
+  public Map<String, Set<String>> asMap() {
+    Map<String, Set<String>> copy = new HashMap<>();
+    index.forEach((keyword, docs) -> copy.put(keyword, new HashSet<>(docs)));
+    return copy;
+  }
+
+  @Override
+  public void clear() {
+    index.clear();
+  }
+}
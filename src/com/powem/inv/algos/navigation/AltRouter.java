@@ -0,0 +1,108 @@
+package com.powem.inv.algos.navigation;
+
+import java.util.Arrays;
+
+// A* with ALT lower bounds (A*, Landmarks, Triangle inequality).
+//
+// Preprocessing picks landmarks by farthest-point selection and stores every node's distance to
+// each of them. By the triangle inequality |d(L, t) - d(L, v)| <= d(v, t) for any landmark L,
+// so the largest such difference is an admissible, consistent A* potential. Queries use the
+// landmarks that give the best bound at the source, which steers the search at the target and
+// settles a small fraction of the nodes a plain Dijkstra would.
+//
+// Landmark distances are taken over every road, open or closed. Closing roads only makes real
+// distances longer, so the bounds stay valid under any closures; only new roads invalidate them.
+// Roads are two-way, so distances from a landmark equal distances to it.
+public class AltRouter extends DijkstraRouter {
+  private static final int ACTIVE_LANDMARKS = 4;
+
+  private final int[] landmarks;
+  private final int[][] landmarkDistances; // landmark -> node -> distance
+  private final int[] active = new int[ACTIVE_LANDMARKS];
+  private final int[] activeBounds = new int[ACTIVE_LANDMARKS];
+  private int activeCount;
+
+  public AltRouter(RoadGraph graph, int landmarkCount) {
+    super(graph);
+    if (landmarkCount <= 0) {
+      throw new IllegalArgumentException("Landmark count must be positive");
+    }
+    int nodes = graph.nodeCount();
+    int count = Math.min(landmarkCount, nodes);
+    landmarks = new int[count];
+    landmarkDistances = new int[count][];
+    // Farthest-point selection: each landmark is the node farthest from those chosen so far.
+    int[] nearest = new int[nodes];
+    Arrays.fill(nearest, UNREACHED);
+    int next = 0;
+    for (int l = 0; l < count; l++) {
+      landmarks[l] = next;
+      landmarkDistances[l] = distancesFrom(graph, next, true);
+      int farthest = -1;
+      for (int v = 0; v < nodes; v++) {
+        nearest[v] = Math.min(nearest[v], landmarkDistances[l][v]);
+        // Nodes no landmark reaches come first: they start a new component.
+        if (farthest < 0 || nearest[v] > nearest[farthest]) {
+          farthest = v;
+        }
+      }
+      next = farthest;
+    }
+  }
+
+  public int[] getLandmarks() {
+    return landmarks.clone();
+  }
+
+  // Lower bound on the distance between two nodes over all landmarks, valid under any closures.
+  public int lowerBound(int from, int to) {
+    int best = 0;
+    for (int[] fromLandmark : landmarkDistances) {
+      if (fromLandmark[from] != UNREACHED && fromLandmark[to] != UNREACHED) {
+        best = Math.max(best, Math.abs(fromLandmark[to] - fromLandmark[from]));
+      }
+    }
+    return best;
+  }
+
+  // Keeps the landmarks with the best bounds between source and target.
+  @Override
+  void prepare(int source, int target) {
+    activeCount = 0;
+    int[] bounds = activeBounds;
+    for (int l = 0; l < landmarks.length; l++) {
+      int toTarget = landmarkDistances[l][target];
+      int toSource = landmarkDistances[l][source];
+      if (toTarget == UNREACHED || toSource == UNREACHED) {
+        continue;
+      }
+      int bound = Math.abs(toTarget - toSource);
+      int slot = activeCount < ACTIVE_LANDMARKS ? activeCount++ : ACTIVE_LANDMARKS;
+      while (slot > 0 && bounds[slot - 1] < bound) {
+        if (slot < ACTIVE_LANDMARKS) {
+          bounds[slot] = bounds[slot - 1];
+          active[slot] = active[slot - 1];
+        }
+        slot--;
+      }
+      if (slot < ACTIVE_LANDMARKS) {
+        bounds[slot] = bound;
+        active[slot] = l;
+      }
+    }
+  }
+
+  @Override
+  int potential(int node, int target) {
+    int best = 0;
+    for (int i = 0; i < activeCount; i++) {
+      int[] fromLandmark = landmarkDistances[active[i]];
+      int toTarget = fromLandmark[target];
+      int toNode = fromLandmark[node];
+      if (toTarget != UNREACHED && toNode != UNREACHED) {
+        best = Math.max(best, Math.abs(toTarget - toNode));
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,87 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class AltRouterTest {
+
+  public static void tests() {
+    // TEST
+    CityNavigationSystem navigationSystem = new CityNavigationSystem();
+    navigationSystem.addRoad("A", "B", 5);
+    navigationSystem.addRoad("B", "C", 10);
+    navigationSystem.addRoad("A", "C", 15);
+    navigationSystem.preprocess(2);
+    navigationSystem.updateRoadStatus("A", "C", false);
+    assert navigationSystem.findShortestPath("A", "C").equals(Arrays.asList("A", "B", "C"));
+    navigationSystem.updateRoadStatus("B", "C", false);
+    try {
+      navigationSystem.findShortestPath("A", "C");
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("No valid path found");
+    }
+    navigationSystem.updateRoadStatus("A", "C", true);
+    assert navigationSystem.findShortestPath("C", "A").equals(Arrays.asList("C", "A"));
+    navigationSystem.addRoad("C", "D", 1);
+    assert !navigationSystem.isPreprocessed();
+    // TEST_END
+
+    // TEST
+    // Same distances as the plain Dijkstra on random graphs with random closures.
+    Random random = new Random(15);
+    for (int round = 0; round < 5; round++) {
+      int nodes = 300;
+      CityNavigationSystem plain = new CityNavigationSystem();
+      CityNavigationSystem alt = new CityNavigationSystem();
+      Map<String, Integer> weights = new HashMap<>();
+      for (int i = 0; i < 900; i++) {
+        int a = random.nextInt(nodes);
+        int b = random.nextInt(nodes);
+        int distance = 1 + random.nextInt(100);
+        if (a == b || weights.containsKey(a + "-" + b)) {
+          continue;
+        }
+        weights.put(a + "-" + b, distance);
+        weights.put(b + "-" + a, distance);
+        plain.addRoad("N" + a, "N" + b, distance);
+        alt.addRoad("N" + a, "N" + b, distance);
+      }
+      alt.preprocess(8);
+      List<String> roads = new ArrayList<>(weights.keySet());
+      for (int query = 0; query < 100; query++) {
+        if (query % 3 == 0) {
+          String[] road = roads.get(random.nextInt(roads.size())).split("-");
+          boolean open = random.nextBoolean();
+          plain.updateRoadStatus("N" + road[0], "N" + road[1], open);
+          alt.updateRoadStatus("N" + road[0], "N" + road[1], open);
+        }
+        String from = "N" + random.nextInt(nodes);
+        String to = "N" + random.nextInt(nodes);
+        int expected = length(plain, from, to, weights);
+        assert length(alt, from, to, weights) == expected;
+      }
+    }
+    // TEST_END
+  }
+
+  // Total distance of the returned route, or -1 when there is none.
+  private static int length(CityNavigationSystem system, String from, String to, Map<String, Integer> weights) {
+    List<String> path;
+    try {
+      path = system.findShortestPath(from, to);
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+    int total = 0;
+    for (int i = 1; i < path.size(); i++) {
+      total += weights.get(path.get(i - 1).substring(1) + "-" + path.get(i).substring(1));
+    }
+    return total;
+  }
+}
@@ -0,0 +1,132 @@
+package com.powem.inv.algos.navigation;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// Point-to-point Dijkstra over a RoadGraph's primitive arrays with an indexed heap (decrease-key).
+//
+// Distance, parent and stamp arrays are allocated once per router. An entry is only valid when its
+// stamp equals the current query's epoch, so starting a query is O(1) rather than O(nodes).
+// Subclasses can supply an A* potential; with the default of zero this is plain Dijkstra.
+// search() is the only relax loop: route(), distancesFrom() and DistanceMatrix all run on it.
+// Not thread safe: use one router per thread.
+public class DijkstraRouter {
+  static final int UNREACHED = Integer.MAX_VALUE;
+
+  final RoadGraph graph;
+  private final int[] distances;
+  private final int[] parents;
+  private final int[] stamps;
+  private final IndexedMinHeap heap;
+  private int epoch;
+  private int lastSettled;
+  private int lastDistance;
+
+  public DijkstraRouter(RoadGraph graph) {
+    this.graph = graph;
+    int nodes = graph.nodeCount();
+    distances = new int[nodes];
+    parents = new int[nodes];
+    stamps = new int[nodes];
+    heap = new IndexedMinHeap(nodes);
+  }
+
+  // Nodes settled by the last route() call.
+  public int getSettledCount() {
+    return lastSettled;
+  }
+
+  // Length of the route returned by the last successful route() call.
+  public int getDistance() {
+    return lastDistance;
+  }
+
+  // Node ids from source to target over open roads, or null if the target is unreachable.
+  public int[] route(int source, int target) {
+    prepare(source, target);
+    if (search(source, target, false, null) < 0) {
+      return null;
+    }
+    lastDistance = distances[target];
+    return path(target);
+  }
+
+  // Settles nodes from source in order of distance until it settles target or a node stop accepts,
+  // and returns that node, or -1 once every reachable node is settled. A target of -1 searches
+  // without potentials. Afterwards distanceTo() is final for every settled node.
+  final int search(int source, int target, boolean includeClosed, IntPredicate stop) {
+    if (++epoch == 0) {
+      Arrays.fill(stamps, 0);
+      epoch = 1;
+    }
+    heap.clear();
+    lastSettled = 0;
+    stamps[source] = epoch;
+    distances[source] = 0;
+    parents[source] = -1;
+    heap.insertOrDecrease(source, target < 0 ? 0 : potential(source, target));
+    while (!heap.isEmpty()) {
+      int node = heap.pollMin();
+      lastSettled++;
+      if (node == target || stop != null && stop.test(node)) {
+        return node;
+      }
+      int distance = distances[node];
+      for (int arc = graph.offsets[node]; arc < graph.offsets[node + 1]; arc++) {
+        if (!includeClosed && !graph.isOpen(arc)) {
+          continue;
+        }
+        int neighbor = graph.targets[arc];
+        int candidate = distance + graph.weights[arc];
+        if (stamps[neighbor] != epoch) {
+          stamps[neighbor] = epoch;
+        } else if (candidate >= distances[neighbor]) {
+          continue; // also covers settled neighbors, whose distance is final
+        }
+        distances[neighbor] = candidate;
+        parents[neighbor] = node;
+        heap.insertOrDecrease(neighbor, target < 0 ? candidate : candidate + potential(neighbor, target));
+      }
+    }
+    return -1;
+  }
+
+  // Distance found by the last search, UNREACHED for a node it never reached. Only final for
+  // settled nodes, which is every reached node when the search ran out.
+  final int distanceTo(int node) {
+    return stamps[node] == epoch ? distances[node] : UNREACHED;
+  }
+
+  // Called before each search.
+  void prepare(int source, int target) {
+  }
+
+  // Lower bound on the distance from node to target; must be consistent.
+  int potential(int node, int target) {
+    return 0;
+  }
+
+  private int[] path(int target) {
+    int length = 0;
+    for (int at = target; at >= 0; at = parents[at]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int at = target; at >= 0; at = parents[at]) {
+      path[--length] = at;
+    }
+    return path;
+  }
+
+  // One-to-all distances from source, UNREACHED where there is no route. With includeClosed the
+  // search ignores closures, which is what landmark preprocessing wants.
+  public static int[] distancesFrom(RoadGraph graph, int source, boolean includeClosed) {
+    DijkstraRouter router = new DijkstraRouter(graph);
+    router.search(source, -1, includeClosed, null);
+    int[] result = new int[graph.nodeCount()];
+    for (int node = 0; node < result.length; node++) {
+      result[node] = router.distanceTo(node);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,133 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DijkstraRouterTest {
+
+  public static void tests() {
+    // TEST
+    // Decrease-key keeps one entry per node and pops in key order.
+    Random random = new Random(16);
+    IndexedMinHeap heap = new IndexedMinHeap(1_000);
+    int[] best = new int[1_000];
+    Arrays.fill(best, Integer.MAX_VALUE);
+    for (int i = 0; i < 5_000; i++) {
+      int node = random.nextInt(1_000);
+      int key = random.nextInt(1_000_000);
+      heap.insertOrDecrease(node, key);
+      best[node] = Math.min(best[node], key);
+    }
+    int previous = -1;
+    int polled = 0;
+    while (!heap.isEmpty()) {
+      int node = heap.pollMin();
+      assert !heap.contains(node);
+      assert best[node] >= previous;
+      previous = best[node];
+      polled++;
+    }
+    assert polled == (int) Arrays.stream(best).filter(key -> key != Integer.MAX_VALUE).count();
+    heap.insertOrDecrease(3, 10);
+    heap.insertOrDecrease(4, 5);
+    heap.clear();
+    assert heap.isEmpty() && !heap.contains(3) && !heap.contains(4);
+    // TEST_END
+
+    // TEST
+    // Route lengths match Floyd-Warshall on random graphs with closed arcs.
+    for (int round = 0; round < 5; round++) {
+      int nodes = 60;
+      RoadGraph.Builder builder = new RoadGraph.Builder();
+      for (int v = 0; v < nodes; v++) {
+        builder.addNode("N" + v);
+      }
+      int[][] matrix = new int[nodes][nodes];
+      for (int[] row : matrix) {
+        Arrays.fill(row, Integer.MAX_VALUE);
+      }
+      for (int i = 0; i < 200; i++) {
+        int a = random.nextInt(nodes);
+        int b = random.nextInt(nodes);
+        int distance = 1 + random.nextInt(50);
+        boolean open = random.nextInt(5) != 0;
+        builder.addArc("N" + a, "N" + b, distance, open);
+        if (open && a != b) {
+          matrix[a][b] = Math.min(matrix[a][b], distance);
+        }
+      }
+      for (int k = 0; k < nodes; k++) {
+        for (int i = 0; i < nodes; i++) {
+          for (int j = 0; j < nodes; j++) {
+            if (matrix[i][k] != Integer.MAX_VALUE && matrix[k][j] != Integer.MAX_VALUE) {
+              matrix[i][j] = Math.min(matrix[i][j], matrix[i][k] + matrix[k][j]);
+            }
+          }
+        }
+      }
+      RoadGraph graph = builder.build();
+      DijkstraRouter router = new DijkstraRouter(graph);
+      for (int query = 0; query < 200; query++) {
+        int from = random.nextInt(nodes);
+        int to = random.nextInt(nodes);
+        if (from == to) {
+          continue;
+        }
+        int[] path = router.route(from, to);
+        if (matrix[from][to] == Integer.MAX_VALUE) {
+          assert path == null;
+          continue;
+        }
+        assert path[0] == from && path[path.length - 1] == to;
+        assert length(graph, path) == matrix[from][to];
+        assert router.getSettledCount() <= nodes;
+      }
+      int[] all = DijkstraRouter.distancesFrom(graph, 0, false);
+      for (int v = 1; v < nodes; v++) {
+        assert all[v] == matrix[0][v];
+      }
+    }
+    // TEST_END
+
+    // TEST
+    // Adding a road after the map froze keeps earlier closures.
+    CityNavigationSystem navigationSystem = new CityNavigationSystem();
+    navigationSystem.addRoad("A", "B", 5);
+    navigationSystem.addRoad("B", "C", 10);
+    navigationSystem.addRoad("A", "C", 15);
+    navigationSystem.updateRoadStatus("A", "B", false);
+    assert navigationSystem.findShortestPath("A", "C").equals(Arrays.asList("A", "C"));
+    navigationSystem.addRoad("C", "D", 1);
+    assert navigationSystem.findShortestPath("B", "A").equals(Arrays.asList("B", "C", "A"));
+    assert navigationSystem.findShortestPath("D", "A").equals(Arrays.asList("D", "C", "A"));
+    try {
+      navigationSystem.findShortestPath("A", "X");
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Start or end point does not exist in the map");
+    }
+    try {
+      navigationSystem.addRoad("C", "E", 0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("invalid distance");
+    }
+    // TEST_END
+  }
+
+  // Sum of the cheapest open arc between each consecutive pair of nodes.
+  private static int length(RoadGraph graph, int[] path) {
+    int total = 0;
+    for (int i = 1; i < path.length; i++) {
+      int cheapest = Integer.MAX_VALUE;
+      for (int arc = graph.offsets[path[i - 1]]; arc < graph.offsets[path[i - 1] + 1]; arc++) {
+        if (graph.isOpen(arc) && graph.targets[arc] == path[i]) {
+          cheapest = Math.min(cheapest, graph.weights[arc]);
+        }
+      }
+      total += cheapest;
+    }
+    return total;
+  }
+}
@@ -0,0 +1,86 @@
+package com.powem.inv.algos.navigation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Many-to-many shortest distances over open roads: one one-to-all Dijkstra per origin, run in
+// parallel on a ForkJoinPool. Each search stops once every destination is settled.
+//
+// Every worker thread keeps its own DijkstraRouter in a ThreadLocal, so a search reuses the
+// router's arrays and starts in O(1). The graph is only read; closures must not change while
+// compute() runs.
+public class DistanceMatrix {
+  public static final int NO_ROUTE = -1;
+  private static final int ORIGINS_PER_TASK = 4;
+
+  private final RoadGraph graph;
+  private final ThreadLocal<DijkstraRouter> routers;
+
+  public DistanceMatrix(RoadGraph graph) {
+    this.graph = graph;
+    this.routers = ThreadLocal.withInitial(() -> new DijkstraRouter(graph));
+  }
+
+  // Row-major origins.length x destinations.length distances, NO_ROUTE where there is none.
+  public int[] compute(int[] origins, int[] destinations, ForkJoinPool pool) {
+    int[] result = new int[origins.length * destinations.length];
+    boolean[] isDestination = new boolean[graph.nodeCount()];
+    int distinct = 0;
+    for (int destination : destinations) {
+      if (!isDestination[destination]) {
+        isDestination[destination] = true;
+        distinct++;
+      }
+    }
+    pool.invoke(new RowTask(origins, destinations, isDestination, distinct, result, 0, origins.length));
+    return result;
+  }
+
+  @SuppressWarnings("serial")
+  private class RowTask extends RecursiveAction {
+    private final int[] origins;
+    private final int[] destinations;
+    private final boolean[] isDestination;
+    private final int distinct;
+    private final int[] result;
+    private final int from;
+    private final int to;
+
+    RowTask(int[] origins, int[] destinations, boolean[] isDestination, int distinct, int[] result, int from,
+        int to) {
+      this.origins = origins;
+      this.destinations = destinations;
+      this.isDestination = isDestination;
+      this.distinct = distinct;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= ORIGINS_PER_TASK) {
+        DijkstraRouter router = routers.get();
+        for (int row = from; row < to; row++) {
+          search(router, origins[row], isDestination, distinct);
+          int offset = row * destinations.length;
+          for (int column = 0; column < destinations.length; column++) {
+            int distance = router.distanceTo(destinations[column]);
+            result[offset + column] = distance == DijkstraRouter.UNREACHED ? NO_ROUTE : distance;
+          }
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new RowTask(origins, destinations, isDestination, distinct, result, from, middle),
+          new RowTask(origins, destinations, isDestination, distinct, result, middle, to));
+    }
+  }
+
+  // Dijkstra from origin until every destination is settled, or the heap runs dry. Either way a
+  // destination the router reached has its final distance and any other is unreachable.
+  private static void search(DijkstraRouter router, int origin, boolean[] isDestination, int distinct) {
+    int[] remaining = {distinct};
+    router.search(origin, -1, false, node -> isDestination[node] && --remaining[0] == 0);
+  }
+}
@@ -0,0 +1,52 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// A size x size distance table on a side x side street grid: pairwise findShortestPath calls
+// (timed on a sample and extrapolated) against distanceMatrix on 1, 4 and 16 threads.
+// Run: java com.powem.inv.algos.navigation.DistanceMatrixBenchmark [side] [size]
+public class DistanceMatrixBenchmark {
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int size = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    CityNavigationSystem system = RouteQueryBenchmark.grid(side, new Random(16));
+    Random random = new Random(3);
+    List<String> origins = new ArrayList<>();
+    List<String> destinations = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      origins.add(RouteQueryBenchmark.node(random.nextInt(side), random.nextInt(side)));
+      destinations.add(RouteQueryBenchmark.node(random.nextInt(side), random.nextInt(side)));
+    }
+
+    int sample = 200;
+    long start = System.nanoTime();
+    for (int i = 0; i < sample; i++) {
+      try {
+        system.findShortestPath(origins.get(i % size), destinations.get(i * 7 % size));
+      } catch (IllegalArgumentException e) {
+        // same origin and destination
+      }
+    }
+    double pairwiseSeconds = (System.nanoTime() - start) / 1e9 / sample * size * size;
+    System.out.printf("%,d nodes, %dx%d table, %d cores%n", side * side, size, size,
+        Runtime.getRuntime().availableProcessors());
+    System.out.printf("pairwise findShortestPath  ~%.0f s (extrapolated from %d queries)%n", pairwiseSeconds, sample);
+
+    for (int threads : new int[] {1, 4, 16}) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      for (int round = 0; round < 2; round++) {
+        start = System.nanoTime();
+        int[][] table = system.distanceMatrix(origins, destinations, pool);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("distanceMatrix %2d threads %,7d ms  (%.2f ms/origin, check %d)%n", threads,
+            nanos / 1_000_000, nanos / 1e6 / size, table[size - 1][size - 1]);
+      }
+      pool.shutdown();
+    }
+  }
+}
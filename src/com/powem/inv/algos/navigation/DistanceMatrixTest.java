@@ -0,0 +1,62 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class DistanceMatrixTest {
+
+  public static void tests() {
+    // TEST
+    CityNavigationSystem navigationSystem = new CityNavigationSystem();
+    navigationSystem.addRoad("A", "B", 5);
+    navigationSystem.addRoad("B", "C", 10);
+    navigationSystem.addRoad("A", "C", 20);
+    navigationSystem.addRoad("D", "E", 1);
+    navigationSystem.updateRoadStatus("B", "C", false);
+    int[][] distances = navigationSystem.distanceMatrix(Arrays.asList("A", "C"), Arrays.asList("A", "B", "C", "E", "B"));
+    assert Arrays.equals(distances[0], new int[] {0, 5, 20, -1, 5});
+    assert Arrays.equals(distances[1], new int[] {20, 25, 0, -1, 25});
+    try {
+      navigationSystem.distanceMatrix(Arrays.asList("A"), Arrays.asList("X"));
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Start or end point does not exist in the map");
+    }
+    // TEST_END
+
+    // TEST
+    // Matches full one-to-all searches on random graphs with closed arcs, on several threads.
+    Random random = new Random(18);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (int round = 0; round < 3; round++) {
+      int nodes = 500;
+      RoadGraph.Builder builder = new RoadGraph.Builder();
+      for (int v = 0; v < nodes; v++) {
+        builder.addNode("N" + v);
+      }
+      for (int i = 0; i < 1_200; i++) {
+        builder.addArc("N" + random.nextInt(nodes), "N" + random.nextInt(nodes), 1 + random.nextInt(100),
+            random.nextInt(6) != 0);
+      }
+      RoadGraph graph = builder.build();
+      int[] origins = random.ints(60, 0, nodes).toArray();
+      int[] destinations = random.ints(40, 0, nodes).toArray();
+      DistanceMatrix matrix = new DistanceMatrix(graph);
+      for (int repeat = 0; repeat < 2; repeat++) {
+        int[] result = matrix.compute(origins, destinations, pool);
+        for (int row = 0; row < origins.length; row++) {
+          int[] expected = DijkstraRouter.distancesFrom(graph, origins[row], false);
+          for (int column = 0; column < destinations.length; column++) {
+            int distance = expected[destinations[column]];
+            int want = distance == DijkstraRouter.UNREACHED ? DistanceMatrix.NO_ROUTE : distance;
+            assert result[row * destinations.length + column] == want;
+          }
+        }
+      }
+    }
+    pool.shutdown();
+    // TEST_END
+  }
+}
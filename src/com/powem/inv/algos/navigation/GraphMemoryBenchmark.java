@@ -0,0 +1,146 @@
+package com.powem.inv.algos.navigation;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+// Heap footprint and route latency of the original Map<String, List<Road>> city map (reproduced
+// below with its String-keyed Dijkstra) against the frozen CSR RoadGraph with the indexed-heap
+// Dijkstra, on a side x side street grid. The default side gives about 1M roads (2M arcs).
+// Run: java com.powem.inv.algos.navigation.GraphMemoryBenchmark [side] [queries]
+public class GraphMemoryBenchmark {
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 710;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    // Roads as (start, end, distance) triples, generated once so both structures hold the same map.
+    Random random = new Random(16);
+    List<int[]> roads = new ArrayList<>();
+    for (int x = 0; x < side; x++) {
+      for (int y = 0; y < side; y++) {
+        if (x + 1 < side && (random.nextInt(10) != 0 || y == 0)) {
+          roads.add(new int[] {x * side + y, (x + 1) * side + y, 50 + random.nextInt(100)});
+        }
+        if (y + 1 < side) {
+          roads.add(new int[] {x * side + y, x * side + y + 1, 50 + random.nextInt(100)});
+        }
+      }
+    }
+    String[] names = new String[side * side];
+    for (int v = 0; v < names.length; v++) {
+      names[v] = RouteQueryBenchmark.node(v / side, v % side);
+    }
+    int[][] pairs = new int[queries][];
+    for (int i = 0; i < queries; i++) {
+      pairs[i] = new int[] {random.nextInt(names.length), random.nextInt(names.length)};
+    }
+
+    long before = usedMemory();
+    LegacyMap legacy = new LegacyMap();
+    for (int[] road : roads) {
+      legacy.addRoad(names[road[0]], names[road[1]], road[2]);
+    }
+    long legacyBytes = usedMemory() - before;
+
+    before = usedMemory();
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    for (int[] road : roads) {
+      builder.addRoad(names[road[0]], names[road[1]], road[2]);
+    }
+    RoadGraph graph = builder.build();
+    builder = null;
+    long graphBytes = usedMemory() - before;
+    DijkstraRouter router = new DijkstraRouter(graph);
+
+    System.out.printf("%,d nodes, %,d arcs%n", graph.nodeCount(), graph.arcCount());
+    System.out.printf("map of road lists %,8d KB%ncsr graph         %,8d KB (names and id map included)%n",
+        legacyBytes / 1024, graphBytes / 1024);
+    for (int round = 0; round < 2; round++) {
+      long start = System.nanoTime();
+      for (int[] pair : pairs) {
+        legacy.findShortestPath(names[pair[0]], names[pair[1]]);
+      }
+      double legacyMs = (System.nanoTime() - start) / 1e6 / queries;
+      start = System.nanoTime();
+      for (int[] pair : pairs) {
+        router.route(graph.idOf(names[pair[0]]), graph.idOf(names[pair[1]]));
+      }
+      double csrMs = (System.nanoTime() - start) / 1e6 / queries;
+      System.out.printf("map of road lists %.1f ms/query, csr %.1f ms/query%n", legacyMs, csrMs);
+    }
+    // The road list must stay reachable, or freeing it would be credited to whichever was measured last.
+    Reference.reachabilityFence(roads);
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  // The city map as CityNavigationSystem stored it before the CSR graph.
+  private static class LegacyMap {
+    private static class Road {
+      String endPoint;
+      int distance;
+      boolean isOpen;
+
+      Road(String endPoint, int distance, boolean isOpen) {
+        this.endPoint = endPoint;
+        this.distance = distance;
+        this.isOpen = isOpen;
+      }
+    }
+
+    private final Map<String, List<Road>> cityMap = new HashMap<>();
+
+    void addRoad(String startPoint, String endPoint, int distance) {
+      cityMap.computeIfAbsent(startPoint, k -> new ArrayList<>()).add(new Road(endPoint, distance, true));
+      cityMap.computeIfAbsent(endPoint, k -> new ArrayList<>()).add(new Road(startPoint, distance, true));
+    }
+
+    List<String> findShortestPath(String startPoint, String endPoint) {
+      Map<String, Integer> distances = new HashMap<>();
+      Map<String, String> previous = new HashMap<>();
+      Set<String> visited = new HashSet<>();
+      PriorityQueue<String> queue = new PriorityQueue<>(Comparator.comparingInt(distances::get));
+      distances.put(startPoint, 0);
+      queue.add(startPoint);
+      while (!queue.isEmpty()) {
+        String current = queue.poll();
+        if (current.equals(endPoint)) {
+          break;
+        }
+        visited.add(current);
+        for (Road road : cityMap.getOrDefault(current, Collections.emptyList())) {
+          if (!road.isOpen || visited.contains(road.endPoint)) {
+            continue;
+          }
+          int newDist = distances.getOrDefault(current, Integer.MAX_VALUE) + road.distance;
+          if (newDist < distances.getOrDefault(road.endPoint, Integer.MAX_VALUE)) {
+            distances.put(road.endPoint, newDist);
+            previous.put(road.endPoint, current);
+            queue.add(road.endPoint);
+          }
+        }
+      }
+      List<String> path = new ArrayList<>();
+      for (String at = endPoint; at != null; at = previous.get(at)) {
+        path.add(at);
+      }
+      Collections.reverse(path);
+      return path;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.powem.inv.algos.navigation;
+
+import java.util.Arrays;
+
+// Binary min-heap of node ids keyed by int, with decrease-key. positions[node] tracks where each
+// node sits, so a shorter tentative distance moves the existing entry up instead of adding a
+// duplicate, and the heap never holds more than one entry per node.
+class IndexedMinHeap {
+  private final int[] heap;
+  private final int[] keys; // node -> key, valid while the node is in the heap
+  private final int[] positions; // node -> index in heap, -1 when absent
+  private int size;
+
+  IndexedMinHeap(int capacity) {
+    heap = new int[capacity];
+    keys = new int[capacity];
+    positions = new int[capacity];
+    Arrays.fill(positions, -1);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean contains(int node) {
+    return positions[node] >= 0;
+  }
+
+  // Inserts the node, or lowers its key if it is already queued with a larger one.
+  void insertOrDecrease(int node, int key) {
+    int index = positions[node];
+    if (index < 0) {
+      index = size++;
+    } else if (key >= keys[node]) {
+      return;
+    }
+    keys[node] = key;
+    siftUp(node, index);
+  }
+
+  int pollMin() {
+    int top = heap[0];
+    positions[top] = -1;
+    int last = heap[--size];
+    if (size > 0) {
+      siftDown(last, 0);
+    }
+    return top;
+  }
+
+  // Empties the heap in O(size), leaving it ready for the next search.
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      positions[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  private void siftUp(int node, int index) {
+    int key = keys[node];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      int parentNode = heap[parent];
+      if (keys[parentNode] <= key) {
+        break;
+      }
+      heap[index] = parentNode;
+      positions[parentNode] = index;
+      index = parent;
+    }
+    heap[index] = node;
+    positions[node] = index;
+  }
+
+  private void siftDown(int node, int index) {
+    int key = keys[node];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+        child++;
+      }
+      int childNode = heap[child];
+      if (keys[childNode] >= key) {
+        break;
+      }
+      heap[index] = childNode;
+      positions[childNode] = index;
+      index = child;
+    }
+    heap[index] = node;
+    positions[node] = index;
+  }
+}
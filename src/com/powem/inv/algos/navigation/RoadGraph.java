@@ -0,0 +1,223 @@
+package com.powem.inv.algos.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Frozen road network in compressed sparse row form. Intersections are dense int ids; the arcs
+// leaving node u are offsets[u] .. offsets[u + 1] - 1 in the parallel targets/weights arrays.
+// A two-way road is two arcs. Closed arcs are marked in a BitSet, so closures never rebuild it.
+public class RoadGraph {
+  private static final long NO_PAIR = -1L;
+
+  private final String[] names;
+  private final Map<String, Integer> ids;
+  final int[] offsets;
+  final int[] targets;
+  final int[] weights;
+  private final BitSet closed;
+  // (start, end) -> first arc index, see arcOf().
+  private long[] indexKeys;
+  private int[] indexArcs;
+  private int indexShift;
+
+  private RoadGraph(String[] names, Map<String, Integer> ids, int[] offsets, int[] targets, int[] weights,
+      BitSet closed) {
+    this.names = names;
+    this.ids = ids;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.closed = closed;
+  }
+
+  public static class Builder {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private int[] weight = new int[16];
+    private final BitSet closed = new BitSet();
+    private int arcs;
+
+    public int addNode(String name) {
+      Integer id = ids.get(name);
+      if (id == null) {
+        id = names.size();
+        ids.put(name, id);
+        names.add(name);
+      }
+      return id;
+    }
+
+    public Builder addArc(String start, String end, int distance, boolean open) {
+      if (distance <= 0) {
+        throw new IllegalArgumentException("invalid distance");
+      }
+      if (arcs == from.length) {
+        from = Arrays.copyOf(from, arcs * 2);
+        to = Arrays.copyOf(to, arcs * 2);
+        weight = Arrays.copyOf(weight, arcs * 2);
+      }
+      from[arcs] = addNode(start);
+      to[arcs] = addNode(end);
+      weight[arcs] = distance;
+      if (!open) {
+        closed.set(arcs);
+      }
+      arcs++;
+      return this;
+    }
+
+    public Builder addRoad(String start, String end, int distance) {
+      return addArc(start, end, distance, true).addArc(end, start, distance, true);
+    }
+
+    // Two counting sorts: by target, then stably by source. Each node's arcs end up ordered by
+    // target, so parallel arcs between the same two nodes are adjacent.
+    public RoadGraph build() {
+      int nodes = names.size();
+      int[] byTarget = new int[arcs];
+      int[] next = new int[nodes + 1];
+      for (int i = 0; i < arcs; i++) {
+        next[to[i] + 1]++;
+      }
+      for (int v = 0; v < nodes; v++) {
+        next[v + 1] += next[v];
+      }
+      for (int i = 0; i < arcs; i++) {
+        byTarget[next[to[i]]++] = i;
+      }
+      int[] offsets = new int[nodes + 1];
+      for (int i = 0; i < arcs; i++) {
+        offsets[from[i] + 1]++;
+      }
+      for (int u = 0; u < nodes; u++) {
+        offsets[u + 1] += offsets[u];
+      }
+      next = Arrays.copyOf(offsets, nodes);
+      int[] targets = new int[arcs];
+      int[] weights = new int[arcs];
+      BitSet closedArcs = new BitSet(arcs);
+      for (int i : byTarget) {
+        int arc = next[from[i]]++;
+        targets[arc] = to[i];
+        weights[arc] = weight[i];
+        if (closed.get(i)) {
+          closedArcs.set(arc);
+        }
+      }
+      return new RoadGraph(names.toArray(new String[0]), new HashMap<>(ids), offsets, targets, weights, closedArcs);
+    }
+  }
+
+  // A builder holding this graph's intersections (with the same ids) and roads, including closures.
+  public Builder toBuilder() {
+    Builder builder = new Builder();
+    for (String name : names) {
+      builder.addNode(name);
+    }
+    for (int u = 0; u < names.length; u++) {
+      for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+        builder.addArc(names[u], names[targets[arc]], weights[arc], isOpen(arc));
+      }
+    }
+    return builder;
+  }
+
+  public int nodeCount() {
+    return names.length;
+  }
+
+  public int arcCount() {
+    return targets.length;
+  }
+
+  // Returns -1 for unknown intersections.
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  public String nameOf(int node) {
+    return names[node];
+  }
+
+  public boolean isOpen(int arc) {
+    return !closed.get(arc);
+  }
+
+  // Shortest arc from start to end, open or closed, or -1 if there is none.
+  public int roadLength(int start, int end) {
+    int shortest = -1;
+    for (int arc = arcOf(start, end); arc >= 0 && arc < offsets[start + 1] && targets[arc] == end; arc++) {
+      if (shortest < 0 || weights[arc] < shortest) {
+        shortest = weights[arc];
+      }
+    }
+    return shortest;
+  }
+
+  // Opens or closes every arc from start to end in O(1) through the arc index. Returns whether
+  // any arc changed state.
+  public boolean setOpen(int start, int end, boolean open) {
+    boolean changed = false;
+    for (int arc = arcOf(start, end); arc >= 0 && arc < offsets[start + 1] && targets[arc] == end; arc++) {
+      changed |= closed.get(arc) == open;
+      closed.set(arc, !open);
+    }
+    return changed;
+  }
+
+  // First arc from start to end, or -1. Looks the pair up in an open-addressing hash table of
+  // (start, end) -> arc, built on first use so graphs that are only routed over never pay for it.
+  int arcOf(int start, int end) {
+    if (indexKeys == null) {
+      buildIndex();
+    }
+    long key = pairKey(start, end);
+    for (int slot = slot(key); ; slot = (slot + 1) & (indexKeys.length - 1)) {
+      if (indexKeys[slot] == key) {
+        return indexArcs[slot];
+      }
+      if (indexKeys[slot] == NO_PAIR) {
+        return -1;
+      }
+    }
+  }
+
+  private void buildIndex() {
+    int capacity = Integer.highestOneBit(Math.max(1, targets.length) * 2 - 1) * 2; // load factor <= 1/2
+    long[] keys = new long[capacity];
+    int[] arcs = new int[capacity];
+    Arrays.fill(keys, NO_PAIR);
+    indexShift = 64 - Integer.numberOfTrailingZeros(capacity);
+    for (int u = 0; u < names.length; u++) {
+      for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+        if (arc > offsets[u] && targets[arc] == targets[arc - 1]) {
+          continue; // parallel arcs follow the first one
+        }
+        long key = pairKey(u, targets[arc]);
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> indexShift);
+        while (keys[slot] != NO_PAIR) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        keys[slot] = key;
+        arcs[slot] = arc;
+      }
+    }
+    indexArcs = arcs;
+    indexKeys = keys;
+  }
+
+  private int slot(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> indexShift);
+  }
+
+  private static long pairKey(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+}
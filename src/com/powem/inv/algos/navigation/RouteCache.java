@@ -0,0 +1,138 @@
+package com.powem.inv.algos.navigation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntBinaryOperator;
+
+// Least-recently-used cache of shortest routes keyed by (origin, destination) node ids.
+//
+// Every cached route is indexed under each road it uses, so closing a road drops exactly the
+// routes through it. Opening a road cannot break a cached route but can create a shorter one: a
+// route from s to t is dropped only if going over the reopened road u-v could beat it, i.e. if
+// lowerBound(s, u) + length + lowerBound(v, t) (or the same via v-u) is below its length. With
+// landmark bounds that rules out most routes; with a zero bound only those longer than the road.
+public class RouteCache {
+  private final int capacity;
+  private final LinkedHashMap<Long, CachedRoute> routes;
+  private final Map<Long, Set<Long>> routesByRoad = new HashMap<>();
+  private long hits;
+  private long misses;
+
+  private static class CachedRoute {
+    final int[] path;
+    final int distance;
+
+    CachedRoute(int[] path, int distance) {
+      this.path = path;
+      this.distance = distance;
+    }
+  }
+
+  public RouteCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.routes = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  // The cached node ids from origin to destination, or null.
+  public int[] get(int origin, int destination) {
+    CachedRoute route = routes.get(routeKey(origin, destination));
+    if (route == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return route.path;
+  }
+
+  public void put(int origin, int destination, int[] path, int distance) {
+    long key = routeKey(origin, destination);
+    remove(key);
+    routes.put(key, new CachedRoute(path, distance));
+    for (int i = 1; i < path.length; i++) {
+      routesByRoad.computeIfAbsent(roadKey(path[i - 1], path[i]), k -> new HashSet<>()).add(key);
+    }
+    if (routes.size() > capacity) {
+      remove(routes.keySet().iterator().next());
+    }
+  }
+
+  // Drops the cached routes that use the road between start and end.
+  public void roadClosed(int start, int end) {
+    Set<Long> affected = routesByRoad.get(roadKey(start, end));
+    if (affected != null) {
+      for (Long key : affected.toArray(new Long[0])) {
+        remove(key);
+      }
+    }
+  }
+
+  // Drops the cached routes that the reopened road, of the given length, could shorten.
+  public void roadOpened(int start, int end, int length, IntBinaryOperator lowerBound) {
+    Iterator<Map.Entry<Long, CachedRoute>> iterator = routes.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, CachedRoute> entry = iterator.next();
+      int origin = (int) (entry.getKey() >>> 32);
+      int destination = (int) (long) entry.getKey();
+      long via = Math.min(
+          (long) lowerBound.applyAsInt(origin, start) + length + lowerBound.applyAsInt(end, destination),
+          (long) lowerBound.applyAsInt(origin, end) + length + lowerBound.applyAsInt(start, destination));
+      if (via < entry.getValue().distance) {
+        iterator.remove();
+        unindex(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  public void clear() {
+    routes.clear();
+    routesByRoad.clear();
+  }
+
+  public int size() {
+    return routes.size();
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  private void remove(long key) {
+    CachedRoute route = routes.remove(key);
+    if (route != null) {
+      unindex(key, route);
+    }
+  }
+
+  private void unindex(long key, CachedRoute route) {
+    for (int i = 1; i < route.path.length; i++) {
+      long road = roadKey(route.path[i - 1], route.path[i]);
+      Set<Long> keys = routesByRoad.get(road);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          routesByRoad.remove(road);
+        }
+      }
+    }
+  }
+
+  private static long routeKey(int origin, int destination) {
+    return ((long) origin << 32) | (destination & 0xFFFFFFFFL);
+  }
+
+  // Roads are two-way: both directions share a key.
+  private static long roadKey(int a, int b) {
+    return routeKey(Math.min(a, b), Math.max(a, b));
+  }
+}
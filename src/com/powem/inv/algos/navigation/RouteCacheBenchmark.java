@@ -0,0 +1,85 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.Random;
+
+// Hot origin-destination pairs on a side x side street grid, with a random road closed or
+// reopened every few queries: CityNavigationSystem with its route cache against the same ALT
+// router searching every time.
+// Run: java com.powem.inv.algos.navigation.RouteCacheBenchmark [side] [hotPairs] [queriesPerUpdate]
+public class RouteCacheBenchmark {
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+    int hotPairs = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int queriesPerUpdate = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+    int updates = 2_000;
+    CityNavigationSystem system = RouteQueryBenchmark.grid(side, new Random(16));
+    system.preprocess(16);
+    // The same grid again, for searches without the cache.
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Random random = new Random(16);
+    for (int x = 0; x < side; x++) {
+      for (int y = 0; y < side; y++) {
+        if (x + 1 < side && (random.nextInt(10) != 0 || y == 0)) {
+          builder.addRoad(RouteQueryBenchmark.node(x, y), RouteQueryBenchmark.node(x + 1, y), 50 + random.nextInt(100));
+        }
+        if (y + 1 < side) {
+          builder.addRoad(RouteQueryBenchmark.node(x, y), RouteQueryBenchmark.node(x, y + 1), 50 + random.nextInt(100));
+        }
+      }
+    }
+    RoadGraph graph = builder.build();
+    AltRouter router = new AltRouter(graph, 16);
+
+    random = new Random(2);
+    String[][] pairs = new String[hotPairs][];
+    for (int i = 0; i < hotPairs; i++) {
+      pairs[i] = new String[] {RouteQueryBenchmark.node(random.nextInt(side), random.nextInt(side)),
+          RouteQueryBenchmark.node(random.nextInt(side), random.nextInt(side))};
+    }
+    // North-south blocks exist everywhere, so these are all real roads.
+    String[][] roads = new String[updates][];
+    for (int i = 0; i < updates; i++) {
+      int x = random.nextInt(side);
+      int y = random.nextInt(side - 1);
+      roads[i] = new String[] {RouteQueryBenchmark.node(x, y), RouteQueryBenchmark.node(x, y + 1)};
+    }
+
+    for (int round = 0; round < 2; round++) {
+      long updateNanos = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < updates; i++) {
+        long updateStart = System.nanoTime();
+        system.updateRoadStatus(roads[i][0], roads[i][1], i % 2 == 1);
+        updateNanos += System.nanoTime() - updateStart;
+        for (int q = 0; q < queriesPerUpdate; q++) {
+          String[] pair = pairs[(i * queriesPerUpdate + q) % hotPairs];
+          try {
+            system.findShortestPath(pair[0], pair[1]);
+          } catch (IllegalArgumentException e) {
+            // same origin and destination
+          }
+        }
+      }
+      double cachedUs = (System.nanoTime() - start) / 1e3 / updates / queriesPerUpdate;
+
+      start = System.nanoTime();
+      for (int i = 0; i < updates; i++) {
+        int a = graph.idOf(roads[i][0]);
+        int b = graph.idOf(roads[i][1]);
+        graph.setOpen(a, b, i % 2 == 1);
+        graph.setOpen(b, a, i % 2 == 1);
+        for (int q = 0; q < queriesPerUpdate; q++) {
+          String[] pair = pairs[(i * queriesPerUpdate + q) % hotPairs];
+          router.route(graph.idOf(pair[0]), graph.idOf(pair[1]));
+        }
+      }
+      double uncachedUs = (System.nanoTime() - start) / 1e3 / updates / queriesPerUpdate;
+      RouteCache cache = system.getRouteCache();
+      System.out.printf("uncached %.1f us/query, cached %.1f us/query (hit rate %.0f%%), update %.2f us (cache size %d)%n",
+          uncachedUs, cachedUs, 100.0 * cache.getHits() / (cache.getHits() + cache.getMisses()),
+          updateNanos / 1e3 / updates, cache.size());
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class RouteCacheTest {
+
+  public static void tests() {
+    // TEST
+    // The arc index finds every parallel arc between two nodes.
+    RoadGraph graph = new RoadGraph.Builder()
+        .addRoad("A", "B", 7)
+        .addRoad("B", "C", 2)
+        .addRoad("A", "B", 3)
+        .addArc("C", "A", 4, false)
+        .build();
+    int a = graph.idOf("A");
+    int b = graph.idOf("B");
+    int c = graph.idOf("C");
+    assert graph.roadLength(a, b) == 3 && graph.roadLength(b, a) == 3;
+    assert graph.roadLength(c, a) == 4 && graph.roadLength(a, c) == -1;
+    assert graph.setOpen(a, b, false);
+    assert !graph.setOpen(a, b, false);
+    assert new DijkstraRouter(graph).route(a, b) == null;
+    assert graph.setOpen(c, a, true);
+    assert Arrays.equals(new DijkstraRouter(graph).route(c, a), new int[] {c, a});
+    assert !graph.setOpen(a, c, true);
+    // TEST_END
+
+    // TEST
+    CityNavigationSystem navigationSystem = new CityNavigationSystem();
+    navigationSystem.addRoad("A", "B", 5);
+    navigationSystem.addRoad("B", "C", 10);
+    navigationSystem.addRoad("A", "C", 20);
+    navigationSystem.addRoad("C", "D", 1);
+    RouteCache cache = navigationSystem.getRouteCache();
+    assert navigationSystem.findShortestPath("A", "C").equals(Arrays.asList("A", "B", "C"));
+    assert navigationSystem.findShortestPath("A", "C").equals(Arrays.asList("A", "B", "C"));
+    assert cache.getHits() == 1 && cache.getMisses() == 1;
+    navigationSystem.findShortestPath("C", "D");
+    // Closing a road only drops the routes over it.
+    navigationSystem.updateRoadStatus("A", "B", false);
+    assert cache.size() == 1;
+    assert navigationSystem.findShortestPath("A", "C").equals(Arrays.asList("A", "C"));
+    // Reopening drops the routes it could shorten: A-C (20) but not C-D (1).
+    navigationSystem.updateRoadStatus("A", "B", true);
+    assert cache.size() == 1;
+    assert navigationSystem.findShortestPath("A", "C").equals(Arrays.asList("A", "B", "C"));
+    navigationSystem.addRoad("D", "E", 1);
+    assert cache.size() == 0;
+    // TEST_END
+
+    // TEST
+    RouteCache small = new RouteCache(2);
+    small.put(0, 1, new int[] {0, 1}, 1);
+    small.put(1, 2, new int[] {1, 2}, 1);
+    small.get(0, 1);
+    small.put(2, 3, new int[] {2, 3}, 1);
+    assert small.get(1, 2) == null && small.get(0, 1) != null && small.size() == 2;
+    small.roadClosed(1, 0);
+    assert small.size() == 1;
+    try {
+      new RouteCache(0);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Capacity must be positive");
+    }
+    // TEST_END
+
+    // TEST
+    // Cached answers match a fresh search under random closures and openings, with and without landmarks.
+    Random random = new Random(17);
+    for (int round = 0; round < 4; round++) {
+      int nodes = 80;
+      CityNavigationSystem system = new CityNavigationSystem();
+      RoadGraph.Builder builder = new RoadGraph.Builder();
+      for (int i = 0; i < 240; i++) {
+        int x = random.nextInt(nodes);
+        int y = random.nextInt(nodes);
+        if (x == y) {
+          continue;
+        }
+        int distance = 1 + random.nextInt(30);
+        system.addRoad("N" + x, "N" + y, distance);
+        builder.addRoad("N" + x, "N" + y, distance);
+      }
+      RoadGraph reference = builder.build();
+      DijkstraRouter fresh = new DijkstraRouter(reference);
+      if (round % 2 == 1) {
+        system.preprocess(4);
+      }
+      for (int query = 0; query < 3_000; query++) {
+        if (query % 4 == 0) {
+          int x = reference.idOf("N" + random.nextInt(nodes));
+          int y = reference.idOf("N" + random.nextInt(nodes));
+          if (x >= 0 && y >= 0) {
+            boolean open = random.nextInt(3) != 0;
+            system.updateRoadStatus(reference.nameOf(x), reference.nameOf(y), open);
+            reference.setOpen(x, y, open);
+            reference.setOpen(y, x, open);
+          }
+        }
+        // A few hot pairs, so that most queries can be cache hits.
+        int x = reference.idOf("N" + random.nextInt(10));
+        int y = reference.idOf("N" + random.nextInt(10));
+        if (x == y || x < 0 || y < 0) {
+          continue;
+        }
+        int[] expected = fresh.route(x, y);
+        try {
+          List<String> path = system.findShortestPath(reference.nameOf(x), reference.nameOf(y));
+          assert expected != null && length(reference, path) == fresh.getDistance();
+        } catch (IllegalArgumentException e) {
+          assert expected == null;
+        }
+      }
+      assert system.getRouteCache().getHits() > 0;
+    }
+    // TEST_END
+  }
+
+  // Total length of a path over open roads, or -1 if it uses a closed one.
+  private static int length(RoadGraph graph, List<String> path) {
+    int total = 0;
+    for (int i = 1; i < path.size(); i++) {
+      int from = graph.idOf(path.get(i - 1));
+      int to = graph.idOf(path.get(i));
+      int best = -1;
+      for (int arc = graph.offsets[from]; arc < graph.offsets[from + 1]; arc++) {
+        if (graph.targets[arc] == to && graph.isOpen(arc) && (best < 0 || graph.weights[arc] < best)) {
+          best = graph.weights[arc];
+        }
+      }
+      if (best < 0) {
+        return -1;
+      }
+      total += best;
+    }
+    return total;
+  }
+}
@@ -0,0 +1,64 @@
+package com.powem.inv.algos.navigation;
+
+import com.powem.inv.algos.CityNavigationSystem;
+import java.util.Random;
+
+// Random origin-destination queries on a side x side street grid (with random block lengths and
+// a tenth of the east-west blocks missing): the string-keyed Dijkstra against A* with ALT landmarks.
+// Run: java com.powem.inv.algos.navigation.RouteQueryBenchmark [side] [queries] [landmarks]
+public class RouteQueryBenchmark {
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int landmarks = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+    CityNavigationSystem system = grid(side, new Random(16));
+
+    Random random = new Random(1);
+    String[][] pairs = new String[queries][];
+    for (int i = 0; i < queries; i++) {
+      pairs[i] = new String[] {node(random.nextInt(side), random.nextInt(side)),
+          node(random.nextInt(side), random.nextInt(side))};
+    }
+
+    long start = System.nanoTime();
+    for (String[] pair : pairs) {
+      system.findShortestPath(pair[0], pair[1]);
+    }
+    double dijkstraMs = (System.nanoTime() - start) / 1e6 / queries;
+
+    start = System.nanoTime();
+    system.preprocess(landmarks);
+    double preprocessMs = (System.nanoTime() - start) / 1e6;
+
+    for (int round = 0; round < 2; round++) {
+      start = System.nanoTime();
+      for (String[] pair : pairs) {
+        system.findShortestPath(pair[0], pair[1]);
+      }
+      double altMs = (System.nanoTime() - start) / 1e6 / queries;
+      System.out.printf("%,d nodes: dijkstra %.2f ms/query, ALT preprocessing %.0f ms, ALT %.3f ms/query%n",
+          side * side, dijkstraMs, preprocessMs, altMs);
+    }
+  }
+
+  static String node(int x, int y) {
+    return x + ":" + y;
+  }
+
+  static CityNavigationSystem grid(int side, Random random) {
+    CityNavigationSystem system = new CityNavigationSystem();
+    for (int x = 0; x < side; x++) {
+      for (int y = 0; y < side; y++) {
+        // North-south streets are complete, and so is the first east-west one: the grid is connected.
+        if (x + 1 < side && (random.nextInt(10) != 0 || y == 0)) {
+          system.addRoad(node(x, y), node(x + 1, y), 50 + random.nextInt(100));
+        }
+        if (y + 1 < side) {
+          system.addRoad(node(x, y), node(x, y + 1), 50 + random.nextInt(100));
+        }
+      }
+    }
+    return system;
+  }
+}
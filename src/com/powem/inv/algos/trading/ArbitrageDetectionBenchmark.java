@@ -0,0 +1,66 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import java.util.Random;
+
+// Detection latency on a 50-market, 5k-symbol universe: a full analyzeOpportunities() rescan
+// versus a tick through processMarketData() with an arbitrage listener registered.
+// Run: java com.powem.inv.algos.trading.ArbitrageDetectionBenchmark [markets] [symbols] [ticks]
+public class ArbitrageDetectionBenchmark {
+
+  public static void main(String[] args) {
+    int markets = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+    int symbols = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+    int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+    String[] marketIds = new String[markets];
+    String[] symbolIds = new String[symbols];
+    for (int i = 0; i < markets; i++) {
+      marketIds[i] = "MKT" + i;
+    }
+    for (int i = 0; i < symbols; i++) {
+      symbolIds[i] = "SYM" + i;
+    }
+    Random random = new Random(5);
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator(markets, symbols);
+    for (int m = 0; m < markets; m++) {
+      for (int s = 0; s < symbols; s++) {
+        simulator.processMarketData(marketIds[m], symbolIds[s], 100 + random.nextInt(100) / 100.0);
+      }
+    }
+
+    LatencyHistogram rescans = new LatencyHistogram();
+    int found = 0;
+    for (int i = 0; i < 20; i++) {
+      long start = System.nanoTime();
+      found = simulator.analyzeOpportunities().size();
+      rescans.record(System.nanoTime() - start);
+    }
+    System.out.printf("full rescan   %d pairs   %s%n", found, rescans.summary());
+
+    long[] events = new long[1];
+    simulator.setArbitrageListener(new ArbitrageListener() {
+      @Override
+      public void onOpportunity(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice) {
+        events[0]++;
+      }
+
+      @Override
+      public void onOpportunityClosed(int symbol) {
+        events[0]++;
+      }
+    });
+    for (int round = 0; round < 2; round++) {
+      LatencyHistogram perTick = new LatencyHistogram();
+      events[0] = 0;
+      for (int i = 0; i < ticks; i++) {
+        String market = marketIds[random.nextInt(markets)];
+        String symbol = symbolIds[random.nextInt(symbols)];
+        double price = 100 + random.nextInt(100) / 100.0;
+        long start = System.nanoTime();
+        simulator.processMarketData(market, symbol, price);
+        perTick.record(System.nanoTime() - start);
+      }
+      System.out.printf("per tick      %d events  %s%n", events[0], perTick.summary());
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.powem.inv.algos.trading;
+
+import java.util.Arrays;
+
+// Per-symbol cheapest and dearest market, maintained tick by tick.
+//
+// For every symbol the markets quoting it sit in an indexed min-heap and an indexed max-heap
+// (flat int arrays, one M-wide region per symbol), so a tick costs O(log M) and the best
+// opportunity - buy where it is cheapest, sell where it is dearest - is always at the two roots.
+// The listener only hears about a symbol when that best opportunity opens, moves or closes.
+//
+// Not thread safe: callers serialize updates per symbol.
+public class ArbitrageIndex {
+  private final int maxMarkets;
+  private final double[] prices; // symbol * M + market, 0 = no quote
+  private final int[] minHeap; // symbol * M + i -> market
+  private final int[] maxHeap;
+  private final int[] minPosition; // symbol * M + market -> index in minHeap, -1 if absent
+  private final int[] maxPosition;
+  private final int[] quoted; // markets quoting each symbol
+  private final int[] lastBuy; // last emitted opportunity, -1 when none
+  private final int[] lastSell;
+  private final double[] lastBuyPrice;
+  private final double[] lastSellPrice;
+  private volatile ArbitrageListener listener;
+
+  public ArbitrageIndex(int maxMarkets, int maxSymbols) {
+    if (maxMarkets <= 0 || maxSymbols <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.maxMarkets = maxMarkets;
+    int cells = maxMarkets * maxSymbols;
+    prices = new double[cells];
+    minHeap = new int[cells];
+    maxHeap = new int[cells];
+    minPosition = new int[cells];
+    maxPosition = new int[cells];
+    Arrays.fill(minPosition, -1);
+    Arrays.fill(maxPosition, -1);
+    quoted = new int[maxSymbols];
+    lastBuy = new int[maxSymbols];
+    lastSell = new int[maxSymbols];
+    Arrays.fill(lastBuy, -1);
+    Arrays.fill(lastSell, -1);
+    lastBuyPrice = new double[maxSymbols];
+    lastSellPrice = new double[maxSymbols];
+  }
+
+  public void setListener(ArbitrageListener listener) {
+    this.listener = listener;
+  }
+
+  public boolean fits(int market, int symbol) {
+    return market < maxMarkets && symbol < quoted.length;
+  }
+
+  // A copy with room for at least the given markets and symbols, keeping every quote, heap and
+  // last emitted opportunity, so the listener hears nothing new.
+  public ArbitrageIndex resize(int markets, int symbols) {
+    ArbitrageIndex copy = new ArbitrageIndex(Math.max(markets, maxMarkets), Math.max(symbols, quoted.length));
+    int m = copy.maxMarkets;
+    for (int symbol = 0; symbol < quoted.length; symbol++) {
+      System.arraycopy(prices, symbol * maxMarkets, copy.prices, symbol * m, maxMarkets);
+      System.arraycopy(minHeap, symbol * maxMarkets, copy.minHeap, symbol * m, maxMarkets);
+      System.arraycopy(maxHeap, symbol * maxMarkets, copy.maxHeap, symbol * m, maxMarkets);
+      System.arraycopy(minPosition, symbol * maxMarkets, copy.minPosition, symbol * m, maxMarkets);
+      System.arraycopy(maxPosition, symbol * maxMarkets, copy.maxPosition, symbol * m, maxMarkets);
+    }
+    System.arraycopy(quoted, 0, copy.quoted, 0, quoted.length);
+    System.arraycopy(lastBuy, 0, copy.lastBuy, 0, quoted.length);
+    System.arraycopy(lastSell, 0, copy.lastSell, 0, quoted.length);
+    System.arraycopy(lastBuyPrice, 0, copy.lastBuyPrice, 0, quoted.length);
+    System.arraycopy(lastSellPrice, 0, copy.lastSellPrice, 0, quoted.length);
+    copy.listener = listener;
+    return copy;
+  }
+
+  // Applies one tick and returns true if the symbol's best opportunity changed.
+  public boolean update(int market, int symbol, double price) {
+    int base = symbol * maxMarkets;
+    int cell = base + market;
+    prices[cell] = price;
+    if (minPosition[cell] < 0) {
+      int size = quoted[symbol]++;
+      minHeap[base + size] = market;
+      minPosition[cell] = size;
+      maxHeap[base + size] = market;
+      maxPosition[cell] = size;
+    }
+    int size = quoted[symbol];
+    siftUp(minHeap, minPosition, base, minPosition[cell], false);
+    siftDown(minHeap, minPosition, base, minPosition[cell], size, false);
+    siftUp(maxHeap, maxPosition, base, maxPosition[cell], true);
+    siftDown(maxHeap, maxPosition, base, maxPosition[cell], size, true);
+    return publish(symbol);
+  }
+
+  // Market of the cheapest quote for the symbol, or -1 when nobody quotes it.
+  public int bestBuyMarket(int symbol) {
+    return quoted[symbol] == 0 ? -1 : minHeap[symbol * maxMarkets];
+  }
+
+  public int bestSellMarket(int symbol) {
+    return quoted[symbol] == 0 ? -1 : maxHeap[symbol * maxMarkets];
+  }
+
+  public double price(int market, int symbol) {
+    return prices[symbol * maxMarkets + market];
+  }
+
+  public boolean hasOpportunity(int symbol) {
+    return lastBuy[symbol] >= 0;
+  }
+
+  private boolean publish(int symbol) {
+    int buy = bestBuyMarket(symbol);
+    int sell = bestSellMarket(symbol);
+    double buyPrice = price(buy, symbol);
+    double sellPrice = price(sell, symbol);
+    if (buyPrice >= sellPrice) {
+      if (lastBuy[symbol] < 0) {
+        return false;
+      }
+      lastBuy[symbol] = -1;
+      lastSell[symbol] = -1;
+      if (listener != null) {
+        listener.onOpportunityClosed(symbol);
+      }
+      return true;
+    }
+    if (buy == lastBuy[symbol] && sell == lastSell[symbol] && buyPrice == lastBuyPrice[symbol]
+        && sellPrice == lastSellPrice[symbol]) {
+      return false;
+    }
+    lastBuy[symbol] = buy;
+    lastSell[symbol] = sell;
+    lastBuyPrice[symbol] = buyPrice;
+    lastSellPrice[symbol] = sellPrice;
+    if (listener != null) {
+      listener.onOpportunity(symbol, buy, sell, buyPrice, sellPrice);
+    }
+    return true;
+  }
+
+  private boolean above(int base, int market, int other, boolean max) {
+    double a = prices[base + market];
+    double b = prices[base + other];
+    return max ? a > b : a < b;
+  }
+
+  private void siftUp(int[] heap, int[] position, int base, int index, boolean max) {
+    int market = heap[base + index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      int parentMarket = heap[base + parent];
+      if (!above(base, market, parentMarket, max)) {
+        break;
+      }
+      heap[base + index] = parentMarket;
+      position[base + parentMarket] = index;
+      index = parent;
+    }
+    heap[base + index] = market;
+    position[base + market] = index;
+  }
+
+  private void siftDown(int[] heap, int[] position, int base, int index, int size, boolean max) {
+    int market = heap[base + index];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && above(base, heap[base + child + 1], heap[base + child], max)) {
+        child++;
+      }
+      int childMarket = heap[base + child];
+      if (!above(base, childMarket, market, max)) {
+        break;
+      }
+      heap[base + index] = childMarket;
+      position[base + childMarket] = index;
+      index = child;
+    }
+    heap[base + index] = market;
+    position[base + market] = index;
+  }
+}
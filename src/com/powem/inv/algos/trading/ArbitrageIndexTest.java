@@ -0,0 +1,66 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ArbitrageIndexTest {
+
+  public static void tests() {
+    // TEST
+    int markets = 7;
+    int symbols = 5;
+    ArbitrageIndex index = new ArbitrageIndex(markets, symbols);
+    double[][] prices = new double[symbols][markets];
+    Random random = new Random(3);
+    for (int tick = 0; tick < 20_000; tick++) {
+      int market = random.nextInt(markets);
+      int symbol = random.nextInt(symbols);
+      double price = 1 + random.nextInt(20);
+      prices[symbol][market] = price;
+      index.update(market, symbol, price);
+
+      double min = Double.MAX_VALUE;
+      double max = 0;
+      for (double quote : prices[symbol]) {
+        if (quote > 0) {
+          min = Math.min(min, quote);
+          max = Math.max(max, quote);
+        }
+      }
+      assert index.price(index.bestBuyMarket(symbol), symbol) == min;
+      assert index.price(index.bestSellMarket(symbol), symbol) == max;
+      assert index.hasOpportunity(symbol) == (min < max);
+    }
+    // TEST_END
+
+    // TEST
+    List<String> events = new ArrayList<>();
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator();
+    simulator.processMarketData("NYSE", "AAPL", 149.00);
+    simulator.processMarketData("NASDAQ", "AAPL", 150.00);
+    MarketDataStore store = simulator.getMarketDataStore();
+    simulator.setArbitrageListener(new ArbitrageListener() {
+      @Override
+      public void onOpportunity(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice) {
+        events.add(store.getSymbols().nameOf(symbol) + " " + store.getMarkets().nameOf(buyMarket) + "->"
+            + store.getMarkets().nameOf(sellMarket) + " " + buyPrice + "/" + sellPrice);
+      }
+
+      @Override
+      public void onOpportunityClosed(int symbol) {
+        events.add(store.getSymbols().nameOf(symbol) + " closed");
+      }
+    });
+    assert events.equals(List.of("AAPL NYSE->NASDAQ 149.0/150.0"));
+    simulator.processMarketData("BATS", "AAPL", 149.50); // between the extremes: nothing to report
+    assert events.size() == 1;
+    simulator.processMarketData("BATS", "AAPL", 151.00);
+    simulator.processMarketData("NYSE", "AAPL", 151.00);
+    simulator.processMarketData("NASDAQ", "AAPL", 151.00);
+    assert events.equals(List.of("AAPL NYSE->NASDAQ 149.0/150.0", "AAPL NYSE->BATS 149.0/151.0",
+        "AAPL NASDAQ->BATS 150.0/151.0", "AAPL closed"));
+    // TEST_END
+  }
+}
@@ -0,0 +1,12 @@
+package com.powem.inv.algos.trading;
+
+// Receives changes to a symbol's best cross-market opportunity. Ids resolve through the
+// simulator's MarketDataStore intern tables. Called on the thread that delivered the tick.
+public interface ArbitrageListener {
+
+  // Buying at buyMarket and selling at sellMarket is now the best spread for the symbol.
+  void onOpportunity(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice);
+
+  // No market quotes the symbol below another any more.
+  void onOpportunityClosed(int symbol);
+}
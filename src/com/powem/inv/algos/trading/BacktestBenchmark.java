@@ -0,0 +1,56 @@
+package com.powem.inv.algos.trading;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Writes a synthetic columnar tick file, then times a single-threaded replay against backtests
+// sharded by symbol and by date range on a ForkJoinPool.
+// Run: java com.powem.inv.algos.trading.BacktestBenchmark [ticks] [markets] [symbols] [threads]
+public class BacktestBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int tickCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    int markets = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    int symbols = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+    int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+    Path file = Files.createTempFile("ticks", ".col");
+    Random random = new Random(9);
+    TickFileWriter writer = new TickFileWriter();
+    for (int i = 0; i < tickCount; i++) {
+      writer.add(i * 1_000L, "MKT" + random.nextInt(markets), "SYM" + random.nextInt(symbols),
+          100 + random.nextInt(200) / 100.0);
+    }
+    long start = System.nanoTime();
+    writer.write(file);
+    System.out.printf("wrote %,d ticks (%,d bytes) in %d ms%n", tickCount, Files.size(file),
+        (System.nanoTime() - start) / 1_000_000);
+
+    TickFile ticks = TickFile.open(file);
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    BacktestEngine engine = new BacktestEngine(ticks, pool, 0.5, 0.05);
+    for (int round = 0; round < 2; round++) {
+      report("single", ticks, () -> engine.run());
+      report("by symbol x" + threads * 4, ticks, () -> engine.runBySymbol(threads * 4));
+      report("by date x" + threads * 4, ticks, () -> engine.runByDateRange(threads * 4));
+    }
+    pool.shutdown();
+    Files.delete(file);
+  }
+
+  interface Run {
+    BacktestResult run();
+  }
+
+  private static void report(String name, TickFile ticks, Run run) {
+    long start = System.nanoTime();
+    BacktestResult result = run.run();
+    long nanos = System.nanoTime() - start;
+    System.out.printf("%-14s %6d ms  %,12.0f ticks/s  trades=%,d  pnl=%,.2f  maxDrawdown=%,.2f%n", name,
+        nanos / 1_000_000, ticks.size() / (nanos / 1e9), result.getTradeCount(), result.getTotalProfit(),
+        result.getMaxDrawdown());
+  }
+}
@@ -0,0 +1,131 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import com.powem.inv.algos.trading.BacktestResult.ExecutedTrade;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Replays a TickFile through HighFrequencyTradingSimulator's event-driven arbitrage detection and
+// trades every opportunity whose spread reaches minSpread, paying feePerTrade each time.
+//
+// A backtest can be split into shards that run on a ForkJoinPool, each with its own simulator:
+//  - by symbol: shard i replays the symbols with id % shards == i over the whole file. Symbols
+//    never interact, so the merged result is identical to a single run.
+//  - by date: the file's time span is cut into equal ranges. Every range starts with an empty
+//    book, which is the usual trade-off for day-sliced backtests.
+// Shard results are merged pairwise as the fork/join tree unwinds.
+public class BacktestEngine {
+  private final TickFile ticks;
+  private final ForkJoinPool pool;
+  private final double minSpread;
+  private final double feePerTrade;
+
+  public BacktestEngine(TickFile ticks, ForkJoinPool pool, double minSpread, double feePerTrade) {
+    this.ticks = ticks;
+    this.pool = pool;
+    this.minSpread = minSpread;
+    this.feePerTrade = feePerTrade;
+  }
+
+  public BacktestResult run() {
+    return runShard(0, ticks.size(), 0, 1);
+  }
+
+  public BacktestResult runBySymbol(int shards) {
+    if (shards <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    return pool.invoke(new ShardTask(0, shards, shard -> runShard(0, ticks.size(), shard, shards)));
+  }
+
+  public BacktestResult runByDateRange(int shards) {
+    if (shards <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    if (ticks.size() == 0) {
+      return run();
+    }
+    long first = ticks.timestamp(0);
+    long span = ticks.timestamp(ticks.size() - 1) - first + 1;
+    return pool.invoke(new ShardTask(0, shards, shard -> {
+      int from = ticks.firstAtOrAfter(first + span * shard / shards);
+      int to = ticks.firstAtOrAfter(first + span * (shard + 1) / shards);
+      return runShard(from, to, 0, 1);
+    }));
+  }
+
+  interface Shard {
+    BacktestResult run(int shard);
+  }
+
+  @SuppressWarnings("serial")
+  private static class ShardTask extends RecursiveTask<BacktestResult> {
+    private final int from;
+    private final int to;
+    private final Shard shard;
+
+    ShardTask(int from, int to, Shard shard) {
+      this.from = from;
+      this.to = to;
+      this.shard = shard;
+    }
+
+    @Override
+    protected BacktestResult compute() {
+      if (to - from == 1) {
+        return shard.run(from);
+      }
+      int mid = (from + to) >>> 1;
+      ShardTask right = new ShardTask(mid, to, shard);
+      right.fork();
+      BacktestResult left = new ShardTask(from, mid, shard).compute();
+      return BacktestResult.merge(left, right.join());
+    }
+  }
+
+  // Replays ticks [from, to) whose symbol % symbolShards == symbolShard.
+  private BacktestResult runShard(int from, int to, int symbolShard, int symbolShards) {
+    HighFrequencyTradingSimulator simulator =
+        new HighFrequencyTradingSimulator(Math.max(1, ticks.getMarketCount()), Math.max(1, ticks.getSymbolCount()));
+    // Interned in file order, so the simulator's ids are the file's ids.
+    MarketDataStore store = simulator.getMarketDataStore();
+    for (int market = 0; market < ticks.getMarketCount(); market++) {
+      store.getMarkets().intern(ticks.marketName(market));
+    }
+    for (int symbol = 0; symbol < ticks.getSymbolCount(); symbol++) {
+      store.getSymbols().intern(ticks.symbolName(symbol));
+    }
+    Trader trader = new Trader();
+    simulator.setArbitrageListener(trader);
+    long replayed = 0;
+    for (int tick = from; tick < to; tick++) {
+      int symbol = ticks.symbol(tick);
+      if (symbol % symbolShards == symbolShard) {
+        trader.now = ticks.timestamp(tick);
+        simulator.processMarketData(ticks.market(tick), symbol, ticks.price(tick));
+        replayed++;
+      }
+    }
+    trader.trades.sort(BacktestResult.ORDER);
+    return new BacktestResult(trader.trades, replayed);
+  }
+
+  private class Trader implements ArbitrageListener {
+    final List<ExecutedTrade> trades = new ArrayList<>();
+    long now;
+
+    @Override
+    public void onOpportunity(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice) {
+      if (sellPrice - buyPrice >= minSpread) {
+        trades.add(new ExecutedTrade(now, symbol, buyMarket, sellMarket, buyPrice, sellPrice,
+            sellPrice - buyPrice - feePerTrade));
+      }
+    }
+
+    @Override
+    public void onOpportunityClosed(int symbol) {
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.powem.inv.algos.trading;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BacktestEngineTest {
+
+  public static void tests() {
+    Path file;
+    TickFile ticks;
+    TickFileWriter writer = new TickFileWriter();
+    Random random = new Random(14);
+    for (int i = 0; i < 20_000; i++) {
+      writer.add(1_000 + i / 3, "MKT" + random.nextInt(4), "SYM" + random.nextInt(30), 100 + random.nextInt(50) / 10.0);
+    }
+    writer.add(500, "MKT0", "SYM0", 99.0); // out of order: the writer sorts by time
+    try {
+      file = Files.createTempFile("ticks", ".col");
+      writer.write(file);
+      ticks = TickFile.open(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // TEST
+    assert ticks.size() == 20_001;
+    assert ticks.timestamp(0) == 500 && ticks.price(0) == 99.0;
+    assert ticks.marketName(ticks.market(0)).equals("MKT0") && ticks.symbolName(ticks.symbol(0)).equals("SYM0");
+    for (int i = 1; i < ticks.size(); i++) {
+      assert ticks.timestamp(i - 1) <= ticks.timestamp(i);
+    }
+    assert ticks.getMarketCount() == 4 && ticks.getSymbolCount() == 30;
+    assert ticks.firstAtOrAfter(1_001) == 4 && ticks.firstAtOrAfter(Long.MAX_VALUE) == ticks.size();
+    // TEST_END
+
+    // TEST
+    // Columns written and mapped in 64-tick chunks read back the same as in one chunk.
+    try {
+      Path chunked = Files.createTempFile("ticks", ".col");
+      writer.write(chunked, 6);
+      TickFile small = TickFile.open(chunked, 6);
+      assert small.size() == ticks.size();
+      for (int i = 0; i < ticks.size(); i++) {
+        assert small.timestamp(i) == ticks.timestamp(i) && small.market(i) == ticks.market(i)
+            && small.symbol(i) == ticks.symbol(i) && small.price(i) == ticks.price(i);
+      }
+      assert small.firstAtOrAfter(1_001) == 4;
+      // A tick count past what int indexes can address is refused up front.
+      try (FileChannel channel = FileChannel.open(chunked, StandardOpenOption.WRITE)) {
+        channel.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, 1L << 31), 8);
+      }
+      try {
+        TickFile.open(chunked);
+        assert false;
+      } catch (IllegalStateException e) {
+        assert e.getMessage().startsWith("Tick file holds 2147483648 ticks, at most 2147483647 are supported");
+      }
+      Files.delete(chunked);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // TEST_END
+
+    // TEST
+    ForkJoinPool pool = new ForkJoinPool(4);
+    BacktestEngine engine = new BacktestEngine(ticks, pool, 0.5, 0.1);
+    BacktestResult single = engine.run();
+    BacktestResult bySymbol = engine.runBySymbol(7);
+    assert single.getTradeCount() > 0 && single.getTicks() == ticks.size();
+    assert bySymbol.getTicks() == ticks.size();
+    assert bySymbol.getTradeCount() == single.getTradeCount();
+    for (int i = 0; i < single.getTradeCount(); i++) {
+      BacktestResult.ExecutedTrade a = single.getTrades().get(i);
+      BacktestResult.ExecutedTrade b = bySymbol.getTrades().get(i);
+      assert a.getTimestamp() == b.getTimestamp() && a.getSymbol() == b.getSymbol()
+          && a.getBuyMarket() == b.getBuyMarket() && a.getProfit() == b.getProfit();
+      assert a.getSellPrice() - a.getBuyPrice() >= 0.5;
+    }
+    assert Math.abs(single.getTotalProfit() - bySymbol.getTotalProfit()) < 1e-6;
+    double bySymbolTotal = 0;
+    for (double profit : single.getProfitBySymbol(ticks.getSymbolCount())) {
+      bySymbolTotal += profit;
+    }
+    assert Math.abs(bySymbolTotal - single.getTotalProfit()) < 1e-6;
+    // TEST_END
+
+    // TEST
+    // Date shards start with an empty book, so only a single range is guaranteed to match.
+    BacktestResult byDate = engine.runByDateRange(5);
+    assert byDate.getTicks() == ticks.size();
+    assert byDate.getTradeCount() > 0;
+    for (int i = 1; i < byDate.getTradeCount(); i++) {
+      assert byDate.getTrades().get(i - 1).getTimestamp() <= byDate.getTrades().get(i).getTimestamp();
+    }
+    assert engine.runByDateRange(1).getTradeCount() == single.getTradeCount();
+    pool.shutdown();
+    // TEST_END
+
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
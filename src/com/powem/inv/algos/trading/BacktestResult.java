@@ -0,0 +1,129 @@
+package com.powem.inv.algos.trading;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Trades of a backtest in (timestamp, symbol) order, with P&L statistics over them.
+public class BacktestResult {
+  static final Comparator<ExecutedTrade> ORDER =
+      Comparator.comparingLong(ExecutedTrade::getTimestamp).thenComparingInt(ExecutedTrade::getSymbol);
+
+  public static class ExecutedTrade {
+    final long timestamp;
+    final int symbol;
+    final int buyMarket;
+    final int sellMarket;
+    final double buyPrice;
+    final double sellPrice;
+    final double profit;
+
+    ExecutedTrade(long timestamp, int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice,
+        double profit) {
+      this.timestamp = timestamp;
+      this.symbol = symbol;
+      this.buyMarket = buyMarket;
+      this.sellMarket = sellMarket;
+      this.buyPrice = buyPrice;
+      this.sellPrice = sellPrice;
+      this.profit = profit;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public int getSymbol() {
+      return symbol;
+    }
+
+    public int getBuyMarket() {
+      return buyMarket;
+    }
+
+    public int getSellMarket() {
+      return sellMarket;
+    }
+
+    public double getBuyPrice() {
+      return buyPrice;
+    }
+
+    public double getSellPrice() {
+      return sellPrice;
+    }
+
+    public double getProfit() {
+      return profit;
+    }
+  }
+
+  private final List<ExecutedTrade> trades;
+  private final long ticks;
+
+  // trades must already be in ORDER.
+  BacktestResult(List<ExecutedTrade> trades, long ticks) {
+    this.trades = trades;
+    this.ticks = ticks;
+  }
+
+  // Stable merge: for equal keys the left result's trades come first.
+  static BacktestResult merge(BacktestResult left, BacktestResult right) {
+    List<ExecutedTrade> merged = new ArrayList<>(left.trades.size() + right.trades.size());
+    int i = 0;
+    int j = 0;
+    while (i < left.trades.size() && j < right.trades.size()) {
+      if (ORDER.compare(right.trades.get(j), left.trades.get(i)) < 0) {
+        merged.add(right.trades.get(j++));
+      } else {
+        merged.add(left.trades.get(i++));
+      }
+    }
+    merged.addAll(left.trades.subList(i, left.trades.size()));
+    merged.addAll(right.trades.subList(j, right.trades.size()));
+    return new BacktestResult(merged, left.ticks + right.ticks);
+  }
+
+  public List<ExecutedTrade> getTrades() {
+    return Collections.unmodifiableList(trades);
+  }
+
+  public int getTradeCount() {
+    return trades.size();
+  }
+
+  // Ticks replayed across all shards.
+  public long getTicks() {
+    return ticks;
+  }
+
+  public double getTotalProfit() {
+    double total = 0;
+    for (ExecutedTrade trade : trades) {
+      total += trade.profit;
+    }
+    return total;
+  }
+
+  // Largest fall of cumulative P&L from a previous peak, in trade order.
+  public double getMaxDrawdown() {
+    double equity = 0;
+    double peak = 0;
+    double drawdown = 0;
+    for (ExecutedTrade trade : trades) {
+      equity += trade.profit;
+      peak = Math.max(peak, equity);
+      drawdown = Math.max(drawdown, peak - equity);
+    }
+    return drawdown;
+  }
+
+  public double[] getProfitBySymbol(int symbolCount) {
+    double[] profit = new double[symbolCount];
+    for (ExecutedTrade trade : trades) {
+      profit[trade.symbol] += trade.profit;
+    }
+    return profit;
+  }
+}
@@ -0,0 +1,62 @@
+package com.powem.inv.algos.trading;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Assigns dense int ids (0, 1, 2, ...) to names, e.g. market ids or symbols. Lookups of known
+// names are a single ConcurrentHashMap read; new names take a lock, and the name array doubles
+// under that lock when it is full (copy on grow), so readers never see a partly copied array.
+public class InternTable {
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] names;
+  private volatile int size;
+
+  public InternTable(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.names = new String[capacity];
+  }
+
+  public int intern(String name) {
+    Integer id = ids.get(name);
+    return id != null ? id : register(name);
+  }
+
+  private synchronized int register(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    int next = size;
+    if (next == names.length) {
+      names = Arrays.copyOf(names, next * 2);
+    }
+    names[next] = name;
+    size = next + 1; // publishes names[next] before the id can be looked up
+    ids.put(name, next);
+    return next;
+  }
+
+  // Returns -1 for unknown names.
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  public String nameOf(int id) {
+    if (id < 0 || id >= size) {
+      throw new IllegalArgumentException("Unknown id: " + id);
+    }
+    return names[id]; // read after size, so the array holds the id
+  }
+
+  public int size() {
+    return size;
+  }
+
+  // Ids that fit before the next grow.
+  public int capacity() {
+    return names.length;
+  }
+}
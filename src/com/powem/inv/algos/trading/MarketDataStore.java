@@ -0,0 +1,184 @@
+package com.powem.inv.algos.trading;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// Latest price per (market, symbol) in primitive rows: one row of price bits per market, indexed
+// by interned symbol id. 0 means no price yet (valid prices are positive).
+//
+// Every market row is guarded by a sequence number (a seqlock). A writer makes the sequence odd
+// with a CAS, writes, and makes it even again; readers copy the row and retry if the sequence
+// moved, so readers never block and always see a row as it was between two ticks. Different
+// markets are written fully in parallel, which matches one feed handler per market.
+//
+// snapshot() is consistent across rows too: it reads every row's sequence, copies the rows, and
+// starts over if any sequence moved, so the copy is the whole store as it was at one moment.
+// Under a steady stream of writes to many markets that means more retries than a single row.
+//
+// The sizes given are starting capacities, not limits. A new market adds a row (copy on write of
+// the row table, under a lock) and a row whose writer meets a new symbol doubles while it holds
+// the row's sequence, so readers retry over the swap.
+public class MarketDataStore {
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int PAD = 8; // longs per cache line
+
+  private final InternTable markets;
+  private final InternTable symbols;
+  private volatile Row[] rows; // market -> row, null until the market is first written
+
+  public MarketDataStore(int initialMarkets, int initialSymbols) {
+    this.markets = new InternTable(initialMarkets);
+    this.symbols = new InternTable(initialSymbols);
+    this.rows = new Row[initialMarkets];
+  }
+
+  private static class Row {
+    final long[] sequence = new long[PAD * 2]; // sequence at [PAD], alone on its cache line
+    volatile long[] prices; // symbol -> Double bits
+
+    Row(int symbols) {
+      prices = new long[symbols];
+    }
+  }
+
+  public InternTable getMarkets() {
+    return markets;
+  }
+
+  public InternTable getSymbols() {
+    return symbols;
+  }
+
+  public void update(String marketId, String symbol, double price) {
+    update(markets.intern(marketId), symbols.intern(symbol), price);
+  }
+
+  public void update(int market, int symbol, double price) {
+    Row[] table = rows;
+    Row row = market < table.length ? table[market] : null;
+    if (row == null) {
+      row = addRow(market);
+    }
+    long[] sequences = row.sequence;
+    long sequence;
+    do {
+      sequence = (long) LONGS.getVolatile(sequences, PAD);
+    } while ((sequence & 1) != 0 || !LONGS.compareAndSet(sequences, PAD, sequence, sequence + 1));
+    VarHandle.storeStoreFence();
+    long[] prices = row.prices;
+    if (symbol >= prices.length) {
+      prices = Arrays.copyOf(prices, Math.max(prices.length * 2, symbol + 1));
+      row.prices = prices;
+    }
+    LONGS.setOpaque(prices, symbol, Double.doubleToRawLongBits(price));
+    LONGS.setRelease(sequences, PAD, sequence + 2);
+  }
+
+  private synchronized Row addRow(int market) {
+    Row[] table = rows;
+    if (market >= table.length) {
+      table = Arrays.copyOf(table, Math.max(table.length * 2, market + 1));
+    } else if (table[market] != null) {
+      return table[market];
+    } else {
+      table = table.clone();
+    }
+    Row row = new Row(symbols.capacity());
+    table[market] = row;
+    rows = table;
+    return row;
+  }
+
+  // Current price, or 0 when the market has not quoted the symbol.
+  public double price(int market, int symbol) {
+    Row[] table = rows;
+    Row row = market < table.length ? table[market] : null;
+    if (row == null) {
+      return 0;
+    }
+    long[] prices = row.prices;
+    return symbol < prices.length ? Double.longBitsToDouble((long) LONGS.getOpaque(prices, symbol)) : 0;
+  }
+
+  public double price(String marketId, String symbol) {
+    int market = markets.idOf(marketId);
+    int id = symbols.idOf(symbol);
+    return market < 0 || id < 0 ? 0 : price(market, id);
+  }
+
+  // Copies every market into target[market][symbol] and returns the number of symbols known
+  // when the copy started. target must be at least [markets][symbols] big.
+  public int snapshot(double[][] target) {
+    int symbolCount = symbols.size();
+    copyRows(target, markets.size(), symbolCount);
+    return symbolCount;
+  }
+
+  public double[][] snapshot() {
+    int marketCount = markets.size();
+    int symbolCount = symbols.size();
+    double[][] target = new double[marketCount][symbolCount];
+    copyRows(target, marketCount, symbolCount);
+    return target;
+  }
+
+  // Every sequence is read before any row is copied and checked again after all of them are, so
+  // when nothing moved (and no row appeared) all the rows held the copied prices at one moment.
+  private void copyRows(double[][] target, int marketCount, int symbolCount) {
+    Row[] seen = new Row[marketCount];
+    long[] before = new long[marketCount];
+    while (true) {
+      if (readSequences(seen, before)) {
+        for (int m = 0; m < marketCount; m++) {
+          copyRow(seen[m], target[m], symbolCount);
+        }
+        VarHandle.loadLoadFence();
+        if (sequencesUnchanged(seen, before)) {
+          return;
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  // False if a row is being written.
+  private boolean readSequences(Row[] seen, long[] before) {
+    Row[] table = rows;
+    for (int m = 0; m < seen.length; m++) {
+      Row row = m < table.length ? table[m] : null;
+      seen[m] = row;
+      if (row != null) {
+        before[m] = (long) LONGS.getAcquire(row.sequence, PAD);
+        if ((before[m] & 1) != 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean sequencesUnchanged(Row[] seen, long[] before) {
+    Row[] table = rows;
+    for (int m = 0; m < seen.length; m++) {
+      Row row = m < table.length ? table[m] : null;
+      if (row != seen[m] || row != null && (long) LONGS.getOpaque(row.sequence, PAD) != before[m]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void copyRow(Row row, double[] target, int symbolCount) {
+    if (row == null) {
+      Arrays.fill(target, 0, symbolCount, 0);
+      return;
+    }
+    long[] prices = row.prices;
+    int copied = Math.min(symbolCount, prices.length);
+    for (int i = 0; i < copied; i++) {
+      target[i] = Double.longBitsToDouble((long) LONGS.getOpaque(prices, i));
+    }
+    Arrays.fill(target, copied, symbolCount, 0);
+  }
+}
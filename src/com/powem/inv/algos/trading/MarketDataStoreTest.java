@@ -0,0 +1,142 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import com.powem.inv.algos.HighFrequencyTradingSimulator.TradeAction;
+import java.util.List;
+
+public class MarketDataStoreTest {
+
+  public static void tests() {
+    // TEST
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator();
+    simulator.processMarketData("NYSE", "AAPL", 149.00);
+    simulator.processMarketData("NASDAQ", "AAPL", 150.00);
+    simulator.processMarketData("NYSE", "GOOGL", 1000.00);
+    simulator.processMarketData("NASDAQ", "GOOGL", 995.00);
+    simulator.processMarketData("NASDAQ", "MSFT", 300.00);
+    assert simulator.getMarketData().get("NYSE").get("AAPL") == 149.00;
+    assert !simulator.getMarketData().get("NYSE").containsKey("MSFT");
+    List<TradeAction> opportunities = simulator.analyzeOpportunities();
+    assert opportunities.size() == 2;
+    assert opportunities.stream().anyMatch(o -> o.getSymbol().equals("AAPL") && o.getBuyMarket().equals("NYSE")
+        && o.getSellMarket().equals("NASDAQ"));
+    assert opportunities.stream().anyMatch(o -> o.getSymbol().equals("GOOGL") && o.getBuyMarket().equals("NASDAQ")
+        && o.getSellMarket().equals("NYSE"));
+    // TEST_END
+
+    // TEST
+    InternTable table = new InternTable(2);
+    assert table.intern("A") == 0 && table.intern("B") == 1 && table.intern("A") == 0;
+    assert table.idOf("C") == -1 && table.nameOf(1).equals("B");
+    assert table.intern("C") == 2 && table.capacity() == 4 && table.nameOf(0).equals("A");
+    // TEST_END
+
+    // TEST
+    // Capacities are only starting sizes: 5,000 symbols on 40 markets overflow both, with an
+    // arbitrage listener registered before the growth.
+    HighFrequencyTradingSimulator growing = new HighFrequencyTradingSimulator(2, 16);
+    int[] events = new int[1];
+    growing.setArbitrageListener(new ArbitrageListener() {
+      @Override
+      public void onOpportunity(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice) {
+        events[0]++;
+      }
+
+      @Override
+      public void onOpportunityClosed(int symbol) {
+      }
+    });
+    for (int m = 0; m < 40; m++) {
+      for (int s = 0; s < 5_000; s += 7) {
+        growing.processMarketData("M" + m, "S" + s, 100 + m);
+      }
+    }
+    growing.processMarketData("M0", "S4998", 200);
+    MarketDataStore grown = growing.getMarketDataStore();
+    assert grown.getMarkets().size() == 40 && grown.getSymbols().size() == 715;
+    assert grown.price("M39", "S4998") == 139 && grown.price("M0", "S4998") == 200;
+    assert grown.snapshot()[39][714] == 139;
+    assert growing.analyzeOpportunities().size() == 715 * (40 * 39 / 2);
+    // One opportunity per new best seller, per symbol, plus M0's jump.
+    assert events[0] == 715 * 39 + 1;
+    // TEST_END
+
+    // TEST
+    // The writer walks the row left to right with tick k, so every consistent row is a prefix of
+    // k followed by k - 1. A torn copy would show a later tick to the right of an earlier one.
+    MarketDataStore store = new MarketDataStore(2, 8);
+    int market = store.getMarkets().intern("FEED");
+    for (int symbol = 0; symbol < 8; symbol++) {
+      store.update(market, store.getSymbols().intern("S" + symbol), 1);
+    }
+    Thread writer = new Thread(() -> {
+      for (int tick = 2; tick < 200_000; tick++) {
+        for (int symbol = 0; symbol < 8; symbol++) {
+          store.update(market, symbol, tick);
+        }
+      }
+    });
+    writer.start();
+    double[][] row = new double[1][8];
+    while (writer.isAlive()) {
+      store.snapshot(row);
+      assert row[0][0] >= row[0][7] && row[0][0] - row[0][7] <= 1;
+      for (int symbol = 1; symbol < 8; symbol++) {
+        assert row[0][symbol] <= row[0][symbol - 1];
+      }
+    }
+    join(writer);
+    assert store.price("FEED", "S7") == 199_999;
+    // TEST_END
+
+    // TEST
+    // Tick k goes to FAST and then to SLOW, so a snapshot taken at one moment has FAST equal to
+    // SLOW or one ahead. Copying the rows one after another could see SLOW ahead of FAST.
+    MarketDataStore pair = new MarketDataStore(2, 1);
+    int fast = pair.getMarkets().intern("FAST");
+    int slow = pair.getMarkets().intern("SLOW");
+    int quote = pair.getSymbols().intern("Q");
+    pair.update(fast, quote, 1);
+    pair.update(slow, quote, 1);
+    Thread ticker = new Thread(() -> {
+      for (int tick = 2; tick < 200_000; tick++) {
+        pair.update(fast, quote, tick);
+        pair.update(slow, quote, tick);
+      }
+    });
+    ticker.start();
+    double[][] both = new double[2][1];
+    while (ticker.isAlive()) {
+      pair.snapshot(both);
+      assert both[fast][0] - both[slow][0] == 0 || both[fast][0] - both[slow][0] == 1;
+    }
+    join(ticker);
+    assert pair.snapshot()[slow][0] == 199_999;
+    // TEST_END
+
+    // TEST
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10_000; i++) {
+      histogram.record(i);
+    }
+    assert histogram.getCount() == 10_000 && histogram.getMax() == 10_000;
+    assert Math.abs(histogram.percentile(0.5) - 5_000) <= 5_000 / 64;
+    assert Math.abs(histogram.percentile(0.99) - 9_900) <= 9_900 / 64;
+    assert histogram.percentile(1.0) == 10_000;
+    for (long value : new long[] {0, 127, 128, 1L << 40, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.indexOf(value);
+      assert LatencyHistogram.highestValueIn(index) >= value;
+      assert index == 0 || LatencyHistogram.highestValueIn(index - 1) < value;
+    }
+    // TEST_END
+  }
+
+  private static void join(Thread thread) {
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
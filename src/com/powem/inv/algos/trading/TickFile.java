@@ -0,0 +1,156 @@
+package com.powem.inv.algos.trading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only view of a file written by TickFileWriter. Each column is memory mapped on its own, so
+// replay streams straight from the page cache and any number of threads can read concurrently.
+// A single mapping is limited to 2 GiB, so columns are mapped in chunks of 2^chunkShift ticks.
+public class TickFile {
+  private final int size;
+  private final int chunkShift;
+  private final int chunkMask;
+  private final LongBuffer[] timestamps;
+  private final IntBuffer[] markets;
+  private final IntBuffer[] symbols;
+  private final DoubleBuffer[] prices;
+  private final String[] marketNames;
+  private final String[] symbolNames;
+
+  private TickFile(int size, int chunkShift, LongBuffer[] timestamps, IntBuffer[] markets, IntBuffer[] symbols,
+      DoubleBuffer[] prices, String[] marketNames, String[] symbolNames) {
+    this.size = size;
+    this.chunkShift = chunkShift;
+    this.chunkMask = (1 << chunkShift) - 1;
+    this.timestamps = timestamps;
+    this.markets = markets;
+    this.symbols = symbols;
+    this.prices = prices;
+    this.marketNames = marketNames;
+    this.symbolNames = symbolNames;
+  }
+
+  public static TickFile open(Path file) throws IOException {
+    return open(file, TickFileWriter.CHUNK_SHIFT);
+  }
+
+  static TickFile open(Path file, int chunkShift) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(TickFileWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+      header.flip();
+      if (header.remaining() < TickFileWriter.HEADER_BYTES || header.getInt() != TickFileWriter.MAGIC) {
+        throw new IllegalStateException("Not a tick file: " + file);
+      }
+      int version = header.getInt();
+      if (version != TickFileWriter.VERSION) {
+        throw new IllegalStateException("Unsupported tick file version: " + version);
+      }
+      long tickCount = header.getLong();
+      if (tickCount < 0 || tickCount > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Tick file holds " + tickCount + " ticks, at most "
+            + Integer.MAX_VALUE + " are supported: " + file);
+      }
+      int size = (int) tickCount;
+      int marketCount = header.getInt();
+      int symbolCount = header.getInt();
+      long timestampsAt = header.getLong();
+      long marketsAt = header.getLong();
+      long symbolsAt = header.getLong();
+      long pricesAt = header.getLong();
+      long namesAt = header.getLong();
+
+      // Mappings stay valid after the channel is closed.
+      int chunks = (int) ((size + (1L << chunkShift) - 1) >>> chunkShift);
+      LongBuffer[] timestamps = new LongBuffer[chunks];
+      IntBuffer[] markets = new IntBuffer[chunks];
+      IntBuffer[] symbols = new IntBuffer[chunks];
+      DoubleBuffer[] prices = new DoubleBuffer[chunks];
+      for (int c = 0; c < chunks; c++) {
+        long first = (long) c << chunkShift;
+        long count = Math.min(1L << chunkShift, size - first);
+        timestamps[c] = map(channel, timestampsAt + 8 * first, 8 * count).asLongBuffer();
+        markets[c] = map(channel, marketsAt + 4 * first, 4 * count).asIntBuffer();
+        symbols[c] = map(channel, symbolsAt + 4 * first, 4 * count).asIntBuffer();
+        prices[c] = map(channel, pricesAt + 8 * first, 8 * count).asDoubleBuffer();
+      }
+      ByteBuffer names = map(channel, namesAt, channel.size() - namesAt);
+      String[] marketNames = readNames(names, marketCount);
+      String[] symbolNames = readNames(names, symbolCount);
+      return new TickFile(size, chunkShift, timestamps, markets, symbols, prices, marketNames, symbolNames);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long timestamp(int tick) {
+    return timestamps[tick >>> chunkShift].get(tick & chunkMask);
+  }
+
+  public int market(int tick) {
+    return markets[tick >>> chunkShift].get(tick & chunkMask);
+  }
+
+  public int symbol(int tick) {
+    return symbols[tick >>> chunkShift].get(tick & chunkMask);
+  }
+
+  public double price(int tick) {
+    return prices[tick >>> chunkShift].get(tick & chunkMask);
+  }
+
+  public int getMarketCount() {
+    return marketNames.length;
+  }
+
+  public int getSymbolCount() {
+    return symbolNames.length;
+  }
+
+  public String marketName(int market) {
+    return marketNames[market];
+  }
+
+  public String symbolName(int symbol) {
+    return symbolNames[symbol];
+  }
+
+  // Index of the first tick at or after the timestamp (size() if there is none).
+  public int firstAtOrAfter(long timestamp) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamp(mid) < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static ByteBuffer map(FileChannel channel, long position, long bytes) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static String[] readNames(ByteBuffer buffer, int count) {
+    String[] names = new String[count];
+    for (int i = 0; i < count; i++) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      names[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return names;
+  }
+}
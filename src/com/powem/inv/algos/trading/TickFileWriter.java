@@ -0,0 +1,184 @@
+package com.powem.inv.algos.trading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Collects recorded ticks and writes them as a columnar tick file. Layout (little-endian, so the
+// columns map straight onto the platform's primitive buffers on x86 and ARM):
+//
+//   header      magic, version, tickCount (long), marketCount, symbolCount, column and name offsets
+//   timestamps  long per tick, non-decreasing
+//   markets     int per tick
+//   symbols     int per tick
+//   prices      double per tick
+//   names       market names then symbol names, each int length + UTF-8 bytes
+//
+// Columns start on 8-byte boundaries. Ticks are sorted by timestamp on write (stable, so ticks
+// with equal timestamps keep their recording order).
+public class TickFileWriter {
+  static final int MAGIC = 0x5449434B; // "TICK"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 64;
+  // Columns are mapped 2^CHUNK_SHIFT ticks at a time (1 GiB of an 8-byte column), below the 2 GiB
+  // limit of a single mapping.
+  static final int CHUNK_SHIFT = 27;
+
+  private final Map<String, Integer> marketIds = new HashMap<>();
+  private final Map<String, Integer> symbolIds = new HashMap<>();
+  private final List<String> markets = new ArrayList<>();
+  private final List<String> symbols = new ArrayList<>();
+  private long[] timestamps = new long[1_024];
+  private int[] marketColumn = new int[1_024];
+  private int[] symbolColumn = new int[1_024];
+  private double[] prices = new double[1_024];
+  private int size;
+
+  public void add(long timestamp, String marketId, String symbol, double price) {
+    if (marketId == null || marketId.isEmpty() || symbol == null || symbol.isEmpty() || price <= 0) {
+      throw new IllegalArgumentException("Invalid input for market data");
+    }
+    if (size == timestamps.length) {
+      int capacity = size * 2;
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      marketColumn = Arrays.copyOf(marketColumn, capacity);
+      symbolColumn = Arrays.copyOf(symbolColumn, capacity);
+      prices = Arrays.copyOf(prices, capacity);
+    }
+    timestamps[size] = timestamp;
+    marketColumn[size] = intern(marketIds, markets, marketId);
+    symbolColumn[size] = intern(symbolIds, symbols, symbol);
+    prices[size] = price;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void write(Path file) throws IOException {
+    write(file, CHUNK_SHIFT);
+  }
+
+  void write(Path file, int chunkShift) throws IOException {
+    int[] order = sortedByTimestamp();
+    long timestampsAt = HEADER_BYTES;
+    long marketsAt = timestampsAt + 8L * size;
+    long symbolsAt = marketsAt + 4L * size;
+    long pricesAt = align(symbolsAt + 4L * size);
+    long namesAt = pricesAt + 8L * size;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putLong(size).putInt(markets.size()).putInt(symbols.size());
+      header.putLong(timestampsAt).putLong(marketsAt).putLong(symbolsAt).putLong(pricesAt).putLong(namesAt);
+      header.flip();
+      writeFully(channel, header, 0);
+
+      long[] sortedTimestamps = new long[size];
+      for (int i = 0; i < size; i++) {
+        sortedTimestamps[i] = timestamps[order[i]];
+      }
+      int chunk = 1 << chunkShift;
+      int chunks = (int) ((size + (long) chunk - 1) >>> chunkShift);
+      for (int c = 0; c < chunks; c++) {
+        int from = c << chunkShift;
+        int count = Math.min(chunk, size - from);
+        map(channel, timestampsAt + 8L * from, 8L * count).asLongBuffer().put(sortedTimestamps, from, count);
+      }
+      int[] column = new int[size];
+      for (int i = 0; i < size; i++) {
+        column[i] = marketColumn[order[i]];
+      }
+      for (int c = 0; c < chunks; c++) {
+        int from = c << chunkShift;
+        int count = Math.min(chunk, size - from);
+        map(channel, marketsAt + 4L * from, 4L * count).asIntBuffer().put(column, from, count);
+      }
+      for (int i = 0; i < size; i++) {
+        column[i] = symbolColumn[order[i]];
+      }
+      for (int c = 0; c < chunks; c++) {
+        int from = c << chunkShift;
+        int count = Math.min(chunk, size - from);
+        map(channel, symbolsAt + 4L * from, 4L * count).asIntBuffer().put(column, from, count);
+      }
+      double[] sortedPrices = new double[size];
+      for (int i = 0; i < size; i++) {
+        sortedPrices[i] = prices[order[i]];
+      }
+      for (int c = 0; c < chunks; c++) {
+        int from = c << chunkShift;
+        int count = Math.min(chunk, size - from);
+        map(channel, pricesAt + 8L * from, 8L * count).asDoubleBuffer().put(sortedPrices, from, count);
+      }
+
+      long position = namesAt;
+      for (List<String> names : List.of(markets, symbols)) {
+        for (String name : names) {
+          byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+          ByteBuffer entry = ByteBuffer.allocate(4 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+          entry.putInt(bytes.length).put(bytes).flip();
+          writeFully(channel, entry, position);
+          position += 4 + bytes.length;
+        }
+      }
+    }
+  }
+
+  private static ByteBuffer map(FileChannel channel, long position, long bytes) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_WRITE, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  // Identity when the ticks were recorded in time order, which is the usual case.
+  private int[] sortedByTimestamp() {
+    int[] order = new int[size];
+    boolean sorted = true;
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+      sorted &= i == 0 || timestamps[i - 1] <= timestamps[i];
+    }
+    if (sorted) {
+      return order;
+    }
+    Integer[] boxed = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      boxed[i] = i;
+    }
+    Arrays.sort(boxed, (a, b) -> Long.compare(timestamps[a], timestamps[b]));
+    for (int i = 0; i < size; i++) {
+      order[i] = boxed[i];
+    }
+    return order;
+  }
+
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+
+  private static int intern(Map<String, Integer> ids, List<String> names, String name) {
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+    }
+    return id;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-tick publish latency with one feed thread per market and an analyzer thread calling
+// analyzeOpportunities() in a loop. The baseline is the nested map the simulator used to keep,
+// made thread safe with ConcurrentHashMap (the plain HashMap version corrupts under this load).
+// Run: java com.powem.inv.algos.trading.TickLatencyBenchmark [feeds] [ticksPerFeed] [symbols]
+public class TickLatencyBenchmark {
+
+  interface Feed {
+    void publish(String marketId, String symbol, double price);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int feeds = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+    int symbolCount = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+    String[] symbols = new String[symbolCount];
+    for (int i = 0; i < symbolCount; i++) {
+      symbols[i] = "SYM" + i;
+    }
+
+    for (int round = 0; round < 2; round++) {
+      Map<String, Map<String, Double>> boxed = new ConcurrentHashMap<>();
+      run("boxed map", feeds, ticks, symbols,
+          (market, symbol, price) -> boxed.computeIfAbsent(market, m -> new ConcurrentHashMap<>()).put(symbol, price),
+          () -> analyzeBoxed(boxed));
+
+      HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator();
+      run("price matrix", feeds, ticks, symbols, simulator::processMarketData, simulator::analyzeOpportunities);
+    }
+  }
+
+  private static void run(String name, int feeds, int ticks, String[] symbols, Feed feed, Runnable analyzer)
+      throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    AtomicBoolean running = new AtomicBoolean(true);
+    long[] scans = new long[1];
+    Thread reader = new Thread(() -> {
+      while (running.get()) {
+        analyzer.run();
+        scans[0]++;
+      }
+    });
+    List<Thread> writers = new ArrayList<>();
+    for (int f = 0; f < feeds; f++) {
+      String market = "MKT" + f;
+      writers.add(new Thread(() -> {
+        LatencyHistogram local = new LatencyHistogram();
+        double price = 100;
+        for (int i = 0; i < ticks; i++) {
+          price += (i * 31 % 7 - 3) * 0.01;
+          long start = System.nanoTime();
+          feed.publish(market, symbols[i % symbols.length], Math.max(1, price));
+          local.record(System.nanoTime() - start);
+        }
+        histogram.add(local);
+      }));
+    }
+
+    long start = System.nanoTime();
+    reader.start();
+    writers.forEach(Thread::start);
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    running.set(false);
+    reader.join();
+    System.out.printf("%-13s %,12.0f ticks/s  scans=%-6d %s%n", name, feeds * (double) ticks / seconds, scans[0],
+        histogram.summary());
+  }
+
+  private static int analyzeBoxed(Map<String, Map<String, Double>> marketData) {
+    int found = 0;
+    for (Map.Entry<String, Map<String, Double>> market1 : marketData.entrySet()) {
+      for (Map.Entry<String, Map<String, Double>> market2 : marketData.entrySet()) {
+        if (market1.getKey().equals(market2.getKey())) {
+          continue;
+        }
+        for (Map.Entry<String, Double> quote : market1.getValue().entrySet()) {
+          Double price2 = market2.getValue().get(quote.getKey());
+          if (price2 != null && quote.getValue() < price2) {
+            found++;
+          }
+        }
+      }
+    }
+    return found;
+  }
+}
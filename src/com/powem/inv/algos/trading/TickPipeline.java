@@ -0,0 +1,155 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Feeds publish into their own TickRing (one producer each); consumer threads drain the rings
+// in batches and apply the ticks to the simulator, which also runs opportunity detection when
+// an arbitrage listener is registered. Feed i is served by consumer i % consumers, so every
+// ring keeps a single consumer. A full ring stalls its feed rather than dropping ticks.
+//
+// A tick the simulator rejects is counted as failed and skipped, so one bad tick can't stop a
+// consumer and leave its feeds blocked on a full ring; close() reports the failures.
+//
+// Each consumer counts ticks in locals and publishes its counters with a release store at the end
+// of every batch; getProcessed() and getFailed() read them with acquire loads.
+public class TickPipeline implements AutoCloseable {
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int MAX_BATCH = 256;
+
+  private final HighFrequencyTradingSimulator simulator;
+  private final TickRing[] rings;
+  private final Thread[] consumers;
+  private final long[] processed; // per consumer, padded
+  private final long[] failed; // per consumer, padded
+  private final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+  private volatile LatencyHistogram latency;
+  private volatile boolean running = true;
+
+  public TickPipeline(HighFrequencyTradingSimulator simulator, int feeds, int ringCapacity, int consumerCount) {
+    if (feeds <= 0 || consumerCount <= 0 || consumerCount > feeds) {
+      throw new IllegalArgumentException("Need at least one feed per consumer");
+    }
+    this.simulator = simulator;
+    this.rings = new TickRing[feeds];
+    for (int i = 0; i < feeds; i++) {
+      rings[i] = new TickRing(ringCapacity);
+    }
+    this.processed = new long[consumerCount * 8];
+    this.failed = new long[consumerCount * 8];
+    this.consumers = new Thread[consumerCount];
+    for (int c = 0; c < consumerCount; c++) {
+      int consumer = c;
+      consumers[c] = new Thread(() -> consume(consumer), "tick-consumer-" + c);
+      consumers[c].setDaemon(true);
+    }
+  }
+
+  public TickRing feed(int index) {
+    return rings[index];
+  }
+
+  // Records publish-to-applied latency for every tick from now on, using the tick timestamps as
+  // System.nanoTime() values.
+  public void setLatencyHistogram(LatencyHistogram latency) {
+    this.latency = latency;
+  }
+
+  public void start() {
+    for (Thread consumer : consumers) {
+      consumer.start();
+    }
+  }
+
+  public long getProcessed() {
+    long total = 0;
+    for (int c = 0; c < consumers.length; c++) {
+      total += (long) LONGS.getAcquire(processed, c * 8);
+    }
+    return total;
+  }
+
+  // Ticks the simulator rejected; they count as processed too.
+  public long getFailed() {
+    long total = 0;
+    for (int c = 0; c < consumers.length; c++) {
+      total += (long) LONGS.getAcquire(failed, c * 8);
+    }
+    return total;
+  }
+
+  // Stops once every ring has been drained. Feeds must have stopped publishing. Throws if any
+  // tick failed, with the first failure as the cause.
+  @Override
+  public void close() {
+    running = false;
+    for (Thread consumer : consumers) {
+      try {
+        consumer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+    RuntimeException failure = firstFailure.get();
+    if (failure != null) {
+      throw new IllegalStateException("Ticks failed: " + getFailed(), failure);
+    }
+  }
+
+  private void consume(int consumer) {
+    long[] pending = new long[2]; // ticks and failures since the last publish
+    TickRing.TickHandler apply = (market, symbol, price, timestamp, endOfBatch) -> {
+      apply(market, symbol, price, pending);
+      if (endOfBatch) {
+        publish(consumer, pending);
+      }
+    };
+    TickRing.TickHandler applyAndTime = (market, symbol, price, timestamp, endOfBatch) -> {
+      apply(market, symbol, price, pending);
+      latency.record(System.nanoTime() - timestamp);
+      if (endOfBatch) {
+        publish(consumer, pending);
+      }
+    };
+    int idle = 0;
+    while (true) {
+      boolean stopping = !running;
+      TickRing.TickHandler handler = latency == null ? apply : applyAndTime;
+      int drained = 0;
+      for (int i = consumer; i < rings.length; i += consumers.length) {
+        drained += rings[i].drain(handler, MAX_BATCH);
+      }
+      if (drained > 0) {
+        idle = 0;
+      } else if (stopping) {
+        return;
+      } else {
+        TickRing.backOff(idle++);
+      }
+    }
+  }
+
+  private void apply(int market, int symbol, double price, long[] pending) {
+    pending[0]++;
+    try {
+      simulator.processMarketData(market, symbol, price);
+    } catch (RuntimeException e) {
+      pending[1]++;
+      firstFailure.compareAndSet(null, e);
+    }
+  }
+
+  // Only the owning consumer writes its slots, so the plain reads here see its own last stores.
+  private void publish(int consumer, long[] pending) {
+    int slot = consumer * 8;
+    if (pending[1] != 0) {
+      LONGS.setRelease(failed, slot, failed[slot] + pending[1]);
+      pending[1] = 0;
+    }
+    LONGS.setRelease(processed, slot, processed[slot] + pending[0]);
+    pending[0] = 0;
+  }
+}
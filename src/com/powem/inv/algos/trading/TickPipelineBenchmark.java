@@ -0,0 +1,109 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+// Sustained ticks/s through the TickPipeline, with arbitrage detection on, compared to feed
+// threads calling processMarketData(String, String, double). Flat out the latency is queueing
+// delay in full rings, so a second pass paces the feeds at a fixed total rate.
+// Run: java com.powem.inv.algos.trading.TickPipelineBenchmark [feeds] [ticksPerFeed] [consumers] [ticksPerSecond]
+public class TickPipelineBenchmark {
+  private static final int SYMBOLS = 1_000;
+
+  public static void main(String[] args) throws InterruptedException {
+    int feeds = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    int consumers = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+    int rate = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+    String[] symbols = new String[SYMBOLS];
+    for (int i = 0; i < SYMBOLS; i++) {
+      symbols[i] = "SYM" + i;
+    }
+
+    for (int round = 0; round < 2; round++) {
+      HighFrequencyTradingSimulator direct = newSimulator();
+      long start = System.nanoTime();
+      runFeeds(feeds, f -> {
+        String market = "MKT" + f;
+        for (int i = 0; i < ticks; i++) {
+          direct.processMarketData(market, symbols[i % SYMBOLS], price(f, i));
+        }
+      });
+      report("direct calls", feeds * (long) ticks, System.nanoTime() - start, null);
+
+      runPipeline("ring pipeline", feeds, ticks, consumers, symbols, 0);
+    }
+    runPipeline("ring paced", feeds, ticks / 4, consumers, symbols, rate);
+  }
+
+  private static void runPipeline(String name, int feeds, int ticks, int consumers, String[] symbols, int rate)
+      throws InterruptedException {
+    HighFrequencyTradingSimulator simulator = newSimulator();
+    MarketDataStore store = simulator.getMarketDataStore();
+    int[] symbolIds = new int[SYMBOLS];
+    for (int i = 0; i < SYMBOLS; i++) {
+      symbolIds[i] = store.getSymbols().intern(symbols[i]);
+    }
+    TickPipeline pipeline = new TickPipeline(simulator, feeds, 16_384, consumers);
+    LatencyHistogram latency = new LatencyHistogram();
+    pipeline.setLatencyHistogram(latency);
+    pipeline.start();
+    long intervalNanos = rate == 0 ? 0 : 1_000_000_000L * feeds / rate;
+    long start = System.nanoTime();
+    runFeeds(feeds, f -> {
+      TickRing ring = pipeline.feed(f);
+      int market = store.getMarkets().intern("MKT" + f);
+      for (int i = 0; i < ticks; i++) {
+        long due = start + i * intervalNanos;
+        long now = System.nanoTime();
+        if (due - now > 50_000) {
+          LockSupport.parkNanos(due - now);
+        }
+        ring.publish(market, symbolIds[i % SYMBOLS], price(f, i), System.nanoTime());
+      }
+    });
+    pipeline.close();
+    report(name, pipeline.getProcessed(), System.nanoTime() - start, latency);
+  }
+
+  private static HighFrequencyTradingSimulator newSimulator() {
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator(64, SYMBOLS);
+    simulator.setArbitrageListener(new ArbitrageListener() {
+      @Override
+      public void onOpportunity(int symbol, int buyMarket, int sellMarket, double buyPrice, double sellPrice) {
+      }
+
+      @Override
+      public void onOpportunityClosed(int symbol) {
+      }
+    });
+    return simulator;
+  }
+
+  private static double price(int feed, int i) {
+    return 100 + (i * 31 + feed * 7) % 50 / 100.0;
+  }
+
+  interface FeedLoop {
+    void run(int feed);
+  }
+
+  private static void runFeeds(int feeds, FeedLoop loop) throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    for (int f = 0; f < feeds; f++) {
+      int feed = f;
+      threads.add(new Thread(() -> loop.run(feed)));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  private static void report(String name, long ticks, long nanos, LatencyHistogram latency) {
+    System.out.printf("%-14s %,12.0f ticks/s  %s%n", name, ticks / (nanos / 1e9),
+        latency == null ? "" : latency.summary());
+  }
+}
@@ -0,0 +1,107 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TickPipelineTest {
+
+  public static void tests() {
+    // TEST
+    // A tiny ring forces the feeds to wait on the consumer; every tick must still arrive in order.
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator(4, 16);
+    MarketDataStore store = simulator.getMarketDataStore();
+    int feeds = 3;
+    int ticks = 50_000;
+    TickPipeline pipeline = new TickPipeline(simulator, feeds, 8, 2);
+    LatencyHistogram latency = new LatencyHistogram();
+    pipeline.setLatencyHistogram(latency);
+    pipeline.start();
+    List<Thread> producers = new ArrayList<>();
+    for (int f = 0; f < feeds; f++) {
+      TickRing ring = pipeline.feed(f);
+      int market = store.getMarkets().intern("FEED" + f);
+      producers.add(new Thread(() -> {
+        for (int i = 1; i <= ticks; i++) {
+          ring.publish(market, store.getSymbols().intern("S" + i % 16), i, System.nanoTime());
+        }
+      }));
+    }
+    producers.forEach(Thread::start);
+    for (Thread producer : producers) {
+      try {
+        producer.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    // Counters are published at the end of every batch, so a reader sees them climb to the total
+    // while the consumers are still running.
+    long seen = 0;
+    while (seen < (long) feeds * ticks) {
+      long now = pipeline.getProcessed();
+      assert now >= seen && pipeline.getFailed() == 0;
+      seen = now;
+      Thread.yield();
+    }
+    pipeline.close();
+    assert pipeline.getProcessed() == (long) feeds * ticks;
+    assert latency.getCount() == (long) feeds * ticks;
+    for (int f = 0; f < feeds; f++) {
+      assert pipeline.feed(f).isEmpty();
+      assert store.price("FEED" + f, "S0") == ticks;
+      assert store.price("FEED" + f, "S15") == ticks - 1;
+    }
+    // TEST_END
+
+    // TEST
+    // Ticks for unknown ids are rejected one by one; the consumer keeps draining, so the feed
+    // never blocks on its full ring, and close() reports the failures.
+    HighFrequencyTradingSimulator small = new HighFrequencyTradingSimulator(4, 16);
+    int m = small.getMarketDataStore().getMarkets().intern("M");
+    int s = small.getMarketDataStore().getSymbols().intern("S");
+    TickPipeline failing = new TickPipeline(small, 1, 4, 1);
+    failing.start();
+    for (int i = 1; i <= 1_000; i++) {
+      failing.feed(0).publish(m, i % 10 == 0 ? 7 : s, i, 0);
+    }
+    try {
+      failing.close();
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Ticks failed: 100");
+      assert e.getCause().getMessage().equals("Invalid input for market data");
+    }
+    assert failing.getProcessed() == 1_000;
+    assert small.getMarketDataStore().price(m, s) == 999;
+    try {
+      small.processMarketData(m, s, Double.NaN);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Invalid input for market data");
+    }
+    // TEST_END
+
+    // TEST
+    TickRing ring = new TickRing(4);
+    for (int i = 1; i <= 3; i++) {
+      ring.publish(0, i, i, 0);
+    }
+    double[] sum = new double[1];
+    boolean[] lastFlag = new boolean[1];
+    assert ring.drain((market, symbol, price, timestamp, endOfBatch) -> {
+      sum[0] += price;
+      lastFlag[0] = endOfBatch;
+    }, 2) == 2;
+    assert sum[0] == 3 && lastFlag[0];
+    assert ring.drain((market, symbol, price, timestamp, endOfBatch) -> sum[0] += price, 16) == 1;
+    assert sum[0] == 6 && ring.isEmpty();
+    try {
+      new TickRing(6);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Capacity must be a power of two");
+    }
+    // TEST_END
+  }
+}
@@ -0,0 +1,101 @@
+package com.powem.inv.algos.trading;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+// Single-producer, single-consumer ring of tick slots, pre-allocated as parallel primitive arrays.
+//
+// The producer writes a slot and publishes it by releasing its sequence; the consumer takes
+// everything published so far as one batch and releases the slots by advancing its own sequence.
+// When the ring is full the producer waits for the consumer instead of dropping ticks.
+public class TickRing {
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+  // published and consumed sequences, each on its own cache line
+  private static final int PUBLISHED = 7;
+  private static final int CONSUMED = 15;
+
+  private final int mask;
+  private final int[] markets;
+  private final int[] symbols;
+  private final double[] prices;
+  private final long[] timestamps;
+  private final long[] sequences = new long[23];
+  private long nextSequence; // producer only
+  private long cachedConsumed; // producer's last view of the consumer
+
+  public TickRing(int capacity) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two");
+    }
+    mask = capacity - 1;
+    markets = new int[capacity];
+    symbols = new int[capacity];
+    prices = new double[capacity];
+    timestamps = new long[capacity];
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  // Producer side. Blocks while the ring is full.
+  public void publish(int market, int symbol, double price, long timestamp) {
+    if (price <= 0) {
+      throw new IllegalArgumentException("Invalid input for market data");
+    }
+    long sequence = nextSequence;
+    if (sequence - cachedConsumed > mask) {
+      for (int idle = 0; sequence - (cachedConsumed = consumed()) > mask; idle++) {
+        backOff(idle);
+      }
+    }
+    int slot = (int) sequence & mask;
+    markets[slot] = market;
+    symbols[slot] = symbol;
+    prices[slot] = price;
+    timestamps[slot] = timestamp;
+    nextSequence = sequence + 1;
+    LONGS.setRelease(sequences, PUBLISHED, sequence + 1);
+  }
+
+  // Consumer side. Hands every published tick to the handler, at most maxBatch of them, and
+  // returns how many there were.
+  public int drain(TickHandler handler, int maxBatch) {
+    long consumed = (long) LONGS.getOpaque(sequences, CONSUMED);
+    long available = (long) LONGS.getAcquire(sequences, PUBLISHED);
+    int batch = (int) Math.min(available - consumed, maxBatch);
+    for (int i = 0; i < batch; i++) {
+      int slot = (int) (consumed + i) & mask;
+      handler.onTick(markets[slot], symbols[slot], prices[slot], timestamps[slot], i == batch - 1);
+    }
+    if (batch > 0) {
+      LONGS.setRelease(sequences, CONSUMED, consumed + batch);
+    }
+    return batch;
+  }
+
+  public boolean isEmpty() {
+    return consumed() == (long) LONGS.getAcquire(sequences, PUBLISHED);
+  }
+
+  private long consumed() {
+    return (long) LONGS.getAcquire(sequences, CONSUMED);
+  }
+
+  // Spin, then yield, then park: cheap when the other side is about to move, and does not burn
+  // the core when it is descheduled.
+  static void backOff(int idle) {
+    if (idle < 100) {
+      Thread.onSpinWait();
+    } else if (idle < 200) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(20_000);
+    }
+  }
+
+  public interface TickHandler {
+    void onTick(int market, int symbol, double price, long timestamp, boolean endOfBatch);
+  }
+}
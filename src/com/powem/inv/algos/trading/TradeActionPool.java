@@ -0,0 +1,46 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator.TradeAction;
+import java.util.List;
+
+// Free list of reusable TradeAction objects. Not thread safe: keep one pool per thread.
+// An empty pool allocates, and a full one lets released actions go to the garbage collector.
+public class TradeActionPool {
+  private final TradeAction[] free;
+  private int size;
+
+  public TradeActionPool(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    free = new TradeAction[capacity];
+    for (int i = 0; i < capacity; i++) {
+      free[i] = new TradeAction();
+    }
+    size = capacity;
+  }
+
+  public TradeAction acquire(String buyMarket, String sellMarket, String symbol, double buyPrice, double sellPrice) {
+    TradeAction action = size > 0 ? free[--size] : new TradeAction();
+    free[size] = null;
+    return action.set(buyMarket, sellMarket, symbol, buyPrice, sellPrice);
+  }
+
+  public void release(TradeAction action) {
+    if (size < free.length) {
+      free[size++] = action;
+    }
+  }
+
+  // Releases every action in the list and clears it.
+  public void releaseAll(List<TradeAction> actions) {
+    for (int i = 0; i < actions.size(); i++) {
+      release(actions.get(i));
+    }
+    actions.clear();
+  }
+
+  public int available() {
+    return size;
+  }
+}
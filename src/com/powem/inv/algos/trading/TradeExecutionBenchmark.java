@@ -0,0 +1,64 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import com.powem.inv.algos.HighFrequencyTradingSimulator.TradeAction;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cost per executed trade: the old string-building println (stdout sent to a null stream, so
+// this is the best case for it) against the pooled path writing to the binary journal.
+// Run: java com.powem.inv.algos.trading.TradeExecutionBenchmark [rounds]
+public class TradeExecutionBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator();
+    for (int m = 0; m < 4; m++) {
+      for (int s = 0; s < 100; s++) {
+        simulator.processMarketData("MKT" + m, "SYM" + s, 100 + (m * 7 + s * 3) % 10);
+      }
+    }
+    TradeActionPool pool = new TradeActionPool(1_024);
+    List<TradeAction> opportunities = new ArrayList<>();
+    Path file = Files.createTempFile("trades", ".journal");
+    PrintStream stdout = System.out;
+
+    for (int pass = 0; pass < 2; pass++) {
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+      long trades = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        for (TradeAction action : simulator.analyzeOpportunities()) {
+          simulator.executeTrade(action);
+          trades++;
+        }
+      }
+      long printNanos = System.nanoTime() - start;
+      System.setOut(stdout);
+
+      MarketDataStore store = simulator.getMarketDataStore();
+      TradeJournal journal = new TradeJournal(file, 65_536, store.getMarkets(), store.getSymbols());
+      simulator.setTradeJournal(journal);
+      start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        simulator.analyzeOpportunities(pool, opportunities);
+        for (TradeAction action : opportunities) {
+          simulator.executeTrade(action);
+        }
+        pool.releaseAll(opportunities);
+      }
+      journal.close();
+      long journalNanos = System.nanoTime() - start;
+      simulator.setTradeJournal(null);
+
+      System.out.printf("%,d trades: println %.0f ns/trade, journal %.0f ns/trade (%,d bytes)%n", trades,
+          printNanos / (double) trades, journalNanos / (double) trades, Files.size(file));
+    }
+    Files.delete(file);
+  }
+}
@@ -0,0 +1,210 @@
+package com.powem.inv.algos.trading;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.locks.LockSupport;
+
+// Append-only binary journal of executed trades. Every record is RECORD_BYTES wide (big-endian):
+//
+//   header   int magic, int version, int recordBytes
+//   trade    int TRADE, int symbol, long timestamp, int buyMarket, int sellMarket,
+//            double buyPrice, double sellPrice, long sequence
+//   name     int MARKET_NAME or SYMBOL_NAME, int id, short length, UTF-8 bytes
+//
+// A name record is written the first time a trade uses an id, so the journal reads on its own.
+//
+// Callers append into a pre-sized direct buffer used as a ring; a background thread copies the
+// appended records into the memory-mapped file, growing the mapping a chunk at a time. Appends
+// never touch the file and only wait when the flusher has fallen a whole buffer behind.
+public class TradeJournal implements AutoCloseable {
+  public static final int RECORD_BYTES = 48;
+  static final int MAGIC = 0x48465453; // "HFTS"
+  static final int VERSION = 1;
+  static final int TRADE = 1;
+  static final int MARKET_NAME = 2;
+  static final int SYMBOL_NAME = 3;
+  static final int MAX_NAME_BYTES = RECORD_BYTES - 10;
+  private static final long MAP_CHUNK = RECORD_BYTES * 65_536L;
+
+  private final InternTable markets;
+  private final InternTable symbols;
+  private final FileChannel channel;
+  private final ByteBuffer staging; // direct, used as a ring of records
+  private final Thread flusher;
+  private final ChunkMapper mapper;
+  private final BitSet definedMarkets = new BitSet();
+  private final BitSet definedSymbols = new BitSet();
+  private MappedByteBuffer mapped; // flusher only
+  private long mappedStart; // flusher only
+  private long sequence; // guarded by this
+  private volatile long appended; // bytes appended to staging, ever
+  private volatile long flushed; // bytes copied to the file, ever
+  private volatile boolean closed;
+  private volatile Exception failure; // why the flusher stopped early, if it did
+
+  // Ids in recorded trades are resolved to names through the given tables.
+  public TradeJournal(Path file, int bufferRecords, InternTable markets, InternTable symbols) {
+    this(file, bufferRecords, markets, symbols,
+        (channel, position, bytes) -> channel.map(FileChannel.MapMode.READ_WRITE, position, bytes));
+  }
+
+  // Maps the file through the given mapper, e.g. one that fails on purpose.
+  TradeJournal(Path file, int bufferRecords, InternTable markets, InternTable symbols, ChunkMapper mapper) {
+    if (bufferRecords <= 0) {
+      throw new IllegalArgumentException("Buffer must hold at least one record");
+    }
+    this.markets = markets;
+    this.symbols = symbols;
+    this.mapper = mapper;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    staging = ByteBuffer.allocateDirect(bufferRecords * RECORD_BYTES);
+    int header = claim();
+    staging.putInt(header, MAGIC).putInt(header + 4, VERSION).putInt(header + 8, RECORD_BYTES);
+    appended = RECORD_BYTES;
+    flusher = new Thread(this::flushLoop, "trade-journal-flusher");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  // Returns the trade's sequence number.
+  public synchronized long recordTrade(int symbol, int buyMarket, int sellMarket, double buyPrice,
+      double sellPrice, long timestamp) {
+    if (!definedSymbols.get(symbol)) {
+      appendName(SYMBOL_NAME, symbol, symbols.nameOf(symbol));
+      definedSymbols.set(symbol);
+    }
+    defineMarket(buyMarket);
+    defineMarket(sellMarket);
+    int at = claim();
+    staging.putInt(at, TRADE).putInt(at + 4, symbol).putLong(at + 8, timestamp)
+        .putInt(at + 16, buyMarket).putInt(at + 20, sellMarket)
+        .putDouble(at + 24, buyPrice).putDouble(at + 32, sellPrice).putLong(at + 40, sequence);
+    appended += RECORD_BYTES;
+    return sequence++;
+  }
+
+  public synchronized long getTradeCount() {
+    return sequence;
+  }
+
+  // Blocks until everything appended so far is in the mapped file.
+  public void flush() {
+    long target = appended;
+    LockSupport.unpark(flusher);
+    for (int idle = 0; flushed < target; idle++) {
+      checkFlusher();
+      TickRing.backOff(idle);
+    }
+  }
+
+  // Flushes, forces the file to disk and trims it to the records written.
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    flush();
+    closed = true;
+    LockSupport.unpark(flusher);
+    try {
+      flusher.join();
+      channel.force(true);
+      channel.truncate(flushed);
+      channel.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void defineMarket(int market) {
+    if (!definedMarkets.get(market)) {
+      appendName(MARKET_NAME, market, markets.nameOf(market));
+      definedMarkets.set(market);
+    }
+  }
+
+  private void appendName(int type, int id, String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_NAME_BYTES) {
+      throw new IllegalArgumentException("Name too long for journal: " + name);
+    }
+    int at = claim();
+    staging.putInt(at, type).putInt(at + 4, id).putShort(at + 8, (short) bytes.length);
+    staging.put(at + 10, bytes);
+    appended += RECORD_BYTES;
+  }
+
+  // Offset in staging of the next free record, waiting while the ring is full.
+  private int claim() {
+    if (closed) {
+      throw new IllegalStateException("Journal is closed");
+    }
+    long next = appended;
+    if (next - flushed >= staging.capacity()) {
+      LockSupport.unpark(flusher);
+      for (int idle = 0; next - flushed >= staging.capacity(); idle++) {
+        checkFlusher();
+        TickRing.backOff(idle);
+      }
+    }
+    return (int) (next % staging.capacity());
+  }
+
+  private void checkFlusher() {
+    if (!flusher.isAlive()) {
+      throw new IllegalStateException("Journal flusher has stopped", failure);
+    }
+  }
+
+  private void flushLoop() {
+    try {
+      while (true) {
+        boolean stopping = closed;
+        long target = appended;
+        if (target > flushed) {
+          copy(flushed, target);
+          flushed = target;
+        } else if (stopping) {
+          return;
+        } else {
+          LockSupport.parkNanos(100_000);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      failure = e;
+    }
+  }
+
+  private void copy(long from, long to) throws IOException {
+    while (from < to) {
+      if (mapped == null || from >= mappedStart + mapped.capacity()) {
+        mappedStart = from - from % MAP_CHUNK;
+        mapped = mapper.map(channel, mappedStart, MAP_CHUNK);
+      }
+      int start = (int) (from % staging.capacity());
+      long length = Math.min(to - from, staging.capacity() - start);
+      length = Math.min(length, mappedStart + mapped.capacity() - from);
+      mapped.put((int) (from - mappedStart), staging, start, (int) length);
+      from += length;
+    }
+  }
+
+  interface ChunkMapper {
+    MappedByteBuffer map(FileChannel channel, long position, long bytes) throws IOException;
+  }
+}
@@ -0,0 +1,77 @@
+package com.powem.inv.algos.trading;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replays a TradeJournal for audit, resolving market and symbol ids through the name records.
+// Run: java com.powem.inv.algos.trading.TradeJournalReader <journal>
+public class TradeJournalReader {
+
+  public interface TradeVisitor {
+    void onTrade(long sequence, long timestamp, String symbol, String buyMarket, String sellMarket,
+        double buyPrice, double sellPrice);
+  }
+
+  // Returns the number of trades replayed.
+  public static long replay(Path file, TradeVisitor visitor) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < TradeJournal.RECORD_BYTES) {
+        throw new IllegalStateException("Not a trade journal: " + file);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.getInt(0) != TradeJournal.MAGIC || buffer.getInt(8) != TradeJournal.RECORD_BYTES) {
+        throw new IllegalStateException("Not a trade journal: " + file);
+      }
+      if (buffer.getInt(4) != TradeJournal.VERSION) {
+        throw new IllegalStateException("Unsupported journal version: " + buffer.getInt(4));
+      }
+      List<String> markets = new ArrayList<>();
+      List<String> symbols = new ArrayList<>();
+      long trades = 0;
+      int width = TradeJournal.RECORD_BYTES;
+      for (long at = width; at + width <= size; at += width) {
+        int offset = (int) at;
+        int type = buffer.getInt(offset);
+        if (type == 0) {
+          break; // zero-filled tail of a journal that was never closed
+        }
+        if (type == TradeJournal.TRADE) {
+          visitor.onTrade(buffer.getLong(offset + 40), buffer.getLong(offset + 8),
+              symbols.get(buffer.getInt(offset + 4)), markets.get(buffer.getInt(offset + 16)),
+              markets.get(buffer.getInt(offset + 20)), buffer.getDouble(offset + 24), buffer.getDouble(offset + 32));
+          trades++;
+        } else if (type == TradeJournal.MARKET_NAME || type == TradeJournal.SYMBOL_NAME) {
+          List<String> names = type == TradeJournal.MARKET_NAME ? markets : symbols;
+          int id = buffer.getInt(offset + 4);
+          byte[] bytes = new byte[buffer.getShort(offset + 8)];
+          buffer.get(offset + 10, bytes);
+          while (names.size() <= id) {
+            names.add(null);
+          }
+          names.set(id, new String(bytes, StandardCharsets.UTF_8));
+        } else {
+          throw new IllegalStateException("Corrupt journal record at " + at);
+        }
+      }
+      return trades;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static void main(String[] args) {
+    long trades = replay(Paths.get(args[0]), (sequence, timestamp, symbol, buyMarket, sellMarket, buyPrice, sellPrice) ->
+        System.out.println(sequence + " " + timestamp + " buy " + symbol + " in " + buyMarket + " at " + buyPrice
+            + " and sell in " + sellMarket + " at " + sellPrice));
+    System.out.println(trades + " trades");
+  }
+}
@@ -0,0 +1,117 @@
+package com.powem.inv.algos.trading;
+
+import com.powem.inv.algos.HighFrequencyTradingSimulator;
+import com.powem.inv.algos.HighFrequencyTradingSimulator.TradeAction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TradeJournalTest {
+
+  public static void tests() {
+    Path file;
+    try {
+      file = Files.createTempFile("trades", ".journal");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // TEST
+    // A four-record buffer wraps constantly, so appends keep waiting on the flusher.
+    HighFrequencyTradingSimulator simulator = new HighFrequencyTradingSimulator();
+    simulator.processMarketData("NYSE", "AAPL", 149.00);
+    simulator.processMarketData("NASDAQ", "AAPL", 150.00);
+    MarketDataStore store = simulator.getMarketDataStore();
+    TradeJournal journal = new TradeJournal(file, 4, store.getMarkets(), store.getSymbols());
+    simulator.setTradeJournal(journal);
+    TradeActionPool pool = new TradeActionPool(8);
+    List<TradeAction> opportunities = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      simulator.analyzeOpportunities(pool, opportunities);
+      for (TradeAction action : opportunities) {
+        simulator.executeTrade(action);
+      }
+      pool.releaseAll(opportunities);
+    }
+    assert pool.available() == 8;
+    int googl = store.getSymbols().intern("GOOGL");
+    int nyse = store.getMarkets().idOf("NYSE");
+    int nasdaq = store.getMarkets().idOf("NASDAQ");
+    simulator.executeTrade(googl, nasdaq, nyse, 995.00, 1000.00, 42L);
+    journal.close();
+
+    List<String> trades = new ArrayList<>();
+    long count = TradeJournalReader.replay(file, (sequence, timestamp, symbol, buyMarket, sellMarket, buyPrice,
+        sellPrice) -> trades.add(sequence + " " + symbol + " " + buyMarket + "->" + sellMarket + " " + buyPrice + "/"
+        + sellPrice + (timestamp == 42L ? " @42" : "")));
+    assert count == 5_001 && trades.size() == 5_001;
+    assert trades.get(0).equals("0 AAPL NYSE->NASDAQ 149.0/150.0");
+    assert trades.get(4_999).startsWith("4999 AAPL");
+    assert trades.get(5_000).equals("5000 GOOGL NASDAQ->NYSE 995.0/1000.0 @42");
+    try {
+      assert Files.size(file) == (long) TradeJournal.RECORD_BYTES * (1 + 4 + 5_001);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // TEST_END
+
+    // TEST
+    // A journal that was never closed, as after a crash, replays up to its zero-filled tail.
+    TradeJournal crashed = new TradeJournal(file, 16, store.getMarkets(), store.getSymbols());
+    for (int i = 0; i < 10; i++) {
+      crashed.recordTrade(googl, nasdaq, nyse, 995.00, 1000.00, i);
+    }
+    crashed.flush();
+    List<Long> timestamps = new ArrayList<>();
+    assert TradeJournalReader.replay(file, (sequence, timestamp, symbol, buyMarket, sellMarket, buyPrice,
+        sellPrice) -> timestamps.add(timestamp)) == 10;
+    assert timestamps.get(9) == 9L;
+    crashed.close();
+    // TEST_END
+
+    // TEST
+    // Appends waiting on a full buffer must fail, not spin, once the flusher has died.
+    TradeJournal broken = new TradeJournal(file, 4, store.getMarkets(), store.getSymbols(),
+        (channel, position, bytes) -> {
+          throw new IOException("Disk full");
+        });
+    try {
+      for (int i = 0; i < 100; i++) {
+        broken.recordTrade(googl, nasdaq, nyse, 995.00, 1000.00, i);
+      }
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Journal flusher has stopped");
+      assert e.getCause().getMessage().equals("Disk full");
+    }
+    // TEST_END
+
+    // TEST
+    try {
+      Files.write(file, new byte[TradeJournal.RECORD_BYTES]);
+      TradeJournalReader.replay(file, (sequence, timestamp, symbol, buyMarket, sellMarket, buyPrice, sellPrice) -> {
+      });
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().startsWith("Not a trade journal");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    try {
+      new HighFrequencyTradingSimulator().executeTrade(0, 0, 1, 1.0, 2.0, 0L);
+      assert false;
+    } catch (IllegalStateException e) {
+      assert e.getMessage().equals("Trade journal is not configured");
+    }
+    // TEST_END
+
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.powem.inv.algos.traffic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Yen's algorithm for the k shortest loopless paths by hop count. Each path after the first
+// deviates from an earlier one at some spur node: the root up to the spur is kept, the links the
+// earlier paths with that root took next are banned, and a breadth-first search finds the rest.
+// Paths are arrays of link ids, shortest first.
+final class KShortestPaths {
+
+  private KShortestPaths() {
+  }
+
+  static int[][] find(NetworkTopology topology, int source, int target, int k) {
+    List<int[]> accepted = new ArrayList<>();
+    List<int[]> candidates = new ArrayList<>();
+    boolean[] bannedNodes = new boolean[topology.nodeCount()];
+    BitSet bannedLinks = new BitSet(topology.linkCount());
+    int[] first = shortest(topology, source, target, bannedNodes, bannedLinks);
+    if (first == null) {
+      return new int[0][];
+    }
+    accepted.add(first);
+    while (accepted.size() < k) {
+      int[] previous = accepted.get(accepted.size() - 1);
+      for (int spur = 0; spur < previous.length; spur++) {
+        int spurNode = spur == 0 ? source : topology.target(previous[spur - 1]);
+        for (int[] path : accepted) {
+          if (path.length > spur && Arrays.equals(path, 0, spur, previous, 0, spur)) {
+            bannedLinks.set(path[spur]);
+          }
+        }
+        // The root's nodes, so the spur cannot loop back through them.
+        bannedNodes[source] = spur > 0;
+        for (int i = 0; i + 1 < spur; i++) {
+          bannedNodes[topology.target(previous[i])] = true;
+        }
+        int[] rest = shortest(topology, spurNode, target, bannedNodes, bannedLinks);
+        if (rest != null) {
+          int[] path = Arrays.copyOf(previous, spur + rest.length);
+          System.arraycopy(rest, 0, path, spur, rest.length);
+          if (!contains(accepted, path) && !contains(candidates, path)) {
+            candidates.add(path);
+          }
+        }
+        bannedLinks.clear();
+        Arrays.fill(bannedNodes, false);
+      }
+      if (candidates.isEmpty()) {
+        break;
+      }
+      int best = 0;
+      for (int i = 1; i < candidates.size(); i++) {
+        if (candidates.get(i).length < candidates.get(best).length) {
+          best = i;
+        }
+      }
+      accepted.add(candidates.remove(best));
+    }
+    return accepted.toArray(new int[0][]);
+  }
+
+  // Fewest-hop path avoiding the banned nodes and links, or null.
+  private static int[] shortest(NetworkTopology topology, int source, int target, boolean[] bannedNodes,
+      BitSet bannedLinks) {
+    if (source == target) {
+      return new int[0];
+    }
+    int[] via = new int[topology.nodeCount()];
+    Arrays.fill(via, -1);
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    queue.add(source);
+    boolean[] seen = new boolean[topology.nodeCount()];
+    seen[source] = true;
+    while (!queue.isEmpty()) {
+      int node = queue.poll();
+      for (int i = 0; i < topology.degree(node); i++) {
+        int link = topology.outLink(node, i);
+        int next = topology.target(link);
+        if (seen[next] || bannedNodes[next] || bannedLinks.get(link)) {
+          continue;
+        }
+        seen[next] = true;
+        via[next] = link;
+        if (next == target) {
+          int length = 0;
+          for (int at = target; at != source; at = topology.source(via[at])) {
+            length++;
+          }
+          int[] path = new int[length];
+          for (int at = target; at != source; at = topology.source(via[at])) {
+            path[--length] = via[at];
+          }
+          return path;
+        }
+        queue.add(next);
+      }
+    }
+    return null;
+  }
+
+  private static boolean contains(List<int[]> paths, int[] path) {
+    for (int[] other : paths) {
+      if (Arrays.equals(other, path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
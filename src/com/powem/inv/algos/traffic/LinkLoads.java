@@ -0,0 +1,132 @@
+package com.powem.inv.algos.traffic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-link load in an AtomicLongArray, updated by any number of routing threads at once.
+//
+// A packet adds its size to every link of its path with a CAS each, so it is only accepted if no
+// link goes over capacity. To let readers see whole packets, each multi-link update runs inside a
+// stripe: a padded sequence number the writer makes odd with a CAS and even again when done. A
+// writer that finds its stripe busy moves to the next one, so writers never wait for each other.
+// snapshot() copies the loads and retries if any stripe moved (as in MarketDataStore). After a
+// few failed tries it raises a flag that holds back new packets until it has a clean copy, so a
+// busy network cannot starve it.
+public class LinkLoads {
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int PAD = 8; // longs per cache line
+  private static final int STRIPES = 64;
+  private static final int OPTIMISTIC_SNAPSHOTS = 8;
+
+  private final AtomicLongArray loads;
+  private final long[] sequences = new long[STRIPES * PAD];
+  private final AtomicInteger pendingSnapshots = new AtomicInteger();
+
+  public LinkLoads(int links) {
+    this.loads = new AtomicLongArray(links);
+  }
+
+  // Copies the loads into a larger array; only call while no packets are being routed.
+  public LinkLoads grow(int links) {
+    LinkLoads grown = new LinkLoads(links);
+    for (int i = 0; i < loads.length(); i++) {
+      grown.loads.set(i, loads.get(i));
+    }
+    return grown;
+  }
+
+  public int size() {
+    return loads.length();
+  }
+
+  public long get(int link) {
+    return loads.get(link);
+  }
+
+  // Adds size to every link of the path, or to none if that would take any link over capacity.
+  public boolean tryAdd(int[] path, long size, NetworkTopology topology) {
+    while (pendingSnapshots.get() != 0) {
+      Thread.onSpinWait();
+    }
+    int stripe = enter();
+    try {
+      for (int i = 0; i < path.length; i++) {
+        if (!tryAdd(path[i], size, topology.capacity(path[i]))) {
+          for (int j = 0; j < i; j++) {
+            loads.addAndGet(path[j], -size);
+          }
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      exit(stripe);
+    }
+  }
+
+  private boolean tryAdd(int link, long size, long capacity) {
+    while (true) {
+      long load = loads.get(link);
+      if (load + size > capacity) {
+        return false;
+      }
+      if (loads.compareAndSet(link, load, load + size)) {
+        return true;
+      }
+    }
+  }
+
+  // Fills target with the loads as they were between two packets.
+  public void snapshot(long[] target) {
+    long[] before = new long[STRIPES];
+    for (int attempt = 0; attempt < OPTIMISTIC_SNAPSHOTS; attempt++) {
+      if (trySnapshot(target, before)) {
+        return;
+      }
+      Thread.onSpinWait();
+    }
+    pendingSnapshots.incrementAndGet();
+    try {
+      while (!trySnapshot(target, before)) {
+        Thread.onSpinWait();
+      }
+    } finally {
+      pendingSnapshots.decrementAndGet();
+    }
+  }
+
+  private boolean trySnapshot(long[] target, long[] before) {
+    for (int s = 0; s < STRIPES; s++) {
+      before[s] = (long) LONGS.getAcquire(sequences, s * PAD);
+      if ((before[s] & 1) != 0) {
+        return false;
+      }
+    }
+    for (int i = 0; i < loads.length(); i++) {
+      target[i] = loads.get(i);
+    }
+    for (int s = 0; s < STRIPES; s++) {
+      if ((long) LONGS.getVolatile(sequences, s * PAD) != before[s]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int enter() {
+    int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+    while (true) {
+      long sequence = (long) LONGS.getVolatile(sequences, stripe * PAD);
+      if ((sequence & 1) == 0 && LONGS.compareAndSet(sequences, stripe * PAD, sequence, sequence + 1)) {
+        return stripe;
+      }
+      stripe = (stripe + 1) & (STRIPES - 1);
+    }
+  }
+
+  private void exit(int stripe) {
+    LONGS.getAndAddRelease(sequences, stripe * PAD, 1L);
+  }
+}
@@ -0,0 +1,76 @@
+package com.powem.inv.algos.traffic;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LinkLoadsTest {
+
+  public static void tests() {
+    // TEST
+    // Concurrent routers never take a link over capacity.
+    NetworkTopology topology = new NetworkTopology();
+    MultipathRouter router = new MultipathRouter(topology, 1);
+    int a = router.addNode("A");
+    int b = router.addNode("B");
+    int ab = router.addLink(a, b, 1_000);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 1_000; i++) {
+          router.route(a, b, 1);
+        }
+      });
+      threads[t].start();
+    }
+    join(threads);
+    assert router.getLoad(ab) == 1_000;
+    assert router.getDroppedPackets() == 3_000;
+    assert router.getLoad(ab ^ 1) == 0;
+    // TEST_END
+
+    // TEST
+    // Snapshots taken while packets are in flight see each packet on all of its links or none.
+    NetworkTopology line = new NetworkTopology();
+    MultipathRouter lineRouter = new MultipathRouter(line, 1);
+    int x = lineRouter.addNode("X");
+    int y = lineRouter.addNode("Y");
+    int z = lineRouter.addNode("Z");
+    int xy = lineRouter.addLink(x, y, Long.MAX_VALUE / 4);
+    int yz = lineRouter.addLink(y, z, Long.MAX_VALUE / 4);
+    AtomicBoolean consistent = new AtomicBoolean(true);
+    AtomicBoolean done = new AtomicBoolean();
+    Thread snapshots = new Thread(() -> {
+      while (!done.get()) {
+        long[] loads = lineRouter.snapshotLoads();
+        if (loads[xy] != loads[yz]) {
+          consistent.set(false);
+        }
+      }
+    });
+    snapshots.start();
+    for (int t = 0; t < threads.length; t++) {
+      int size = t + 1;
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 50_000; i++) {
+          lineRouter.route(x, z, size);
+        }
+      });
+      threads[t].start();
+    }
+    join(threads);
+    done.set(true);
+    join(snapshots);
+    assert consistent.get();
+    assert lineRouter.snapshotLoads()[xy] == 50_000L * (1 + 2 + 3 + 4);
+    // TEST_END
+  }
+
+  private static void join(Thread... threads) {
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.powem.inv.algos.traffic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Spreads packets over the k shortest paths between two switches using each link's residual
+// capacity. A packet takes the shortest path that stays under HEADROOM of capacity on every link;
+// once none does, the path with the most residual capacity at its bottleneck, if the packet fits
+// there; otherwise it is dropped.
+//
+// Paths are kept in per-source routing tables, filled one destination at a time on first use.
+// A table is thrown away only when the topology's version moves on (a link is added or a
+// capacity changes), so steady-state routing never runs a path search.
+//
+// route() is safe to call from many threads and takes no locks: loads live in LinkLoads and
+// another thread's packet can at worst make the chosen path fail its reservation, after which
+// the choice is made again. In steady state it does not allocate. Topology changes must not
+// overlap routing; make them through addNode()/addLink() here so the load array grows with them.
+public class MultipathRouter {
+  static final double HEADROOM = 0.8;
+  private static final int MAX_ATTEMPTS = 4;
+
+  private final NetworkTopology topology;
+  private final int k;
+  private volatile RoutingTable[] tables = new RoutingTable[0];
+  private volatile LinkLoads loads = new LinkLoads(0);
+  private final LongAdder pathSearches = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  private static class RoutingTable {
+    final int version;
+    final AtomicReferenceArray<int[][]> paths; // destination -> its k shortest paths, null until first needed
+
+    RoutingTable(int version, int nodes) {
+      this.version = version;
+      this.paths = new AtomicReferenceArray<>(nodes);
+    }
+  }
+
+  public MultipathRouter(NetworkTopology topology, int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("Path count must be positive");
+    }
+    this.topology = topology;
+    this.k = k;
+  }
+
+  public synchronized int addNode(String name) {
+    return topology.addNode(name);
+  }
+
+  public synchronized int addLink(int a, int b, long capacity) {
+    int link = topology.addLink(a, b, capacity);
+    loads();
+    return link;
+  }
+
+  // Routes one packet and adds it to the load of every link on its path. Returns the index of the
+  // path taken among the k shortest, or -1 if the packet was dropped.
+  public int route(int source, int target, long size) {
+    int[][] paths = paths(source, target);
+    LinkLoads current = loads();
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int chosen = choose(paths, size, current);
+      if (chosen < 0) {
+        break;
+      }
+      if (current.tryAdd(paths[chosen], size, topology)) {
+        return chosen;
+      }
+    }
+    dropped.increment();
+    return -1;
+  }
+
+  private int choose(int[][] paths, long size, LinkLoads current) {
+    int chosen = -1;
+    long widest = -1;
+    for (int p = 0; p < paths.length; p++) {
+      long bottleneck = Long.MAX_VALUE;
+      boolean withinHeadroom = true;
+      for (int link : paths[p]) {
+        long capacity = topology.capacity(link);
+        long load = current.get(link);
+        bottleneck = Math.min(bottleneck, capacity - load);
+        withinHeadroom &= load + size <= capacity * HEADROOM;
+      }
+      if (withinHeadroom) {
+        return p;
+      }
+      if (bottleneck >= size && bottleneck > widest) {
+        chosen = p;
+        widest = bottleneck;
+      }
+    }
+    return chosen;
+  }
+
+  // The k shortest paths from source to target as link ids, from the source's routing table.
+  // Two threads may both search for a missing entry; either result is correct.
+  public int[][] paths(int source, int target) {
+    RoutingTable[] current = tables;
+    int nodes = topology.nodeCount();
+    if (current.length < nodes) {
+      current = growTables(nodes);
+    }
+    RoutingTable table = current[source];
+    int version = topology.getVersion();
+    if (table == null || table.version != version || table.paths.length() < nodes) {
+      table = new RoutingTable(version, nodes);
+      current[source] = table;
+    }
+    int[][] paths = table.paths.get(target);
+    if (paths == null) {
+      paths = KShortestPaths.find(topology, source, target, k);
+      table.paths.set(target, paths);
+      pathSearches.increment();
+    }
+    return paths;
+  }
+
+  private synchronized RoutingTable[] growTables(int nodes) {
+    if (tables.length < nodes) {
+      tables = Arrays.copyOf(tables, nodes);
+    }
+    return tables;
+  }
+
+  private LinkLoads loads() {
+    LinkLoads current = loads;
+    if (current.size() < topology.linkCount()) {
+      synchronized (this) {
+        if (loads.size() < topology.linkCount()) {
+          loads = loads.grow(topology.linkCount());
+        }
+        current = loads;
+      }
+    }
+    return current;
+  }
+
+  public long getLoad(int link) {
+    LinkLoads current = loads;
+    return link < current.size() ? current.get(link) : 0;
+  }
+
+  // Loads of every link as they were between two packets.
+  public long[] snapshotLoads() {
+    long[] snapshot = new long[topology.linkCount()];
+    LinkLoads current = loads();
+    current.snapshot(snapshot);
+    return snapshot;
+  }
+
+  // Path searches run so far; stays flat while routing tables are reused.
+  public long getPathSearches() {
+    return pathSearches.sum();
+  }
+
+  public long getDroppedPackets() {
+    return dropped.sum();
+  }
+}
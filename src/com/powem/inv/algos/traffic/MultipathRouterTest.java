@@ -0,0 +1,134 @@
+package com.powem.inv.algos.traffic;
+
+import com.powem.inv.algos.NetworkTrafficOptimizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class MultipathRouterTest {
+
+  public static void tests() {
+    // TEST
+    NetworkTrafficOptimizer optimizer = new NetworkTrafficOptimizer();
+    optimizer.addNode("A");
+    optimizer.addNode("B");
+    optimizer.addNode("C");
+    optimizer.addLink("A", "B", 100);
+    optimizer.addLink("B", "C", 100);
+    optimizer.addLink("A", "C", 50);
+    optimizer.routePacket("A", "C", 25);
+    Map<String, Integer> load = optimizer.getCurrentLoadOnLinks();
+    assert load.get("A->C") == 25 && load.get("A->B") == 0 && load.get("C->A") == 0;
+    // Past 80% of A->C the detour through B takes over.
+    optimizer.routePacket("A", "C", 25);
+    load = optimizer.getCurrentLoadOnLinks();
+    assert load.get("A->C") == 25 && load.get("A->B") == 25 && load.get("B->C") == 25;
+    try {
+      optimizer.routePacket("A", "X", 10);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Unknown node: X");
+    }
+    try {
+      optimizer.addLink("A", "B", -4);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Invalid input");
+    }
+    // TEST_END
+
+    // TEST
+    // A packet that fits nowhere is dropped and leaves the loads alone.
+    NetworkTrafficOptimizer small = new NetworkTrafficOptimizer();
+    small.addNode("A");
+    small.addNode("B");
+    small.addLink("A", "B", 50);
+    small.routePacket("A", "B", 30);
+    small.routePacket("A", "B", 30);
+    assert small.getCurrentLoadOnLinks().get("A->B") == 30;
+    assert small.getDroppedPackets() == 1;
+    // TEST_END
+
+    // TEST
+    // Routing tables are reused until the topology changes.
+    NetworkTopology topology = new NetworkTopology();
+    int a = topology.addNode("A");
+    int b = topology.addNode("B");
+    int c = topology.addNode("C");
+    topology.addLink(a, b, 1_000);
+    topology.addLink(b, c, 1_000);
+    MultipathRouter router = new MultipathRouter(topology, 2);
+    for (int i = 0; i < 10; i++) {
+      assert router.route(a, c, 10) == 0;
+    }
+    assert router.getPathSearches() == 1;
+    int direct = topology.addLink(a, c, 1_000);
+    assert router.route(a, c, 10) == 0;
+    assert router.getPathSearches() == 2;
+    assert router.getLoad(direct) == 10 && router.getLoad(topology.linkOf(b, c)) == 100;
+    assert topology.linkOf(c, a) == (direct ^ 1);
+    // TEST_END
+
+    // TEST
+    // Yen's paths match brute-force enumeration of simple paths, shortest first.
+    Random random = new Random(19);
+    for (int round = 0; round < 20; round++) {
+      NetworkTopology graph = new NetworkTopology();
+      int nodes = 8;
+      for (int v = 0; v < nodes; v++) {
+        graph.addNode("N" + v);
+      }
+      for (int i = 0; i < 14; i++) {
+        graph.addLink(random.nextInt(nodes), random.nextInt(nodes), 10);
+      }
+      int source = random.nextInt(nodes);
+      int target = random.nextInt(nodes);
+      if (source == target) {
+        continue;
+      }
+      List<int[]> all = new ArrayList<>();
+      enumerate(graph, source, target, new boolean[nodes], new ArrayList<>(), all);
+      all.sort((x, y) -> Integer.compare(x.length, y.length));
+      int[][] paths = KShortestPaths.find(graph, source, target, 5);
+      assert paths.length == Math.min(5, all.size());
+      Set<String> distinct = new HashSet<>();
+      for (int i = 0; i < paths.length; i++) {
+        assert paths[i].length == all.get(i).length;
+        assert distinct.add(Arrays.toString(paths[i]));
+        assert containsPath(all, paths[i]);
+      }
+    }
+    // TEST_END
+  }
+
+  private static void enumerate(NetworkTopology graph, int node, int target, boolean[] visited, List<Integer> links,
+      List<int[]> out) {
+    if (node == target) {
+      out.add(links.stream().mapToInt(Integer::intValue).toArray());
+      return;
+    }
+    visited[node] = true;
+    for (int i = 0; i < graph.degree(node); i++) {
+      int link = graph.outLink(node, i);
+      if (!visited[graph.target(link)]) {
+        links.add(link);
+        enumerate(graph, graph.target(link), target, visited, links, out);
+        links.remove(links.size() - 1);
+      }
+    }
+    visited[node] = false;
+  }
+
+  private static boolean containsPath(List<int[]> paths, int[] path) {
+    for (int[] other : paths) {
+      if (Arrays.equals(other, path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
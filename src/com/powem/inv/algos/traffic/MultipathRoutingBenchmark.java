@@ -0,0 +1,67 @@
+package com.powem.inv.algos.traffic;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Random packets between hot switch pairs on a random mesh: how much traffic gets through with
+// 1, 2 and 4 candidate paths per destination, the cost per packet with cached routing tables,
+// and what a path search per packet would cost instead.
+// Run: java com.powem.inv.algos.traffic.MultipathRoutingBenchmark [nodes] [links] [packets]
+public class MultipathRoutingBenchmark {
+
+  public static void main(String[] args) {
+    int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int links = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    int packets = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+    int pairs = 100;
+
+    Random random = new Random(19);
+    int[][] linkEnds = new int[links][];
+    for (int i = 0; i < links; i++) {
+      int a = i < nodes ? i : random.nextInt(nodes);
+      int b = i < nodes ? (i + 1) % nodes : random.nextInt(nodes); // a ring keeps it connected
+      linkEnds[i] = new int[] {a, b, 20_000 + random.nextInt(80_000)};
+    }
+    int[][] hot = new int[pairs][];
+    for (int i = 0; i < pairs; i++) {
+      hot[i] = new int[] {random.nextInt(nodes), random.nextInt(nodes)};
+    }
+    int[] sizes = random.ints(packets, 1, 100).toArray();
+
+    for (int k : new int[] {1, 2, 4}) {
+      NetworkTopology topology = topology(nodes, linkEnds);
+      MultipathRouter router = new MultipathRouter(topology, k);
+      long delivered = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < packets; i++) {
+        int[] pair = hot[i % pairs];
+        if (router.route(pair[0], pair[1], sizes[i]) >= 0) {
+          delivered += sizes[i];
+        }
+      }
+      long nanos = System.nanoTime() - start;
+      System.out.printf("k=%d  %5.1f ns/packet  delivered %5.1f%% of volume  dropped %,d  path searches %d%n", k,
+          (double) nanos / packets, 100.0 * delivered / Arrays.stream(sizes).asLongStream().sum(),
+          router.getDroppedPackets(), router.getPathSearches());
+    }
+
+    NetworkTopology topology = topology(nodes, linkEnds);
+    int sample = 2_000;
+    long start = System.nanoTime();
+    for (int i = 0; i < sample; i++) {
+      KShortestPaths.find(topology, hot[i % pairs][0], hot[i % pairs][1], 4);
+    }
+    System.out.printf("k=4 path search per packet: %,.0f ns/packet%n", (System.nanoTime() - start) / (double) sample);
+  }
+
+  private static NetworkTopology topology(int nodes, int[][] linkEnds) {
+    NetworkTopology topology = new NetworkTopology();
+    for (int v = 0; v < nodes; v++) {
+      topology.addNode("S" + v);
+    }
+    for (int[] link : linkEnds) {
+      topology.addLink(link[0], link[1], link[2]);
+    }
+    return topology;
+  }
+}
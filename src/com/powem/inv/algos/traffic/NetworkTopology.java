@@ -0,0 +1,130 @@
+package com.powem.inv.algos.traffic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Switches as dense int ids and directed links as dense int ids. addLink(a, b) creates the pair
+// of links a->b (even id) and b->a (the next, odd id), so link ^ 1 is the reverse direction.
+// Links are looked up by name only when they are added; routing works on ids alone.
+public class NetworkTopology {
+  private final Map<String, Integer> nodeIds = new HashMap<>();
+  private final List<String> nodeNames = new ArrayList<>();
+  private final Map<Long, Integer> linkIds = new HashMap<>();
+  private int[][] outLinks = new int[16][];
+  private int[] outDegree = new int[16];
+  private int[] linkSource = new int[16];
+  private int[] linkTarget = new int[16];
+  private long[] capacity = new long[16];
+  private int linkCount;
+  private volatile int version;
+
+  // Returns the node's id, adding it if it is new.
+  public int addNode(String name) {
+    Integer id = nodeIds.get(name);
+    if (id != null) {
+      return id;
+    }
+    id = nodeNames.size();
+    if (id == outLinks.length) {
+      outLinks = Arrays.copyOf(outLinks, id * 2);
+      outDegree = Arrays.copyOf(outDegree, id * 2);
+    }
+    outLinks[id] = new int[4];
+    nodeIds.put(name, id);
+    nodeNames.add(name);
+    return id;
+  }
+
+  // Adds the two directed links between the nodes, or sets their capacity if they exist. Returns
+  // the id of the a->b link.
+  public int addLink(int a, int b, long linkCapacity) {
+    Integer existing = linkIds.get(pairKey(a, b));
+    int link;
+    if (existing != null) {
+      link = existing;
+    } else {
+      link = linkCount;
+      if (link + 2 > linkSource.length) {
+        linkSource = Arrays.copyOf(linkSource, linkSource.length * 2);
+        linkTarget = Arrays.copyOf(linkTarget, linkTarget.length * 2);
+        capacity = Arrays.copyOf(capacity, capacity.length * 2);
+      }
+      linkCount += 2;
+      linkSource[link] = a;
+      linkTarget[link] = b;
+      linkSource[link + 1] = b;
+      linkTarget[link + 1] = a;
+      linkIds.put(pairKey(a, b), link);
+      linkIds.put(pairKey(b, a), link + 1);
+      addOutLink(a, link);
+      addOutLink(b, link + 1);
+    }
+    capacity[link] = linkCapacity;
+    capacity[link ^ 1] = linkCapacity;
+    version++;
+    return link;
+  }
+
+  private void addOutLink(int node, int link) {
+    if (outDegree[node] == outLinks[node].length) {
+      outLinks[node] = Arrays.copyOf(outLinks[node], outDegree[node] * 2);
+    }
+    outLinks[node][outDegree[node]++] = link;
+  }
+
+  // Returns -1 for unknown nodes.
+  public int idOf(String name) {
+    Integer id = nodeIds.get(name);
+    return id == null ? -1 : id;
+  }
+
+  public String nameOf(int node) {
+    return nodeNames.get(node);
+  }
+
+  // Returns -1 if there is no link from a to b.
+  public int linkOf(int a, int b) {
+    Integer link = linkIds.get(pairKey(a, b));
+    return link == null ? -1 : link;
+  }
+
+  public int nodeCount() {
+    return nodeNames.size();
+  }
+
+  public int linkCount() {
+    return linkCount;
+  }
+
+  public int degree(int node) {
+    return outDegree[node];
+  }
+
+  public int outLink(int node, int index) {
+    return outLinks[node][index];
+  }
+
+  public int source(int link) {
+    return linkSource[link];
+  }
+
+  public int target(int link) {
+    return linkTarget[link];
+  }
+
+  public long capacity(int link) {
+    return capacity[link];
+  }
+
+  // Bumped by every link or capacity change, so cached routes can tell when they are stale.
+  public int getVersion() {
+    return version;
+  }
+
+  private static long pairKey(int a, int b) {
+    return ((long) a << 32) | (b & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,98 @@
+package com.powem.inv.algos.traffic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Packets routed per second by 1..N concurrent router threads sharing one MultipathRouter, with
+// a reader taking load snapshots throughout. The baseline does the old per-packet accounting:
+// "src->dst" String keys and HashMap<String, Integer> loads, behind one lock.
+// Run: java com.powem.inv.algos.traffic.TrafficThroughputBenchmark [maxThreads] [packetsPerThread]
+public class TrafficThroughputBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int packetsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    int nodes = 200;
+    int pairs = 64;
+
+    NetworkTopology topology = new NetworkTopology();
+    MultipathRouter router = new MultipathRouter(topology, 3);
+    Random random = new Random(20);
+    for (int v = 0; v < nodes; v++) {
+      router.addNode("S" + v);
+    }
+    for (int i = 0; i < nodes * 4; i++) {
+      int a = i < nodes ? i : random.nextInt(nodes);
+      int b = i < nodes ? (i + 1) % nodes : random.nextInt(nodes);
+      router.addLink(a, b, Long.MAX_VALUE / 4); // never full: measure routing, not drops
+    }
+    int[][] hot = new int[pairs][];
+    for (int i = 0; i < pairs; i++) {
+      hot[i] = new int[] {random.nextInt(nodes), random.nextInt(nodes)};
+      router.paths(hot[i][0], hot[i][1]);
+    }
+
+    run(1, packetsPerThread, (thread, i) -> router.route(hot[i & (pairs - 1)][0], hot[i & (pairs - 1)][1], 1)); // warm-up
+    Map<String, Integer> legacyLoads = new HashMap<>();
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      double routed = run(threads, packetsPerThread, (thread, i) -> {
+        int[] pair = hot[(thread * 7 + i) & (pairs - 1)];
+        router.route(pair[0], pair[1], 1);
+      });
+      AtomicLong snapshots = new AtomicLong();
+      AtomicBoolean done = new AtomicBoolean();
+      Thread reader = new Thread(() -> {
+        while (!done.get()) {
+          router.snapshotLoads();
+          snapshots.incrementAndGet();
+        }
+      });
+      reader.start();
+      double withSnapshots = run(threads, packetsPerThread, (thread, i) -> {
+        int[] pair = hot[(thread * 7 + i) & (pairs - 1)];
+        router.route(pair[0], pair[1], 1);
+      });
+      done.set(true);
+      reader.join();
+      double legacy = run(threads, packetsPerThread / 4, (thread, i) -> {
+        int[] pair = hot[(thread * 7 + i) & (pairs - 1)];
+        int[] path = router.paths(pair[0], pair[1])[0];
+        synchronized (legacyLoads) {
+          for (int link : path) {
+            String key = "S" + topology.source(link) + "->" + "S" + topology.target(link);
+            legacyLoads.put(key, legacyLoads.getOrDefault(key, 0) + 1);
+          }
+        }
+      });
+      System.out.printf("%2d threads: %,6.2f M packets/s, %,6.2f M/s with %,d snapshots, string map + lock %,6.2f M/s%n",
+          threads, routed / 1e6, withSnapshots / 1e6, snapshots.get(), legacy / 1e6);
+    }
+  }
+
+  interface Packet {
+    void route(int thread, int i);
+  }
+
+  private static double run(int threads, int packetsPerThread, Packet packet) throws InterruptedException {
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      workers[t] = new Thread(() -> {
+        for (int i = 0; i < packetsPerThread; i++) {
+          packet.route(thread, i);
+        }
+      });
+    }
+    long start = System.nanoTime();
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return (double) threads * packetsPerThread / ((System.nanoTime() - start) / 1e9);
+  }
+}
@@ -21,6 +21,7 @@ package com.powem.inv.claude;
 //0 and 1, where 1 indicates highly similar writing styles.
 
 
+import com.powem.inv.strings.TextTokenizer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -60,12 +61,12 @@ public class LiteraryAnalyzer {
     public List<String> getTopKeywords(String text, int n) {
         validateText(text);
 
-        String[] words = text.toLowerCase().split("\\W+");
+        TextTokenizer words = new TextTokenizer(TextTokenizer.Mode.WORD).reset(text);
         Map<String, Integer> frequencyMap = new HashMap<>();
 
-        for (String word : words) {
-            if (!STOPWORDS.contains(word)) {
-                frequencyMap.put(word, frequencyMap.getOrDefault(word, 0) + 1);
+        while (words.next()) {
+            if (words.indexIn(STOPWORDS) < 0) {
+                frequencyMap.merge(words.toString(), 1, Integer::sum);
             }
         }
 
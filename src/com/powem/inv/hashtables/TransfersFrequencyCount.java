@@ -18,6 +18,7 @@ package com.powem.inv.hashtables;
 //Output: {"check": 3, "wire": 1}
 
 
+import com.powem.inv.strings.TextTokenizer;
 import java.util.HashMap;
 import java.util.List;
 
@@ -27,11 +28,13 @@ public class TransfersFrequencyCount {
       throw new IllegalArgumentException("Inputs cannot be null or empty");
     }
     HashMap<String, Integer> frequencyMap = new HashMap<>();
+    TextTokenizer words = new TextTokenizer(TextTokenizer.Mode.WHITESPACE);
     for (String doc : descriptions) {
-      String[] words = doc.toLowerCase().split("\\s+");
-      for (String word : words) {
-        if (validTypes.contains(word)) {
-          frequencyMap.put(word, frequencyMap.getOrDefault(word, 0) + 1);
+      words.reset(doc);
+      while (words.next()) {
+        int type = words.indexIn(validTypes);
+        if (type >= 0) {
+          frequencyMap.merge(validTypes.get(type), 1, Integer::sum);
         }
       }
     }
@@ -13,7 +13,6 @@ package com.powem.inv.strings;
 //Output: [“hello”, “world”, “this”, “is”, “a”, “test”]
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,10 +23,11 @@ public class ExtractUniqueWords {
       throw new IllegalArgumentException("Input sentence is null or empty.");
     }
 
-    sentence = sentence.toLowerCase();
-    sentence = sentence.replaceAll("[^a-zA-Z0-9\\s]", " ");
-    String[] words = sentence.split("\\s+");
-    Set<String> uniqueWords = new LinkedHashSet<>(Arrays.asList(words));
+    TextTokenizer words = new TextTokenizer(TextTokenizer.Mode.ALPHANUMERIC).reset(sentence);
+    Set<String> uniqueWords = new LinkedHashSet<>();
+    while (words.next()) {
+      uniqueWords.add(words.toString());
+    }
     return new ArrayList<>(uniqueWords);
   }
 }
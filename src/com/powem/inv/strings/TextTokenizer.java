@@ -0,0 +1,131 @@
+package com.powem.inv.strings;
+
+//Reusable tokenizer that scans a CharSequence (String, StringBuilder, CharBuffer...) in place
+//and lowercases while scanning. The current token is exposed as a CharSequence view over an
+//internal buffer, so no String is created unless toString() is called.
+//
+//Modes:
+//WHITESPACE:   tokens are runs of anything but [ \t\n\x0B\f\r], same as split("\\s+")
+//WORD:         tokens are runs of [a-zA-Z0-9_], same as split("\\W+")
+//ALPHANUMERIC: tokens are runs of [a-zA-Z0-9]
+//
+//Unlike split, empty tokens are never produced. Instances are not thread safe.
+//
+//TextTokenizer tokenizer = new TextTokenizer(TextTokenizer.Mode.WORD).reset(text);
+//while (tokenizer.next()) {
+//  if (tokenizer.contentEquals("love")) ...
+//}
+
+import java.util.List;
+
+public final class TextTokenizer implements CharSequence {
+  public enum Mode { WHITESPACE, WORD, ALPHANUMERIC }
+
+  private final Mode mode;
+  private CharSequence text = "";
+  private int position;
+  private char[] token = new char[32];
+  private int length;
+
+  public TextTokenizer(Mode mode) {
+    if (mode == null) {
+      throw new IllegalArgumentException("Mode cannot be null");
+    }
+    this.mode = mode;
+  }
+
+  public TextTokenizer reset(CharSequence text) {
+    if (text == null) {
+      throw new IllegalArgumentException("Text cannot be null");
+    }
+    this.text = text;
+    this.position = 0;
+    this.length = 0;
+    return this;
+  }
+
+  // Moves to the next token, returns false once the text is exhausted.
+  public boolean next() {
+    int end = text.length();
+    while (position < end && !isTokenChar(text.charAt(position))) {
+      position++;
+    }
+    length = 0;
+    while (position < end) {
+      char c = text.charAt(position);
+      if (!isTokenChar(c)) {
+        break;
+      }
+      if (length == token.length) {
+        char[] grown = new char[length * 2];
+        System.arraycopy(token, 0, grown, 0, length);
+        token = grown;
+      }
+      token[length++] = Character.toLowerCase(c);
+      position++;
+    }
+    return length > 0;
+  }
+
+  private boolean isTokenChar(char c) {
+    switch (mode) {
+      case WHITESPACE:
+        return !(c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r');
+      case WORD:
+        return isAsciiAlphanumeric(c) || c == '_';
+      default:
+        return isAsciiAlphanumeric(c);
+    }
+  }
+
+  private static boolean isAsciiAlphanumeric(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+  }
+
+  // Compares the current token with s without allocating.
+  public boolean contentEquals(CharSequence s) {
+    if (s.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (token[i] != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Index of the first candidate equal to the current token, or -1.
+  public int indexIn(List<String> candidates) {
+    for (int i = 0; i < candidates.size(); i++) {
+      if (contentEquals(candidates.get(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of token length " + length);
+    }
+    return token[index];
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  // The only place a token becomes a String.
+  @Override
+  public String toString() {
+    return new String(token, 0, length);
+  }
+}
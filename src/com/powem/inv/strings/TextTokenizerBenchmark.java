@@ -0,0 +1,71 @@
+package com.powem.inv.strings;
+
+import java.util.List;
+import java.util.Random;
+
+//Throughput of the old split/toLowerCase tokenizing against TextTokenizer for the patterns used
+//by DistributedDocumentIndexer, LiteraryAnalyzer, TransfersFrequencyCount and ExtractUniqueWords.
+//Standalone harness (the project has no JMH dependency): warms up, then reports ns per token.
+//Run: java com.powem.inv.strings.TextTokenizerBenchmark [documents]
+public class TextTokenizerBenchmark {
+  private static final List<String> TYPES = List.of("check", "wire", "ach", "card");
+
+  public static void main(String[] args) {
+    int documents = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    String[] texts = new String[documents];
+    Random random = new Random(5);
+    String[] words = {"The", "Check", "wire,", "TRANSFER", "love!", "systems", "a", "distributed", "of", "Joy."};
+    long tokens = 0;
+    for (int d = 0; d < documents; d++) {
+      StringBuilder text = new StringBuilder();
+      for (int w = 0; w < 50; w++) {
+        text.append(words[random.nextInt(words.length)]).append(random.nextInt(8) == 0 ? "  " : " ");
+        tokens++;
+      }
+      texts[d] = text.toString();
+    }
+
+    for (int round = 0; round < 5; round++) {
+      long sink = 0;
+      long start = System.nanoTime();
+      for (String text : texts) {
+        for (String word : text.toLowerCase().split("\\s+")) {
+          sink += TYPES.contains(word) ? 1 : word.length();
+        }
+      }
+      long split = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      TextTokenizer tokenizer = new TextTokenizer(TextTokenizer.Mode.WHITESPACE);
+      for (String text : texts) {
+        tokenizer.reset(text);
+        while (tokenizer.next()) {
+          sink += tokenizer.indexIn(TYPES) >= 0 ? 1 : tokenizer.length();
+        }
+      }
+      long scan = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (String text : texts) {
+        for (String word : text.toLowerCase().replaceAll("[^a-zA-Z0-9\\s]", " ").split("\\s+")) {
+          sink += word.length();
+        }
+      }
+      long regexWords = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      TextTokenizer alphanumeric = new TextTokenizer(TextTokenizer.Mode.ALPHANUMERIC);
+      for (String text : texts) {
+        alphanumeric.reset(text);
+        while (alphanumeric.next()) {
+          sink += alphanumeric.length();
+        }
+      }
+      long scanWords = System.nanoTime() - start;
+
+      System.out.printf("round %d: whitespace split %5.1f ns/token, tokenizer %5.1f ns/token | "
+              + "regex words %5.1f ns/token, tokenizer %5.1f ns/token (%d)%n", round, split / (double) tokens,
+          scan / (double) tokens, regexWords / (double) tokens, scanWords / (double) tokens, sink % 10);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.powem.inv.strings;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TextTokenizerTest {
+
+  public static void tests() {
+    // TEST
+    assert tokens(TextTokenizer.Mode.WHITESPACE, "  This is a\tCheck-transfer\n").equals(
+        List.of("this", "is", "a", "check-transfer"));
+    // TEST_END
+
+    // TEST
+    assert tokens(TextTokenizer.Mode.WORD, "It's a_b, wonderful!").equals(List.of("it", "s", "a_b", "wonderful"));
+    assert tokens(TextTokenizer.Mode.ALPHANUMERIC, "Hello123, a_b. World!").equals(
+        List.of("hello123", "a", "b", "world"));
+    // TEST_END
+
+    // TEST
+    assert tokens(TextTokenizer.Mode.WHITESPACE, "   ").isEmpty();
+    assert tokens(TextTokenizer.Mode.WORD, CharBuffer.wrap("Joy JOY")).equals(List.of("joy", "joy"));
+    // TEST_END
+
+    // TEST
+    TextTokenizer tokenizer = new TextTokenizer(TextTokenizer.Mode.WHITESPACE).reset("Wire CHECK");
+    assert tokenizer.next() && tokenizer.contentEquals("wire") && !tokenizer.contentEquals("wir");
+    assert tokenizer.next() && tokenizer.indexIn(List.of("wire", "check")) == 1;
+    assert !tokenizer.next();
+    // TEST_END
+
+    // TEST
+    String longWord = "x".repeat(100);
+    assert tokens(TextTokenizer.Mode.WORD, longWord + " y").equals(List.of(longWord, "y"));
+    // TEST_END
+
+    // TEST
+    try {
+      new TextTokenizer(TextTokenizer.Mode.WORD).reset(null);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert e.getMessage().equals("Text cannot be null");
+    }
+    // TEST_END
+  }
+
+  private static List<String> tokens(TextTokenizer.Mode mode, CharSequence text) {
+    List<String> tokens = new ArrayList<>();
+    TextTokenizer tokenizer = new TextTokenizer(mode).reset(text);
+    while (tokenizer.next()) {
+      tokens.add(tokenizer.toString());
+    }
+    return tokens;
+  }
+}